@@ -0,0 +1,677 @@
+package exFinal;
+
+import Metier.CachePlanning;
+import Metier.Calendrier;
+import Metier.JoursOuvres;
+import Metier.Marges;
+import Metier.Mpm;
+import Metier.ReseauCritique;
+import Metier.SimulationPert;
+import Metier.Tache;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Classe Batch - Planification en ligne de commande, sans interface graphique
+ * Chaque projet est chargé, trié, daté et analysé (voir Mpm), puis le résultat est écrit
+ * sur la sortie standard ou dans un dossier. Aucune classe Swing n'est référencée :
+ * le lancement ne charge pas l'IHM et fonctionne sans écran.
+ * Les projets, indépendants, sont planifiés en parallèle sur un ForkJoinPool avec un nombre
+ * borné de projets en cours ; un résumé par projet peut être écrit au fil de l'eau.
+ *
+ * Usage : java -cp Class exFinal.Batch [options] fichier|dossier|@liste|- ...
+ */
+public class Batch
+{
+	/*---------------- */
+	/*---Constantes--- */
+	/*---------------- */
+	public  static final int    SORTIE_OK      = 0;    // Tous les projets ont été planifiés
+	public  static final int    SORTIE_ERREURS = 1;    // Au moins un projet n'a pas pu l'être
+	public  static final int    SORTIE_USAGE   = 2;    // Arguments invalides
+
+	private static final String SEPARATEUR     = ";";
+	private static final String ENTETE_CSV     = "fichier;tache;duree;plus_tot;plus_tard;marge;critique;date_plus_tot;date_plus_tard;marge_libre;marge_independante\n";
+	private static final int    NB_CRITIQUES   = 20;   // Tâches les plus critiques listées après une simulation
+
+	/*---------------- */
+	/*----Atributs---- */
+	/*---------------- */
+	private String            dateDebut;     // Date de début imposée (null : celle du fichier)
+	private String            dateFin;       // Date de fin imposée, pour une planification à rebours
+	private String            format;        // "texte" ou "csv"
+	private Path              dossierSortie; // Dossier des résultats (null : sortie standard)
+	private JoursOuvres       joursOuvres;   // Calendrier de travail (null : tous les jours comptent)
+	private ArrayList<String> fichiers;      // Projets à planifier
+	private int               nbFils;        // Fils de calcul
+	private int               maxEnCours;    // Projets soumis dont le résultat n'est pas encore écrit (0 : 2 par fil)
+	private Path              fichierResume; // Résumé par projet (null : aucun)
+	private boolean           echelle;       // Mesurer le débit selon le nombre de fils au lieu d'écrire les résultats
+	private Path              dossierCache;  // Dossier du cache des plannings (null : cache en mémoire seulement)
+	private int               nbTirages;     // Tirages de la simulation PERT (0 : pas de simulation)
+	private SimulationPert.Loi loi;          // Loi des durées de la simulation
+	private long              graine;        // Graine de la simulation
+	private HashMap<String, SimulationPert.Estimation> estimations; // Estimations en trois points, par nom de tâche
+	private Marges.Type       tri;           // Ordre des tâches dans les résultats (null : par niveau)
+
+	private int               nbErreurs;     // Projets en erreur
+	private int               nbPlanifies;   // Projets planifiés
+	private long              nbTaches;      // Tâches des projets planifiés
+
+	/*---------------- */
+	/*--Constructeur-- */
+	/*---------------- */
+	public Batch()
+	{
+		this.format      = "texte";
+		this.fichiers    = new ArrayList<>();
+		this.nbFils      = Runtime.getRuntime().availableProcessors();
+		this.loi         = SimulationPert.Loi.BETA;
+		this.estimations = new HashMap<>();
+	}
+
+	// ========== LECTURE DES ARGUMENTS ==========
+
+	/**
+	 * Lit les arguments de la ligne de commande
+	 * @param args les arguments
+	 * @return null si les arguments sont valides, le message d'erreur sinon
+	 */
+	public String lireArguments(String[] args)
+	{
+		boolean[]         semaine     = null;
+		ArrayList<String> feries      = new ArrayList<>();
+		String            estimations = null;
+		String            loi         = "beta";
+		String            tri         = null;
+
+		for (int i = 0; i < args.length; i++)
+		{
+			String arg = args[i];
+
+			if (arg.startsWith("-") && !arg.equals("-") && !arg.equals("-echelle") && i + 1 >= args.length)
+				return "Valeur manquante après " + arg;
+
+			switch (arg)
+			{
+				case "-date"    -> this.dateDebut     = args[++i];
+				case "-fin"     -> this.dateFin       = args[++i];
+				case "-format"  -> this.format        = args[++i];
+				case "-sortie"  -> this.dossierSortie = Paths.get(args[++i]);
+				case "-ferie"   -> feries.add(args[++i]);
+				case "-resume"  -> this.fichierResume = Paths.get(args[++i]);
+				case "-fils"    -> this.nbFils        = Batch.lireEntier(args[++i]);
+				case "-max"     -> this.maxEnCours    = Batch.lireEntier(args[++i]);
+				case "-echelle" -> this.echelle       = true;
+				case "-cache"   -> this.dossierCache  = Paths.get(args[++i]);
+				case "-pert"    -> this.nbTirages     = Batch.lireEntier(args[++i]);
+				case "-loi"     -> loi                = args[++i];
+				case "-graine"  -> this.graine        = Batch.lireEntier(args[++i]);
+				case "-estimations" -> estimations    = args[++i];
+				case "-tri"     -> tri                = args[++i];
+				case "-semaine" ->
+				{
+					String s = args[++i];
+					if (s.length() != 7) return "La semaine doit compter 7 caractères, du lundi au dimanche : " + s;
+
+					semaine = new boolean[7];
+					for (int j = 0; j < 7; j++) semaine[j] = s.charAt(j) != '-' && s.charAt(j) != '0';
+				}
+				default ->
+				{
+					if (arg.startsWith("-") && !arg.equals("-")) return "Option inconnue : " + arg;
+
+					String erreur = this.ajouterFichiers(arg);
+					if (erreur != null) return erreur;
+				}
+			}
+		}
+
+		if (!this.format.equals("texte") && !this.format.equals("csv"))
+			return "Format inconnu : " + this.format + " (texte ou csv)";
+
+		if (this.nbFils < 1 || this.maxEnCours < 0) return "Nombre de fils ou de projets en cours invalide";
+
+		if (this.dateDebut != null && !Batch.estDate(this.dateDebut)) return "Date de début invalide : " + this.dateDebut;
+		if (this.dateFin   != null && !Batch.estDate(this.dateFin  )) return "Date de fin invalide : "   + this.dateFin;
+
+		if (this.nbTirages < 0 || this.graine < 0) return "Nombre de tirages ou graine invalide";
+		if (!loi.equals("beta") && !loi.equals("triangulaire")) return "Loi inconnue : " + loi + " (beta ou triangulaire)";
+		if (this.nbTirages > 0 && !this.format.equals("texte")) return "La simulation PERT n'est écrite qu'au format texte";
+
+		this.loi = loi.equals("beta") ? SimulationPert.Loi.BETA : SimulationPert.Loi.TRIANGULAIRE;
+
+		if (tri != null)
+		{
+			switch (tri)
+			{
+				case "totale"       -> this.tri = Marges.Type.TOTALE;
+				case "libre"        -> this.tri = Marges.Type.LIBRE;
+				case "independante" -> this.tri = Marges.Type.INDEPENDANTE;
+				default             -> { return "Tri inconnu : " + tri + " (totale, libre ou independante)"; }
+			}
+		}
+		if (estimations != null)
+		{
+			String erreur = this.lireEstimations(estimations);
+			if (erreur != null) return erreur;
+		}
+
+		try
+		{
+			if (semaine != null || !feries.isEmpty())
+			{
+				this.joursOuvres = semaine != null ? new JoursOuvres(semaine) : JoursOuvres.lundiAVendredi();
+				for (String f : feries) this.joursOuvres.ajouterFerie(f);
+			}
+		}
+		catch (IllegalArgumentException e)
+		{
+			return e.getMessage();
+		}
+
+		if (this.fichiers.isEmpty()) return "Aucun fichier de projet";
+
+		return null;
+	}
+
+	/**
+	 * Ajoute les projets désignés par un argument : un fichier, les projets d'un dossier,
+	 * une liste de chemins (@liste) ou les chemins lus sur l'entrée standard (-)
+	 */
+	private String ajouterFichiers(String arg)
+	{
+		try
+		{
+			if (arg.equals("-"))
+			{
+				BufferedReader in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+				String ligne;
+				while ((ligne = in.readLine()) != null)
+					if (!ligne.isBlank()) this.fichiers.add(ligne.trim());
+			}
+			else if (arg.startsWith("@"))
+			{
+				for (String ligne : Files.readAllLines(Paths.get(arg.substring(1)), StandardCharsets.UTF_8))
+					if (!ligne.isBlank()) this.fichiers.add(ligne.trim());
+			}
+			else if (Files.isDirectory(Paths.get(arg)))
+			{
+				try (Stream<Path> contenu = Files.list(Paths.get(arg)))
+				{
+					contenu.map(Path::toString)
+					       .filter(p -> p.endsWith(".txt") || p.endsWith(".data") || p.endsWith(".mpmb"))
+					       .sorted()
+					       .forEach(this.fichiers::add);
+				}
+			}
+			else
+			{
+				this.fichiers.add(arg);
+			}
+		}
+		catch (IOException e)
+		{
+			return "Lecture impossible de " + arg + " : " + e.getMessage();
+		}
+		return null;
+	}
+
+	/**
+	 * Lit les estimations en trois points : une tâche par ligne, nom;optimiste;probable;pessimiste
+	 * Les lignes vides et celles qui commencent par # sont ignorées.
+	 * @param fichier le chemin du fichier
+	 * @return null si le fichier est valide, le message d'erreur sinon
+	 */
+	private String lireEstimations(String fichier)
+	{
+		try
+		{
+			int numero = 0;
+			for (String ligne : Files.readAllLines(Paths.get(fichier), StandardCharsets.UTF_8))
+			{
+				numero++;
+				if (ligne.isBlank() || ligne.startsWith("#")) continue;
+
+				String[] champs = ligne.split(SEPARATEUR, -1);
+				if (champs.length != 4) return fichier + ", ligne " + numero + " : nom;optimiste;probable;pessimiste attendu";
+
+				this.estimations.put(champs[0].trim(), new SimulationPert.Estimation(Integer.parseInt(champs[1].trim()),
+				                                                                     Integer.parseInt(champs[2].trim()),
+				                                                                     Integer.parseInt(champs[3].trim())));
+			}
+		}
+		catch (IOException e)
+		{
+			return "Lecture impossible de " + fichier + " : " + e.getMessage();
+		}
+		catch (IllegalArgumentException e)
+		{
+			return fichier + " : " + e.getMessage();
+		}
+		return null;
+	}
+
+	private static boolean estDate(String date)
+	{
+		return date.length() == 10 && new Calendrier(date).estValide();
+	}
+
+	private static int lireEntier(String s)
+	{
+		try
+		{
+			return Integer.parseInt(s);
+		}
+		catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+
+	// ========== PLANIFICATION ==========
+
+	/**
+	 * Planifie tous les projets, sur nbFils fils, et écrit le résumé demandé
+	 * @return le code de sortie
+	 */
+	public int executer() throws IOException
+	{
+		if (this.dossierSortie != null) Files.createDirectories(this.dossierSortie);
+
+		Writer out    = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16);
+		Writer resume = this.fichierResume == null ? null : Files.newBufferedWriter(this.fichierResume, StandardCharsets.UTF_8);
+
+		try
+		{
+			if (this.dossierSortie == null && this.format.equals("csv")) out.write(ENTETE_CSV);
+			if (resume != null) resume.write("fichier;duree;chemins_critiques;taches_marge_nulle;taches;ms\n");
+
+			this.passe(this.nbFils, this.dossierSortie == null ? out : null, resume, this.dossierSortie);
+		}
+		finally
+		{
+			out.flush();
+			if (resume != null) resume.close();
+		}
+
+		return this.nbErreurs == 0 ? SORTIE_OK : SORTIE_ERREURS;
+	}
+
+	/**
+	 * Planifie tous les projets sur un ForkJoinPool de nbFils fils
+	 * Au plus maxEnCours projets sont soumis sans que leur résultat ait été écrit :
+	 * la mémoire reste bornée quel que soit le nombre de projets. Les résultats sont
+	 * écrits dès qu'ils sont prêts, dans l'ordre des fichiers.
+	 *
+	 * @param nbFils le nombre de fils de calcul
+	 * @param out la sortie des résultats (peut être null)
+	 * @param resume la sortie du résumé par projet (peut être null)
+	 * @param sortie le dossier des résultats, un fichier par projet (peut être null)
+	 * @return la durée de la passe en nanosecondes
+	 */
+	private long passe(int nbFils, Writer out, Writer resume, Path sortie) throws IOException
+	{
+		this.nbErreurs = 0;
+		this.nbPlanifies = 0;
+		this.nbTaches = 0;
+
+		ForkJoinPool                    pool    = new ForkJoinPool(nbFils);
+		ArrayDeque<Future<Resultat>>    enCours = new ArrayDeque<>();
+		int                             max     = Math.max(1, this.maxEnCours > 0 ? this.maxEnCours : 2 * nbFils);
+		long                            debut   = System.nanoTime();
+
+		try
+		{
+			for (String fichier : this.fichiers)
+			{
+				if (enCours.size() >= max) this.recevoir(enCours.poll(), out, resume);
+
+				enCours.add(pool.submit(() -> this.traiter(fichier, out != null, sortie)));
+			}
+			while (!enCours.isEmpty()) this.recevoir(enCours.poll(), out, resume);
+		}
+		finally
+		{
+			pool.shutdownNow();
+		}
+
+		return System.nanoTime() - debut;
+	}
+
+	/**
+	 * Attend le résultat d'un projet, l'écrit et le compte
+	 */
+	private void recevoir(Future<Resultat> attente, Writer out, Writer resume) throws IOException
+	{
+		Resultat r;
+		try
+		{
+			r = attente.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+			throw new IOException("Planification interrompue", e);
+		}
+		catch (ExecutionException e)
+		{
+			throw new IOException(e.getCause());
+		}
+
+		if (r.erreur != null)
+		{
+			this.nbErreurs++;
+			System.err.println(r.fichier + " : " + r.erreur);
+			return;
+		}
+
+		this.nbPlanifies++;
+		this.nbTaches += r.nbTaches;
+
+		if (out != null && r.texte != null) out.write(r.texte);
+
+		if (resume != null)
+			resume.write(r.fichier + SEPARATEUR + r.duree + SEPARATEUR + r.nbChemins + SEPARATEUR
+			             + r.nbMargeNulle + SEPARATEUR + r.nbTaches + SEPARATEUR + r.nanos / 1_000_000 + "\n");
+	}
+
+	/**
+	 * Planifie un projet et prépare son résultat ; appelé par les fils du pool
+	 * @param fichier le chemin du projet
+	 * @param texte true pour garder le texte du résultat
+	 * @param sortie le dossier où écrire le résultat (peut être null)
+	 * @return le résultat du projet, avec un message d'erreur en cas d'échec
+	 */
+	private Resultat traiter(String fichier, boolean texte, Path sortie)
+	{
+		Resultat r     = new Resultat(fichier);
+		long     debut = System.nanoTime();
+
+		try
+		{
+			Mpm mpm = Batch.planifier(fichier, this.dateDebut, this.dateFin, this.joursOuvres);
+
+			if (mpm == null)                  r.erreur = "fichier non reconnu";
+			else if (mpm.getErreur() != null) r.erreur = mpm.getErreur();
+			else if (mpm.getTaches().isEmpty()) r.erreur = "projet vide";
+
+			if (r.erreur != null) return r;
+
+			// Simulation répartie sur le pool des projets
+			SimulationPert.Resultat simulation = null;
+			if (this.nbTirages > 0)
+			{
+				for (String nom : this.estimations.keySet()) mpm.setEstimation(nom, this.estimations.get(nom));
+				simulation = mpm.simulerPert(this.nbTirages, this.graine, this.loi, this.nbFils);
+			}
+
+			Tache fin = mpm.chercherTacheParNom("Fin");
+
+			r.duree     = fin == null ? 0 : fin.getDatePlusTot();
+			r.nbChemins = mpm.getReseauCritique().getNbChemins();
+			for (Tache t : mpm.getTaches())
+			{
+				if (t.getNom().equals("Debut") || t.getNom().equals("Fin")) continue;
+
+				r.nbTaches++;
+				if (t.getDatePlusTot() == t.getDatePlusTard()) r.nbMargeNulle++;
+			}
+
+			if (texte)
+			{
+				StringWriter sw = new StringWriter();
+				this.ecrire(fichier, mpm, simulation, sw, false);
+				r.texte = sw.toString();
+			}
+			else if (sortie != null)
+			{
+				Path cible = sortie.resolve(Batch.nomSortie(fichier, this.format));
+				try (Writer out = Files.newBufferedWriter(cible, StandardCharsets.UTF_8))
+				{
+					this.ecrire(fichier, mpm, simulation, out, true);
+				}
+			}
+		}
+		catch (IOException | RuntimeException e)
+		{
+			r.erreur = e.toString();
+		}
+
+		r.nanos = System.nanoTime() - debut;
+		return r;
+	}
+
+	private void ecrire(String fichier, Mpm mpm, SimulationPert.Resultat simulation, Writer out, boolean entete) throws IOException
+	{
+		// Tâches par niveau, ou par marge croissante selon l'ordre déjà calculé avec les dates
+		ArrayList<Tache> taches = this.tri == null ? mpm.getTaches() : mpm.getTachesParMarge(this.tri);
+
+		if (this.format.equals("csv")) Batch.ecrireCsv  (fichier, mpm, taches, out, entete);
+		else                           Batch.ecrireTexte(fichier, mpm, taches, out);
+
+		if (simulation != null) Batch.ecrireSimulation(simulation, out);
+	}
+
+	// ========== MESURE DU PASSAGE À L'ÉCHELLE ==========
+
+	/**
+	 * Planifie tous les projets avec 1, 2, 4... fils jusqu'à nbFils, sans écrire les résultats,
+	 * et affiche le débit de chaque passe et son accélération par rapport à un seul fil
+	 * Une première passe, non comptée, met le code en régime. Le cache des plannings est
+	 * coupé : chaque passe refait tout le calcul.
+	 *
+	 * @return le code de sortie
+	 */
+	public int mesurerEchelle() throws IOException
+	{
+		CachePlanning.setCommun(null);
+		this.passe(this.nbFils, null, null, null);
+
+		System.out.println("fils;projets_par_s;taches_par_s;acceleration");
+
+		double reference = 0;
+		for (int fils = 1; ; fils = Math.min(fils * 2, this.nbFils))
+		{
+			double secondes = this.passe(fils, null, null, null) / 1e9;
+			double debit    = this.nbPlanifies / secondes;
+
+			if (fils == 1) reference = debit;
+
+			System.out.println(fils + SEPARATEUR + String.format("%.1f", debit) + SEPARATEUR
+			                   + String.format("%.0f", this.nbTaches / secondes) + SEPARATEUR
+			                   + String.format("%.2f", debit / reference));
+
+			if (fils == this.nbFils) break;
+		}
+
+		return this.nbErreurs == 0 ? SORTIE_OK : SORTIE_ERREURS;
+	}
+
+	/**
+	 * Charge et planifie un projet : lecture, tri topologique, dates et réseau critique
+	 * @param fichier le chemin du projet
+	 * @param dateDebut la date de début (null : celle du fichier, s'il en porte une)
+	 * @param dateFin la date de fin pour une planification à rebours (peut être null)
+	 * @param joursOuvres le calendrier de travail (peut être null)
+	 * @return le projet planifié (vide avec un message d'erreur si la lecture échoue), null si le format est inconnu
+	 */
+	public static Mpm planifier(String fichier, String dateDebut, String dateFin, JoursOuvres joursOuvres)
+	{
+		String type = Mpm.determineFichier(fichier);
+		if (type == null) return null;
+
+		Mpm mpm = new Mpm(fichier, dateDebut, type.equals("pos"));
+		mpm.setJoursOuvres(joursOuvres);
+		if (dateFin != null) mpm.setDateDebut(null, dateFin);
+
+		mpm.getReseauCritique();
+		return mpm;
+	}
+
+	// ========== ÉCRITURE DES RÉSULTATS ==========
+
+	private static void ecrireTexte(String fichier, Mpm mpm, ArrayList<Tache> taches, Writer out) throws IOException
+	{
+		ReseauCritique reseau     = mpm.getReseauCritique();
+		Tache          fin        = mpm.chercherTacheParNom("Fin");
+		Calendrier     calendrier = mpm.getCalendrier();
+
+		out.write("=== " + fichier + " ===\n");
+		out.write("date de début : " + (mpm.getDateDebut() == null ? Calendrier.DATE_INCONNUE : mpm.getDateDebut()) + "\n");
+		if (fin != null)
+			out.write("durée du projet : " + fin.getDatePlusTot() + " jours, fin le " + calendrier.libelle(fin.getDatePlusTot()) + "\n");
+		out.write("tâches critiques : " + reseau.getNbTaches() + ", chemins critiques : " + reseau.getNbChemins() + "\n\n");
+
+		out.write("=== ANALYSE MPM ===\n\n");
+		for (Tache t : taches)
+		{
+			out.write(t.toString(calendrier.libelle(t.getDatePlusTot()), calendrier.libelle(t.getDatePlusTard())));
+			out.write('\n');
+		}
+	}
+
+	private static void ecrireCsv(String fichier, Mpm mpm, ArrayList<Tache> taches, Writer out, boolean entete) throws IOException
+	{
+		if (entete) out.write(ENTETE_CSV);
+
+		Calendrier calendrier = mpm.getCalendrier();
+
+		for (Tache t : taches)
+		{
+			int tot  = t.getDatePlusTot ();
+			int tard = t.getDatePlusTard();
+
+			out.write(fichier);                             out.write(SEPARATEUR);
+			out.write(t.getNom());                          out.write(SEPARATEUR);
+			out.write(Integer.toString(t.getDuree()));      out.write(SEPARATEUR);
+			out.write(Integer.toString(tot));               out.write(SEPARATEUR);
+			out.write(Integer.toString(tard));              out.write(SEPARATEUR);
+			out.write(Integer.toString(tard - tot));        out.write(SEPARATEUR);
+			out.write(mpm.estCritique(t) ? "1" : "0");      out.write(SEPARATEUR);
+			out.write(calendrier.libelle(tot));             out.write(SEPARATEUR);
+			out.write(calendrier.libelle(tard));            out.write(SEPARATEUR);
+			out.write(Integer.toString(t.getMargeLibre())); out.write(SEPARATEUR);
+			out.write(Integer.toString(t.getMargeIndependante()));
+			out.write('\n');
+		}
+	}
+
+	/**
+	 * Écrit la distribution de la durée du projet et les tâches les plus souvent critiques
+	 */
+	private static void ecrireSimulation(SimulationPert.Resultat s, Writer out) throws IOException
+	{
+		int duree = s.getPlanning().getFinProjet();
+
+		out.write("\n=== SIMULATION PERT (" + (s.getLoi() == SimulationPert.Loi.BETA ? "bêta" : "triangulaire")
+		          + ", " + s.getNbIterations() + " tirages) ===\n\n");
+		out.write(String.format("durée du projet : P50 %.1f, P80 %.1f, P95 %.1f jours (moyenne %.1f, écart type %.1f)\n",
+		                        s.getP50(), s.getP80(), s.getP95(), s.getMoyenne(), s.getEcartType()));
+		out.write(String.format("probabilité de finir en %d jours (durée planifiée) : %.1f %%\n", duree, 100 * s.getProbabiliteAuPlus(duree)));
+
+		// Tâches triées par criticité décroissante, hors Debut et Fin toujours critiques
+		ArrayList<Integer> taches = new ArrayList<>();
+		for (int i = 0; i < s.getPlanning().getNbTaches(); i++)
+		{
+			String nom = s.getPlanning().getNom(i);
+			if (s.getCriticite(i) > 0 && !nom.equals("Debut") && !nom.equals("Fin")) taches.add(i);
+		}
+		taches.sort((a, b) -> Double.compare(s.getCriticite(b), s.getCriticite(a)));
+
+		out.write("indice de criticité :\n");
+		for (int k = 0; k < Math.min(NB_CRITIQUES, taches.size()); k++)
+			out.write(String.format("    %s : %.1f %%\n", s.getPlanning().getNom(taches.get(k)), 100 * s.getCriticite(taches.get(k))));
+	}
+
+	/**
+	 * Nom du fichier de résultat d'un projet : projet.txt donne projet.mpm.txt ou projet.mpm.csv
+	 */
+	private static String nomSortie(String fichier, String format)
+	{
+		String nom   = Paths.get(fichier).getFileName().toString();
+		int    point = nom.lastIndexOf('.');
+
+		if (point > 0) nom = nom.substring(0, point);
+
+		return nom + ".mpm." + (format.equals("csv") ? "csv" : "txt");
+	}
+
+	// ========== CLASSE INTERNE ==========
+
+	/**
+	 * Résultat de la planification d'un projet, rendu par un fil du pool
+	 */
+	private static class Resultat
+	{
+		String     fichier;       // Chemin du projet
+		String     erreur;        // Message d'erreur (null si le projet a été planifié)
+		String     texte;         // Résultat à écrire sur la sortie standard (null si aucun)
+		int        duree;         // Durée totale du projet
+		BigInteger nbChemins;     // Nombre de chemins critiques
+		int        nbMargeNulle;  // Tâches sans marge (hors Debut et Fin)
+		int        nbTaches;      // Tâches du projet (hors Debut et Fin)
+		long       nanos;         // Temps de planification
+
+		Resultat(String fichier) { this.fichier = fichier; }
+	}
+
+	/*---------------- */
+	/*------Main------ */
+	/*---------------- */
+	public static void main(String[] args) throws IOException
+	{
+		// Résultats, messages et résumé en UTF-8 comme les fichiers écrits, quelle que soit la locale
+		System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8));
+		System.setErr(new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8));
+
+		Batch  batch  = new Batch();
+		String erreur = batch.lireArguments(args);
+
+		if (erreur != null)
+		{
+			System.err.println(erreur);
+			System.err.println("Usage : exFinal.Batch [-date jj/mm/aaaa] [-fin jj/mm/aaaa] [-format texte|csv] [-sortie dossier]");
+			System.err.println("                      [-semaine LMMJV--] [-ferie jj/mm/aaaa]... [-fils n] [-max n]");
+			System.err.println("                      [-resume fichier.csv] [-cache dossier] [-echelle]");
+			System.err.println("                      [-pert tirages] [-estimations fichier.csv] [-loi beta|triangulaire] [-graine n]");
+			System.err.println("                      [-tri totale|libre|independante]");
+			System.err.println("                      fichier|dossier|@liste|- ...");
+			System.exit(SORTIE_USAGE);
+		}
+
+		if (batch.echelle) System.exit(batch.mesurerEchelle());
+
+		if (batch.dossierCache != null) CachePlanning.setCommun(new CachePlanning(CachePlanning.CAPACITE_DEFAUT, batch.dossierCache));
+
+		long   debut    = System.nanoTime();
+		int    code     = batch.executer();
+		double secondes = (System.nanoTime() - debut) / 1e9;
+
+		System.err.println(batch.fichiers.size() + " projet(s), " + batch.nbErreurs + " en erreur, "
+		                   + String.format("%.0f ms, %.1f projets/s, %.0f tâches/s sur %d fil(s)",
+		                                   secondes * 1000, batch.nbPlanifies / secondes, batch.nbTaches / secondes, batch.nbFils));
+		if (CachePlanning.getCommun() != null) System.err.println(CachePlanning.getCommun());
+		System.exit(code);
+	}
+}
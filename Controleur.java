@@ -1,10 +1,19 @@
 package exFinal;
 
 import Ihm.Graphe.FrameMpm;
+import Metier.Calendrier;
 import Metier.CheminCritique;
+import Metier.EvaluateurScenarios;
+import Metier.Historique;
+import Metier.Instantane;
+import Metier.Lot;
 import Metier.Mpm;
+import Metier.Planning;
+import Metier.Scenario;
+import Metier.SimulationPert;
 import Metier.Tache;
 import java.util.ArrayList;
+import java.util.List;
 
 public class Controleur
 {
@@ -24,6 +33,17 @@ public class Controleur
 		this.ihm    = new FrameMpm(this);
 	}
 
+	/**
+	 * Constructeur sans fenêtre, autour d'un projet déjà chargé
+	 * Sert à construire et dessiner le graphe hors écran (voir Metier.Verification, option -croissance) ;
+	 * les méthodes qui mettent à jour la fenêtre ne doivent pas être appelées.
+	 * @param metier le projet
+	 */
+	public Controleur(Mpm metier)
+	{
+		this.metier = metier;
+	}
+
 	// ========== MÉTHODES DE GESTION DU MÉTIER ==========
 
 	/**
@@ -39,12 +59,17 @@ public class Controleur
 			System.out.println("Fichier non reconnu : " + fichier);
 			return;
 		}
+		this.metier.fermerJournal();
+
 		if (type.equals("base"))
 			this.metier = new Mpm(fichier,this.date, false);
 
 		else if (type.equals("pos"))
 			this.metier = new Mpm(fichier, this.date, true);
 
+		// Reprendre les modifications journalisées depuis le dernier enregistrement
+		this.metier.ouvrirJournal();
+
 		this.ihm.enableBtn();
 		
 		this.majIhm();
@@ -72,7 +97,6 @@ public class Controleur
 	 */
 	public ArrayList<CheminCritique> getCheminCritiques( ) 
 	{ 
-		System.out.println(this.metier.getCheminsCritiques());
 		return  this.metier.getCheminsCritiques();
 	}
 
@@ -89,6 +113,18 @@ public class Controleur
 	 */
 	public String getDateDebut()                           { return this.metier.getDateDebut();        }
 
+	/**
+	 * Retourne le calendrier du projet, pour afficher les dates sans relire la date de début
+	 * @return le calendrier de la date de début
+	 */
+	public Calendrier getCalendrier()                      { return this.metier.getCalendrier();       }
+
+	/**
+	 * Retourne la dernière version publiée du planning, lisible sans verrou depuis n'importe quel fil
+	 * @return le planning publié
+	 */
+	public Planning getPlanning()                          { return this.metier.getPlanning();         }
+
 	/**
 	 * Retourne le message d'erreur s'il y en a un
 	 * @return le message d'erreur
@@ -127,6 +163,24 @@ public class Controleur
 	 */
 	public void supprimerTache(String nom)                                  {this.metier.supprimerTache(nom);               }
 
+	/**
+	 * Ouvre un lot de modifications appliquées ensemble
+	 * @return le lot à remplir avant validerLot()
+	 */
+	public Lot commencerLot()                                               {return this.metier.commencerLot();             }
+
+	/**
+	 * Valide et applique le lot ouvert, avec un seul recalcul du planning
+	 * @return true si le lot a été appliqué, sinon voir getErreursLot()
+	 */
+	public boolean validerLot()                                             {return this.metier.validerLot();               }
+
+	/**
+	 * Retourne les erreurs de la dernière validation de lot
+	 * @return la liste des erreurs, une par tâche fautive
+	 */
+	public ArrayList<String> getErreursLot()                                {return this.metier.getErreursLot();            }
+
 	/**
 	 * Modifie la durée d'une tâche
 	 * @param val nouvelle durée
@@ -138,6 +192,17 @@ public class Controleur
 		this.majIhm();
 	}
 
+	/**
+	 * Enregistre la nouvelle position d'une tâche déplacée dans le graphe
+	 * @param nom nom de la tâche
+	 * @param x nouvelle abscisse
+	 * @param y nouvelle ordonnée
+	 */
+	public void deplacerTache(String nom, int x, int y)
+	{
+		this.metier.deplacerTache(nom, x, y);
+	}
+
 	public void setDateDebut(String dateDebut, String dateFin)
 	{
 		this.metier.setDateDebut(dateDebut, dateFin);
@@ -149,6 +214,81 @@ public class Controleur
 		return this.metier.dateValide(date);
 	}
 
+	// ========== MÉTHODES D'HISTORIQUE ==========
+
+	/**
+	 * Annule la dernière modification du projet
+	 * @return false s'il n'y a rien à annuler
+	 */
+	public boolean annuler()
+	{
+		if (!this.metier.annuler()) return false;
+
+		this.majIhm();
+		return true;
+	}
+
+	/**
+	 * Rétablit la dernière modification annulée
+	 * @return false s'il n'y a rien à rétablir
+	 */
+	public boolean retablir()
+	{
+		if (!this.metier.retablir()) return false;
+
+		this.majIhm();
+		return true;
+	}
+
+	/**
+	 * Revient à une version quelconque du projet ; la prochaine modification ouvre une branche
+	 * @param numero le numéro de la version
+	 * @return false si la version n'existe pas
+	 */
+	public boolean allerAVersion(int numero)
+	{
+		if (!this.metier.allerAVersion(numero)) return false;
+
+		this.majIhm();
+		return true;
+	}
+
+	/**
+	 * Retourne l'historique des versions du projet
+	 * @return l'historique
+	 */
+	public Historique getHistorique()                      { return this.metier.getHistorique();       }
+
+	// ========== MÉTHODES DE SIMULATION ==========
+
+	/**
+	 * Donne à une tâche une estimation en trois points pour la simulation PERT
+	 * @param nom le nom de la tâche
+	 * @param estimation l'estimation (null pour la retirer)
+	 */
+	public void setEstimation(String nom, SimulationPert.Estimation estimation) { this.metier.setEstimation(nom, estimation); }
+
+	/**
+	 * Simule les durées du projet d'après les estimations, sur tous les processeurs
+	 * @param nbIterations le nombre de tirages
+	 * @param graine la graine du générateur
+	 * @return la distribution de la durée du projet et la criticité des tâches
+	 */
+	public SimulationPert.Resultat simulerPert(int nbIterations, long graine)
+	{
+		return this.metier.simulerPert(nbIterations, graine, SimulationPert.Loi.BETA, Runtime.getRuntime().availableProcessors());
+	}
+
+	/**
+	 * Évalue des scénarios « et si » sans modifier le projet, sur tous les processeurs
+	 * @param scenarios les scénarios
+	 * @return le résultat de chaque scénario, dans l'ordre des scénarios
+	 */
+	public ArrayList<EvaluateurScenarios.Resultat> evaluerScenarios(List<Scenario> scenarios)
+	{
+		return this.metier.evaluerScenarios(scenarios, Runtime.getRuntime().availableProcessors());
+	}
+
 	// ========== MÉTHODES DE GESTION DE L'IHM ==========
 
 	/**
@@ -162,21 +302,28 @@ public class Controleur
 	public void setEnDate() {this.ihm.setEnDate();}
 
 	/**
-	 * Ferme l'application
+	 * Ferme l'application, après avoir écrit les modifications en attente du journal
 	 */
-	public void dispose()   {this.ihm.dispose();  }
+	public void dispose()
+	{
+		this.metier.fermerJournal();
+		this.ihm.dispose();
+	}
 
 	// ========== MÉTHODES DE SAUVEGARDE ==========
 	/**
 	 * Enregistre les données dans un fichier
+	 * Un chemin terminé par Instantane.EXTENSION donne un instantané binaire ;
+	 * enregistrer sur le fichier du projet vide son journal
 	 * @param cheminAbsolue chemin absolu du fichier de sauvegarde
 	 * @return true si l'enregistrement a réussi
 	 */
 	public boolean enregistrer(String cheminAbsolue)
 	{
-		String infosNoeuds;
-		infosNoeuds = this.ihm.getInfos();
-		return this.metier.enregistrer(infosNoeuds, cheminAbsolue);
+		if (cheminAbsolue.endsWith(Instantane.EXTENSION))
+			return this.metier.enregistrerInstantane(cheminAbsolue, this.ihm.getPositions());
+
+		return this.metier.enregistrer(cheminAbsolue, this.ihm.getPositions());
 	}
 
 	/*---------------- */
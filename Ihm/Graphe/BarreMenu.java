@@ -2,9 +2,13 @@ package Ihm.Graphe;
 
 import Ihm.Ajout.FrameAjout;
 import Metier.Erreur;
+import Metier.Historique;
+import Metier.Instantane;
 import exFinal.Controleur;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.InputEvent;
+import java.awt.event.KeyEvent;
 import java.io.File;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -25,6 +29,15 @@ public class BarreMenu extends JMenuBar implements ActionListener
 	
 	/** Menu item pour basculer entre durée et date */
 	private JMenuItem menuiDure;
+
+	/** Menu item pour annuler la dernière modification */
+	private JMenuItem menuiAnnu;
+
+	/** Menu item pour rétablir la dernière modification annulée */
+	private JMenuItem menuiReta;
+
+	/** Menu item pour revenir à une version du projet */
+	private JMenuItem menuiHist;
 	
 	/** Menu item pour ouvrir un projet */
 	private JMenuItem menuiOuvr;
@@ -77,6 +90,14 @@ public class BarreMenu extends JMenuBar implements ActionListener
 		this.menuiAjou.setEnabled(false);
 		this.menuiDure = new JMenuItem(this.labelDT);
 		this.menuiDure.setEnabled(false);
+		this.menuiAnnu = new JMenuItem("Annuler");
+		this.menuiAnnu.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Z, InputEvent.CTRL_DOWN_MASK));
+		this.menuiAnnu.setEnabled(false);
+		this.menuiReta = new JMenuItem("Rétablir");
+		this.menuiReta.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_Y, InputEvent.CTRL_DOWN_MASK));
+		this.menuiReta.setEnabled(false);
+		this.menuiHist = new JMenuItem("Historique");
+		this.menuiHist.setEnabled(false);
 
 		// Construction du menu Fichier
 		menuFichier.add(this.menuiOuvr);
@@ -87,6 +108,10 @@ public class BarreMenu extends JMenuBar implements ActionListener
 		// Construction du menu Edition
 		menuEdition.add(this.menuiAjou);
 		menuEdition.addSeparator();
+		menuEdition.add(this.menuiAnnu);
+		menuEdition.add(this.menuiReta);
+		menuEdition.add(this.menuiHist);
+		menuEdition.addSeparator();
 		menuEdition.add(this.menuiDure);
 
 		// Ajout des menus à la barre
@@ -101,6 +126,9 @@ public class BarreMenu extends JMenuBar implements ActionListener
 		this.menuiDure.addActionListener(this);
 		this.menuiAjou.addActionListener(this);
 		this.menuiFerm.addActionListener(this);
+		this.menuiAnnu.addActionListener(this);
+		this.menuiReta.addActionListener(this);
+		this.menuiHist.addActionListener(this);
 	}
 
 	private void gererOuvertureFichier()
@@ -129,11 +157,16 @@ public class BarreMenu extends JMenuBar implements ActionListener
 		if (result == JFileChooser.APPROVE_OPTION)
 		{
 			File selectedFile = fileChooser.getSelectedFile();
-			//Vérifier s'il s'agit du bon format de fichier .data, .txt
-			if (selectedFile.getName().endsWith(".data") || selectedFile.getName().endsWith(".txt")) 
+			//Vérifier s'il s'agit du bon format de fichier .data, .txt ou d'un instantané
+			if (selectedFile.getName().endsWith(".data") || selectedFile.getName().endsWith(".txt")
+			    || selectedFile.getName().endsWith(Instantane.EXTENSION)) 
 			{
 				this.ctrl.setNouvMetier(selectedFile.getAbsolutePath());
 
+				// Fichier illisible ou dépendances cycliques : le projet reste vide
+				if (this.ctrl.getErreur() != null)
+					JOptionPane.showMessageDialog(frame, this.ctrl.getErreur(), "Erreur de chargement", JOptionPane.ERROR_MESSAGE);
+
 				this.activerMenus();
 
 			}
@@ -209,6 +242,38 @@ public class BarreMenu extends JMenuBar implements ActionListener
 		{
 			this.basculerModeDateDuree();
 		}
+
+		// Annulation et rétablissement
+		if (e.getSource() == this.menuiAnnu)
+		{
+			this.ctrl.annuler();
+		}
+
+		if (e.getSource() == this.menuiReta)
+		{
+			this.ctrl.retablir();
+		}
+
+		// Retour à une version choisie dans l'historique
+		if (e.getSource() == this.menuiHist)
+		{
+			this.choisirVersion();
+		}
+	}
+
+	/**
+	 * Propose la liste des versions du projet et revient à celle choisie
+	 */
+	private void choisirVersion()
+	{
+		Historique           historique = this.ctrl.getHistorique();
+		Historique.Version[]  versions   = historique.getVersions().toArray(new Historique.Version[0]);
+
+		Object choix = JOptionPane.showInputDialog(frame, "Revenir à la version :", "Historique",
+		                                           JOptionPane.PLAIN_MESSAGE, null, versions, historique.getCourante());
+
+		if (choix != null)
+			this.ctrl.allerAVersion(((Historique.Version) choix).getNumero());
 	}
 
 	/**
@@ -240,5 +305,8 @@ public class BarreMenu extends JMenuBar implements ActionListener
 		this.menuiSauv.setEnabled(true);
 		this.menuiAjou.setEnabled(true);
 		this.menuiDure.setEnabled(true);
+		this.menuiAnnu.setEnabled(true);
+		this.menuiReta.setEnabled(true);
+		this.menuiHist.setEnabled(true);
 	}
 }
\ No newline at end of file
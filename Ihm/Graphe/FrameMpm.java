@@ -2,6 +2,7 @@ package Ihm.Graphe;
 
 import exFinal.Controleur;
 import java.awt.*;
+import java.util.HashMap;
 import javax.swing.*;
 
 /**
@@ -68,12 +69,12 @@ public class FrameMpm extends JFrame
 	}
 
 	/**
-	 * Récupère les informations du graphe
-	 * @return Les informations sous forme de chaîne
+	 * Récupère la position affichée de chaque nœud
+	 * @return Position de chaque nœud, par nom de tâche
 	 */
-	public String getInfos()
+	public HashMap<String, Point> getPositions()
 	{
-		return this.graphPanel.getInfos();
+		return this.graphPanel.getPositions();
 	}
 
 	/**
@@ -23,8 +23,6 @@ public class MPMGrapheAuto extends JPanel
 
 	private boolean                   cheminActif      = false;              // Indique si l'affichage du chemin critique est activé
 
-	private ArrayList<CheminCritique> cheminsCritiques = new ArrayList<>();  // Liste des chemins critiques du projet
-
 	private Controleur                ctrl;                                  // Référence vers le contrôleur principal
 	private CreerGraphe               creerGraphe;                           // Générateur de positions des nœuds
 
@@ -32,6 +30,7 @@ public class MPMGrapheAuto extends JPanel
 	
 	private Noeud                     noeudSelectionne  = null;              // Nœud actuellement sélectionné pour le déplacement
 	private int                       offsetX, offsetY;                      // Décalage pour le glisser-déposer fluide
+	private boolean                   estDeplace        = false;             // Vrai si le nœud sélectionné a été déplacé
 
 	// ========== ATTRIBUTS DE GESTION DES ÉTAPES ==========
 	
@@ -59,7 +58,6 @@ public class MPMGrapheAuto extends JPanel
 		this.enDate          =  false;
 
 		this.ctrl = ctrl;
-		this.cheminsCritiques = this.ctrl.getCheminCritiques();
 
 		this.majIhm();
 		this.resetEtape();
@@ -102,13 +100,11 @@ public class MPMGrapheAuto extends JPanel
 		int ancienNbCol;
 		int nouveauNbCol;
 
-		ancienNbCol           = this.getNbCol();
-
-		this.cheminsCritiques = this.ctrl.getCheminCritiques();
+		ancienNbCol  = this.getNbCol();
 
 		this.initialiserNoeudsArcs();
 
-		nouveauNbCol          = this.getNbCol();
+		nouveauNbCol = this.getNbCol();
 
 		if (nouveauNbCol > ancienNbCol)
 		{
@@ -206,76 +202,26 @@ public class MPMGrapheAuto extends JPanel
 			noeuds.clear();
 			arcs  .clear();
 
-			ArrayList<Tache>         taches    = new ArrayList<>(this.ctrl.getTaches());
-			HashMap<String, Integer> dicTaches = new HashMap<>();
-
-			dicTaches.clear();
+			// Version publiée du planning : niveaux, dates et tâches critiques d'un même état du projet
+			Planning planning = this.ctrl.getPlanning();
 
-			this.nbCol = 0; // Reset nbCol
+			this.nbCol = planning.getNiveauMax();
 
-			while(dicTaches.size() != taches.size())
-			{
-				for (Tache t : taches)
-				{
-					// Si la tâche n'est pas encore dans le dictionnaire
-					if (!dicTaches.containsKey(t.getNom()))
-					{
-						int colPlusGrd = -1;
-
-						if (t.getPrecedents().isEmpty())
-						{
-							dicTaches.put(t.getNom(), 0);
-						}
-						else
-						{
-							// Vérifier si tous les précédents ont déjà une colonne assignée
-							boolean tousPrecsTraites = true;
-							
-							for (Tache pred : t.getPrecedents())
-							{
-								String nomTache = pred.getNom();
-								if (!dicTaches.containsKey(nomTache))
-								{
-									tousPrecsTraites = false;
-									break;
-								}
-								
-								if (dicTaches.get(nomTache) + 1 > colPlusGrd)
-									colPlusGrd = dicTaches.get(nomTache) + 1;
-							}
-							
-							// Ne l'ajouter que si tous ses précédents sont traités
-							if (tousPrecsTraites && colPlusGrd != -1)
-							{
-								dicTaches.put(t.getNom(), colPlusGrd);
-								// Mettre à jour nbCol avec la colonne maximale
-								if (colPlusGrd > this.nbCol)
-									this.nbCol = colPlusGrd;
-							}
-						}
-					}
-				}
-			}
-
-			for (Tache t : taches)
+			for (int rang = 0; rang < planning.getNbTaches(); rang++)
 			{
+				int    i   = planning.getTacheDeRang(rang);
+				String nom = planning.getNom(i);
 
-				Noeud n = new Noeud(t.getNom(), t.getDatePlusTot(), t.getDatePlusTard(), dicTaches.get(t.getNom()), false, ctrl);
+				Noeud n = new Noeud(nom, planning.getDatePlusTot(i), planning.getDatePlusTard(i), planning.getNiveau(i), false, ctrl);
 				noeuds.add(n);
-				for (CheminCritique ch : this.cheminsCritiques)
-				{
 
-					for (Tache tacheCh : ch.getTachesCritiques())
-					{
+				if (planning.estCritique(i))
+					n.setEstChemin(true);
 
-						if (tacheCh.getNom().equals(t.getNom()))
-							n.setEstChemin(true);
-					}
-				}
-
-				for (Tache tachePrc : t.getPrecedents())
+				for (int k = 0; k < planning.getNbPrecedents(i); k++)
 				{
-					arcs.add(new Arc(tachePrc.getNom(), t.getNom(), tachePrc.getDuree()));
+					int p = planning.getPrecedent(i, k);
+					arcs.add(new Arc(planning.getNom(p), nom, planning.getDuree(p)));
 				}
 			}
 		}
@@ -388,12 +334,13 @@ public class MPMGrapheAuto extends JPanel
 		}
 
 		// ========== AFFICHAGE DES DATES ==========
+		// Libellés relus dans la table du calendrier : aucune date n'est recalculée au réaffichage
+		Calendrier calendrier = this.enDate ? ctrl.getPlanning().getCalendrier() : null;
+
 		for (Noeud n : this.noeuds)
 		{
-			Tache tache = ctrl.chercherTacheParNom(n.getNom());
-
-			String dtPlusTot = this.enDate ? Tache.ajouterJours(ctrl.getDateDebut(), tache.getDatePlusTot ()) : n.getTot () + "";
-			String dtPlusTar = this.enDate ? Tache.ajouterJours(ctrl.getDateDebut(), tache.getDatePlusTard()) : n.getTard() + "";
+			String dtPlusTot = this.enDate ? calendrier.libelle(n.getTot ()) : n.getTot () + "";
+			String dtPlusTar = this.enDate ? calendrier.libelle(n.getTard()) : n.getTard() + "";
 
 			int ecartTot     = this.enDate ? 3  : 15;
 			int ecartTar     = this.enDate ? 38 : 25;
@@ -532,66 +479,24 @@ public class MPMGrapheAuto extends JPanel
 	 */
 	private void afficherInfosNoeud(Noeud n)
 	{
-		Tache tache = null;
-		for (Tache t : ctrl.getTaches())
-		{
-			if (t.getNom().equals(n.getNom()))
-			{
-				tache = t;
-				break;
-			}
-		}
+		Tache tache = ctrl.chercherTacheParNom(n.getNom());
 		if (tache == null) return;
 
 		new FrameNoeudInfo(tache, this.ctrl);
 	}
 
 	/**
-	 * Génère une chaîne contenant les informations de tous les nœuds
-	 * Format utilisé pour la sauvegarde des positions
-	 * 
-	 * @return Chaîne formatée avec les informations des nœuds
+	 * Retourne la position affichée de chaque nœud
+	 * @return Position de chaque nœud, par nom de tâche
 	 */
-	public String getInfos()
+	public HashMap<String, Point> getPositions()
 	{
-		String sRet = "";
+		HashMap<String, Point> positions = new HashMap<>();
 		for (Noeud n : this.noeuds)
 		{
-			sRet += n.getNom();
-			
-			// Ajouter les poids des arcs sortants
-			for (Arc a : this.arcs)
-			{
-				if (a.getFrom().equals(n.getNom()))
-				{
-					sRet += "|" + a.getPoids();
-					break;
-				}
-			}
-
-			sRet += "|";
-			
-			// Ajouter les prédécesseurs
-			for (Tache t : ctrl.getTaches())
-			{
-				if (t.getNom().equals(n.getNom()))
-				{
-					for (Tache tPre : t.getPrecedents())
-					{
-						sRet += tPre.getNom() + ",";
-					}
-				}
-			}
-			
-			// Enlever la dernière virgule
-			if (sRet.endsWith(","))
-			{
-				sRet = sRet.substring(0, sRet.length() - 1);
-			}
-
-			sRet += "|" + n.getX() + "," + n.getY() + "\n";
+			positions.put(n.getNom(), new Point(n.getX(), n.getY()));
 		}
-		return sRet;
+		return positions;
 	}
 
 	// ========== CLASSE INTERNE - GESTIONNAIRE D'ÉVÉNEMENTS SOURIS ==========
@@ -631,11 +536,18 @@ public class MPMGrapheAuto extends JPanel
 
 		/**
 		 * Gère le relâchement de la souris
-		 * Termine l'opération de glisser-déposer
+		 * Termine l'opération de glisser-déposer et transmet la nouvelle position au contrôleur
 		 * 
 		 * @param e L'événement de relâchement de souris
 		 */
-		public void mouseReleased(MouseEvent e) { noeudSelectionne = null; }
+		public void mouseReleased(MouseEvent e)
+		{
+			if (noeudSelectionne != null && estDeplace)
+				ctrl.deplacerTache(noeudSelectionne.getNom(), noeudSelectionne.getX(), noeudSelectionne.getY());
+
+			noeudSelectionne = null;
+			estDeplace       = false;
+		}
 
 		/**
 		 * Gère le déplacement de la souris avec bouton enfoncé
@@ -650,6 +562,7 @@ public class MPMGrapheAuto extends JPanel
 				// Mettre à jour les coordonnées du nœud
 				noeudSelectionne.setX(e.getX() - offsetX);
 				noeudSelectionne.setY(e.getY() - offsetY);
+				estDeplace = true;
 
 				repaint();
 			}
@@ -62,8 +62,8 @@ public class Noeud
 		this.tard      = tard;
 		this.col       = col;
 		this.estChemin = estChemin;
-		this.nbPre     = ctrl.chercherTacheParNom(this.getNom()).getPrecedents().size();
-		this.nbSvt     = ctrl.chercherTacheParNom(this.getNom()).getSuivants().size();
+		this.nbPre     = ctrl.chercherTacheParNom(this.getNom()).getNbPrecedents();
+		this.nbSvt     = ctrl.chercherTacheParNom(this.getNom()).getNbSuivants();
 	}
 
 	// Getters
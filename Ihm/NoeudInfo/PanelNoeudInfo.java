@@ -1,6 +1,7 @@
 package Ihm.NoeudInfo;
 
 import Metier.Erreur;
+import Metier.Planning;
 import Metier.Tache;
 import exFinal.Controleur;
 import java.awt.*;
@@ -83,11 +84,24 @@ public class PanelNoeudInfo extends JPanel implements ActionListener
 		panelInfo.add(new JLabel("Suivants :", JLabel.RIGHT));
 		panelInfo.add(new JLabel(suivants, JLabel.LEFT));
 
+		// Dates lues dans la version publiée du planning
+		Planning planning = ctrl.getPlanning();
+		int      i        = planning.indexDe(tache.getNom());
+
 		panelInfo.add(new JLabel("Jour début (plus tôt) :", JLabel.RIGHT));
-		panelInfo.add(new JLabel(tache.ajouterJours(ctrl.getDateDebut(), tache.getDatePlusTot())), JLabel.LEFT);
+		panelInfo.add(new JLabel(planning.getCalendrier().libelle(planning.getDatePlusTot(i))), JLabel.LEFT);
 
 		panelInfo.add(new JLabel("Jour fin (plus tard) :", JLabel.RIGHT));
-		panelInfo.add(new JLabel(tache.ajouterJours(ctrl.getDateDebut(), tache.getDatePlusTard())), JLabel.LEFT);
+		panelInfo.add(new JLabel(planning.getCalendrier().libelle(planning.getDatePlusTard(i))), JLabel.LEFT);
+
+		panelInfo.add(new JLabel("Marge totale :", JLabel.RIGHT));
+		panelInfo.add(new JLabel(planning.getMarge(i) + " j", JLabel.LEFT));
+
+		panelInfo.add(new JLabel("Marge libre :", JLabel.RIGHT));
+		panelInfo.add(new JLabel(planning.getMargeLibre(i) + " j", JLabel.LEFT));
+
+		panelInfo.add(new JLabel("Marge indépendante :", JLabel.RIGHT));
+		panelInfo.add(new JLabel(planning.getMargeIndependante(i) + " j", JLabel.LEFT));
 
 		this.add(panelInfo, BorderLayout.CENTER);
 
@@ -0,0 +1,327 @@
+package Metier;
+
+import java.util.Arrays;
+
+/**
+ * Classe Accessibilite - Index d'accessibilité entre les tâches d'un graphe
+ * Répond à la question « la tâche X mène-t-elle à la tâche Y ? ».
+ * Une tâche ne peut mener qu'à une tâche de rang topologique supérieur : les recherches
+ * sont limitées à l'intervalle de rangs entre les départs et les arrivées.
+ * Jusqu'à SEUIL_FERMETURE tâches, la fermeture transitive est gardée en ensembles de bits
+ * (réponse en temps constant), complétée à chaque ajout de tâche ; au-delà, une recherche
+ * bidirectionnelle élaguée par les rangs est utilisée.
+ */
+public class Accessibilite
+{
+	// ========== CONSTANTES ==========
+
+	public  static final int SEUIL_FERMETURE = 4096;                  // Nombre de tâches maximal pour la fermeture
+	private static final int MOTS            = SEUIL_FERMETURE / 64;  // Longs par ligne de la fermeture
+
+	// ========== ATTRIBUTS ==========
+
+	private GrapheCompact graphe;          // Graphe indexé
+	private long[][]      fermeture;       // Descendants de chaque tâche (null si à reconstruire ou trop grand)
+
+	private int[]         marqueAvant;     // Marque de la recherche en avant
+	private int[]         marqueArriere;   // Marque de la recherche en arrière
+	private int[]         origine;         // Indice du départ (en avant) ou de l'arrivée (en arrière) d'origine
+	private int           generation;      // Valeur de marque de la recherche en cours
+	private int[]         fileAvant;       // File de la recherche en avant
+	private int[]         fileArriere;     // File de la recherche en arrière
+	private int           origineAvant;    // Départ d'où vient le chemin trouvé
+	private int           origineArriere;  // Arrivée où mène le chemin trouvé
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Constructeur d'un index sur un graphe
+	 * La fermeture transitive n'est construite qu'à la première question.
+	 *
+	 * @param graphe Le graphe des tâches
+	 */
+	public Accessibilite(GrapheCompact graphe)
+	{
+		this.graphe = graphe;
+	}
+
+	// ========== MÉTHODES DE MISE À JOUR ==========
+
+	/**
+	 * Complète l'index après l'ajout d'une tâche et de tous ses arcs
+	 * Les descendants de la tâche sont ceux de ses suivants ; ils deviennent
+	 * aussi descendants de ses précédents et de tous leurs ancêtres.
+	 *
+	 * @param v Identifiant de la nouvelle tâche
+	 */
+	public void signalerAjout(int v)
+	{
+		GrapheCompact g      = this.graphe;
+		int           n      = g.getNbNoeuds();
+		int           nbMots = (n + 63) >>> 6;
+
+		if (this.fermeture == null) return;
+
+		if (n > SEUIL_FERMETURE)
+		{
+			this.fermeture = null;
+			return;
+		}
+
+		if (this.fermeture.length < n)
+			this.fermeture = Arrays.copyOf(this.fermeture, Math.min(SEUIL_FERMETURE, this.fermeture.length * 2));
+
+		// ========== DESCENDANTS DE LA NOUVELLE TÂCHE ==========
+		long[] ligne = new long[MOTS];
+
+		for (int k = g.debutSvt(v); k < g.finSvt(v); k++)
+		{
+			int s = g.svt(k);
+			Accessibilite.reunir(ligne, this.fermeture[s], nbMots);
+			ligne[s >>> 6] |= 1L << s;
+		}
+		this.fermeture[v] = ligne;
+
+		// ========== ANCÊTRES : LES PRÉCÉDENTS ET CEUX QUI LES ATTEIGNENT ==========
+		long[] precedents = new long[MOTS];
+		for (int k = g.debutPrc(v); k < g.finPrc(v); k++) precedents[g.prc(k) >>> 6] |= 1L << g.prc(k);
+
+		long[] ajout = ligne.clone();
+		ajout[v >>> 6] |= 1L << v;
+
+		for (int a = 0; a < n; a++)
+		{
+			if (a != v && (Accessibilite.croise(precedents, this.fermeture[a], nbMots) || (precedents[a >>> 6] & (1L << a)) != 0))
+				Accessibilite.reunir(this.fermeture[a], ajout, nbMots);
+		}
+	}
+
+	/**
+	 * Signale qu'une tâche a été retirée : les identifiants ont pu changer,
+	 * la fermeture sera reconstruite à la prochaine question
+	 */
+	public void signalerSuppression()
+	{
+		this.fermeture = null;
+	}
+
+	/**
+	 * Construit la fermeture transitive dans l'ordre topologique inverse
+	 */
+	private void construireFermeture()
+	{
+		GrapheCompact g      = this.graphe;
+		int           n      = g.getNbNoeuds();
+		int           nbMots = (n + 63) >>> 6;
+		int[]         ordre  = g.getOrdreParRang();
+
+		this.fermeture = new long[Math.max(n, 16)][];
+
+		for (int r = n - 1; r >= 0; r--)
+		{
+			int    u     = ordre[r];
+			long[] ligne = new long[MOTS];
+
+			for (int k = g.debutSvt(u); k < g.finSvt(u); k++)
+			{
+				int s = g.svt(k);
+				Accessibilite.reunir(ligne, this.fermeture[s], nbMots);
+				ligne[s >>> 6] |= 1L << s;
+			}
+			this.fermeture[u] = ligne;
+		}
+	}
+
+	// ========== MÉTHODES DE RECHERCHE ==========
+
+	/**
+	 * Indique s'il existe un chemin d'une tâche vers une autre
+	 *
+	 * @param de Identifiant de la tâche de départ
+	 * @param vers Identifiant de la tâche d'arrivée
+	 * @return true si vers est atteignable depuis de (toujours vrai si de == vers)
+	 */
+	public boolean atteint(int de, int vers)
+	{
+		return this.chercherCouple(new int[] { de }, 1, new int[] { vers }, 1) >= 0;
+	}
+
+	/**
+	 * Cherche un départ qui mène à une arrivée, en une seule recherche pour tous les couples
+	 *
+	 * @param departs Identifiants des tâches de départ
+	 * @param nbDeparts Nombre de départs utilisés
+	 * @param arrivees Identifiants des tâches d'arrivée
+	 * @param nbArrivees Nombre d'arrivées utilisées
+	 * @return (indice du départ << 32) | indice de l'arrivée, ou -1 si aucun chemin
+	 */
+	public long chercherCouple(int[] departs, int nbDeparts, int[] arrivees, int nbArrivees)
+	{
+		GrapheCompact g = this.graphe;
+		int           n = g.getNbNoeuds();
+
+		if (this.fermeture == null && n <= SEUIL_FERMETURE) this.construireFermeture();
+
+		// ========== FERMETURE TRANSITIVE : TEMPS CONSTANT PAR COUPLE ==========
+		if (this.fermeture != null)
+		{
+			for (int i = 0; i < nbDeparts; i++)
+			{
+				long[] ligne = this.fermeture[departs[i]];
+
+				for (int j = 0; j < nbArrivees; j++)
+				{
+					int a = arrivees[j];
+					if (a == departs[i] || (ligne[a >>> 6] & (1L << a)) != 0) return ((long) i << 32) | j;
+				}
+			}
+			return -1;
+		}
+
+		// ========== RECHERCHE BIDIRECTIONNELLE ==========
+		if (this.bidirectionnelle(departs, nbDeparts, arrivees, nbArrivees))
+			return ((long) this.origineAvant << 32) | this.origineArriere;
+
+		return -1;
+	}
+
+	/**
+	 * Recherche en largeur depuis les départs et depuis les arrivées à la fois
+	 * La recherche en avant ne visite que les tâches de rang inférieur à la plus grande arrivée,
+	 * la recherche en arrière que celles de rang supérieur au plus petit départ ;
+	 * on étend à chaque fois la plus petite des deux frontières, jusqu'à ce qu'elles se touchent.
+	 *
+	 * @return true si un chemin existe ; origineAvant et origineArriere indiquent alors le couple
+	 */
+	private boolean bidirectionnelle(int[] departs, int nbDeparts, int[] arrivees, int nbArrivees)
+	{
+		GrapheCompact g = this.graphe;
+		int           n = g.getNbNoeuds();
+
+		if (this.marqueAvant == null || this.marqueAvant.length < n)
+		{
+			int capacite       = Math.max(n, 16);
+			this.marqueAvant   = new int[capacite];
+			this.marqueArriere = new int[capacite];
+			this.origine       = new int[capacite * 2];
+			this.fileAvant     = new int[capacite];
+			this.fileArriere   = new int[capacite];
+			this.generation    = 0;
+		}
+
+		int marque  = ++this.generation;
+		int rangMin = Integer.MAX_VALUE;
+		int rangMax = Integer.MIN_VALUE;
+
+		for (int i = 0; i < nbDeparts;  i++) rangMin = Math.min(rangMin, g.getRang(departs [i]));
+		for (int j = 0; j < nbArrivees; j++) rangMax = Math.max(rangMax, g.getRang(arrivees[j]));
+
+		if (rangMin > rangMax) return false;
+
+		// ========== INITIALISATION DES DEUX FRONTIÈRES ==========
+		int teteAv = 0, queueAv = 0;
+		int teteAr = 0, queueAr = 0;
+
+		for (int j = 0; j < nbArrivees; j++)
+		{
+			int a = arrivees[j];
+			if (g.getRang(a) >= rangMin && this.marqueArriere[a] != marque)
+			{
+				this.marqueArriere[a]       = marque;
+				this.origine[2 * a + 1]     = j;
+				this.fileArriere[queueAr++] = a;
+			}
+		}
+
+		for (int i = 0; i < nbDeparts; i++)
+		{
+			int d = departs[i];
+			if (g.getRang(d) > rangMax || this.marqueAvant[d] == marque) continue;
+
+			this.marqueAvant[d]       = marque;
+			this.origine[2 * d]       = i;
+			this.fileAvant[queueAv++] = d;
+
+			if (this.marqueArriere[d] == marque) return this.rencontre(d);
+		}
+
+		// ========== EXTENSION DE LA PLUS PETITE FRONTIÈRE, NIVEAU PAR NIVEAU ==========
+		while (teteAv < queueAv && teteAr < queueAr)
+		{
+			if (queueAv - teteAv <= queueAr - teteAr)
+			{
+				int finNiveau = queueAv;
+				while (teteAv < finNiveau)
+				{
+					int u = this.fileAvant[teteAv++];
+
+					for (int k = g.debutSvt(u); k < g.finSvt(u); k++)
+					{
+						int s = g.svt(k);
+						if (this.marqueAvant[s] == marque || g.getRang(s) > rangMax) continue;
+
+						this.marqueAvant[s]       = marque;
+						this.origine[2 * s]       = this.origine[2 * u];
+						this.fileAvant[queueAv++] = s;
+
+						if (this.marqueArriere[s] == marque) return this.rencontre(s);
+					}
+				}
+			}
+			else
+			{
+				int finNiveau = queueAr;
+				while (teteAr < finNiveau)
+				{
+					int u = this.fileArriere[teteAr++];
+
+					for (int k = g.debutPrc(u); k < g.finPrc(u); k++)
+					{
+						int p = g.prc(k);
+						if (this.marqueArriere[p] == marque || g.getRang(p) < rangMin) continue;
+
+						this.marqueArriere[p]       = marque;
+						this.origine[2 * p + 1]     = this.origine[2 * u + 1];
+						this.fileArriere[queueAr++] = p;
+
+						if (this.marqueAvant[p] == marque) return this.rencontre(p);
+					}
+				}
+			}
+		}
+
+		return false;
+	}
+
+	/**
+	 * Retient le couple (départ, arrivée) relié par la tâche où les deux recherches se touchent
+	 */
+	private boolean rencontre(int u)
+	{
+		this.origineAvant   = this.origine[2 * u];
+		this.origineArriere = this.origine[2 * u + 1];
+		return true;
+	}
+
+	// ========== MÉTHODES UTILITAIRES ==========
+
+	/**
+	 * Ajoute à un ensemble de bits tous les bits d'un autre, sur les nbMots premiers longs
+	 */
+	private static void reunir(long[] dest, long[] src, int nbMots)
+	{
+		for (int m = 0; m < nbMots; m++) dest[m] |= src[m];
+	}
+
+	/**
+	 * Indique si deux ensembles de bits ont un élément commun parmi les nbMots premiers longs
+	 */
+	private static boolean croise(long[] a, long[] b, int nbMots)
+	{
+		for (int m = 0; m < nbMots; m++)
+		{
+			if ((a[m] & b[m]) != 0) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,537 @@
+package Metier;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.CRC32C;
+
+/**
+ * Classe CachePlanning - Plannings déjà calculés, retrouvés par empreinte du graphe
+ * La clé est faite de deux empreintes de 64 bits calculées sur le graphe tel que chargé :
+ * l'une de la structure (tâches, suivants, "Debut" et "Fin"), l'autre des durées.
+ * Deux sortes d'entrées sont gardées :
+ *   structure : ordre topologique et niveaux, repris quand seules les durées ont changé
+ *   planning  : en plus, dates au plus tôt et au plus tard, fin du projet et réseau critique
+ * Le premier niveau est en mémoire, borné en nombre de cases et vidé par ancienneté d'usage (LRU).
+ * Le second, facultatif, est un dossier : un fichier par planning et un par structure,
+ * écrit sous un nom temporaire puis renommé, et contrôlé par un CRC-32C à la relecture.
+ * Les entrées ne sont jamais modifiées une fois rangées : elles sont partagées entre projets et fils.
+ */
+public class CachePlanning
+{
+	// ========== CONSTANTES ==========
+
+	public  static final long   CAPACITE_DEFAUT = 1L << 22;      // Cases (int) gardées en mémoire par défaut
+
+	private static final int    MAGIQUE         = 0x4D504D43;    // "MPMC"
+	private static final int    VERSION         = 1;             // Version des fichiers du cache
+	private static final String EXT_PLANNING    = ".mpmc";       // Fichier d'un planning
+	private static final String EXT_STRUCTURE   = ".mpmo";       // Fichier d'une structure
+
+	// ========== ATTRIBUTS ==========
+
+	private long                      capacite;         // Cases gardées en mémoire au plus
+	private long                      poids;            // Cases occupées par les entrées en mémoire
+	private LinkedHashMap<Cle, Entree> entrees;         // Entrées en mémoire, de la moins à la plus récemment utilisée
+	private Path                      dossier;          // Dossier du cache sur disque (null si aucun)
+
+	private AtomicLong                succesMemoire;    // Plannings trouvés en mémoire
+	private AtomicLong                succesDisque;     // Plannings trouvés sur disque
+	private AtomicLong                succesStructure;  // Plannings absents mais structure trouvée
+	private AtomicLong                echecs;           // Plannings absents
+	private AtomicLong                evictions;        // Entrées retirées de la mémoire faute de place
+
+	private static volatile CachePlanning commun = new CachePlanning(CAPACITE_DEFAUT, null);   // Cache utilisé par Mpm
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Constructeur d'un cache
+	 *
+	 * @param capacite Nombre de cases (int) gardées en mémoire au plus
+	 * @param dossier Dossier du cache sur disque, créé à la première écriture (null : mémoire seulement)
+	 */
+	public CachePlanning(long capacite, Path dossier)
+	{
+		this.capacite        = capacite;
+		this.entrees         = new LinkedHashMap<>(64, 0.75f, true);
+		this.dossier         = dossier;
+
+		this.succesMemoire   = new AtomicLong();
+		this.succesDisque    = new AtomicLong();
+		this.succesStructure = new AtomicLong();
+		this.echecs          = new AtomicLong();
+		this.evictions       = new AtomicLong();
+	}
+
+	/**
+	 * @return Le cache utilisé au chargement des projets, null si aucun
+	 */
+	public static CachePlanning getCommun()            { return CachePlanning.commun;  }
+
+	/**
+	 * Remplace le cache utilisé au chargement des projets
+	 *
+	 * @param cache Le nouveau cache (null : plus de cache)
+	 */
+	public static void setCommun(CachePlanning cache)  { CachePlanning.commun = cache; }
+
+	// ========== COMPTEURS ==========
+
+	public long getSuccesMemoire()   { return this.succesMemoire  .get(); }
+	public long getSuccesDisque()    { return this.succesDisque   .get(); }
+	public long getSuccesStructure() { return this.succesStructure.get(); }
+	public long getEchecs()          { return this.echecs         .get(); }
+	public long getEvictions()       { return this.evictions      .get(); }
+
+	/**
+	 * @return Le nombre de cases occupées en mémoire
+	 */
+	public synchronized long getPoids() { return this.poids; }
+
+	/**
+	 * Vide le niveau mémoire ; les fichiers du dossier sont gardés
+	 */
+	public synchronized void vider()
+	{
+		this.entrees.clear();
+		this.poids = 0;
+	}
+
+	public String toString()
+	{
+		return "cache : " + this.getSuccesMemoire() + " en mémoire, " + this.getSuccesDisque() + " sur disque, "
+		       + this.getSuccesStructure() + " structure seule, " + this.getEchecs() + " absent(s), "
+		       + this.getEvictions() + " éviction(s)";
+	}
+
+	// ========== EMPREINTES ==========
+
+	/**
+	 * Calcule la clé d'un graphe, avant tout tri
+	 *
+	 * @param g Le graphe tel que chargé
+	 * @param debut Identifiant de "Debut" (-1 si absente)
+	 * @param fin Identifiant de "Fin" (-1 si absente)
+	 * @return La clé du graphe
+	 */
+	Cle cle(GrapheCompact g, int debut, int fin)
+	{
+		int  n         = g.getNbNoeuds();
+		int  m         = 0;
+		long structure = CachePlanning.melanger(CachePlanning.melanger(n, debut), fin);
+		long durees    = n;
+
+		for (int i = 0; i < n; i++)
+		{
+			structure = CachePlanning.melanger(structure, g.getVue(i).getNom().hashCode());
+			structure = CachePlanning.melanger(structure, g.finSvt(i) - g.debutSvt(i));
+			for (int k = g.debutSvt(i); k < g.finSvt(i); k++)
+			{
+				structure = CachePlanning.melanger(structure, g.svt(k));
+				m++;
+
+				// Les liens ne changent pas l'ordre topologique, seulement les dates : comme les durées
+				if (g.typeSvt(k) != Lien.FS || g.delaiSvt(k) != 0)
+					durees = CachePlanning.melanger(durees, (long) k << 34 ^ (long) g.typeSvt(k) << 32 ^ (g.delaiSvt(k) & 0xFFFFFFFFL));
+			}
+
+			durees = CachePlanning.melanger(durees, g.getDuree(i));
+		}
+
+		return new Cle(CachePlanning.finir(structure), CachePlanning.finir(durees), n, m, true);
+	}
+
+	private static long melanger(long h, long v)
+	{
+		h ^= v * 0x9E3779B97F4A7C15L;
+		return Long.rotateLeft(h, 27) * 0xC2B2AE3D27D4EB4FL + 0x165667B19E3779F9L;
+	}
+
+	private static long finir(long h)
+	{
+		h ^= h >>> 33;
+		h *= 0xFF51AFD7ED558CCDL;
+		h ^= h >>> 33;
+		h *= 0xC4CEB9FE1A85EC53L;
+		return h ^ (h >>> 33);
+	}
+
+	// ========== RECHERCHE ==========
+
+	/**
+	 * Cherche le planning d'un graphe, en mémoire puis sur disque
+	 *
+	 * @param cle La clé du graphe
+	 * @return Le planning, null s'il n'a jamais été rangé
+	 */
+	Calcul chercher(Cle cle)
+	{
+		Entree e = this.lireMemoire(cle);
+		if (e != null)
+		{
+			this.succesMemoire.incrementAndGet();
+			return (Calcul) e;
+		}
+
+		Calcul p = this.dossier == null ? null : this.lireCalcul(cle);
+		if (p != null)
+		{
+			this.succesDisque.incrementAndGet();
+			this.rangerMemoire(cle, p);
+			this.rangerMemoire(cle.structure(), p.structure);
+			return p;
+		}
+
+		this.echecs.incrementAndGet();
+		return null;
+	}
+
+	/**
+	 * Cherche l'ordre topologique d'un graphe de même structure, en mémoire puis sur disque
+	 *
+	 * @param cle La clé du graphe
+	 * @return La structure, null si elle n'a jamais été rangée
+	 */
+	Structure chercherStructure(Cle cle)
+	{
+		Cle    cs = cle.structure();
+		Entree e  = this.lireMemoire(cs);
+
+		if (e == null && this.dossier != null)
+		{
+			e = this.lireStructure(cs);
+			if (e != null) this.rangerMemoire(cs, e);
+		}
+
+		if (e != null) this.succesStructure.incrementAndGet();
+		return (Structure) e;
+	}
+
+	/**
+	 * Range le planning d'un graphe qui vient d'être trié et daté
+	 *
+	 * @param cle La clé calculée avant le tri
+	 * @param structure L'ordre topologique utilisé pour le tri
+	 * @param g Le graphe trié et daté
+	 * @param finProjet La fin du projet
+	 * @param reseau Le réseau critique du graphe
+	 */
+	void ranger(Cle cle, Structure structure, GrapheCompact g, int finProjet, ReseauCritique reseau)
+	{
+		Calcul p = new Calcul(structure, g.copierDatesPlusTot(), g.copierDatesPlusTard(), finProjet, reseau.attacher(null));
+
+		this.rangerMemoire(cle, p);
+		this.rangerMemoire(cle.structure(), structure);
+
+		if (this.dossier == null) return;
+
+		try
+		{
+			this.ecrire(cle.structure(), structure, null);
+			this.ecrire(cle, structure, p);
+		}
+		catch (IOException e)
+		{
+			System.err.println("Cache non écrit : " + e.getMessage());
+		}
+	}
+
+	// ========== NIVEAU MÉMOIRE ==========
+
+	private synchronized Entree lireMemoire(Cle cle)
+	{
+		return this.entrees.get(cle);
+	}
+
+	private synchronized void rangerMemoire(Cle cle, Entree e)
+	{
+		if (e.getPoids() > this.capacite) return;
+
+		Entree ancienne = this.entrees.put(cle, e);
+		if (ancienne != null) this.poids -= ancienne.getPoids();
+		this.poids += e.getPoids();
+
+		Iterator<Map.Entry<Cle, Entree>> it = this.entrees.entrySet().iterator();
+		while (this.poids > this.capacite && it.hasNext())
+		{
+			Map.Entry<Cle, Entree> plusAncienne = it.next();
+
+			this.poids -= plusAncienne.getValue().getPoids();
+			it.remove();
+			this.evictions.incrementAndGet();
+		}
+	}
+
+	// ========== NIVEAU DISQUE ==========
+
+	private Path fichier(Cle cle)
+	{
+		return this.dossier.resolve(cle.complet ? String.format("%016x-%016x%s", cle.structure, cle.durees, EXT_PLANNING)
+		                                        : String.format("%016x%s",       cle.structure,             EXT_STRUCTURE));
+	}
+
+	/**
+	 * Écrit une entrée : en-tête, clé, ordre et niveaux, puis dates et réseau pour un planning,
+	 * et enfin le CRC-32C de ce qui précède
+	 */
+	private void ecrire(Cle cle, Structure structure, Calcul p) throws IOException
+	{
+		Path cible = this.fichier(cle);
+		if (Files.exists(cible)) return;
+
+		ByteArrayOutputStream octets = new ByteArrayOutputStream();
+		DataOutputStream      out    = new DataOutputStream(octets);
+		int                   n      = cle.nbNoeuds;
+
+		out.writeInt(MAGIQUE);
+		out.writeInt(VERSION);
+		out.writeLong(cle.structure);
+		out.writeLong(cle.durees);
+		out.writeInt(n);
+		out.writeInt(cle.nbArcs);
+		out.writeBoolean(p != null);
+
+		for (int i = 0; i < n; i++) out.writeInt(structure.avant.getOrdre()[i]);
+		for (int i = 0; i < n; i++) out.writeInt(structure.avant.getNiveau(i));
+
+		if (p != null)
+		{
+			out.writeInt(p.finProjet);
+			for (int i = 0; i < n; i++) out.writeInt(p.datePlusTot [i]);
+			for (int i = 0; i < n; i++) out.writeInt(p.datePlusTard[i]);
+			p.reseau.ecrire(out);
+		}
+
+		CRC32C crc = new CRC32C();
+		crc.update(octets.toByteArray());
+		out.writeInt((int) crc.getValue());
+		out.flush();
+
+		Files.createDirectories(this.dossier);
+
+		Path temp = Files.createTempFile(this.dossier, cible.getFileName().toString(), ".tmp");
+		try
+		{
+			Files.write(temp, octets.toByteArray());
+			try
+			{
+				Files.move(temp, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			}
+			catch (AtomicMoveNotSupportedException e)
+			{
+				Files.move(temp, cible, StandardCopyOption.REPLACE_EXISTING);
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(temp);
+		}
+	}
+
+	private Calcul lireCalcul(Cle cle)
+	{
+		DataInputStream in = this.ouvrir(cle);
+		if (in == null) return null;
+
+		try
+		{
+			Structure s    = CachePlanning.lireStructure(in, cle.nbNoeuds);
+			int       fin  = in.readInt();
+			int[]     tot  = new int[cle.nbNoeuds];
+			int[]     tard = new int[cle.nbNoeuds];
+
+			for (int i = 0; i < tot.length;  i++) tot [i] = in.readInt();
+			for (int i = 0; i < tard.length; i++) tard[i] = in.readInt();
+
+			return new Calcul(s, tot, tard, fin, ReseauCritique.lire(in));
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	private Structure lireStructure(Cle cle)
+	{
+		DataInputStream in = this.ouvrir(cle);
+		if (in == null) return null;
+
+		try
+		{
+			return CachePlanning.lireStructure(in, cle.nbNoeuds);
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	private static Structure lireStructure(DataInputStream in, int n) throws IOException
+	{
+		int[] ordre   = new int[n];
+		int[] niveaux = new int[n];
+
+		for (int i = 0; i < n; i++) ordre  [i] = in.readInt();
+		for (int i = 0; i < n; i++) niveaux[i] = in.readInt();
+
+		return new Structure(new OrdreTopologique(ordre, niveaux));
+	}
+
+	/**
+	 * Ouvre le fichier d'une entrée après contrôle du CRC et de l'en-tête
+	 *
+	 * @return L'entrée positionnée sur l'ordre topologique, null si le fichier est absent ou invalide
+	 */
+	private DataInputStream ouvrir(Cle cle)
+	{
+		byte[] octets;
+		try
+		{
+			octets = Files.readAllBytes(this.fichier(cle));
+		}
+		catch (NoSuchFileException e)
+		{
+			return null;
+		}
+		catch (IOException e)
+		{
+			System.err.println("Cache illisible : " + e.getMessage());
+			return null;
+		}
+
+		if (octets.length < 37) return null;
+
+		CRC32C crc = new CRC32C();
+		crc.update(octets, 0, octets.length - 4);
+		if ((int) crc.getValue() != ByteBuffer.wrap(octets, octets.length - 4, 4).getInt()) return null;
+
+		DataInputStream in = new DataInputStream(new ByteArrayInputStream(octets, 0, octets.length - 4));
+		try
+		{
+			boolean valide = in.readInt()  == MAGIQUE        && in.readInt() == VERSION
+			              && in.readLong() == cle.structure  && in.readLong() == cle.durees
+			              && in.readInt()  == cle.nbNoeuds   && in.readInt() == cle.nbArcs
+			              && in.readBoolean() == cle.complet;
+
+			return valide ? in : null;
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	// ========== CLASSES INTERNES ==========
+
+	/**
+	 * Clé d'une entrée : empreintes de la structure et des durées, tailles du graphe
+	 */
+	static final class Cle
+	{
+		final long    structure;   // Empreinte des tâches et des suivants
+		final long    durees;      // Empreinte des durées (0 pour une entrée de structure)
+		final int     nbNoeuds;    // Nombre de tâches
+		final int     nbArcs;      // Nombre d'arcs
+		final boolean complet;     // Vrai pour un planning, faux pour une structure seule
+
+		Cle(long structure, long durees, int nbNoeuds, int nbArcs, boolean complet)
+		{
+			this.structure = structure;
+			this.durees    = durees;
+			this.nbNoeuds  = nbNoeuds;
+			this.nbArcs    = nbArcs;
+			this.complet   = complet;
+		}
+
+		/**
+		 * @return La clé de la structure seule
+		 */
+		Cle structure() { return new Cle(this.structure, 0, this.nbNoeuds, this.nbArcs, false); }
+
+		public boolean equals(Object o)
+		{
+			if (!(o instanceof Cle)) return false;
+
+			Cle c = (Cle) o;
+			return c.structure == this.structure && c.durees == this.durees && c.nbNoeuds == this.nbNoeuds
+			       && c.nbArcs == this.nbArcs && c.complet == this.complet;
+		}
+
+		public int hashCode() { return Long.hashCode(this.structure * 31 + this.durees); }
+	}
+
+	/**
+	 * Entrée du cache, jamais modifiée une fois rangée
+	 */
+	abstract static class Entree
+	{
+		/**
+		 * @return Le nombre de cases occupées par l'entrée
+		 */
+		abstract long getPoids();
+	}
+
+	/**
+	 * Ordre topologique d'un graphe avant tri, et le même ordre une fois les tâches renumérotées
+	 */
+	static final class Structure extends Entree
+	{
+		final OrdreTopologique avant;   // Ordre et niveaux selon les identifiants du chargement
+		final OrdreTopologique apres;   // Ordre et niveaux après le tri (identifiant = rang)
+
+		Structure(OrdreTopologique avant)
+		{
+			int[] ordre   = avant.getOrdre();
+			int[] rangs   = new int[ordre.length];
+			int[] niveaux = new int[ordre.length];
+
+			// Après le tri, les tâches sont numérotées dans l'ordre : l'ordre devient l'identité
+			for (int r = 0; r < ordre.length; r++)
+			{
+				rangs  [r] = r;
+				niveaux[r] = avant.getNiveau(ordre[r]);
+			}
+
+			this.avant = avant;
+			this.apres = new OrdreTopologique(rangs, niveaux);
+		}
+
+		long getPoids() { return 4L * this.avant.getOrdre().length; }
+	}
+
+	/**
+	 * Calcul d'un graphe trié : dates, fin du projet et réseau critique
+	 */
+	static final class Calcul extends Entree
+	{
+		final Structure      structure;     // Ordre utilisé pour le tri
+		final int[]          datePlusTot;   // Dates au plus tôt, selon les identifiants après tri
+		final int[]          datePlusTard;  // Dates au plus tard, selon les identifiants après tri
+		final int            finProjet;     // Fin du projet
+		final ReseauCritique reseau;        // Réseau critique, sans graphe (voir ReseauCritique.attacher)
+
+		Calcul(Structure structure, int[] datePlusTot, int[] datePlusTard, int finProjet, ReseauCritique reseau)
+		{
+			this.structure    = structure;
+			this.datePlusTot  = datePlusTot;
+			this.datePlusTard = datePlusTard;
+			this.finProjet    = finProjet;
+			this.reseau       = reseau;
+		}
+
+		long getPoids() { return 2L * this.datePlusTot.length + this.reseau.getPoids(); }
+	}
+}
@@ -0,0 +1,315 @@
+package Metier;
+
+import java.time.LocalDate;
+
+/**
+ * Classe Calendrier - Dates calendaires d'un projet MPM
+ * La date de début est lue une seule fois et gardée en jours depuis le 01/01/1970 ;
+ * une date du projet (décalage en jours depuis le début) est convertie par calcul,
+ * sans Calendar ni SimpleDateFormat. Les libellés jj/mm sont gardés dans une table
+ * indexée par décalage, et dans deux tables indexées par jour autour du début pour les
+ * décalages négatifs et les jours donnés directement : un réaffichage du graphe ne crée plus aucun objet.
+ * Une date d'une autre année que le début du projet est affichée jj/mm/aa.
+ * Avec un calendrier de travail, le décalage compte des jours ouvrés (voir JoursOuvres).
+ */
+public class Calendrier
+{
+	// ========== CONSTANTES ==========
+
+	public  static final String DATE_INCONNUE = "??/??";    // Libellé d'une date de début illisible
+	static final int            INCONNU       = Integer.MIN_VALUE;
+	private static final int    JOURS_GARDES  = 1 << 16;    // Écart au début au-delà duquel un libellé n'est pas gardé
+
+	// ========== ATTRIBUTS ==========
+
+	private String   dateDebut;     // Date de début telle que saisie (dd/MM/yyyy ou dd/MM)
+	private int      jourDebut;     // Date de début en jours depuis le 01/01/1970 (INCONNU si illisible)
+	private int      anneeDebut;    // Année de la date de début
+	private JoursOuvres ouvres;     // Calendrier de travail (null : tous les jours comptent)
+	private String[] libelles;      // Libellé de chaque décalage positif, rempli à la demande
+	private String[] libellesApres; // Libellé de chaque jour à partir du début (case 0 : le début), rempli à la demande
+	private String[] libellesAvant; // Libellé de chaque jour avant le début (case 0 : la veille), rempli à la demande
+
+	private static volatile Calendrier dernier;   // Dernier calendrier demandé par pour(), gardé tant que la date ne change pas
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Constructeur d'un calendrier
+	 * Une date au format dd/MM reçoit l'année courante.
+	 *
+	 * @param dateDebut La date de début du projet au format dd/MM/yyyy ou dd/MM (peut être null)
+	 */
+	public Calendrier(String dateDebut)
+	{
+		this(dateDebut, null);
+	}
+
+	/**
+	 * Constructeur d'un calendrier dont les décalages sont des jours ouvrés
+	 *
+	 * @param dateDebut La date de début du projet au format dd/MM/yyyy ou dd/MM (peut être null)
+	 * @param ouvres Le calendrier de travail (null : tous les jours comptent)
+	 */
+	public Calendrier(String dateDebut, JoursOuvres ouvres)
+	{
+		this.dateDebut     = dateDebut;
+		this.ouvres        = ouvres;
+		this.jourDebut     = Calendrier.lireDate(dateDebut);
+		this.libelles      = new String[64];
+		this.libellesApres = new String[64];
+		this.libellesAvant = new String[16];
+
+		if (this.jourDebut != INCONNU)
+			this.anneeDebut = Calendrier.annee(this.jourDebut);
+		else if (dateDebut != null)
+			System.err.println("Format de date non reconnu : " + dateDebut);
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	/**
+	 * @return La date de début telle que saisie
+	 */
+	public String getDateDebut()  { return this.dateDebut;             }
+
+	/**
+	 * @return true si la date de début a pu être lue
+	 */
+	public boolean estValide()    { return this.jourDebut != INCONNU;  }
+
+	/**
+	 * @return La date de début en jours depuis le 01/01/1970
+	 */
+	public int getJourDebut()     { return this.jourDebut;             }
+
+	/**
+	 * @return Le calendrier de travail, null si tous les jours comptent
+	 */
+	public JoursOuvres getJoursOuvres() { return this.ouvres;          }
+
+	// ========== CONVERSIONS ==========
+
+	/**
+	 * Retourne le libellé d'une date du projet : jj/mm, ou jj/mm/aa hors de l'année de début
+	 * Les libellés sont calculés une fois, puis relus dans la table des décalages positifs
+	 * ou, pour un décalage négatif, dans celle des jours (voir libelleJour).
+	 * Les tables sont remplies sans verrou : deux fils peuvent au pire calculer le même libellé.
+	 *
+	 * @param decalage Le nombre de jours depuis le début du projet (peut être négatif)
+	 * @return Le libellé de la date
+	 */
+	public String libelle(int decalage)
+	{
+		if (this.jourDebut == INCONNU) return DATE_INCONNUE;
+		if (decalage < 0)              return this.libelleJour(this.jour(decalage));
+
+		String[] table = this.libelles;
+		if (decalage >= table.length) this.libelles = table = Calendrier.agrandir(table, decalage);
+
+		String l = table[decalage];
+		if (l == null) table[decalage] = l = this.formater(this.jour(decalage), false);
+
+		return l;
+	}
+
+	/**
+	 * Retourne une date du projet au format dd/MM/yyyy
+	 *
+	 * @param decalage Le nombre de jours depuis le début du projet (peut être négatif)
+	 * @return La date complète, null si la date de début est illisible
+	 */
+	public String dateComplete(int decalage)
+	{
+		if (this.jourDebut == INCONNU) return null;
+
+		return this.formater(this.jour(decalage), true);
+	}
+
+	/**
+	 * Retourne le jour d'une date du projet
+	 * Avec un calendrier de travail, le décalage 0 est le premier jour ouvré à partir du début.
+	 *
+	 * @param decalage Le décalage depuis le début du projet (peut être négatif)
+	 * @return Le jour en jours depuis le 01/01/1970, INCONNU si la date de début est illisible
+	 */
+	private int jour(int decalage)
+	{
+		if (this.jourDebut == INCONNU) return INCONNU;
+		if (this.ouvres    == null)    return this.jourDebut + decalage;
+
+		return this.ouvres.ajouter(this.jourDebut, decalage);
+	}
+
+	/**
+	 * Retourne le libellé d'un jour quelconque, calculé une fois puis relu dans la table des jours
+	 * Seuls les jours à moins de JOURS_GARDES du début sont gardés.
+	 *
+	 * @param jour Le jour en jours depuis le 01/01/1970
+	 * @return Le libellé jj/mm ou jj/mm/aa
+	 */
+	private String libelleJour(int jour)
+	{
+		if (this.jourDebut == INCONNU || jour == INCONNU) return DATE_INCONNUE;
+
+		int     ecart = jour - this.jourDebut;
+		boolean avant = ecart < 0;
+		int     k     = avant ? -ecart - 1 : ecart;
+
+		if (k >= JOURS_GARDES) return this.formater(jour, false);
+
+		String[] table = avant ? this.libellesAvant : this.libellesApres;
+		if (k >= table.length)
+		{
+			table = Calendrier.agrandir(table, k);
+			if (avant) this.libellesAvant = table;
+			else       this.libellesApres = table;
+		}
+
+		String l = table[k];
+		if (l == null) table[k] = l = this.formater(jour, false);
+
+		return l;
+	}
+
+	/**
+	 * Retourne une copie agrandie d'une table de libellés, pour y ranger la case k
+	 */
+	private static String[] agrandir(String[] table, int k)
+	{
+		String[] agrandie = new String[Math.max(table.length * 2, k + 1)];
+		System.arraycopy(table, 0, agrandie, 0, table.length);
+
+		return agrandie;
+	}
+
+	/**
+	 * Écrit une date jj/mm, jj/mm/aa si l'année diffère de celle du début, ou jj/mm/aaaa
+	 */
+	private String formater(int jour, boolean complete)
+	{
+		// Conversion jour -> (année, mois, jour) de H. Hinnant, calendrier grégorien proleptique
+		int z     = jour + 719468;
+		int ere   = Math.floorDiv(z, 146097);
+		int jde   = z - ere * 146097;
+		int ade   = (jde - jde / 1460 + jde / 36524 - jde / 146096) / 365;
+		int jda   = jde - (365 * ade + ade / 4 - ade / 100);
+		int mp    = (5 * jda + 2) / 153;
+		int j     = jda - (153 * mp + 2) / 5 + 1;
+		int m     = mp < 10 ? mp + 3 : mp - 9;
+		int a     = ade + ere * 400 + (m <= 2 ? 1 : 0);
+
+		boolean avecAnnee = complete || a != this.anneeDebut;
+		char[]  c         = new char[complete ? 10 : avecAnnee ? 8 : 5];
+
+		c[0] = (char) ('0' + j / 10);
+		c[1] = (char) ('0' + j % 10);
+		c[2] = '/';
+		c[3] = (char) ('0' + m / 10);
+		c[4] = (char) ('0' + m % 10);
+
+		if (complete)
+		{
+			c[5] = '/';
+			c[6] = (char) ('0' + a / 1000 % 10);
+			c[7] = (char) ('0' + a / 100  % 10);
+			c[8] = (char) ('0' + a / 10   % 10);
+			c[9] = (char) ('0' + a        % 10);
+		}
+		else if (avecAnnee)
+		{
+			c[5] = '/';
+			c[6] = (char) ('0' + a / 10 % 10);
+			c[7] = (char) ('0' + a      % 10);
+		}
+		return new String(c);
+	}
+
+	// ========== LECTURE DES DATES ==========
+
+	/**
+	 * Lit une date dd/MM/yyyy ou dd/MM (année courante), sans expression régulière
+	 *
+	 * @param date La date
+	 * @return La date en jours depuis le 01/01/1970, INCONNU si elle est illisible ou n'existe pas
+	 */
+	static int lireDate(String date)
+	{
+		if (date == null || (date.length() != 10 && date.length() != 5)) return INCONNU;
+		if (date.charAt(2) != '/' || (date.length() == 10 && date.charAt(5) != '/')) return INCONNU;
+
+		int j = Calendrier.lireChiffres(date, 0, 2);
+		int m = Calendrier.lireChiffres(date, 3, 2);
+		int a = date.length() == 10 ? Calendrier.lireChiffres(date, 6, 4) : LocalDate.now().getYear();
+
+		if (j < 1 || m < 1 || m > 12 || a < 0 || j > Calendrier.joursDuMois(m, a)) return INCONNU;
+
+		return Calendrier.jourDepuis(a, m, j);
+	}
+
+	private static int lireChiffres(String s, int debut, int nb)
+	{
+		int v = 0;
+		for (int i = debut; i < debut + nb; i++)
+		{
+			char c = s.charAt(i);
+			if (c < '0' || c > '9') return -1;
+			v = v * 10 + (c - '0');
+		}
+		return v;
+	}
+
+	private static int joursDuMois(int m, int a)
+	{
+		if (m == 2) return (a % 4 == 0 && (a % 100 != 0 || a % 400 == 0)) ? 29 : 28;
+
+		return (m == 4 || m == 6 || m == 9 || m == 11) ? 30 : 31;
+	}
+
+	/**
+	 * Conversion (année, mois, jour) -> jours depuis le 01/01/1970 (H. Hinnant)
+	 */
+	private static int jourDepuis(int a, int m, int j)
+	{
+		a -= m <= 2 ? 1 : 0;
+
+		int ere = Math.floorDiv(a, 400);
+		int ade = a - ere * 400;
+		int jda = (153 * (m > 2 ? m - 3 : m + 9) + 2) / 5 + j - 1;
+		int jde = ade * 365 + ade / 4 - ade / 100 + jda;
+
+		return ere * 146097 + jde - 719468;
+	}
+
+	private static int annee(int jour)
+	{
+		int z   = jour + 719468;
+		int ere = Math.floorDiv(z, 146097);
+		int jde = z - ere * 146097;
+		int ade = (jde - jde / 1460 + jde / 36524 - jde / 146096) / 365;
+		int jda = jde - (365 * ade + ade / 4 - ade / 100);
+		int mp  = (5 * jda + 2) / 153;
+
+		return ade + ere * 400 + (mp >= 10 ? 1 : 0);
+	}
+
+	// ========== CALENDRIER PARTAGÉ ==========
+
+	/**
+	 * Retourne un calendrier pour une date de début, réutilisé d'un appel à l'autre
+	 * pour la même date : les appels répétés avec la date du projet ne relisent pas la date.
+	 *
+	 * @param dateDebut La date de début au format dd/MM/yyyy ou dd/MM
+	 * @return Le calendrier de cette date
+	 */
+	public static Calendrier pour(String dateDebut)
+	{
+		Calendrier c = Calendrier.dernier;
+		if (c == null || (c.dateDebut == null ? dateDebut != null : !c.dateDebut.equals(dateDebut)))
+		{
+			c = new Calendrier(dateDebut);
+			Calendrier.dernier = c;
+		}
+		return c;
+	}
+}
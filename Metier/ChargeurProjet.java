@@ -0,0 +1,951 @@
+package Metier;
+
+import java.awt.Point;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.IntConsumer;
+
+/**
+ * Classe ChargeurProjet - Lecture d'un fichier de projet MPM sans expression régulière
+ * Les lignes sont découpées à la main (champs séparés par '|', noms séparés par ',')
+ * en morceaux : définitions de tâches, dépendances et positions, les noms étant rangés
+ * dans une table de hachage sur leurs octets. Les morceaux sont ensuite assemblés en un
+ * graphe dans l'ordre du fichier ; seuls les noms des tâches créées deviennent des String.
+ *
+ * En mode séquentiel, le fichier est lu par blocs depuis un FileChannel en un seul morceau.
+ * En mode parallèle, il est projeté en mémoire et coupé en morceaux aux fins de ligne ;
+ * les morceaux sont lus par un ForkJoinPool, puis les noms sont unifiés en parallèle,
+ * chaque fil traitant une partition des valeurs de hachage.
+ *
+ * Format d'une ligne : nom|duree|prec1,prec2 et, pour les fichiers avec positions, |x,y
+ * Un précédent peut préciser son lien après ':' (voir Lien) : nom|duree|A,B:SS+2,C:FF-1
+ */
+public class ChargeurProjet
+{
+	// ========== CONSTANTES ==========
+
+	private static final int    TAILLE_TAMPON      = 1 << 16;     // Taille initiale du tampon de lecture
+	private static final int    LIGNES_DETECTION   = 16;          // Lignes examinées pour reconnaître le format
+	private static final int    NB_CHAMPS_MAX      = 4;           // Champs utiles d'une ligne
+	private static final long   SEUIL_PARALLELE    = 1L << 22;    // Taille de fichier en dessous de laquelle on lit d'un seul fil
+	private static final long   TAILLE_MIN_MORCEAU = 1L << 20;    // Taille minimale d'un morceau (mode parallèle)
+	private static final long   TAILLE_MAX_MORCEAU = 1L << 26;    // Taille maximale d'un morceau (mode parallèle)
+
+	private static final int    RETENUE            = -2;          // Définition retenue, identifiant pas encore attribué
+	private static final int    POS_DEBUT          = -2;          // Position de la tâche "Debut"
+	private static final int    POS_FIN            = -3;          // Position de la tâche "Fin"
+
+	private static final byte[] DEBUT = "Debut".getBytes(StandardCharsets.UTF_8);
+	private static final byte[] FIN   = "Fin"  .getBytes(StandardCharsets.UTF_8);
+	private static final byte[] BOM   = { (byte) 0xEF, (byte) 0xBB, (byte) 0xBF };   // Marque d'ordre des octets UTF-8
+
+	// ========== ATTRIBUTS ==========
+
+	private boolean                estPosition;      // Vrai si les lignes portent des positions
+	private int                    nbThreads;        // Nombre de fils de lecture (1 : lecture séquentielle)
+	private GrapheCompact          graphe;           // Graphe construit
+	private HashMap<String, Tache> index;            // Index nom -> tâche construit
+	private ArrayList<String>      nomsPositions;    // Noms des tâches avec positions
+	private ArrayList<Point>       coordsPositions;  // Positions lues
+	private TableNoms[]            partitions;       // Noms de tout le fichier, répartis selon leur hachage
+
+	// ========== CONSTRUCTEURS ==========
+
+	/**
+	 * Constructeur d'un chargeur séquentiel
+	 *
+	 * @param estPosition Indique si les positions des nœuds sont lues
+	 */
+	public ChargeurProjet(boolean estPosition)
+	{
+		this(estPosition, 1);
+	}
+
+	/**
+	 * Constructeur d'un chargeur
+	 * Avec plus d'un fil, les fichiers de plus de quelques Mo sont lus en parallèle.
+	 *
+	 * @param estPosition Indique si les positions des nœuds sont lues
+	 * @param nbThreads Nombre de fils de lecture
+	 */
+	public ChargeurProjet(boolean estPosition, int nbThreads)
+	{
+		this.estPosition = estPosition;
+		this.nbThreads   = Math.max(1, nbThreads);
+	}
+
+	// ========== MÉTHODES DE CHARGEMENT ==========
+
+	/**
+	 * Lit un fichier de projet et construit son graphe
+	 * La tâche "Debut" est créée en premier, "Fin" après les lignes du fichier ;
+	 * les tâches orphelines ne sont pas encore rattachées.
+	 *
+	 * @param chemin Chemin du fichier
+	 * @throws IOException si le fichier ne peut pas être lu
+	 * @throws NumberFormatException si une durée ou une position n'est pas un entier
+	 */
+	public void charger(String chemin) throws IOException
+	{
+		ForkJoinPool pool = null;
+
+		try (FileChannel canal = FileChannel.open(Paths.get(chemin), StandardOpenOption.READ))
+		{
+			long      taille = canal.size();
+			long      debut  = ChargeurProjet.sauterBom(canal);
+			Morceau[] morceaux;
+
+			if (this.nbThreads == 1 || taille < SEUIL_PARALLELE)
+			{
+				morceaux = new Morceau[] { new Morceau(this.estPosition, false) };
+				ChargeurProjet.lireFlux(canal, morceaux[0]);
+			}
+			else
+			{
+				pool     = new ForkJoinPool(this.nbThreads);
+				morceaux = this.lireMorceaux(canal, debut, taille, pool);
+			}
+
+			this.assembler(morceaux, pool);
+		}
+		catch (UncheckedIOException e)
+		{
+			throw e.getCause();
+		}
+		finally
+		{
+			if (pool != null) pool.shutdown();
+		}
+	}
+
+	/**
+	 * Reconnaît le format d'un fichier d'après ses premières lignes non vides
+	 * Quatre champs sur une ligne indiquent des positions ; deux ou trois, le format de base.
+	 *
+	 * @param chemin Chemin du fichier
+	 * @return "pos", "base", ou null si le format n'est pas reconnu
+	 * @throws IOException si le fichier ne peut pas être lu
+	 */
+	public static String determinerFormat(String chemin) throws IOException
+	{
+		Morceau m = new Morceau(false, true);
+
+		try (FileChannel canal = FileChannel.open(Paths.get(chemin), StandardOpenOption.READ))
+		{
+			ChargeurProjet.sauterBom(canal);
+			ChargeurProjet.lireFlux(canal, m);
+		}
+
+		if      (m.maxChamps == 4)                       return "pos";
+		else if (m.maxChamps == 2 || m.maxChamps == 3)   return "base";
+		else                                             return null;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public GrapheCompact          getGraphe()          { return this.graphe;          }
+	public HashMap<String, Tache> getIndex()           { return this.index;           }
+	public ArrayList<String>      getNomsPositions()   { return this.nomsPositions;   }
+	public ArrayList<Point>       getCoordsPositions() { return this.coordsPositions; }
+
+	// ========== LECTURE ==========
+
+	/**
+	 * Place le canal après la marque d'ordre des octets UTF-8 (EF BB BF) qui peut ouvrir le fichier,
+	 * pour qu'elle ne reste pas collée au premier nom
+	 *
+	 * @return La position du premier octet utile (0 ou 3)
+	 */
+	private static long sauterBom(FileChannel canal) throws IOException
+	{
+		ByteBuffer debut = ByteBuffer.allocate(BOM.length);
+		while (debut.hasRemaining())
+		{
+			if (canal.read(debut, debut.position()) <= 0) break;
+		}
+
+		long pos = debut.position() == BOM.length && Arrays.equals(debut.array(), BOM) ? BOM.length : 0;
+		canal.position(pos);
+		return pos;
+	}
+
+	/**
+	 * Lit le fichier par blocs et passe chaque ligne au morceau
+	 * Une ligne coupée par la fin du tampon est ramenée au début avant la lecture suivante ;
+	 * le tampon n'est agrandi que pour une ligne plus longue que lui.
+	 */
+	private static void lireFlux(FileChannel canal, Morceau m) throws IOException
+	{
+		ByteBuffer tampon = ByteBuffer.allocate(TAILLE_TAMPON);
+		int        examen = 0;
+
+		while (canal.read(tampon) >= 0)
+		{
+			byte[] b          = tampon.array();
+			int    fin        = tampon.position();
+			int    debutLigne = 0;
+
+			for (int i = examen; i < fin; i++)
+			{
+				if (b[i] == '\n' || b[i] == '\r')
+				{
+					m.traiterLigne(b, debutLigne, i);
+					debutLigne = i + 1;
+
+					if (m.detection && m.nbLignes >= LIGNES_DETECTION) return;
+				}
+			}
+
+			// Reste de ligne ramené au début, tampon agrandi s'il est plein d'une seule ligne
+			int reste = fin - debutLigne;
+			if (debutLigne == 0 && fin == b.length)
+			{
+				tampon = ByteBuffer.wrap(Arrays.copyOf(b, b.length * 2));
+			}
+			else
+			{
+				System.arraycopy(b, debutLigne, b, 0, reste);
+			}
+			tampon.position(reste);
+			examen = reste;
+		}
+
+		if (tampon.position() > 0) m.traiterLigne(tampon.array(), 0, tampon.position());
+	}
+
+	/**
+	 * Coupe le fichier en morceaux aux fins de ligne et les lit en parallèle
+	 * Chaque morceau est projeté en mémoire puis copié dans un tableau le temps de sa lecture.
+	 */
+	private Morceau[] lireMorceaux(FileChannel canal, long debut, long taille, ForkJoinPool pool) throws IOException
+	{
+		long   cible  = Math.max(TAILLE_MIN_MORCEAU, Math.min(TAILLE_MAX_MORCEAU, taille / (this.nbThreads * 4L)));
+		long[] bornes = new long[16];
+		int    nb     = 0;
+
+		// ========== BORNES DES MORCEAUX ==========
+		ByteBuffer tampon = ByteBuffer.allocate(TAILLE_TAMPON);
+		long       pos    = debut;
+
+		while (pos < taille)
+		{
+			if (nb + 1 >= bornes.length) bornes = Arrays.copyOf(bornes, bornes.length * 2);
+			bornes[nb++] = pos;
+
+			pos = pos + cible >= taille ? taille : ChargeurProjet.finDeLigne(canal, pos + cible, taille, tampon);
+		}
+		bornes[nb] = taille;
+
+		// ========== LECTURE EN PARALLÈLE ==========
+		Morceau[]    morceaux = new Morceau[nb];
+		final long[] b        = bornes;
+
+		ChargeurProjet.enParallele(pool, nb, k ->
+		{
+			try
+			{
+				int              longueur = (int) (b[k + 1] - b[k]);
+				MappedByteBuffer zone     = canal.map(FileChannel.MapMode.READ_ONLY, b[k], longueur);
+				byte[]           octets   = new byte[longueur];
+				Morceau          m        = new Morceau(this.estPosition, false);
+
+				zone.get(octets);
+				m.lireLignes(octets, longueur);
+				morceaux[k] = m;
+			}
+			catch (IOException e)
+			{
+				throw new UncheckedIOException(e);
+			}
+		});
+
+		return morceaux;
+	}
+
+	/**
+	 * Retourne la position qui suit la première fin de ligne à partir d'une position donnée
+	 */
+	private static long finDeLigne(FileChannel canal, long pos, long taille, ByteBuffer tampon) throws IOException
+	{
+		while (pos < taille)
+		{
+			tampon.clear();
+			int lus = canal.read(tampon, pos);
+			if (lus <= 0) break;
+
+			byte[] b = tampon.array();
+			for (int i = 0; i < lus; i++)
+			{
+				if (b[i] == '\n' || b[i] == '\r') return pos + i + 1;
+			}
+			pos += lus;
+		}
+		return taille;
+	}
+
+	// ========== ASSEMBLAGE ==========
+
+	/**
+	 * Construit le graphe à partir des morceaux lus, dans l'ordre du fichier
+	 * Pour chaque nom, seule la première définition est retenue ; les dépendances sont reliées
+	 * une fois toutes les tâches créées, les noms inconnus étant ignorés.
+	 */
+	private void assembler(Morceau[] morceaux, ForkJoinPool pool)
+	{
+		int nbParts = pool == null ? 1 : pool.getParallelism();
+		int nbDefs  = 0;
+
+		for (Morceau m : morceaux) nbDefs += m.nbDefs;
+
+		this.graphe          = new GrapheCompact(nbDefs + 2);
+		this.index           = new HashMap<>((nbDefs + 2) * 4 / 3 + 1);
+		this.nomsPositions   = new ArrayList<>();
+		this.coordsPositions = new ArrayList<>();
+		this.partitions      = new TableNoms[nbParts];
+
+		for (int p = 0; p < nbParts; p++) this.partitions[p] = new TableNoms(64);
+
+		// Tâche système de début, placée en tête : toute définition de "Debut" sera écartée
+		this.setValeurGlobale(this.nomerGlobal(DEBUT), this.creerTache("Debut", 0));
+
+		// ========== NOMS GLOBAUX : UNE PARTITION PAR FIL, MORCEAUX DANS L'ORDRE ==========
+		for (Morceau m : morceaux)
+		{
+			m.global = new int[m.noms.nb];
+			m.defId  = new int[m.nbDefs];
+		}
+
+		ChargeurProjet.enParallele(pool, nbParts, p ->
+		{
+			TableNoms t = this.partitions[p];
+
+			for (Morceau m : morceaux)
+			{
+				TableNoms local = m.noms;
+
+				for (int n = 0; n < local.nb; n++)
+				{
+					int h = local.hachage[n];
+					if (ChargeurProjet.partition(h, nbParts) != p) continue;
+
+					int g = t.nomer(local.octets, local.debut[n], local.longueur[n], h);
+					m.global[n] = g * nbParts + p;
+
+					// Première définition du nom dans le fichier : retenue, les suivantes écartées
+					int d = local.valeur[n];
+					if (d >= 0)
+					{
+						if (t.valeur[g] == -1) t.valeur[g] = m.defId[d] = RETENUE;
+						else                   m.defId[d] = -1;
+					}
+				}
+			}
+		});
+
+		// ========== CRÉATION DES TÂCHES ==========
+		for (Morceau m : morceaux)
+		{
+			for (int d = 0; d < m.nbDefs; d++)
+			{
+				if (m.defId[d] == -1) continue;
+
+				if (m.erreurs != null && m.erreurs.containsKey(d)) throw new NumberFormatException(m.erreurs.get(d));
+
+				int n  = m.defNom[d];
+				int id = this.creerTache(m.noms.nom(n), m.defDuree[d]);
+
+				m.defId[d] = id;
+				this.setValeurGlobale(m.global[n], id);
+			}
+		}
+
+		// Tâche système de fin, créée après les lignes du fichier
+		this.setValeurGlobale(this.nomerGlobal(FIN), this.creerTache("Fin", 0));
+
+		// ========== POSITIONS ==========
+		for (Morceau m : morceaux)
+		{
+			for (int k = 0; k < m.nbPos; k++)
+			{
+				int    d = m.posDef[k];
+				String nom;
+
+				if      (d == POS_DEBUT)    nom = "Debut";
+				else if (d == POS_FIN)      nom = "Fin";
+				else if (m.defId[d] < 0)    continue;
+				else                        nom = this.graphe.getVue(m.defId[d]).getNom();
+
+				this.nomsPositions  .add(nom);
+				this.coordsPositions.add(new Point(m.posX[k], m.posY[k]));
+			}
+		}
+
+		// ========== DÉPENDANCES : RÉSOLUES EN PARALLÈLE, RELIÉES DANS L'ORDRE DU FICHIER ==========
+		ChargeurProjet.enParallele(pool, morceaux.length, k ->
+		{
+			Morceau m = morceaux[k];
+
+			for (int a = 0; a < m.nbArcs; a++)
+			{
+				int suivant   = m.defId[m.arcDef[a]];
+				int precedent = this.getValeurGlobale(m.global[m.arcNom[a]]);
+
+				m.arcNom[a] = suivant < 0 ? -1 : precedent;
+				m.arcDef[a] = suivant;
+			}
+		});
+
+		for (Morceau m : morceaux)
+		{
+			for (int a = 0; a < m.nbArcs; a++)
+			{
+				if (m.arcNom[a] < 0) continue;
+
+				if (m.arcType == null) this.graphe.ajouterArc(m.arcNom[a], m.arcDef[a]);
+				else                   this.graphe.ajouterArc(m.arcNom[a], m.arcDef[a], m.arcType[a], m.arcDelai[a]);
+			}
+		}
+	}
+
+	/**
+	 * Crée une tâche dans le graphe et l'enregistre dans l'index
+	 */
+	private int creerTache(String nom, int duree)
+	{
+		Tache t = new Tache(nom, duree, this.graphe);
+		this.index.put(nom, t);
+		return t.getId();
+	}
+
+	// ========== NOMS GLOBAUX ==========
+
+	/**
+	 * Retourne le numéro global d'un nom (numéro dans sa partition * nombre de partitions + partition)
+	 */
+	private int nomerGlobal(byte[] nom)
+	{
+		int h = TableNoms.hacher(nom, 0, nom.length);
+		int p = ChargeurProjet.partition(h, this.partitions.length);
+
+		return this.partitions[p].nomer(nom, 0, nom.length, h) * this.partitions.length + p;
+	}
+
+	private int getValeurGlobale(int g)
+	{
+		return this.partitions[g % this.partitions.length].valeur[g / this.partitions.length];
+	}
+
+	private void setValeurGlobale(int g, int valeur)
+	{
+		this.partitions[g % this.partitions.length].valeur[g / this.partitions.length] = valeur;
+	}
+
+	/**
+	 * Partition d'un nom d'après un brassage de son hachage
+	 * Les bits du hachage servent aussi à placer le nom dans la table de sa partition :
+	 * les prendre tels quels ne laisserait qu'une partie des cases utilisables.
+	 */
+	private static int partition(int h, int nbParts)
+	{
+		return (int) (((h * 0x9E3779B9L) & 0xFFFFFFFFL) * nbParts >>> 32);
+	}
+
+	// ========== MÉTHODES UTILITAIRES ==========
+
+	/**
+	 * Exécute une action pour chaque indice de 0 à nb - 1, dans le pool s'il y en a un
+	 */
+	private static void enParallele(ForkJoinPool pool, int nb, IntConsumer action)
+	{
+		if (pool == null)
+		{
+			for (int i = 0; i < nb; i++) action.accept(i);
+			return;
+		}
+
+		ArrayList<ForkJoinTask<?>> travaux = new ArrayList<>(nb);
+		for (int i = 0; i < nb; i++)
+		{
+			final int k = i;
+			travaux.add(pool.submit(() -> action.accept(k)));
+		}
+		for (ForkJoinTask<?> travail : travaux) travail.join();
+	}
+
+	/**
+	 * Lit un entier écrit en décimal, avec espaces autour et signe facultatifs
+	 *
+	 * @throws NumberFormatException si le texte n'est pas un entier
+	 */
+	private static int lireEntier(byte[] b, int debut, int fin)
+	{
+		while (debut < fin && (b[debut]   & 0xFF) <= ' ') debut++;
+		while (fin > debut && (b[fin - 1] & 0xFF) <= ' ') fin--;
+
+		boolean negatif = debut < fin && b[debut] == '-';
+		if (debut < fin && (b[debut] == '-' || b[debut] == '+')) debut++;
+
+		if (debut == fin || fin - debut > 10)
+			throw new NumberFormatException("For input string: \"" + new String(b, debut, fin - debut, StandardCharsets.UTF_8) + "\"");
+
+		long val = 0;
+		for (int i = debut; i < fin; i++)
+		{
+			if (b[i] < '0' || b[i] > '9')
+				throw new NumberFormatException("For input string: \"" + new String(b, debut, fin - debut, StandardCharsets.UTF_8) + "\"");
+
+			val = val * 10 + (b[i] - '0');
+		}
+
+		if (negatif) val = -val;
+		if (val < Integer.MIN_VALUE || val > Integer.MAX_VALUE)
+			throw new NumberFormatException("For input string: \"" + new String(b, debut, fin - debut, StandardCharsets.UTF_8) + "\"");
+
+		return (int) val;
+	}
+
+	/**
+	 * Compare une suite d'octets à un nom connu
+	 */
+	private static boolean egal(byte[] b, int debut, int fin, byte[] nom)
+	{
+		return Arrays.equals(b, debut, fin, nom, 0, nom.length);
+	}
+
+	// ========== CLASSES INTERNES ==========
+
+	/**
+	 * Table de hachage à adressage ouvert sur les octets des noms
+	 * Chaque nom reçoit un numéro dans l'ordre d'arrivée et une valeur entière (-1 au départ).
+	 */
+	private static class TableNoms
+	{
+		byte[] octets;     // Octets de tous les noms, bout à bout
+		int    finOctets;  // Première case libre de octets
+		int[]  debut;      // Début de chaque nom dans octets
+		int[]  longueur;   // Longueur de chaque nom
+		int[]  hachage;    // Valeur de hachage de chaque nom
+		int[]  valeur;     // Valeur associée à chaque nom
+		int    nb;         // Nombre de noms
+		int[]  table;      // Numéro de nom + 1 (0 si case vide)
+
+		TableNoms(int capacite)
+		{
+			this.octets   = new byte[capacite * 16];
+			this.debut    = new int[capacite];
+			this.longueur = new int[capacite];
+			this.hachage  = new int[capacite];
+			this.valeur   = new int[capacite];
+			this.table    = new int[capacite * 2];
+		}
+
+		/**
+		 * Hachage FNV-1a des octets d'un nom
+		 */
+		static int hacher(byte[] b, int debut, int longueur)
+		{
+			int h = 0x811C9DC5;
+			for (int i = debut; i < debut + longueur; i++) h = (h ^ (b[i] & 0xFF)) * 0x01000193;
+			return h;
+		}
+
+		int nomer(byte[] b, int debut, int longueur)
+		{
+			return this.nomer(b, debut, longueur, TableNoms.hacher(b, debut, longueur));
+		}
+
+		/**
+		 * Retourne le numéro d'un nom, en l'ajoutant à la table s'il est nouveau
+		 * Aucun objet n'est créé pour un nom déjà connu.
+		 */
+		int nomer(byte[] b, int debut, int longueur, int h)
+		{
+			int masque = this.table.length - 1;
+			for (int c = h & masque; ; c = (c + 1) & masque)
+			{
+				int num = this.table[c] - 1;
+				if (num < 0) break;
+
+				if (this.hachage[num] == h && this.longueur[num] == longueur
+				    && Arrays.equals(this.octets, this.debut[num], this.debut[num] + longueur, b, debut, debut + longueur))
+					return num;
+			}
+
+			// ========== NOUVEAU NOM ==========
+			if (this.nb == this.debut.length)
+			{
+				int capacite  = this.nb * 2;
+				this.debut    = Arrays.copyOf(this.debut,    capacite);
+				this.longueur = Arrays.copyOf(this.longueur, capacite);
+				this.hachage  = Arrays.copyOf(this.hachage,  capacite);
+				this.valeur   = Arrays.copyOf(this.valeur,   capacite);
+			}
+			if (this.finOctets + longueur > this.octets.length)
+				this.octets = Arrays.copyOf(this.octets, Math.max(this.octets.length * 2, this.finOctets + longueur));
+
+			int num = this.nb++;
+
+			System.arraycopy(b, debut, this.octets, this.finOctets, longueur);
+			this.debut   [num] = this.finOctets;
+			this.longueur[num] = longueur;
+			this.hachage [num] = h;
+			this.valeur  [num] = -1;
+			this.finOctets    += longueur;
+
+			// Table remplie au plus à moitié
+			if (this.nb * 2 > this.table.length)
+			{
+				this.table = new int[this.table.length * 2];
+				masque     = this.table.length - 1;
+
+				for (int n = 0; n < this.nb; n++)
+				{
+					int c = this.hachage[n] & masque;
+					while (this.table[c] != 0) c = (c + 1) & masque;
+					this.table[c] = n + 1;
+				}
+			}
+			else
+			{
+				int c = h & masque;
+				while (this.table[c] != 0) c = (c + 1) & masque;
+				this.table[c] = num + 1;
+			}
+
+			return num;
+		}
+
+		String nom(int num)
+		{
+			return new String(this.octets, this.debut[num], this.longueur[num], StandardCharsets.UTF_8);
+		}
+	}
+
+	/**
+	 * Lignes consécutives d'un fichier, lues sous forme de définitions, dépendances et positions
+	 * Les noms sont ceux d'une table propre au morceau ; la valeur d'un nom est l'indice de sa
+	 * première définition dans le morceau (-1 s'il n'est que cité comme précédent).
+	 * Les règles sont celles du chargement historique : ligne et nom sans espaces autour,
+	 * lignes de moins de deux champs ignorées, une seule tâche par nom (la première lue).
+	 */
+	private static class Morceau
+	{
+		boolean                   estPosition;  // Vrai si les lignes portent des positions
+		boolean                   detection;    // Vrai si l'on ne fait que compter les champs
+		int                       maxChamps;    // Détection : plus grand nombre de champs rencontré
+		int                       nbLignes;     // Détection : nombre de lignes non vides examinées
+
+		TableNoms                 noms;         // Noms cités dans le morceau
+		int[]                     global;       // Numéro global de chaque nom (assemblage)
+
+		int[]                     defNom;       // Nom de chaque définition
+		int[]                     defDuree;     // Durée de chaque définition
+		int[]                     defId;        // Tâche créée pour chaque définition (-1 si écartée)
+		int                       nbDefs;       // Nombre de définitions
+		HashMap<Integer, String>  erreurs;      // Définition -> durée ou position illisible (null si aucune)
+
+		int[]                     arcNom;       // Dépendances : nom du précédent
+		int[]                     arcDef;       // Dépendances : définition suivante
+		byte[]                    arcType;      // Dépendances : type du lien (null tant que tous sont FS sans délai)
+		int[]                     arcDelai;     // Dépendances : délai du lien (null avec arcType)
+		int                       nbArcs;       // Nombre de dépendances
+
+		int[]                     posDef;       // Positions : définition, POS_DEBUT ou POS_FIN
+		int[]                     posX;         // Positions : abscisse
+		int[]                     posY;         // Positions : ordonnée
+		int                       nbPos;        // Nombre de positions
+
+		int[]                     debutChamp;   // Début de chaque champ de la ligne courante
+		int[]                     finChamp;     // Fin de chaque champ de la ligne courante
+		int                       nbChamps;     // Nombre de champs (les champs vides de fin ne comptent pas)
+
+		Morceau(boolean estPosition, boolean detection)
+		{
+			this.estPosition = estPosition;
+			this.detection   = detection;
+			this.noms        = new TableNoms(64);
+			this.defNom      = new int[64];
+			this.defDuree    = new int[64];
+			this.arcNom      = new int[64];
+			this.arcDef      = new int[64];
+			this.posDef      = new int[16];
+			this.posX        = new int[16];
+			this.posY        = new int[16];
+			this.debutChamp  = new int[NB_CHAMPS_MAX];
+			this.finChamp    = new int[NB_CHAMPS_MAX];
+		}
+
+		/**
+		 * Lit toutes les lignes d'un tableau d'octets
+		 */
+		void lireLignes(byte[] b, int fin)
+		{
+			int debutLigne = 0;
+
+			for (int i = 0; i < fin; i++)
+			{
+				if (b[i] == '\n' || b[i] == '\r')
+				{
+					this.traiterLigne(b, debutLigne, i);
+					debutLigne = i + 1;
+				}
+			}
+			if (debutLigne < fin) this.traiterLigne(b, debutLigne, fin);
+		}
+
+		/**
+		 * Découpe une ligne en champs et enregistre la définition qu'elle contient
+		 */
+		void traiterLigne(byte[] b, int debut, int fin)
+		{
+			// ========== LIGNE SANS ESPACES AUTOUR ==========
+			while (debut < fin && (b[debut]   & 0xFF) <= ' ') debut++;
+			while (fin > debut && (b[fin - 1] & 0xFF) <= ' ') fin--;
+
+			if (debut == fin) return;
+
+			// ========== DÉCOUPAGE EN CHAMPS ==========
+			int champ        = 0;
+			int debutCourant = debut;
+
+			this.nbChamps = 0;
+			for (int i = debut; i <= fin; i++)
+			{
+				if (i == fin || b[i] == '|')
+				{
+					if (champ < NB_CHAMPS_MAX)
+					{
+						this.debutChamp[champ] = debutCourant;
+						this.finChamp  [champ] = i;
+					}
+					if (i > debutCourant) this.nbChamps = champ + 1;
+
+					champ++;
+					debutCourant = i + 1;
+				}
+			}
+
+			if (this.detection)
+			{
+				this.nbLignes++;
+				this.maxChamps = Math.max(this.maxChamps, this.nbChamps);
+				return;
+			}
+
+			if (this.nbChamps < 2) return;
+
+			// ========== NOM DE LA TÂCHE ==========
+			int debNom = this.debutChamp[0];
+			int finNom = this.finChamp  [0];
+
+			while (debNom < finNom && (b[debNom]     & 0xFF) <= ' ') debNom++;
+			while (finNom > debNom && (b[finNom - 1] & 0xFF) <= ' ') finNom--;
+
+			// Lignes "Debut" et "Fin" d'un fichier avec positions : seule la position est lue
+			if (this.estPosition)
+			{
+				int systeme = ChargeurProjet.egal(b, debNom, finNom, DEBUT) ? POS_DEBUT
+				            : ChargeurProjet.egal(b, debNom, finNom, FIN)   ? POS_FIN : 0;
+
+				if (systeme != 0)
+				{
+					if (this.nbChamps >= 3 && this.estCoordonnees(b, 2)) this.ajouterPosition(systeme, b, 2);
+					return;
+				}
+			}
+
+			int numNom = this.noms.nomer(b, debNom, finNom - debNom);
+			if (this.noms.valeur[numNom] >= 0) return;
+
+			// ========== DÉFINITION ==========
+			if (this.nbDefs == this.defNom.length)
+			{
+				this.defNom   = Arrays.copyOf(this.defNom,   this.nbDefs * 2);
+				this.defDuree = Arrays.copyOf(this.defDuree, this.nbDefs * 2);
+			}
+
+			int d = this.nbDefs++;
+			this.defNom[d]           = numNom;
+			this.noms.valeur[numNom] = d;
+
+			try
+			{
+				this.defDuree[d] = ChargeurProjet.lireEntier(b, this.debutChamp[1], this.finChamp[1]);
+			}
+			catch (NumberFormatException e)
+			{
+				this.signalerErreur(d, e);
+			}
+
+			// ========== DÉPENDANCES ==========
+			if (this.nbChamps > 2)
+			{
+				int debDep = this.debutChamp[2];
+				int finDep = this.finChamp  [2];
+
+				while (debDep < finDep && (b[debDep]     & 0xFF) <= ' ') debDep++;
+				while (finDep > debDep && (b[finDep - 1] & 0xFF) <= ' ') finDep--;
+
+				for (int i = debDep, dn = debDep; debDep < finDep && i <= finDep; i++)
+				{
+					if (i == finDep || b[i] == ',')
+					{
+						int dp = dn, fp = i, sep = dn;
+						while (sep < fp && b[sep] != Lien.SEPARATEUR) sep++;
+
+						int fn = sep;
+						while (dp < fn && (b[dp]     & 0xFF) <= ' ') dp++;
+						while (fn > dp && (b[fn - 1] & 0xFF) <= ' ') fn--;
+
+						this.ajouterArc(this.noms.nomer(b, dp, fn - dp), d);
+						if (sep < fp) this.lireLien(b, sep + 1, fp, d);
+						dn = i + 1;
+					}
+				}
+			}
+
+			// ========== POSITION (FICHIER AVEC POSITIONS) ==========
+			if (this.estPosition && this.nbChamps == 4 && this.estCoordonnees(b, 3))
+			{
+				try
+				{
+					this.ajouterPosition(d, b, 3);
+				}
+				catch (NumberFormatException e)
+				{
+					this.signalerErreur(d, e);
+				}
+			}
+		}
+
+		/**
+		 * Retient l'erreur d'une définition : elle ne sera levée que si la définition est retenue
+		 */
+		private void signalerErreur(int d, NumberFormatException e)
+		{
+			if (this.erreurs == null) this.erreurs = new HashMap<>();
+			this.erreurs.putIfAbsent(d, e.getMessage());
+		}
+
+		private void ajouterArc(int numNom, int d)
+		{
+			if (this.nbArcs == this.arcNom.length)
+			{
+				this.arcNom = Arrays.copyOf(this.arcNom, this.nbArcs * 2);
+				this.arcDef = Arrays.copyOf(this.arcDef, this.nbArcs * 2);
+				if (this.arcType != null)
+				{
+					this.arcType  = Arrays.copyOf(this.arcType,  this.nbArcs * 2);
+					this.arcDelai = Arrays.copyOf(this.arcDelai, this.nbArcs * 2);
+				}
+			}
+
+			this.arcNom[this.nbArcs] = numNom;
+			this.arcDef[this.nbArcs] = d;
+			if (this.arcType != null)
+			{
+				this.arcType [this.nbArcs] = Lien.FS;
+				this.arcDelai[this.nbArcs] = 0;
+			}
+			this.nbArcs++;
+		}
+
+		/**
+		 * Lit le lien de la dernière dépendance enregistrée : "SS+2", "FF", "-1"...
+		 * Les tableaux de liens ne sont créés qu'au premier lien rencontré.
+		 */
+		private void lireLien(byte[] b, int debut, int fin, int d)
+		{
+			while (debut < fin && (b[debut]   & 0xFF) <= ' ') debut++;
+			while (fin > debut && (b[fin - 1] & 0xFF) <= ' ') fin--;
+			if (debut == fin) return;
+
+			int type  = Lien.FS;
+			int delai = 0;
+			int texte = debut;
+
+			if (fin - debut >= 2 && b[debut] != '-' && b[debut] != '+' && (b[debut] < '0' || b[debut] > '9'))
+			{
+				type   = Lien.type(b[debut], b[debut + 1]);
+				debut += 2;
+			}
+
+			try
+			{
+				if (type < 0) throw new NumberFormatException();
+				if (debut < fin) delai = ChargeurProjet.lireEntier(b, debut, fin);
+			}
+			catch (NumberFormatException e)
+			{
+				String lien = new String(b, texte, fin - texte, StandardCharsets.UTF_8);
+				this.signalerErreur(d, new NumberFormatException(Erreur.LIEN_INVALIDE.formater(lien)));
+				return;
+			}
+
+			if (type == Lien.FS && delai == 0) return;
+
+			if (this.arcType == null)
+			{
+				this.arcType  = new byte[this.arcNom.length];
+				this.arcDelai = new int [this.arcNom.length];
+			}
+			this.arcType [this.nbArcs - 1] = (byte) type;
+			this.arcDelai[this.nbArcs - 1] = delai;
+		}
+
+		/**
+		 * Enregistre la position "x,y" lue dans un champ
+		 */
+		private void ajouterPosition(int d, byte[] b, int champ)
+		{
+			int debut   = this.debutChamp[champ];
+			int fin     = this.finChamp  [champ];
+			int virgule = debut;
+
+			while (b[virgule] != ',') virgule++;
+
+			int x = ChargeurProjet.lireEntier(b, debut, virgule);
+			int y = ChargeurProjet.lireEntier(b, virgule + 1, fin);
+
+			if (this.nbPos == this.posDef.length)
+			{
+				this.posDef = Arrays.copyOf(this.posDef, this.nbPos * 2);
+				this.posX   = Arrays.copyOf(this.posX,   this.nbPos * 2);
+				this.posY   = Arrays.copyOf(this.posY,   this.nbPos * 2);
+			}
+
+			this.posDef[this.nbPos] = d;
+			this.posX  [this.nbPos] = x;
+			this.posY  [this.nbPos] = y;
+			this.nbPos++;
+		}
+
+		/**
+		 * Indique si un champ est de la forme chiffres,chiffres (sans espace)
+		 */
+		private boolean estCoordonnees(byte[] b, int champ)
+		{
+			int debut   = this.debutChamp[champ];
+			int fin     = this.finChamp  [champ];
+			int virgule = -1;
+
+			for (int i = debut; i < fin; i++)
+			{
+				if (b[i] == ',' && virgule < 0) virgule = i;
+				else if (b[i] < '0' || b[i] > '9') return false;
+			}
+			return virgule > debut && virgule < fin - 1;
+		}
+	}
+}
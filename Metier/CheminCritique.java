@@ -8,8 +8,10 @@ public class CheminCritique
 	/*---------------- */
 	/*-----Attribut--- */
 	/*---------------- */
-	private List<Tache> tachesCritiques;    // Liste des tâches composant le chemin critique
-	private int         dureeTotale;        // Durée totale du chemin critique
+	private List<Tache>   tachesCritiques;    // Liste des tâches composant le chemin critique
+	private List<String>  noms;               // Nom de chaque tâche, relevé à l'ajout
+	private List<Integer> durees;             // Durée de chaque tâche, relevée à l'ajout
+	private int           dureeTotale;        // Durée totale du chemin critique
 
 	/*---------------- */
 	/*--Constructeur-- */
@@ -17,6 +19,8 @@ public class CheminCritique
 	public CheminCritique()
 	{
 		this.tachesCritiques = new ArrayList<Tache>();
+		this.noms            = new ArrayList<String>();
+		this.durees          = new ArrayList<Integer>();
 		this.dureeTotale     = 0;
 	}
 
@@ -24,16 +28,29 @@ public class CheminCritique
 
 	/**
 	 * Ajoute une tâche au chemin critique
+	 * Son nom et sa durée sont relevés à l'ajout : l'affichage du chemin ne change pas
+	 * si la tâche est ensuite modifiée ou retirée du projet.
 	 * @param tache la tâche à ajouter (ne doit pas être null)
 	 */
 	public void ajouterTache(Tache tache)
 	{
 		if (tache != null)
 		{
-			this.tachesCritiques.add(tache);
+			this.ajouterTache(tache, tache.getNom(), tache.getDuree());
 		}
 	}
 
+	/**
+	 * Ajoute une tâche au chemin critique avec le nom et la durée relevés par l'appelant
+	 * (voir ReseauCritique, qui les fige à sa construction)
+	 */
+	void ajouterTache(Tache tache, String nom, int duree)
+	{
+		this.tachesCritiques.add(tache);
+		this.noms           .add(nom);
+		this.durees         .add(duree);
+	}
+
 	// ========== MÉTHODES D'ACCÈS AUX DONNÉES ==========
 
 	/**
@@ -64,7 +81,7 @@ public class CheminCritique
 		{
 			Tache derniereTache = tachesCritiques.get(tachesCritiques.size() - 1);
 
-			if (derniereTache.getNom().equals("Fin"))
+			if (derniereTache.getNom().equals("Fin") && derniereTache.getId() >= 0)
 				return derniereTache.getDatePlusTot();
 		}
 		return 0;
@@ -80,20 +97,20 @@ public class CheminCritique
 	public String toString()
 	{
 		String res = "Chemin Critique (Durée: " + getDureeTotale() + " jours) : ";
-		for (int i = 0; i < tachesCritiques.size(); i++)
+		for (int i = 0; i < noms.size(); i++)
 		{
-			Tache t = tachesCritiques.get(i);
+			String nom = noms.get(i);
 
-			if (!t.getNom().equals("Debut") && !t.getNom().equals("Fin"))
+			if (!nom.equals("Debut") && !nom.equals("Fin"))
 			{
-				res += t.getNom() + "(" + t.getDuree() + ")";
+				res += nom + "(" + durees.get(i) + ")";
 			}
 			else
 			{
-				res += t.getNom();
+				res += nom;
 			}
 
-			if (i < tachesCritiques.size() - 1) res += " -> ";
+			if (i < noms.size() - 1) res += " -> ";
 		}
 		return res;
 	}
@@ -3,8 +3,10 @@ package Metier;
 import Ihm.Noeud;
 import exFinal.Controleur;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 
 public class CreerGraphe
@@ -14,39 +16,49 @@ public class CreerGraphe
 
 	private List<Noeud> noeuds;
 
+	private HashMap<String, Noeud> indexNoeuds;
+
+	// Précédents de chaque nœud, relus une seule fois dans le projet (listes partagées, à ne pas modifier)
+	private HashMap<Noeud, ArrayList<Noeud>> precedents;
+
+	// Mêmes précédents en ensembles, pour les tests d'inclusion
+	private HashMap<Noeud, HashSet<Noeud>>   ensemblesPre;
+
 	public CreerGraphe(Controleur ctrl, int boxSize,int nbCol, List<Noeud> noeuds) 
 	{
 		this.ctrl   = ctrl;
 		this.noeuds = noeuds;
 
+		// Index nom -> nœud pour des recherches en temps constant
+		this.indexNoeuds = new HashMap<>();
+		for (Noeud n : noeuds)
+			this.indexNoeuds.put(n.getNom(), n);
+
+		this.precedents   = new HashMap<>();
+		this.ensemblesPre = new HashMap<>();
+
 		int startX  = 5;
 		int startY  = 375;
 		int distX   = boxSize + 100;
 		int distY   = boxSize + 100;
 
-		// Construction du dictionnaire colonne -> nœuds
+		// Construction du dictionnaire colonne -> nœuds, en un seul passage sur les nœuds
 		HashMap<Integer, ArrayList<Noeud>> dicColNoeud = new HashMap<>();
 
 		for (int col = 0; col < nbCol; col++)
-		{
-			// Liste temporaire pour les nœuds de la colonne actuelle
-			ArrayList<Noeud> ListNoeudDsCol = new ArrayList<>();
+			dicColNoeud.put(col, new ArrayList<>());
 
-			for (Noeud n : noeuds) 
-			{
-				if (n.getCol() == col)
-					ListNoeudDsCol.add(n);
-			}
-
-			// Stocker la liste dans le dictionnaire
-			dicColNoeud.put(col, ListNoeudDsCol);	
+		for (Noeud n : noeuds) 
+		{
+			if (n.getCol() >= 0 && n.getCol() < nbCol)
+				dicColNoeud.get(n.getCol()).add(n);
 		}
 
 		// Calcul des lignes (lig) pour chaque nœud dans chaque colonne
-		for (Integer col : dicColNoeud.keySet())
+		for (int col = 0; col < nbCol; col++)
 		{
 			ArrayList<Noeud> lstCol       = dicColNoeud.get(col);
-			ArrayList<Noeud> lstNGrpFait  = new ArrayList<>();
+			HashSet<Noeud>   lstNGrpFait  = new HashSet<>();
 
 			// La première colonne est initialisée à 0 ligne pour le premier nœud
 			if (col == 0)
@@ -60,32 +72,21 @@ public class CreerGraphe
 				int              cptSup     = 0;
 				int              cptInf     = 0;
 
+				// Groupes de la colonne, par premier précédent puis par ensemble de précédents
+				HashMap<Noeud, HashMap<HashSet<Noeud>, Groupe>> groupesCol = new HashMap<>();
+
 				for (Noeud n : lstColOrga)
 				{
-					ArrayList<Noeud> lstNSvtDePre       = new ArrayList<>();
-					ArrayList<Noeud> lstNoeudPreActuel  = getPrecedents(n);
-
-					// Obtenir les nœuds ayant les mêmes suivants
-					for ( Noeud nPreActuel : lstNoeudPreActuel )
-						lstNoeudPreActuel = getNoeudsMemeSvt(nPreActuel, lstNSvtDePre, lstNoeudPreActuel);
-
-					// Supprimer les éléments de la même colonne
-					for ( Noeud nGrp : lstNoeudPreActuel )
-					{
-						if ( nGrp.getCol() != n.getCol() )
-							lstNSvtDePre.remove(nGrp);
-					}
+					// Nœuds de la colonne ayant les mêmes précédents, calculés une fois par groupe
+					Groupe           grp          = getGroupe(n, col, groupesCol);
+					ArrayList<Noeud> lstNSvtDePre = grp.noeuds;
 
 					// Vérifie si le groupe est nouveau
-					if ( estNewGrp(lstNSvtDePre, lstNGrpFait, col) )
+					if ( estNewGrp(grp, lstNGrpFait) )
 					{
 						cptSup = -1;
 
-						for (Noeud nGrp : lstNSvtDePre)
-						{
-							if (nGrp.getCol() == col)
-								cptInf ++;
-						}
+						cptInf += lstNSvtDePre.size();
 
 						cptInf = (int) Math.ceil(cptInf/2);
 					}
@@ -94,7 +95,7 @@ public class CreerGraphe
 					{
 						int    milieu       = 0;
 						int    lig          = 0;
-						int    emplacementN = lstNSvtDePre.indexOf(n);
+						int    emplacementN = grp.rangs.get(n);
 						double tailleGrpDeN = lstNSvtDePre.size();
 
 						// Cas où le groupe a une taille impaire
@@ -135,6 +136,7 @@ public class CreerGraphe
 						}
 
 						lstNGrpFait.add(n);
+						grp.traite = true;
 						n.setLig(lig);
 					}
 
@@ -154,13 +156,20 @@ public class CreerGraphe
 
 	}
 
-	// Vérifie si tous les nœuds de lstNGrp ne sont pas déjà traités (dans lstNGrpFait)
-	public boolean estNewGrp(ArrayList<Noeud> lstNGrp, ArrayList<Noeud> lstNGrpFait, int col) 
+	// Vérifie si aucun nœud du groupe n'est déjà traité (dans lstNGrpFait)
+	// Un groupe n'est parcouru qu'une fois : dès qu'un de ses nœuds est traité, il ne peut plus être nouveau
+	private boolean estNewGrp(Groupe grp, HashSet<Noeud> lstNGrpFait) 
 	{
-		for (Noeud n : lstNGrp) 
+		if (grp.traite)
+			return false;
+
+		for (Noeud n : grp.noeuds) 
 		{
-			if (n.getCol() == col && lstNGrpFait.contains(n)) 
+			if (lstNGrpFait.contains(n)) 
+			{
+				grp.traite = true;
 				return false;
+			}
 		}
 		return true;
 	}
@@ -204,12 +213,13 @@ public class CreerGraphe
 	// Calcule la ligne moyenne des précédents d’un nœud
 	private int getMil(Noeud n)
 	{
-		int sumLig = 0;
+		ArrayList<Noeud> lstPre = getPrecedents(n);
+		int              sumLig = 0;
 
-		for (Noeud nPreActuel : getPrecedents(n))
+		for (Noeud nPreActuel : lstPre)
 			sumLig += nPreActuel.getLig();
 
-		return sumLig / getPrecedents(n).size();
+		return sumLig / lstPre.size();
 	}
 
 	// Retourne la ligne du milieu des prédécesseurs triés
@@ -218,105 +228,102 @@ public class CreerGraphe
 		if (lstNoeudPreActuel == null || lstNoeudPreActuel.isEmpty())
 			return 0;
 
-		ArrayList<Noeud> copieTriee = new ArrayList<>();
+		int[] ligs = new int[lstNoeudPreActuel.size()];
 
-		for (Noeud n : lstNoeudPreActuel)
-		{
-			int i = 0;
-			while (i < copieTriee.size() && n.getLig() > copieTriee.get(i).getLig()) 
-			{
-				i++;
-			}
-			copieTriee.add(i, n);
-		}
-
-		int indexMilieu = copieTriee.size() / 2;
+		for (int i = 0; i < ligs.length; i++)
+			ligs[i] = lstNoeudPreActuel.get(i).getLig();
 
-		int i = 0;
-		for (Noeud n : copieTriee) 
-		{
-			if (i == indexMilieu) 
-			{
-				return n.getLig();
-			}
-			i++;
-		}
+		Arrays.sort(ligs);
 
-		return 0;
+		return ligs[ligs.length / 2];
 	}
 
-	// Récupère les nœuds suivants d’un nœud
-	private ArrayList<Noeud> getSuivants(Noeud n)
+	// Récupère les nœuds précédents d’un nœud (liste partagée, lue une seule fois dans le projet)
+	private ArrayList<Noeud> getPrecedents(Noeud n)
 	{
-		Tache  t                 = ctrl.chercherTacheParNom(n.getNom());
-		ArrayList<Tache> lstTSvt = t.getSuivants();
-		ArrayList<Noeud> lstNSvt = new ArrayList<>();
+		ArrayList<Noeud> lstNPre = this.precedents.get(n);
+		if (lstNPre != null)
+			return lstNPre;
 
-		for (Tache tSvt : lstTSvt) 
-			lstNSvt.add(getNoeud(tSvt.getNom()));
+		lstNPre = new ArrayList<>();
+		for (Tache tPre : ctrl.chercherTacheParNom(n.getNom()).getPrecedents())
+			lstNPre.add(getNoeud(tPre.getNom()));
 
-		return lstNSvt;
+		this.precedents.put(n, lstNPre);
+		return lstNPre;
 	}
 
-	// Récupère les nœuds précédents d’un nœud
-	private ArrayList<Noeud> getPrecedents(Noeud n)
+	// Récupère les précédents d'un nœud sous forme d'ensemble
+	private HashSet<Noeud> getEnsemblePre(Noeud n)
 	{
-		Tache t                  = ctrl.chercherTacheParNom(n.getNom());
-		ArrayList<Tache> lstTPre = t.getPrecedents();
-		ArrayList<Noeud> lstNPre = new ArrayList<>();
-
-		for (Tache tSvt : lstTPre)
-			lstNPre.add(getNoeud(tSvt.getNom()));
-
-		return lstNPre;
+		HashSet<Noeud> ensPre = this.ensemblesPre.get(n);
+		if (ensPre == null)
+		{
+			ensPre = new HashSet<>(getPrecedents(n));
+			this.ensemblesPre.put(n, ensPre);
+		}
+		return ensPre;
 	}
 
 	// Retourne le nœud correspondant à un nom
 	public Noeud getNoeud(String nom)
 	{
-		for (Noeud n : noeuds)
-		{
-			if (n.getNom().equals(nom))
-				return n;
-		}
-		return null;
+		return this.indexNoeuds.get(nom);
 	}
 
-	// Récupère les nœuds ayant les mêmes suivants que n, en tenant compte de lstPre
-	public ArrayList<Noeud> getNoeudsMemeSvt(Noeud n, ArrayList<Noeud> lstNSvt, ArrayList<Noeud> lstPre)
+	// Retourne le groupe de n : les suivants de son premier précédent, dans sa colonne,
+	// qui ont au moins tous ses précédents. Les nœuds de mêmes précédents partagent le même groupe,
+	// construit à la première demande et trié une fois par précédent.
+	private Groupe getGroupe(Noeud n, int col, HashMap<Noeud, HashMap<HashSet<Noeud>, Groupe>> groupesCol)
 	{
-		ArrayList<Tache> lstTSvt = ctrl.chercherTacheParNom(n.getNom()).getSuivants();
+		ArrayList<Noeud> lstPre = getPrecedents(n);
 
-		for (Tache tacheSvt : lstTSvt) 
-		{
-			Noeud noeudSvt = getNoeud(tacheSvt.getNom());
+		// Un nœud sans précédent n'a pas de groupe
+		if (lstPre.isEmpty())
+			return new Groupe(new ArrayList<>());
 
-			ArrayList<Tache> tachesPrecedentes = ctrl.chercherTacheParNom(tacheSvt.getNom()).getPrecedents();
-			ArrayList<Noeud> noeudsPrecedents  = new ArrayList<>();
+		HashSet<Noeud>                  ensPre      = getEnsemblePre(n);
+		HashMap<HashSet<Noeud>, Groupe> parEnsemble = groupesCol.computeIfAbsent(lstPre.get(0), p -> new HashMap<>());
+		Groupe                          grp         = parEnsemble.get(ensPre);
 
-			for (Tache t : tachesPrecedentes) 
-				noeudsPrecedents.add(getNoeud(t.getNom()));
+		if (grp != null)
+			return grp;
 
-			// Vérifie si tous les nœuds de lstPre sont des prédécesseurs du suivant
-			if (contientTous(noeudsPrecedents, lstPre)) 
-			{
-				if (!lstNSvt.contains(noeudSvt))
-					lstNSvt.add(noeudSvt);
-			}
+		ArrayList<Noeud> lstNSvt = new ArrayList<>();
+		HashSet<Noeud>   vus     = new HashSet<>();
+
+		for (Tache tacheSvt : ctrl.chercherTacheParNom(lstPre.get(0).getNom()).getSuivants()) 
+		{
+			Noeud noeudSvt = getNoeud(tacheSvt.getNom());
+
+			// Vérifie si tous les précédents de n sont des prédécesseurs du suivant
+			if (noeudSvt.getCol() == col && getEnsemblePre(noeudSvt).containsAll(ensPre) && vus.add(noeudSvt))
+				lstNSvt.add(noeudSvt);
 		}
 
-		return triCroissant(lstNSvt);
+		for (int i = 0; i < lstPre.size(); i++)
+			triCroissant(lstNSvt);
+
+		grp = new Groupe(lstNSvt);
+		parEnsemble.put(ensPre, grp);
+		return grp;
 	}
 
-	// Vérifie si tous les nœuds de contenu sont présents dans conteneur
-	private boolean contientTous(ArrayList<Noeud> conteneur, ArrayList<Noeud> contenu)
+	// Nœuds d'une colonne ayant les mêmes précédents, avec le rang de chacun
+	private static class Groupe
 	{
-		for (Noeud n : contenu)
+		ArrayList<Noeud>        noeuds;   // Nœuds du groupe, triés
+		HashMap<Noeud, Integer> rangs;    // Index nœud -> rang dans le groupe
+		boolean                 traite;   // Un nœud du groupe a déjà reçu sa ligne
+
+		Groupe(ArrayList<Noeud> noeuds)
 		{
-			if (!conteneur.contains(n)) 
-				return false;
+			this.noeuds = noeuds;
+			this.rangs  = new HashMap<>();
+
+			for (int i = 0; i < noeuds.size(); i++)
+				this.rangs.put(noeuds.get(i), i);
 		}
-		return true;
 	}
 
 }
@@ -10,15 +10,18 @@ public enum Erreur
 	FORMAT_INVALIDE  ("Le format est invalide."),
 	NON_SAISIE       ("Vous n'avez pas saisi de valeur."),
 	DEJA_EXISTANT    ("Une tâche avec ce nom existe déjà."),
-	CHAR_NOM_INVALIDE("Le nom de tâche ne peut pas contenir les caractères '|' ou ','."),
+	CHAR_NOM_INVALIDE("Le nom de tâche ne peut pas contenir les caractères '|', ',' ou ':'."),
 	NOM_TROP_LONG("Le nom de la tâche ne peut pas dépasser 50 caractères."),
 	NOM_RESERVE("Le nom '%s' est réservé et ne peut pas être utilisé."),
+	TACHE_INEXISTANTE("La tâche '%s' n'existe pas."),
+	ERREUR_TACHE("Tâche '%s' : %s"),
 
 	// ========== ERREURS DE DURÉE ==========
 	
 	DUREE_INVALIDE("La durée n'a pas été saisie correctement."),
 	DUREE_NEGATIF ("La durée doit être strictement supérieure à 0."),
 	DUREE_INT     ("La durée doit être un nombre entier."),
+	ESTIMATION_INVALIDE("L'estimation %d / %d / %d doit vérifier 0 <= optimiste <= probable <= pessimiste."),
 
 	// ========== ERREURS DE PRÉDÉCESSEURS ==========
 	
@@ -26,6 +29,8 @@ public enum Erreur
 	PRECEDENT_DEBUT           ("La tâche 'Debut' ne peut pas être un prédécesseur."),
 	TACHE_DEPENDANCE_REFLEXIVE("La tâche '%s' ne peut pas dépendre d'elle-même."),
 	PRECEDENT_NON_EXISTANT    ("Le precedent '%s' n'existe pas."),
+	DEPENDANCE_INEXISTANTE    ("La tâche '%s' ne dépend pas de '%s'."),
+	LIEN_INVALIDE             ("Le lien '%s' est invalide : FS, SS, FF ou SF suivi d'un délai, par exemple A:SS+2."),
 
 	// ========== ERREURS DE SUIVANTS ==========
 	
@@ -37,15 +42,24 @@ public enum Erreur
 	// ========== ERREURS DE STRUCTURE ==========
 	
 	CYCLIQUE("Boucle détecté de %s vers "),
+	CYCLE_DETECTE("Le graphe contient un cycle : %s"),
+
+	// ========== ERREURS DE RESSOURCES ==========
+	
+	CAPACITE_INVALIDE    ("La capacité de la ressource '%s' doit être strictement positive."),
+	RESSOURCE_INEXISTANTE("La ressource '%s' n'existe pas."),
+	BESOIN_INVALIDE      ("Le besoin de la tâche '%s' en '%s' doit être compris entre 0 et la capacité %d."),
 
 	// ========== ERREURS DE FICHIER ==========
 	
-	FORMAT_FICHIER_INVALIDE("Veuillez sélectionner un fichier .data ou .txt"),
+	FORMAT_FICHIER_INVALIDE("Veuillez sélectionner un fichier .data, .txt ou .mpmb"),
 	ERREUR_ENREGISTREMENT("Une erreur s'est produite lors de l'enregistrement du fichier."),
 	FICHIER_INTROUVABLE("Le fichier '%s' est introuvable."),
 	FICHIER_VIDE("Le fichier est vide ou ne contient aucune tâche valide."),
 	LECTURE_FICHIER_ERREUR("Erreur lors de la lecture du fichier : %s"),
 	ECRITURE_FICHIER_ERREUR("Erreur lors de l'écriture du fichier : %s"),
+	INSTANTANE_INVALIDE("L'instantané est invalide : %s"),
+	LIGNE_JOURNAL_IGNOREE("Ligne de journal ignorée : %s (%s)"),
 
 	// ========== MESSAGES DE SUCCÈS ==========
 	
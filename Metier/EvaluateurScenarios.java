@@ -0,0 +1,779 @@
+package Metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Classe EvaluateurScenarios - Évaluation de scénarios « et si » sur une version figée du planning
+ * Chaque scénario (voir Scenario) est appliqué à une copie légère de la version : les tableaux
+ * de la version sont partagés, seules les listes de voisins des tâches touchées sont recopiées
+ * puis modifiées (copie à l'écriture). Le projet lui-même n'est jamais modifié.
+ *
+ * Les tâches sont renumérotées dans l'ordre topologique de la version. Tant que les dépendances
+ * ajoutées respectent cet ordre, il reste valable : les dates au plus tôt ne sont recalculées
+ * qu'à partir du premier rang touché et les dates au plus tard jusqu'au dernier, le reste est
+ * repris de la version (décalé de l'écart de fin du projet). Sinon le scénario est trié à nouveau,
+ * ce qui détecte aussi les cycles.
+ *
+ * Les scénarios sont répartis par blocs sur un ForkJoinPool ; chaque bloc alloue une fois ses
+ * tableaux de travail et les réutilise d'un scénario à l'autre.
+ */
+public class EvaluateurScenarios
+{
+	// ========== CONSTANTES ==========
+
+	private static final int NB_BLOCS = 64;   // Blocs de scénarios, répartis entre les fils
+
+	// ========== ATTRIBUTS ==========
+
+	private final Planning planning;      // Version du planning de référence
+	private final int      nbTaches;      // Nombre de tâches
+	private final int      debut;         // Rang de "Debut" (-1 si absente)
+	private final int      fin;           // Rang de "Fin" (-1 si absente)
+
+	private final int[]    ordre;         // Indice de la tâche de chaque rang topologique
+	private final int[]    rangDe;        // Rang de chaque tâche, par indice
+	private final int[]    debutPrc;      // Début des précédents de chaque rang (nbTaches + 1 cases)
+	private final int[]    prc;           // Rangs des précédents, rang par rang
+	private final int[]    debutSvt;      // Début des suivants de chaque rang (nbTaches + 1 cases)
+	private final int[]    svt;           // Rangs des suivants, rang par rang
+	private final byte[]   typePrc;       // Type du lien depuis chaque précédent (null : tous FS sans délai)
+	private final int[]    delaiPrc;      // Délai du lien depuis chaque précédent (null avec typePrc)
+	private final byte[]   typeSvt;       // Type du lien vers chaque suivant (null avec typePrc)
+	private final int[]    delaiSvt;      // Délai du lien vers chaque suivant (null avec typePrc)
+
+	private final int[]    durees;        // Durée de chaque rang dans la version
+	private final int[]    plusTot;       // Date au plus tôt de chaque rang dans la version
+	private final int[]    plusTard;      // Date au plus tard de chaque rang dans la version
+	private final int[]    finAvant;      // Plus grande fin des rangs < r dans la version (nbTaches + 1 cases)
+	private final int      finProjet;     // Fin du projet dans la version
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Prépare l'évaluation de scénarios sur une version du planning
+	 *
+	 * @param planning La version de référence
+	 */
+	public EvaluateurScenarios(Planning planning)
+	{
+		int n = planning.getNbTaches();
+
+		this.planning  = planning;
+		this.nbTaches  = n;
+		this.finProjet = planning.getFinProjet();
+		this.ordre     = new int[n];
+		this.rangDe    = new int[n];
+		this.debutPrc  = new int[n + 1];
+		this.debutSvt  = new int[n + 1];
+		this.durees    = new int[n];
+		this.plusTot   = new int[n];
+		this.plusTard  = new int[n];
+		this.finAvant  = new int[n + 1];
+
+		// ========== RENUMÉROTATION DANS L'ORDRE TOPOLOGIQUE ==========
+		for (int r = 0; r < n; r++)
+		{
+			int i = planning.getTacheDeRang(r);
+
+			this.ordre[r]        = i;
+			this.rangDe[i]       = r;
+			this.durees[r]       = planning.getDuree(i);
+			this.plusTot[r]      = planning.getDatePlusTot(i);
+			this.plusTard[r]     = planning.getDatePlusTard(i);
+			this.debutPrc[r + 1] = this.debutPrc[r] + planning.getNbPrecedents(i);
+			this.debutSvt[r + 1] = this.debutSvt[r] + planning.getNbSuivants(i);
+			this.finAvant[r + 1] = Math.max(this.finAvant[r], this.plusTot[r] + this.durees[r]);
+		}
+
+		boolean liens = planning.aDesLiensTypes();
+
+		this.prc      = new int[this.debutPrc[n]];
+		this.svt      = new int[this.debutSvt[n]];
+		this.typePrc  = liens ? new byte[this.prc.length] : null;
+		this.delaiPrc = liens ? new int [this.prc.length] : null;
+		this.typeSvt  = liens ? new byte[this.svt.length] : null;
+		this.delaiSvt = liens ? new int [this.svt.length] : null;
+		for (int r = 0; r < n; r++)
+		{
+			int i = this.ordre[r];
+			for (int k = 0; k < planning.getNbPrecedents(i); k++) this.prc[this.debutPrc[r] + k] = this.rangDe[planning.getPrecedent(i, k)];
+			for (int k = 0; k < planning.getNbSuivants  (i); k++) this.svt[this.debutSvt[r] + k] = this.rangDe[planning.getSuivant  (i, k)];
+
+			if (!liens) continue;
+			for (int k = 0; k < planning.getNbPrecedents(i); k++)
+			{
+				this.typePrc [this.debutPrc[r] + k] = planning.getTypePrecedent (i, k);
+				this.delaiPrc[this.debutPrc[r] + k] = planning.getDelaiPrecedent(i, k);
+			}
+			for (int k = 0; k < planning.getNbSuivants(i); k++)
+			{
+				this.typeSvt [this.debutSvt[r] + k] = planning.getTypeSuivant (i, k);
+				this.delaiSvt[this.debutSvt[r] + k] = planning.getDelaiSuivant(i, k);
+			}
+		}
+
+		this.debut = this.rangDeNom("Debut");
+		this.fin   = this.rangDeNom("Fin");
+	}
+
+	private int rangDeNom(String nom)
+	{
+		int i = this.planning.indexDe(nom);
+		return i < 0 ? -1 : this.rangDe[i];
+	}
+
+	// ========== ÉVALUATION ==========
+
+	/**
+	 * Évalue des scénarios
+	 * Appelée depuis un fil d'un ForkJoinPool, elle se répartit sur ce pool ; sinon elle
+	 * crée un pool de nbFils fils le temps du calcul.
+	 *
+	 * @param scenarios Les scénarios
+	 * @param nbFils Le nombre de fils de calcul hors d'un ForkJoinPool
+	 * @return Le résultat de chaque scénario, dans l'ordre des scénarios
+	 */
+	public ArrayList<Resultat> evaluer(List<Scenario> scenarios, int nbFils)
+	{
+		int               nb        = scenarios.size();
+		int               nbBlocs   = Math.min(nb, NB_BLOCS);
+		Resultat[]        resultats = new Resultat[nb];
+		ForkJoinTask<?>[] blocs     = new ForkJoinTask<?>[nbBlocs];
+
+		for (int b = 0; b < nbBlocs; b++)
+		{
+			int debutBloc = (int) ((long) nb *  b      / nbBlocs);
+			int finBloc   = (int) ((long) nb * (b + 1) / nbBlocs);
+
+			blocs[b] = ForkJoinTask.adapt(() ->
+			{
+				Espace espace = new Espace();
+				for (int s = debutBloc; s < finBloc; s++) resultats[s] = this.evaluer(scenarios.get(s), espace);
+			});
+		}
+
+		if (ForkJoinTask.inForkJoinPool())
+		{
+			ForkJoinTask.invokeAll(blocs);
+		}
+		else if (nbFils <= 1)
+		{
+			for (ForkJoinTask<?> bloc : blocs) bloc.invoke();
+		}
+		else
+		{
+			ForkJoinPool pool = new ForkJoinPool(nbFils);
+			try
+			{
+				pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(blocs)));
+			}
+			finally
+			{
+				pool.shutdown();
+			}
+		}
+
+		return new ArrayList<>(Arrays.asList(resultats));
+	}
+
+	/**
+	 * Évalue un scénario dans l'espace de travail d'un bloc, puis remet l'espace en état
+	 */
+	private Resultat evaluer(Scenario scenario, Espace e)
+	{
+		e.numero++;
+		e.prcPropres.clear();
+		e.svtPropres.clear();
+		e.nbModifiees = 0;
+		e.nbAjouts    = 0;
+
+		try
+		{
+			String erreur = this.appliquer(scenario, e);
+			if (erreur != null) return new Resultat(scenario, erreur);
+
+			this.rattacher(e);
+
+			boolean ordreValable = true;
+			for (int k = 0; k < e.nbAjouts && ordreValable; k++) ordreValable = e.ajouts[2 * k] < e.ajouts[2 * k + 1];
+
+			int finScenario;
+			if (ordreValable)
+			{
+				finScenario = this.dater(e);
+			}
+			else
+			{
+				int[] ordreScenario = this.trier(e);
+				if (ordreScenario == null) return new Resultat(scenario, this.decrireCycle(e));
+
+				finScenario = this.dater(e, ordreScenario);
+			}
+
+			return this.comparer(scenario, e, finScenario);
+		}
+		finally
+		{
+			for (int k = 0; k < e.nbModifiees; k++) e.duree[e.modifiees[k]] = this.durees[e.modifiees[k]];
+		}
+	}
+
+	// ========== APPLICATION DES HYPOTHÈSES ==========
+
+	/**
+	 * Applique les hypothèses du scénario à l'espace de travail
+	 *
+	 * @return Le message de la première hypothèse invalide, null si toutes sont valides
+	 */
+	private String appliquer(Scenario scenario, Espace e)
+	{
+		for (Scenario.Operation op : scenario.getOperations())
+		{
+			int r = op.nom == null ? -1 : this.rangDeNom(op.nom);
+			if (r < 0) return Erreur.TACHE_INEXISTANTE.formater(op.nom);
+
+			// ========== DURÉES ==========
+			if (op.type == Scenario.DECALAGE || op.type == Scenario.DUREE)
+			{
+				if (r == this.debut || r == this.fin)
+					return Erreur.ERREUR_TACHE.formater(op.nom, Erreur.NOM_RESERVE.formater(op.nom));
+
+				int duree = op.type == Scenario.DUREE ? op.valeur : e.duree[r] + op.valeur;
+				if (duree <= 0)
+					return Erreur.ERREUR_TACHE.formater(op.nom, Erreur.DUREE_NEGATIF.getMessage());
+
+				if (e.duree[r] == this.durees[r]) e.noterModifiee(r);
+				e.duree[r] = duree;
+				continue;
+			}
+
+			// ========== DÉPENDANCES ==========
+			int s = op.suivant == null ? -1 : this.rangDeNom(op.suivant);
+			if (s < 0) return Erreur.ERREUR_TACHE.formater(op.nom, Erreur.SUIVANT_INEXISTANT.formater(op.suivant));
+
+			if (op.type == Scenario.AJOUT_DEPENDANCE)
+			{
+				if (r == s)          return Erreur.ERREUR_TACHE.formater(op.suivant, Erreur.TACHE_DEPENDANCE_REFLEXIVE.formater(op.suivant));
+				if (r == this.fin)   return Erreur.ERREUR_TACHE.formater(op.suivant, Erreur.PRECEDENT_FIN.getMessage());
+				if (s == this.debut) return Erreur.ERREUR_TACHE.formater(op.nom,     Erreur.SUIVANT_DEBUT.getMessage());
+
+				this.ajouterArc(e, r, s, op.lien.getType(), op.lien.getDelai());
+			}
+			else if (!this.listeSvt(e, r).retirer(s) || !this.listePrc(e, s).retirer(r))
+			{
+				return Erreur.ERREUR_TACHE.formater(op.suivant, Erreur.DEPENDANCE_INEXISTANTE.formater(op.suivant, op.nom));
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * Comme dans le projet : une tâche dont aucun lien ne fixe le début est reliée à "Debut",
+	 * une tâche dont aucun lien n'attend la fin à "Fin" (sans liens typés : sans précédent, sans suivant)
+	 */
+	private void rattacher(Espace e)
+	{
+		if (this.debut < 0 || this.fin < 0) return;
+
+		for (Integer r : e.prcPropres.keySet().toArray(new Integer[0]))
+			if (r != this.debut && !e.prcPropres.get(r).contientType(Lien.FS, Lien.SS)) this.ajouterArc(e, this.debut, r, Lien.FS, 0);
+
+		for (Integer r : e.svtPropres.keySet().toArray(new Integer[0]))
+			if (r != this.fin && !e.svtPropres.get(r).contientType(Lien.FS, Lien.FF)) this.ajouterArc(e, r, this.fin, Lien.FS, 0);
+	}
+
+	private void ajouterArc(Espace e, int u, int v, byte type, int delai)
+	{
+		Liste precedents = this.listePrc(e, v);
+		if (precedents.contient(u)) return;
+
+		precedents.ajouter(u, type, delai);
+		this.listeSvt(e, u).ajouter(v, type, delai);
+		e.noterAjout(u, v);
+	}
+
+	/**
+	 * @return La liste des précédents du rang r propre au scénario, recopiée de la version au premier accès
+	 */
+	private Liste listePrc(Espace e, int r)
+	{
+		if (e.marquePrc[r] != e.numero)
+		{
+			e.marquePrc[r] = e.numero;
+			e.prcPropres.put(r, new Liste(this.prc, this.typePrc, this.delaiPrc, this.debutPrc[r], this.debutPrc[r + 1]));
+		}
+		return e.prcPropres.get(r);
+	}
+
+	/**
+	 * @return La liste des suivants du rang r propre au scénario, recopiée de la version au premier accès
+	 */
+	private Liste listeSvt(Espace e, int r)
+	{
+		if (e.marqueSvt[r] != e.numero)
+		{
+			e.marqueSvt[r] = e.numero;
+			e.svtPropres.put(r, new Liste(this.svt, this.typeSvt, this.delaiSvt, this.debutSvt[r], this.debutSvt[r + 1]));
+		}
+		return e.svtPropres.get(r);
+	}
+
+	// ========== CALCUL DES DATES ==========
+
+	/**
+	 * Calcule les dates dans l'ordre de la version, en ne recalculant que les rangs qui peuvent changer
+	 *
+	 * @return La fin du projet dans le scénario
+	 */
+	private int dater(Espace e)
+	{
+		int n    = this.nbTaches;
+		int rMin = n;
+		int rMax = -1;
+
+		for (int k = 0; k < e.nbModifiees; k++)
+		{
+			rMin = Math.min(rMin, e.modifiees[k]);
+			rMax = Math.max(rMax, e.modifiees[k]);
+		}
+		for (Integer r : e.prcPropres.keySet()) rMin = Math.min(rMin, r);
+		for (Integer r : e.svtPropres.keySet()) rMax = Math.max(rMax, r);
+
+		// ========== DATES AU PLUS TÔT : À PARTIR DU PREMIER RANG TOUCHÉ ==========
+		System.arraycopy(this.plusTot, 0, e.tot, 0, rMin);
+
+		int finScenario = this.finAvant[rMin];
+		for (int r = rMin; r < n; r++)
+		{
+			e.tot[r] = this.datePlusTot(e, r);
+			if (e.tot[r] + e.duree[r] > finScenario) finScenario = e.tot[r] + e.duree[r];
+		}
+
+		// ========== DATES AU PLUS TARD : JUSQU'AU DERNIER RANG TOUCHÉ ==========
+		int decalage = finScenario - this.finProjet;
+		for (int r = n - 1; r > rMax; r--) e.tard[r] = this.plusTard[r] + decalage;
+		for (int r = rMax;  r >= 0;   r--) e.tard[r] = this.datePlusTard(e, r, finScenario);
+
+		return finScenario;
+	}
+
+	/**
+	 * Calcule toutes les dates dans un ordre propre au scénario
+	 *
+	 * @return La fin du projet dans le scénario
+	 */
+	private int dater(Espace e, int[] ordreScenario)
+	{
+		int finScenario = 0;
+		for (int r : ordreScenario)
+		{
+			e.tot[r] = this.datePlusTot(e, r);
+			if (e.tot[r] + e.duree[r] > finScenario) finScenario = e.tot[r] + e.duree[r];
+		}
+
+		for (int k = ordreScenario.length - 1; k >= 0; k--)
+		{
+			int r = ordreScenario[k];
+			e.tard[r] = this.datePlusTard(e, r, finScenario);
+		}
+
+		return finScenario;
+	}
+
+	private int datePlusTot(Espace e, int r)
+	{
+		int[]  voisins = this.prc;
+		byte[] types   = this.typePrc;
+		int[]  delais  = this.delaiPrc;
+		int    a       = this.debutPrc[r];
+		int    b       = this.debutPrc[r + 1];
+
+		if (e.marquePrc[r] == e.numero)
+		{
+			Liste l = e.prcPropres.get(r);
+			voisins = l.tab;
+			types   = l.types;
+			delais  = l.delais;
+			a       = 0;
+			b       = l.nb;
+		}
+
+		int max = 0;
+		for (int k = a; k < b; k++)
+		{
+			int p           = voisins[k];
+			int debutPermis = e.tot[p] + (types == null ? e.duree[p] : Lien.ecart(types[k], delais[k], e.duree[p], e.duree[r]));
+
+			if (debutPermis > max) max = debutPermis;
+		}
+		return max;
+	}
+
+	private int datePlusTard(Espace e, int r, int finScenario)
+	{
+		int[]  voisins = this.svt;
+		byte[] types   = this.typeSvt;
+		int[]  delais  = this.delaiSvt;
+		int    a       = this.debutSvt[r];
+		int    b       = this.debutSvt[r + 1];
+
+		if (e.marqueSvt[r] == e.numero)
+		{
+			Liste l = e.svtPropres.get(r);
+			voisins = l.tab;
+			types   = l.types;
+			delais  = l.delais;
+			a       = 0;
+			b       = l.nb;
+		}
+
+		// Aucune tâche ne finit après le projet : c'est la seule borne d'une tâche sans suivant
+		int min = finScenario - e.duree[r];
+		for (int k = a; k < b; k++)
+		{
+			int s           = voisins[k];
+			int debutImpose = e.tard[s] - (types == null ? e.duree[r] : Lien.ecart(types[k], delais[k], e.duree[r], e.duree[s]));
+
+			if (debutImpose < min) min = debutImpose;
+		}
+		return min;
+	}
+
+	// ========== NOUVEL ORDRE TOPOLOGIQUE ==========
+
+	/**
+	 * Trie les rangs selon les dépendances du scénario (algorithme de Kahn)
+	 *
+	 * @return Les rangs dans un ordre topologique du scénario, null s'il contient un cycle
+	 */
+	private int[] trier(Espace e)
+	{
+		int   n     = this.nbTaches;
+		int[] file  = new int[n];
+		int   tete  = 0;
+		int   queue = 0;
+
+		for (int r = 0; r < n; r++)
+		{
+			e.degre[r] = e.marquePrc[r] == e.numero ? e.prcPropres.get(r).nb : this.debutPrc[r + 1] - this.debutPrc[r];
+			if (e.degre[r] == 0) file[queue++] = r;
+		}
+
+		while (tete < queue)
+		{
+			int u = file[tete++];
+
+			if (e.marqueSvt[u] == e.numero)
+			{
+				Liste l = e.svtPropres.get(u);
+				for (int k = 0; k < l.nb; k++) if (--e.degre[l.tab[k]] == 0) file[queue++] = l.tab[k];
+			}
+			else
+			{
+				for (int k = this.debutSvt[u]; k < this.debutSvt[u + 1]; k++) if (--e.degre[this.svt[k]] == 0) file[queue++] = this.svt[k];
+			}
+		}
+
+		return queue == n ? file : null;
+	}
+
+	/**
+	 * Désigne une dépendance ajoutée qui ferme un cycle : ses deux tâches sont restées hors du tri
+	 */
+	private String decrireCycle(Espace e)
+	{
+		for (int k = 0; k < e.nbAjouts; k++)
+		{
+			int u = e.ajouts[2 * k];
+			int v = e.ajouts[2 * k + 1];
+
+			if (e.degre[u] > 0 && e.degre[v] > 0)
+				return Erreur.CYCLIQUE.formater(this.nomDeRang(v)) + this.nomDeRang(u);
+		}
+		return Erreur.CYCLE_DETECTE.formater("");
+	}
+
+	private String nomDeRang(int r) { return this.planning.getNom(this.ordre[r]); }
+
+	// ========== COMPARAISON AVEC LA VERSION ==========
+
+	/**
+	 * Relève les écarts de marge et les changements du chemin critique (tâches de marge nulle)
+	 */
+	private Resultat comparer(Scenario scenario, Espace e, int finScenario)
+	{
+		int               n        = this.nbTaches;
+		int               nb       = 0;
+		long[]            ecarts   = e.ecarts;
+		ArrayList<String> devenues = new ArrayList<>();
+		ArrayList<String> plus     = new ArrayList<>();
+
+		for (int r = 0; r < n; r++)
+		{
+			int margeVersion  = this.plusTard[r] - this.plusTot[r];
+			int margeScenario = e.tard[r] - e.tot[r];
+
+			if (margeScenario == margeVersion) continue;
+
+			// Indice en poids fort : le tri range les écarts par indice de tâche
+			ecarts[nb++] = ((long) this.ordre[r] << 32) | ((margeScenario - margeVersion) & 0xFFFFFFFFL);
+
+			if      (margeScenario == 0) devenues.add(this.nomDeRang(r));
+			else if (margeVersion  == 0) plus    .add(this.nomDeRang(r));
+		}
+
+		Arrays.sort(ecarts, 0, nb);
+
+		int[] indices = new int[nb];
+		int[] deltas  = new int[nb];
+		for (int k = 0; k < nb; k++)
+		{
+			indices[k] = (int) (ecarts[k] >>> 32);
+			deltas [k] = (int)  ecarts[k];
+		}
+
+		return new Resultat(scenario, this.planning, finScenario, devenues, plus, indices, deltas);
+	}
+
+	// ========== CLASSES INTERNES ==========
+
+	/**
+	 * Tableaux de travail d'un bloc, réutilisés d'un scénario à l'autre
+	 * Les marques évitent d'effacer les tableaux : une case vaut pour le scénario dont elle porte le numéro.
+	 */
+	private final class Espace
+	{
+		final int[]                  duree;        // Durée de chaque rang (remise à celle de la version après chaque scénario)
+		final int[]                  tot;          // Date au plus tôt de chaque rang
+		final int[]                  tard;         // Date au plus tard de chaque rang
+		final int[]                  degre;        // Degrés entrants restants (nouveau tri)
+		final int[]                  marquePrc;    // Numéro du scénario qui a une liste de précédents propre à ce rang
+		final int[]                  marqueSvt;    // Numéro du scénario qui a une liste de suivants propre à ce rang
+		final long[]                 ecarts;       // Écarts de marge (indice, écart) avant tri
+		final HashMap<Integer, Liste> prcPropres;  // Listes de précédents recopiées puis modifiées, par rang
+		final HashMap<Integer, Liste> svtPropres;  // Listes de suivants recopiées puis modifiées, par rang
+
+		int   numero;           // Numéro du scénario en cours
+		int[] modifiees;        // Rangs dont la durée a changé
+		int   nbModifiees;      // Nombre de rangs utiles dans modifiees
+		int[] ajouts;           // Dépendances ajoutées (précédent, suivant) bout à bout
+		int   nbAjouts;         // Nombre de dépendances ajoutées
+
+		Espace()
+		{
+			int n = EvaluateurScenarios.this.nbTaches;
+
+			this.duree      = EvaluateurScenarios.this.durees.clone();
+			this.tot        = new int[n];
+			this.tard       = new int[n];
+			this.degre      = new int[n];
+			this.marquePrc  = new int[n];
+			this.marqueSvt  = new int[n];
+			this.ecarts     = new long[n];
+			this.prcPropres = new HashMap<>();
+			this.svtPropres = new HashMap<>();
+			this.modifiees  = new int[8];
+			this.ajouts     = new int[16];
+		}
+
+		void noterModifiee(int r)
+		{
+			if (this.nbModifiees == this.modifiees.length) this.modifiees = Arrays.copyOf(this.modifiees, this.nbModifiees * 2);
+			this.modifiees[this.nbModifiees++] = r;
+		}
+
+		void noterAjout(int u, int v)
+		{
+			if (2 * this.nbAjouts == this.ajouts.length) this.ajouts = Arrays.copyOf(this.ajouts, this.ajouts.length * 2);
+			this.ajouts[2 * this.nbAjouts    ] = u;
+			this.ajouts[2 * this.nbAjouts + 1] = v;
+			this.nbAjouts++;
+		}
+	}
+
+	/**
+	 * Liste de voisins propre à un scénario, avec le lien de chacun
+	 */
+	private static final class Liste
+	{
+		int[]  tab;      // Rangs des voisins
+		byte[] types;    // Type du lien de chaque voisin (null : tous FS sans délai)
+		int[]  delais;   // Délai du lien de chaque voisin (null avec types)
+		int    nb;       // Nombre de voisins utiles dans tab
+
+		Liste(int[] source, byte[] types, int[] delais, int debut, int fin)
+		{
+			int taille = Math.max(fin, debut + 2);
+
+			this.tab = Arrays.copyOfRange(source, debut, taille);
+			this.nb  = fin - debut;
+			if (types != null)
+			{
+				this.types  = Arrays.copyOfRange(types,  debut, taille);
+				this.delais = Arrays.copyOfRange(delais, debut, taille);
+			}
+		}
+
+		boolean contient(int r)
+		{
+			for (int k = 0; k < this.nb; k++) if (this.tab[k] == r) return true;
+			return false;
+		}
+
+		/**
+		 * @return true si un voisin au moins est relié par un lien de l'un des deux types
+		 */
+		boolean contientType(byte type1, byte type2)
+		{
+			if (this.types == null) return this.nb > 0;
+
+			for (int k = 0; k < this.nb; k++) if (this.types[k] == type1 || this.types[k] == type2) return true;
+			return false;
+		}
+
+		void ajouter(int r, byte type, int delai)
+		{
+			if (this.types == null && (type != Lien.FS || delai != 0))
+			{
+				this.types  = new byte[this.tab.length];
+				this.delais = new int [this.tab.length];
+			}
+			if (this.nb == this.tab.length)
+			{
+				this.tab = Arrays.copyOf(this.tab, this.nb * 2);
+				if (this.types != null)
+				{
+					this.types  = Arrays.copyOf(this.types,  this.nb * 2);
+					this.delais = Arrays.copyOf(this.delais, this.nb * 2);
+				}
+			}
+			if (this.types != null)
+			{
+				this.types [this.nb] = type;
+				this.delais[this.nb] = delai;
+			}
+			this.tab[this.nb++] = r;
+		}
+
+		boolean retirer(int r)
+		{
+			for (int k = 0; k < this.nb; k++)
+			{
+				if (this.tab[k] != r) continue;
+
+				int nbApres = --this.nb - k;
+				System.arraycopy(this.tab, k + 1, this.tab, k, nbApres);
+				if (this.types != null)
+				{
+					System.arraycopy(this.types,  k + 1, this.types,  k, nbApres);
+					System.arraycopy(this.delais, k + 1, this.delais, k, nbApres);
+				}
+				return true;
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * Résultat d'un scénario : fin du projet, changements du chemin critique et écarts de marge
+	 */
+	public static final class Resultat
+	{
+		private final Scenario          scenario;     // Scénario évalué
+		private final String            erreur;       // Hypothèse refusée (null si le scénario est valide)
+		private final Planning          planning;     // Version de référence
+		private final int               finProjet;    // Fin du projet dans le scénario
+		private final ArrayList<String> devenues;     // Tâches qui deviennent critiques
+		private final ArrayList<String> plus;         // Tâches qui ne sont plus critiques
+		private final int[]             indices;      // Indices des tâches dont la marge change, croissants
+		private final int[]             deltas;       // Écart de marge de chacune de ces tâches
+
+		private Resultat(Scenario scenario, Planning planning, int finProjet, ArrayList<String> devenues,
+		                 ArrayList<String> plus, int[] indices, int[] deltas)
+		{
+			this.scenario  = scenario;
+			this.erreur    = null;
+			this.planning  = planning;
+			this.finProjet = finProjet;
+			this.devenues  = devenues;
+			this.plus      = plus;
+			this.indices   = indices;
+			this.deltas    = deltas;
+		}
+
+		private Resultat(Scenario scenario, String erreur)
+		{
+			this.scenario  = scenario;
+			this.erreur    = erreur;
+			this.planning  = null;
+			this.finProjet = -1;
+			this.devenues  = new ArrayList<>();
+			this.plus      = new ArrayList<>();
+			this.indices   = new int[0];
+			this.deltas    = new int[0];
+		}
+
+		public Scenario          getScenario()           { return this.scenario;              }
+		public boolean           estValide()             { return this.erreur == null;        }
+		public String            getErreur()             { return this.erreur;                }
+		public int               getFinProjet()          { return this.finProjet;             }
+		public ArrayList<String> getDevenuesCritiques()  { return new ArrayList<>(this.devenues); }
+		public ArrayList<String> getPlusCritiques()      { return new ArrayList<>(this.plus);     }
+		public int               getNbMargesModifiees()  { return this.indices.length;        }
+
+		/**
+		 * @return L'écart entre la fin du projet dans le scénario et dans la version (0 si le scénario est invalide)
+		 */
+		public int getEcartFin()
+		{
+			return this.erreur == null ? this.finProjet - this.planning.getFinProjet() : 0;
+		}
+
+		/**
+		 * @return Le libellé jj/mm de la nouvelle date de fin, null si le scénario est invalide
+		 */
+		public String getDateFin()
+		{
+			return this.erreur == null ? this.planning.getCalendrier().libelle(this.finProjet) : null;
+		}
+
+		/**
+		 * @param k Numéro d'un écart (0 .. getNbMargesModifiees()-1)
+		 * @return Le nom de la tâche dont la marge change
+		 */
+		public String getTacheModifiee(int k) { return this.planning.getNom(this.indices[k]); }
+
+		/**
+		 * @param k Numéro d'un écart (0 .. getNbMargesModifiees()-1)
+		 * @return L'écart de marge de cette tâche, en jours
+		 */
+		public int getEcartMarge(int k)       { return this.deltas[k]; }
+
+		/**
+		 * @param nom Le nom d'une tâche de la version
+		 * @return L'écart de marge de la tâche, en jours (0 si elle ne change pas ou n'existe pas)
+		 */
+		public int getEcartMarge(String nom)
+		{
+			if (this.erreur != null) return 0;
+
+			int k = Arrays.binarySearch(this.indices, this.planning.indexDe(nom));
+			return k < 0 ? 0 : this.deltas[k];
+		}
+
+		public String toString()
+		{
+			if (this.erreur != null) return this.scenario.getNom() + " : " + this.erreur;
+
+			return this.scenario.getNom() + " : fin le " + this.getDateFin() + " (" + (this.getEcartFin() >= 0 ? "+" : "")
+			     + this.getEcartFin() + " j), " + this.devenues.size() + " tâche(s) devenue(s) critique(s), "
+			     + this.plus.size() + " tâche(s) plus critique(s), " + this.indices.length + " marge(s) modifiée(s)";
+		}
+	}
+}
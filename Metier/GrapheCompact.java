@@ -0,0 +1,1242 @@
+package Metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Classe GrapheCompact - Représentation compacte du graphe des tâches d'un projet MPM
+ * Les dépendances sont stockées en lignes creuses compressées (CSR) : les suivants
+ * (resp. les précédents) d'une tâche occupent une tranche contiguë d'un tableau d'entiers.
+ * Chaque tranche a une capacité ; quand elle est pleine, elle est déplacée en fin de tableau
+ * avec une capacité doublée, et la place abandonnée est récupérée par un compactage.
+ * Le type et le délai de chaque lien (voir Lien) sont rangés dans des tableaux parallèles
+ * aux voisins (un octet et un entier par case), créés au premier lien autre que FS sans délai.
+ * Les durées, les dates et le rang topologique sont rangés dans des tableaux primitifs
+ * indexés par l'identifiant des tâches ; les objets Tache ne sont que des vues sur ces tableaux.
+ * Les dates au plus tard sont rangées par rapport à la fin du projet (voir decalerDatesPlusTard) :
+ * quand seule la fin bouge, aucune n'est réécrite et leurs pages restent à publier telles quelles.
+ */
+public class GrapheCompact
+{
+	// ========== ATTRIBUTS ==========
+
+	private int     nbNoeuds;       // Nombre de tâches du graphe
+	private Tache[] vues;           // Vue Tache associée à chaque identifiant
+
+	private int[]   duree;          // Durée de chaque tâche
+	private int[]   datePlusTot;    // Date au plus tôt de chaque tâche
+	private int[]   datePlusTard;   // Date au plus tard de chaque tâche, moins finTard
+	private int     finTard;        // Fin du projet à laquelle les dates au plus tard sont rapportées
+
+	private int[]   rang;           // Position de chaque tâche dans un ordre topologique (rangs distincts)
+	private int     rangSuivant;    // Rang donné à la prochaine tâche ajoutée
+
+	private int[]   debutSvt;       // Début de la tranche des suivants de chaque tâche
+	private int[]   nbSvt;          // Nombre de suivants de chaque tâche
+	private int[]   capSvt;         // Capacité de la tranche des suivants
+	private int[]   svt;            // Suivants, tâche par tâche
+	private int     finTabSvt;      // Première case libre du tableau des suivants
+	private int     perduSvt;       // Cases abandonnées par les tranches déplacées
+	private byte[]  typeSvt;        // Type du lien vers chaque suivant (null : tous FS sans délai)
+	private int[]   delaiSvt;       // Délai du lien vers chaque suivant (null avec typeSvt)
+
+	private int[]   debutPrc;       // Début de la tranche des précédents de chaque tâche
+	private int[]   nbPrc;          // Nombre de précédents de chaque tâche
+	private int[]   capPrc;         // Capacité de la tranche des précédents
+	private int[]   prc;            // Précédents, tâche par tâche
+	private int     finTabPrc;      // Première case libre du tableau des précédents
+	private int     perduPrc;       // Cases abandonnées par les tranches déplacées
+	private byte[]  typePrc;        // Type du lien depuis chaque précédent (null : tous FS sans délai)
+	private int[]   delaiPrc;       // Délai du lien depuis chaque précédent (null avec typePrc)
+
+	private int[]   marques;        // Marques de passage réutilisées par les parcours
+	private int     generation;     // Valeur de marque du parcours en cours
+	private int[]   pile;           // Pile réutilisée par les parcours
+	private int[]   parents;        // Tâche d'où chaque tâche a été atteinte (voir reordonner)
+	private int[]   ordreParRang;   // Identifiants triés par rang (réutilisé d'un appel à l'autre)
+	private int[]   tacheDeRang;    // Identifiant de chaque rang avant resserrement, -1 si libre (réutilisé)
+	private Marges  marges;         // Marges des tâches (null si à recalculer : dates ou arcs modifiés depuis)
+	private long[]  pagesModifiees; // Pages de tâches modifiées depuis la dernière publication (voir Planning)
+	private boolean toutModifie;    // true si toutes les pages sont à republier
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Constructeur d'un graphe vide
+	 *
+	 * @param capacite Nombre de tâches prévu (le graphe s'agrandit au besoin)
+	 */
+	public GrapheCompact(int capacite)
+	{
+		capacite = Math.max(capacite, 4);
+
+		this.nbNoeuds     = 0;
+		this.vues         = new Tache[capacite];
+		this.duree        = new int[capacite];
+		this.datePlusTot  = new int[capacite];
+		this.datePlusTard = new int[capacite];
+		this.rang         = new int[capacite];
+		this.rangSuivant  = 0;
+
+		this.debutSvt     = new int[capacite];
+		this.nbSvt        = new int[capacite];
+		this.capSvt       = new int[capacite];
+		this.svt          = new int[capacite * 2];
+
+		this.debutPrc     = new int[capacite];
+		this.nbPrc        = new int[capacite];
+		this.capPrc       = new int[capacite];
+		this.prc          = new int[capacite * 2];
+
+		this.marques      = new int[capacite];
+		this.pile         = new int[capacite];
+		this.parents      = new int[capacite];
+
+		this.pagesModifiees = new long[1];
+		this.toutModifie    = true;
+	}
+
+	/**
+	 * Crée un graphe à partir de tableaux déjà remplis (relecture d'un instantané)
+	 * Les adjacences sont données bout à bout : les voisins de la tâche i occupent
+	 * les cases debut[i] .. debut[i+1]-1. Les vues sont attachées ensuite (voir attacherVue).
+	 *
+	 * @param n Nombre de tâches
+	 * @param duree Durée de chaque tâche
+	 * @param tot Date au plus tôt de chaque tâche
+	 * @param tard Date au plus tard de chaque tâche
+	 * @param rang Rang topologique de chaque tâche
+	 * @param debutSvt Début des suivants de chaque tâche (n + 1 cases)
+	 * @param svt Suivants, tâche par tâche
+	 * @param debutPrc Début des précédents de chaque tâche (n + 1 cases)
+	 * @param prc Précédents, tâche par tâche
+	 * @param typeSvt Type du lien vers chaque suivant (null : tous FS sans délai)
+	 * @param delaiSvt Délai du lien vers chaque suivant (null avec typeSvt)
+	 * @param typePrc Type du lien depuis chaque précédent (null avec typeSvt)
+	 * @param delaiPrc Délai du lien depuis chaque précédent (null avec typeSvt)
+	 * @return Le graphe, sans vues
+	 */
+	static GrapheCompact depuisTableaux(int n, int[] duree, int[] tot, int[] tard, int[] rang,
+	                                    int[] debutSvt, int[] svt, int[] debutPrc, int[] prc,
+	                                    byte[] typeSvt, int[] delaiSvt, byte[] typePrc, int[] delaiPrc)
+	{
+		GrapheCompact g        = new GrapheCompact(0);
+		int           capacite = Math.max(n, 4);
+
+		g.nbNoeuds     = n;
+		g.vues         = new Tache[capacite];
+		g.duree        = Arrays.copyOf(duree, capacite);
+		g.datePlusTot  = Arrays.copyOf(tot,   capacite);
+		g.datePlusTard = Arrays.copyOf(tard,  capacite);
+		g.rang         = Arrays.copyOf(rang,  capacite);
+		g.rangSuivant  = 0;
+
+		for (int i = 0; i < n; i++)
+		{
+			if (rang[i] >= g.rangSuivant) g.rangSuivant = rang[i] + 1;
+		}
+
+		g.debutSvt     = Arrays.copyOf(debutSvt, capacite);
+		g.nbSvt        = new int[capacite];
+		g.svt          = svt.length > 0 ? svt : new int[4];
+		g.finTabSvt    = debutSvt[n];
+
+		g.debutPrc     = Arrays.copyOf(debutPrc, capacite);
+		g.nbPrc        = new int[capacite];
+		g.prc          = prc.length > 0 ? prc : new int[4];
+		g.finTabPrc    = debutPrc[n];
+
+		for (int i = 0; i < n; i++)
+		{
+			g.nbSvt[i] = debutSvt[i + 1] - debutSvt[i];
+			g.nbPrc[i] = debutPrc[i + 1] - debutPrc[i];
+		}
+		g.capSvt       = g.nbSvt.clone();
+		g.capPrc       = g.nbPrc.clone();
+
+		if (typeSvt != null && svt.length > 0)
+		{
+			g.typeSvt  = typeSvt;
+			g.delaiSvt = delaiSvt;
+			g.typePrc  = typePrc;
+			g.delaiPrc = delaiPrc;
+		}
+
+		g.marques      = new int[capacite];
+		g.pile         = new int[capacite];
+		g.parents      = new int[capacite];
+
+		return g;
+	}
+
+	/**
+	 * Associe une vue à une tâche créée par depuisTableaux
+	 */
+	void attacherVue(int id, Tache vue)
+	{
+		this.vues[id] = vue;
+		this.marquer(id);
+	}
+
+	// ========== MÉTHODES DE CONSTRUCTION ==========
+
+	/**
+	 * Ajoute une tâche sans dépendance au graphe
+	 * Elle reçoit le plus grand rang topologique.
+	 *
+	 * @param vue La vue Tache à associer au nouvel identifiant
+	 * @param duree La durée de la tâche
+	 * @return L'identifiant attribué à la tâche
+	 */
+	public int ajouterNoeud(Tache vue, int duree)
+	{
+		if (this.nbNoeuds == this.vues.length)
+		{
+			int capacite = this.vues.length * 2;
+
+			this.vues         = Arrays.copyOf(this.vues,         capacite);
+			this.duree        = Arrays.copyOf(this.duree,        capacite);
+			this.datePlusTot  = Arrays.copyOf(this.datePlusTot,  capacite);
+			this.datePlusTard = Arrays.copyOf(this.datePlusTard, capacite);
+			this.rang         = Arrays.copyOf(this.rang,         capacite);
+			this.debutSvt     = Arrays.copyOf(this.debutSvt,     capacite);
+			this.nbSvt        = Arrays.copyOf(this.nbSvt,        capacite);
+			this.capSvt       = Arrays.copyOf(this.capSvt,       capacite);
+			this.debutPrc     = Arrays.copyOf(this.debutPrc,     capacite);
+			this.nbPrc        = Arrays.copyOf(this.nbPrc,        capacite);
+			this.capPrc       = Arrays.copyOf(this.capPrc,       capacite);
+			this.marques      = Arrays.copyOf(this.marques,      capacite);
+			this.pile         = Arrays.copyOf(this.pile,         capacite);
+			this.parents      = Arrays.copyOf(this.parents,      capacite);
+		}
+
+		int id = this.nbNoeuds++;
+
+		this.marges           = null;
+		this.marquer(id);
+		this.vues        [id] = vue;
+		this.duree       [id] = duree;
+		this.datePlusTot [id] = 0;
+		this.datePlusTard[id] = -this.finTard;
+		this.rang        [id] = this.rangSuivant++;
+
+		// Tranches vides, sans capacité : elles seront placées en fin de tableau au premier arc
+		this.debutSvt[id] = 0;
+		this.nbSvt   [id] = 0;
+		this.capSvt  [id] = 0;
+		this.debutPrc[id] = 0;
+		this.nbPrc   [id] = 0;
+		this.capPrc  [id] = 0;
+
+		return id;
+	}
+
+	/**
+	 * Ajoute une dépendance fin-début sans délai entre deux tâches
+	 *
+	 * @param de L'identifiant de la tâche précédente
+	 * @param vers L'identifiant de la tâche suivante
+	 * @return false si l'arc existait déjà
+	 */
+	public boolean ajouterArc(int de, int vers)
+	{
+		return this.ajouterArc(de, vers, Lien.FS, 0);
+	}
+
+	/**
+	 * Ajoute une dépendance typée entre deux tâches
+	 * L'arc est rangé à la fin des deux tranches concernées ; un arc déjà présent est ignoré,
+	 * même avec un autre lien. Le rang topologique n'est pas mis à jour (voir reordonner).
+	 *
+	 * @param de L'identifiant de la tâche précédente
+	 * @param vers L'identifiant de la tâche suivante
+	 * @param type Le type du lien (voir Lien)
+	 * @param delai Le délai du lien, en jours
+	 * @return false si l'arc existait déjà
+	 */
+	public boolean ajouterArc(int de, int vers, byte type, int delai)
+	{
+		// Recherche du doublon dans la plus courte des deux tranches
+		boolean existe = this.nbSvt[de] <= this.nbPrc[vers]
+		                 ? GrapheCompact.contient(this.svt, this.debutSvt[de],   this.nbSvt[de],   vers)
+		                 : GrapheCompact.contient(this.prc, this.debutPrc[vers], this.nbPrc[vers], de  );
+		if (existe) return false;
+
+		this.marges = null;
+		this.marquer(de);
+		this.marquer(vers);
+		if (this.typeSvt == null && (type != Lien.FS || delai != 0)) this.creerLiens();
+
+		if (this.nbSvt[de]   == this.capSvt[de]  ) this.agrandirTrancheSvt(de);
+		this.svt[this.debutSvt[de] + this.nbSvt[de]++] = vers;
+
+		if (this.nbPrc[vers] == this.capPrc[vers]) this.agrandirTranchePrc(vers);
+		int j = this.debutPrc[vers] + this.nbPrc[vers]++;
+		this.prc[j] = de;
+
+		// Un compactage provoqué par la tranche des précédents a pu déplacer celle des suivants
+		int k = this.debutSvt[de] + this.nbSvt[de] - 1;
+
+		if (this.typeSvt != null)
+		{
+			this.typeSvt [k] = type;
+			this.delaiSvt[k] = delai;
+			this.typePrc [j] = type;
+			this.delaiPrc[j] = delai;
+		}
+		return true;
+	}
+
+	/**
+	 * Crée les tableaux de liens : tous les arcs déjà présents sont FS sans délai (valeurs nulles)
+	 */
+	private void creerLiens()
+	{
+		this.typeSvt  = new byte[this.svt.length];
+		this.delaiSvt = new int [this.svt.length];
+		this.typePrc  = new byte[this.prc.length];
+		this.delaiPrc = new int [this.prc.length];
+	}
+
+	/**
+	 * Retire une tâche et ses arcs du graphe
+	 * Pour garder des identifiants denses, la dernière tâche prend l'identifiant libéré :
+	 * seules les tranches de ses voisins sont réécrites. L'ordre des autres arcs est conservé.
+	 *
+	 * @param id L'identifiant de la tâche à retirer
+	 * @return L'ancien identifiant de la tâche déplacée vers id, ou -1 si aucune tâche n'a bougé
+	 */
+	public int supprimerNoeud(int id)
+	{
+		this.marges = null;
+		this.marquer(id);
+
+		// ========== RETRAIT DES ARCS CHEZ LES VOISINS ==========
+		for (int k = this.debutSvt[id]; k < this.finSvt(id); k++) this.retirerPrc(this.svt[k], id);
+		for (int k = this.debutPrc[id]; k < this.finPrc(id); k++) this.retirerSvt(this.prc[k], id);
+
+		this.perduSvt += this.capSvt[id];
+		this.perduPrc += this.capPrc[id];
+		this.vues[id].setId(-1);
+
+		int dernier = --this.nbNoeuds;
+		if (dernier == id)
+		{
+			this.vues[id] = null;
+			return -1;
+		}
+
+		// ========== LA DERNIÈRE TÂCHE PREND LA PLACE LIBÉRÉE ==========
+		this.marquer(dernier);
+		for (int k = this.debutSvt[dernier]; k < this.finSvt(dernier); k++)
+		{
+			int s = this.svt[k];
+			GrapheCompact.remplacer(this.prc, this.debutPrc[s], this.nbPrc[s], dernier, id);
+			this.marquer(s);
+		}
+		for (int k = this.debutPrc[dernier]; k < this.finPrc(dernier); k++)
+		{
+			int p = this.prc[k];
+			GrapheCompact.remplacer(this.svt, this.debutSvt[p], this.nbSvt[p], dernier, id);
+			this.marquer(p);
+		}
+
+		this.vues        [id] = this.vues        [dernier];
+		this.duree       [id] = this.duree       [dernier];
+		this.datePlusTot [id] = this.datePlusTot [dernier];
+		this.datePlusTard[id] = this.datePlusTard[dernier];
+		this.rang        [id] = this.rang        [dernier];
+		this.debutSvt    [id] = this.debutSvt    [dernier];
+		this.nbSvt       [id] = this.nbSvt       [dernier];
+		this.capSvt      [id] = this.capSvt      [dernier];
+		this.debutPrc    [id] = this.debutPrc    [dernier];
+		this.nbPrc       [id] = this.nbPrc       [dernier];
+		this.capPrc      [id] = this.capPrc      [dernier];
+
+		this.vues[dernier] = null;
+		this.vues[id].setId(id);
+
+		return dernier;
+	}
+
+	/**
+	 * Retire un suivant de la tranche d'une tâche en décalant la suite et ses liens, pour conserver l'ordre
+	 */
+	private void retirerSvt(int id, int val)
+	{
+		int k = GrapheCompact.chercher(this.svt, this.debutSvt[id], this.nbSvt[id], val);
+		if (k < 0) return;
+
+		int nbApres = this.finSvt(id) - k - 1;
+		System.arraycopy(this.svt, k + 1, this.svt, k, nbApres);
+		if (this.typeSvt != null)
+		{
+			System.arraycopy(this.typeSvt,  k + 1, this.typeSvt,  k, nbApres);
+			System.arraycopy(this.delaiSvt, k + 1, this.delaiSvt, k, nbApres);
+		}
+		this.nbSvt[id]--;
+		this.marquer(id);
+	}
+
+	/**
+	 * Retire un précédent de la tranche d'une tâche en décalant la suite et ses liens, pour conserver l'ordre
+	 */
+	private void retirerPrc(int id, int val)
+	{
+		int k = GrapheCompact.chercher(this.prc, this.debutPrc[id], this.nbPrc[id], val);
+		if (k < 0) return;
+
+		int nbApres = this.finPrc(id) - k - 1;
+		System.arraycopy(this.prc, k + 1, this.prc, k, nbApres);
+		if (this.typePrc != null)
+		{
+			System.arraycopy(this.typePrc,  k + 1, this.typePrc,  k, nbApres);
+			System.arraycopy(this.delaiPrc, k + 1, this.delaiPrc, k, nbApres);
+		}
+		this.nbPrc[id]--;
+		this.marquer(id);
+	}
+
+	/**
+	 * Déplace la tranche des suivants d'une tâche en fin de tableau avec une capacité doublée
+	 */
+	private void agrandirTrancheSvt(int id)
+	{
+		if (this.perduSvt > 64 && this.perduSvt > this.finTabSvt / 2) this.compacter();
+
+		int cap = Math.max(2, this.capSvt[id] * 2);
+		if (this.finTabSvt + cap > this.svt.length)
+		{
+			int taille = Math.max(this.svt.length * 2, this.finTabSvt + cap);
+
+			this.svt = Arrays.copyOf(this.svt, taille);
+			if (this.typeSvt != null)
+			{
+				this.typeSvt  = Arrays.copyOf(this.typeSvt,  taille);
+				this.delaiSvt = Arrays.copyOf(this.delaiSvt, taille);
+			}
+		}
+
+		System.arraycopy(this.svt, this.debutSvt[id], this.svt, this.finTabSvt, this.nbSvt[id]);
+		if (this.typeSvt != null)
+		{
+			System.arraycopy(this.typeSvt,  this.debutSvt[id], this.typeSvt,  this.finTabSvt, this.nbSvt[id]);
+			System.arraycopy(this.delaiSvt, this.debutSvt[id], this.delaiSvt, this.finTabSvt, this.nbSvt[id]);
+		}
+
+		this.perduSvt    += this.capSvt[id];
+		this.debutSvt[id] = this.finTabSvt;
+		this.capSvt  [id] = cap;
+		this.finTabSvt   += cap;
+	}
+
+	/**
+	 * Déplace la tranche des précédents d'une tâche en fin de tableau avec une capacité doublée
+	 */
+	private void agrandirTranchePrc(int id)
+	{
+		if (this.perduPrc > 64 && this.perduPrc > this.finTabPrc / 2) this.compacter();
+
+		int cap = Math.max(2, this.capPrc[id] * 2);
+		if (this.finTabPrc + cap > this.prc.length)
+		{
+			int taille = Math.max(this.prc.length * 2, this.finTabPrc + cap);
+
+			this.prc = Arrays.copyOf(this.prc, taille);
+			if (this.typePrc != null)
+			{
+				this.typePrc  = Arrays.copyOf(this.typePrc,  taille);
+				this.delaiPrc = Arrays.copyOf(this.delaiPrc, taille);
+			}
+		}
+
+		System.arraycopy(this.prc, this.debutPrc[id], this.prc, this.finTabPrc, this.nbPrc[id]);
+		if (this.typePrc != null)
+		{
+			System.arraycopy(this.typePrc,  this.debutPrc[id], this.typePrc,  this.finTabPrc, this.nbPrc[id]);
+			System.arraycopy(this.delaiPrc, this.debutPrc[id], this.delaiPrc, this.finTabPrc, this.nbPrc[id]);
+		}
+
+		this.perduPrc    += this.capPrc[id];
+		this.debutPrc[id] = this.finTabPrc;
+		this.capPrc  [id] = cap;
+		this.finTabPrc   += cap;
+	}
+
+	/**
+	 * Récupère la place abandonnée par les tranches déplacées ou retirées
+	 * Les tranches sont recopiées bout à bout, leur capacité devient égale à leur taille.
+	 */
+	public void compacter()
+	{
+		boolean liens  = this.typeSvt != null;
+		int[]   svt2   = new int[Math.max(this.finTabSvt - this.perduSvt, 4) * 2];
+		int[]   prc2   = new int[Math.max(this.finTabPrc - this.perduPrc, 4) * 2];
+		byte[]  typeS2 = liens ? new byte[svt2.length] : null;
+		int[]   delS2  = liens ? new int [svt2.length] : null;
+		byte[]  typeP2 = liens ? new byte[prc2.length] : null;
+		int[]   delP2  = liens ? new int [prc2.length] : null;
+		int     pos1   = 0;
+		int     pos2   = 0;
+
+		for (int i = 0; i < this.nbNoeuds; i++)
+		{
+			System.arraycopy(this.svt, this.debutSvt[i], svt2, pos1, this.nbSvt[i]);
+			if (liens)
+			{
+				System.arraycopy(this.typeSvt,  this.debutSvt[i], typeS2, pos1, this.nbSvt[i]);
+				System.arraycopy(this.delaiSvt, this.debutSvt[i], delS2,  pos1, this.nbSvt[i]);
+			}
+			this.debutSvt[i] = pos1;
+			this.capSvt  [i] = this.nbSvt[i];
+			pos1            += this.nbSvt[i];
+
+			System.arraycopy(this.prc, this.debutPrc[i], prc2, pos2, this.nbPrc[i]);
+			if (liens)
+			{
+				System.arraycopy(this.typePrc,  this.debutPrc[i], typeP2, pos2, this.nbPrc[i]);
+				System.arraycopy(this.delaiPrc, this.debutPrc[i], delP2,  pos2, this.nbPrc[i]);
+			}
+			this.debutPrc[i] = pos2;
+			this.capPrc  [i] = this.nbPrc[i];
+			pos2            += this.nbPrc[i];
+		}
+
+		this.svt       = svt2;
+		this.prc       = prc2;
+		this.typeSvt   = typeS2;
+		this.delaiSvt  = delS2;
+		this.typePrc   = typeP2;
+		this.delaiPrc  = delP2;
+		this.finTabSvt = pos1;
+		this.finTabPrc = pos2;
+		this.perduSvt  = 0;
+		this.perduPrc  = 0;
+	}
+
+	/**
+	 * Renumérote les tâches du graphe
+	 * L'ordre des voisins est conservé, les vues Tache reçoivent leur nouvel identifiant
+	 * et le rang topologique de chaque tâche devient son nouvel identifiant.
+	 *
+	 * @param nouvelId Nouvel identifiant de chaque tâche (permutation de 0 .. nbNoeuds-1)
+	 */
+	public void permuter(int[] nouvelId)
+	{
+		int   n        = this.nbNoeuds;
+		int   capacite = this.vues.length;
+		int[] ancienId = new int[n];
+
+		for (int i = 0; i < n; i++) ancienId[nouvelId[i]] = i;
+
+		Tache[] vues2  = new Tache[capacite];
+		int[]   duree2 = new int[capacite];
+		int[]   tot2   = new int[capacite];
+		int[]   tard2  = new int[capacite];
+
+		for (int j = 0; j < n; j++)
+		{
+			int i = ancienId[j];
+
+			vues2 [j] = this.vues        [i];
+			duree2[j] = this.duree       [i];
+			tot2  [j] = this.datePlusTot [i];
+			tard2 [j] = this.datePlusTard[i];
+
+			vues2[j].setId(j);
+			this.rang[j] = j;
+		}
+
+		byte[] typeSvt2  = this.typeSvt == null ? null : new byte[this.svt.length];
+		int[]  delaiSvt2 = this.typeSvt == null ? null : new int [this.svt.length];
+		byte[] typePrc2  = this.typeSvt == null ? null : new byte[this.prc.length];
+		int[]  delaiPrc2 = this.typeSvt == null ? null : new int [this.prc.length];
+
+		this.svt       = GrapheCompact.renumeroter(this.debutSvt, this.nbSvt, this.capSvt, this.svt, this.typeSvt, this.delaiSvt,
+		                                           typeSvt2, delaiSvt2, ancienId, nouvelId, n);
+		this.prc       = GrapheCompact.renumeroter(this.debutPrc, this.nbPrc, this.capPrc, this.prc, this.typePrc, this.delaiPrc,
+		                                           typePrc2, delaiPrc2, ancienId, nouvelId, n);
+		this.typeSvt   = typeSvt2;
+		this.delaiSvt  = delaiSvt2;
+		this.typePrc   = typePrc2;
+		this.delaiPrc  = delaiPrc2;
+		this.finTabSvt = n == 0 ? 0 : this.debutSvt[n - 1] + this.nbSvt[n - 1];
+		this.finTabPrc = n == 0 ? 0 : this.debutPrc[n - 1] + this.nbPrc[n - 1];
+		this.perduSvt  = 0;
+		this.perduPrc  = 0;
+
+		this.vues         = vues2;
+		this.duree        = duree2;
+		this.datePlusTot  = tot2;
+		this.datePlusTard = tard2;
+		this.rangSuivant  = n;
+		this.marges       = null;
+		this.toutModifie  = true;
+	}
+
+	/**
+	 * Recopie bout à bout une adjacence selon une renumérotation des tâches
+	 * Les tableaux de début, de taille et de capacité sont réécrits en place ;
+	 * les liens, s'il y en a, sont recopiés dans types2 et delais2.
+	 */
+	private static int[] renumeroter(int[] debut, int[] nb, int[] cap, int[] voisins, byte[] types, int[] delais,
+	                                 byte[] types2, int[] delais2, int[] ancienId, int[] nouvelId, int n)
+	{
+		int[] voisins2 = new int[voisins.length];
+		int[] debut2   = new int[n];
+		int[] nb2      = new int[n];
+		int   pos      = 0;
+
+		for (int j = 0; j < n; j++)
+		{
+			int i = ancienId[j];
+
+			debut2[j] = pos;
+			nb2   [j] = nb[i];
+			for (int k = debut[i]; k < debut[i] + nb[i]; k++)
+			{
+				if (types != null)
+				{
+					types2 [pos] = types [k];
+					delais2[pos] = delais[k];
+				}
+				voisins2[pos++] = nouvelId[voisins[k]];
+			}
+		}
+
+		System.arraycopy(debut2, 0, debut, 0, n);
+		System.arraycopy(nb2,    0, nb,    0, n);
+		System.arraycopy(nb2,    0, cap,   0, n);
+
+		return voisins2;
+	}
+
+	// ========== MÉTHODES DE SAUVEGARDE ==========
+
+	/**
+	 * Retourne une copie de l'état du graphe, pour pouvoir y revenir avec restaurer()
+	 * Les vues Tache ne sont pas copiées : la copie référence les mêmes objets.
+	 *
+	 * @return La copie
+	 */
+	public GrapheCompact copier()
+	{
+		GrapheCompact c = new GrapheCompact(this.vues.length);
+
+		c.nbNoeuds     = this.nbNoeuds;
+		c.vues         = this.vues        .clone();
+		c.duree        = this.duree       .clone();
+		c.datePlusTot  = this.datePlusTot .clone();
+		c.datePlusTard = this.datePlusTard.clone();
+		c.rang         = this.rang        .clone();
+		c.finTard      = this.finTard;
+		c.rangSuivant  = this.rangSuivant;
+		c.marges       = this.marges;
+
+		c.debutSvt     = this.debutSvt    .clone();
+		c.nbSvt        = this.nbSvt       .clone();
+		c.capSvt       = this.capSvt      .clone();
+		c.svt          = this.svt         .clone();
+		c.finTabSvt    = this.finTabSvt;
+		c.perduSvt     = this.perduSvt;
+		c.typeSvt      = this.typeSvt  == null ? null : this.typeSvt .clone();
+		c.delaiSvt     = this.delaiSvt == null ? null : this.delaiSvt.clone();
+
+		c.debutPrc     = this.debutPrc    .clone();
+		c.nbPrc        = this.nbPrc       .clone();
+		c.capPrc       = this.capPrc      .clone();
+		c.prc          = this.prc         .clone();
+		c.finTabPrc    = this.finTabPrc;
+		c.perduPrc     = this.perduPrc;
+		c.typePrc      = this.typePrc  == null ? null : this.typePrc .clone();
+		c.delaiPrc     = this.delaiPrc == null ? null : this.delaiPrc.clone();
+
+		return c;
+	}
+
+	/**
+	 * Revient à un état sauvegardé par copier()
+	 * Les vues retrouvent leur identifiant ; celles créées depuis la copie reçoivent -1.
+	 * La copie ne doit plus être utilisée ensuite.
+	 *
+	 * @param c La copie à restaurer
+	 */
+	public void restaurer(GrapheCompact c)
+	{
+		for (int i = 0; i < this.nbNoeuds; i++) this.vues[i].setId(-1);
+
+		this.nbNoeuds     = c.nbNoeuds;
+		this.vues         = c.vues;
+		this.duree        = c.duree;
+		this.datePlusTot  = c.datePlusTot;
+		this.datePlusTard = c.datePlusTard;
+		this.finTard      = c.finTard;
+		this.rang         = c.rang;
+		this.rangSuivant  = c.rangSuivant;
+		this.marges       = c.marges;
+
+		this.debutSvt     = c.debutSvt;
+		this.nbSvt        = c.nbSvt;
+		this.capSvt       = c.capSvt;
+		this.svt          = c.svt;
+		this.finTabSvt    = c.finTabSvt;
+		this.perduSvt     = c.perduSvt;
+		this.typeSvt      = c.typeSvt;
+		this.delaiSvt     = c.delaiSvt;
+
+		this.debutPrc     = c.debutPrc;
+		this.nbPrc        = c.nbPrc;
+		this.capPrc       = c.capPrc;
+		this.prc          = c.prc;
+		this.finTabPrc    = c.finTabPrc;
+		this.perduPrc     = c.perduPrc;
+		this.typePrc      = c.typePrc;
+		this.delaiPrc     = c.delaiPrc;
+
+		this.marques      = c.marques;
+		this.pile         = c.pile;
+		this.parents      = c.parents;
+		this.toutModifie  = true;
+
+		for (int i = 0; i < this.nbNoeuds; i++) this.vues[i].setId(i);
+	}
+
+	// ========== MÉTHODES D'ORDRE TOPOLOGIQUE ==========
+
+	/**
+	 * Rétablit l'ordre topologique après l'ajout d'arcs sortant d'une tâche (Pearce-Kelly)
+	 * Seule la zone comprise entre le plus petit rang des suivants de v et le rang de v
+	 * est visitée : les descendants des suivants de v qui la traversent sont replacés
+	 * après les ancêtres de v qui la traversent, en réutilisant leurs rangs.
+	 * Chaque descendant retient la tâche d'où il a été atteint : si v en fait partie,
+	 * le cycle est décrit en entier en remontant ces liens.
+	 *
+	 * @param v L'identifiant de la tâche dont des arcs sortants ont été ajoutés
+	 * @throws IllegalStateException si les nouveaux arcs forment un cycle
+	 */
+	public void reordonner(int v)
+	{
+		int sup = this.rang[v];
+		int inf = Integer.MAX_VALUE;
+
+		for (int k = this.debutSvt[v]; k < this.finSvt(v); k++)
+			inf = Math.min(inf, this.rang[this.svt[k]]);
+
+		if (inf > sup) return;
+
+		// ========== DESCENDANTS DES SUIVANTS DE v, DE RANG INFÉRIEUR À v ==========
+		int    marque   = ++this.generation;
+		int    haut     = 0;
+		int    nbApres  = 0;
+		long[] apres    = new long[16];
+
+		for (int k = this.debutSvt[v]; k < this.finSvt(v); k++)
+		{
+			int s = this.svt[k];
+			if (this.rang[s] < sup && this.marques[s] != marque)
+			{
+				this.marques[s]   = marque;
+				this.parents[s]   = v;
+				this.pile[haut++] = s;
+			}
+		}
+
+		while (haut > 0)
+		{
+			int u = this.pile[--haut];
+			apres = GrapheCompact.ajouterCouple(apres, nbApres++, this.rang[u], u);
+
+			for (int k = this.debutSvt[u]; k < this.finSvt(u); k++)
+			{
+				int s = this.svt[k];
+				if (s == v) throw new IllegalStateException(Erreur.CYCLE_DETECTE.formater(this.decrireCycle(v, u)));
+
+				if (this.rang[s] < sup && this.marques[s] != marque)
+				{
+					this.marques[s]   = marque;
+					this.parents[s]   = u;
+					this.pile[haut++] = s;
+				}
+			}
+		}
+
+		// ========== ANCÊTRES DE v, DE RANG SUPÉRIEUR AU PLUS PETIT SUIVANT ==========
+		int    nbAvant  = 0;
+		long[] avant    = new long[16];
+
+		marque            = ++this.generation;
+		this.marques[v]   = marque;
+		this.pile[haut++] = v;
+
+		while (haut > 0)
+		{
+			int u = this.pile[--haut];
+			avant = GrapheCompact.ajouterCouple(avant, nbAvant++, this.rang[u], u);
+
+			for (int k = this.debutPrc[u]; k < this.finPrc(u); k++)
+			{
+				int p = this.prc[k];
+				if (this.rang[p] > inf && this.marques[p] != marque)
+				{
+					this.marques[p]   = marque;
+					this.pile[haut++] = p;
+				}
+			}
+		}
+
+		// ========== RÉATTRIBUTION DES RANGS : ANCÊTRES PUIS DESCENDANTS ==========
+		Arrays.sort(avant, 0, nbAvant);
+		Arrays.sort(apres, 0, nbApres);
+
+		int[] rangs = new int[nbAvant + nbApres];
+		for (int i = 0; i < nbAvant; i++) rangs[i]           = (int) (avant[i] >>> 32);
+		for (int i = 0; i < nbApres; i++) rangs[nbAvant + i] = (int) (apres[i] >>> 32);
+		Arrays.sort(rangs);
+
+		for (int i = 0; i < nbAvant; i++) this.rang[(int) avant[i]] = rangs[i];
+		for (int i = 0; i < nbApres; i++) this.rang[(int) apres[i]] = rangs[nbAvant + i];
+	}
+
+	/**
+	 * Décrit le cycle fermé par l'arc u -> v en remontant les parents de u jusqu'à v (voir reordonner)
+	 *
+	 * @return Les noms des tâches du cycle, de v à v
+	 */
+	private String decrireCycle(int v, int u)
+	{
+		String res = this.vues[v].getNom();
+		for (int w = u; w != v; w = this.parents[w])
+		{
+			res = this.vues[w].getNom() + " -> " + res;
+		}
+		return this.vues[v].getNom() + " -> " + res;
+	}
+
+	/**
+	 * Range le couple (rang, identifiant) dans un long, trié d'abord par rang
+	 *
+	 * @return Le tableau, agrandi au besoin
+	 */
+	private static long[] ajouterCouple(long[] tab, int pos, int rang, int id)
+	{
+		if (pos == tab.length) tab = Arrays.copyOf(tab, pos * 2);
+		tab[pos] = ((long) rang << 32) | id;
+		return tab;
+	}
+
+	/**
+	 * Retourne les identifiants des tâches dans l'ordre de leur rang topologique
+	 * Tri par comptage sur les rangs ; les rangs sont ensuite resserrés sur 0 .. nbNoeuds-1.
+	 * Le tableau retourné et celui du tri sont réutilisés d'un appel à l'autre : ils ne sont
+	 * agrandis que lorsque le nombre de tâches ou de rangs dépasse leur taille.
+	 *
+	 * @return Tableau dont les getNbNoeuds() premières cases sont remplies
+	 */
+	public int[] getOrdreParRang()
+	{
+		int n = this.nbNoeuds;
+
+		if (this.ordreParRang == null || this.ordreParRang.length < n)
+			this.ordreParRang = new int[Math.max(n, Math.max(4, this.ordreParRang == null ? 0 : this.ordreParRang.length * 2))];
+		if (this.tacheDeRang == null || this.tacheDeRang.length < this.rangSuivant)
+			this.tacheDeRang = new int[Math.max(this.rangSuivant, Math.max(4, this.tacheDeRang == null ? 0 : this.tacheDeRang.length * 2))];
+
+		int[] parRang = this.tacheDeRang;
+
+		// Les rangs libérés par des suppressions restent à -1
+		Arrays.fill(parRang, 0, this.rangSuivant, -1);
+		for (int i = 0; i < n; i++) parRang[this.rang[i]] = i;
+
+		int pos = 0;
+		for (int r = 0; r < this.rangSuivant; r++)
+		{
+			if (parRang[r] >= 0)
+			{
+				this.rang[parRang[r]]   = pos;
+				this.ordreParRang[pos++] = parRang[r];
+			}
+		}
+		this.rangSuivant = n;
+
+		return this.ordreParRang;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	/**
+	 * @return Le nombre de tâches du graphe
+	 */
+	public int getNbNoeuds()                  { return this.nbNoeuds;         }
+
+	/**
+	 * @param id Identifiant d'une tâche
+	 * @return La vue Tache associée
+	 */
+	public Tache getVue(int id)               { return this.vues[id];         }
+
+	public int  getDuree(int id)              { return this.duree[id];        }
+	public int  getDatePlusTot(int id)        { return this.datePlusTot[id];  }
+	public int  getDatePlusTard(int id)       { return this.datePlusTard[id] + this.finTard; }
+
+	/**
+	 * @param id Identifiant d'une tâche
+	 * @return Sa date au plus tard moins getFinTard(), inchangée quand seule la fin du projet bouge
+	 */
+	int         getTardRelatif(int id)        { return this.datePlusTard[id]; }
+
+	/**
+	 * @return La fin du projet à laquelle les dates au plus tard sont rapportées (voir decalerDatesPlusTard)
+	 */
+	int         getFinTard()                  { return this.finTard;          }
+
+	/**
+	 * @param id Identifiant d'une tâche
+	 * @return Son rang dans l'ordre topologique courant (seul l'ordre relatif des rangs a un sens)
+	 */
+	public int  getRang(int id)               { return this.rang[id];         }
+
+	public void setDuree(int id, int duree)   { this.duree[id]        = duree; this.marges = null; this.marquer(id); }
+	public void setDatePlusTard(int id, int d){ this.datePlusTard[id] = d - this.finTard; this.marges = null; this.marquer(id); }
+
+	/**
+	 * @return Une copie des dates au plus tôt, indexée par identifiant
+	 */
+	int[] copierDatesPlusTot()  { return Arrays.copyOf(this.datePlusTot,  this.nbNoeuds); }
+
+	/**
+	 * @return Une copie des dates au plus tard, indexée par identifiant
+	 */
+	int[] copierDatesPlusTard()
+	{
+		int[] tard = new int[this.nbNoeuds];
+		for (int i = 0; i < this.nbNoeuds; i++) tard[i] = this.datePlusTard[i] + this.finTard;
+
+		return tard;
+	}
+
+	/**
+	 * Reprend les dates de toutes les tâches d'un planning déjà calculé (voir CachePlanning)
+	 *
+	 * @param tot Date au plus tôt de chaque tâche
+	 * @param tard Date au plus tard de chaque tâche
+	 */
+	void adopterDates(int[] tot, int[] tard)
+	{
+		System.arraycopy(tot,  0, this.datePlusTot,  0, this.nbNoeuds);
+		for (int i = 0; i < this.nbNoeuds; i++) this.datePlusTard[i] = tard[i] - this.finTard;
+		this.marges      = null;
+		this.toutModifie = true;
+	}
+
+	/**
+	 * Retourne les marges des tâches, recalculées en un passage si les dates ont changé depuis
+	 *
+	 * @return Les marges, dates à jour
+	 */
+	public Marges getMarges()
+	{
+		if (this.marges == null) this.marges = Marges.calculer(this);
+		return this.marges;
+	}
+
+	/**
+	 * Retient les marges remplies pendant le calcul des dates (voir Mpm.calculerDates)
+	 */
+	void setMarges(Marges marges) { this.marges = marges; }
+
+	/**
+	 * @return Les marges si elles sont à jour, null s'il faudrait les recalculer
+	 */
+	Marges getMargesCalculees()   { return this.marges;   }
+
+	// ========== MÉTHODES DE PUBLICATION ==========
+
+	/**
+	 * Note qu'une tâche a changé (durée, dates, arcs, identifiant) : sa page est à republier
+	 */
+	private void marquer(int id)
+	{
+		if (this.toutModifie) return;
+
+		int page = id >>> Planning.DECALAGE;
+		if (page >>> 6 >= this.pagesModifiees.length)
+			this.pagesModifiees = Arrays.copyOf(this.pagesModifiees, Math.max((page >>> 6) + 1, this.pagesModifiees.length * 2));
+
+		this.pagesModifiees[page >>> 6] |= 1L << page;
+	}
+
+	/**
+	 * Indique si une page de tâches a changé depuis la dernière publication (voir Planning)
+	 *
+	 * @param page Numéro de la page : tâches page * Planning.TAILLE_PAGE et suivantes
+	 * @return true si la page est à republier
+	 */
+	boolean estPageModifiee(int page)
+	{
+		if (this.toutModifie) return true;
+
+		return page >>> 6 < this.pagesModifiees.length && (this.pagesModifiees[page >>> 6] & (1L << page)) != 0;
+	}
+
+	/**
+	 * Oublie les modifications notées, une fois le planning publié
+	 */
+	void oublierModifications()
+	{
+		Arrays.fill(this.pagesModifiees, 0);
+		this.toutModifie = false;
+	}
+
+	/**
+	 * @return Le nombre de suivants de la tâche
+	 */
+	public int getNbSuivants(int id)          { return this.nbSvt[id];        }
+
+	/**
+	 * @return Le nombre de précédents de la tâche
+	 */
+	public int getNbPrecedents(int id)        { return this.nbPrc[id];        }
+
+	// Accès directs aux tranches
+	int debutSvt(int id) { return this.debutSvt[id];                  }
+	int finSvt  (int id) { return this.debutSvt[id] + this.nbSvt[id]; }
+	int svt     (int k)  { return this.svt[k];                        }
+	int debutPrc(int id) { return this.debutPrc[id];                  }
+	int finPrc  (int id) { return this.debutPrc[id] + this.nbPrc[id]; }
+	int prc     (int k)  { return this.prc[k];                        }
+
+	// Liens des arcs rangés en case k d'une tranche
+	byte typeSvt (int k) { return this.typeSvt  == null ? Lien.FS : this.typeSvt [k]; }
+	int  delaiSvt(int k) { return this.delaiSvt == null ? 0       : this.delaiSvt[k]; }
+	byte typePrc (int k) { return this.typePrc  == null ? Lien.FS : this.typePrc [k]; }
+	int  delaiPrc(int k) { return this.delaiPrc == null ? 0       : this.delaiPrc[k]; }
+
+	/**
+	 * @return true si un lien au moins a été créé avec un autre type que FS ou un délai
+	 */
+	boolean aDesLiensTypes() { return this.typeSvt != null; }
+
+	/**
+	 * Écart minimal entre le début d'une tâche et celui de son suivant rangé en case k (voir Lien.ecart)
+	 */
+	int ecartSvt(int id, int k)
+	{
+		if (this.typeSvt == null) return this.duree[id];
+		return Lien.ecart(this.typeSvt[k], this.delaiSvt[k], this.duree[id], this.duree[this.svt[k]]);
+	}
+
+	/**
+	 * Écart minimal entre le début du précédent rangé en case k et celui de la tâche (voir Lien.ecart)
+	 */
+	int ecartPrc(int id, int k)
+	{
+		if (this.typePrc == null) return this.duree[this.prc[k]];
+		return Lien.ecart(this.typePrc[k], this.delaiPrc[k], this.duree[this.prc[k]], this.duree[id]);
+	}
+
+	/**
+	 * Indique si aucun suivant n'attend la fin de la tâche (aucun lien FS ou FF) : elle est alors reliée à "Fin"
+	 */
+	boolean aFinLibre(int id)
+	{
+		for (int k = this.debutSvt[id]; k < this.finSvt(id); k++)
+		{
+			if (Lien.attendFin(this.typeSvt(k))) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Indique si aucun précédent ne fixe le début de la tâche (aucun lien FS ou SS) : elle est alors reliée à "Debut"
+	 */
+	boolean aDebutLibre(int id)
+	{
+		for (int k = this.debutPrc[id]; k < this.finPrc(id); k++)
+		{
+			if (Lien.fixeDebut(this.typePrc(k))) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Retourne les suivants d'une tâche sous forme de vues
+	 *
+	 * @param id Identifiant de la tâche
+	 * @return Une nouvelle liste des tâches suivantes
+	 */
+	public ArrayList<Tache> getSuivants(int id)
+	{
+		ArrayList<Tache> lst = new ArrayList<>(this.nbSvt[id]);
+		for (int k = this.debutSvt[id]; k < this.finSvt(id); k++) lst.add(this.vues[this.svt[k]]);
+
+		return lst;
+	}
+
+	/**
+	 * Retourne les précédents d'une tâche sous forme de vues
+	 *
+	 * @param id Identifiant de la tâche
+	 * @return Une nouvelle liste des tâches précédentes
+	 */
+	public ArrayList<Tache> getPrecedents(int id)
+	{
+		ArrayList<Tache> lst = new ArrayList<>(this.nbPrc[id]);
+		for (int k = this.debutPrc[id]; k < this.finPrc(id); k++) lst.add(this.vues[this.prc[k]]);
+
+		return lst;
+	}
+
+	// ========== MÉTHODES DE CALCUL DES DATES ==========
+
+	/**
+	 * Calcule la date au plus tôt d'une tâche à partir de ses précédents
+	 * Chaque lien permet un début au plus tôt du précédent + écart (voir Lien) ; jamais avant 0.
+	 *
+	 * @param id Identifiant de la tâche
+	 */
+	public void calculerDatePlusTot(int id)
+	{
+		int max = 0;
+		for (int k = this.debutPrc[id]; k < this.finPrc(id); k++)
+		{
+			int debutPermis = this.datePlusTot[this.prc[k]] + this.ecartPrc(id, k);
+
+			if (debutPermis > max) max = debutPermis;
+		}
+		if (this.datePlusTot[id] != max) this.marquer(id);
+
+		this.datePlusTot[id] = max;
+		this.marges          = null;
+	}
+
+	/**
+	 * Décale toutes les dates au plus tard d'un même nombre de jours, en O(1)
+	 * Utilisé quand seule la date de fin du projet change pour les tâches non concernées :
+	 * les dates rangées sont relatives à la fin, aucune page n'est donc à republier.
+	 * Les marges totales changent toutes ; elles seront recalculées à la demande.
+	 *
+	 * @param delta Le décalage en jours (peut être négatif)
+	 */
+	public void decalerDatesPlusTard(int delta)
+	{
+		this.finTard += delta;
+		if (delta != 0) this.marges = null;
+	}
+
+	/**
+	 * Calcule la date au plus tard d'une tâche à partir de ses suivants
+	 * Chaque lien impose un début au plus tard du suivant - écart (voir Lien).
+	 * Si la tâche n'a pas de suivant, sa date au plus tard est laissée telle quelle
+	 *
+	 * @param id Identifiant de la tâche
+	 */
+	public void calculerDatePlusTard(int id)
+	{
+		if (this.nbSvt[id] == 0) return;
+
+		int min = Integer.MAX_VALUE;
+		for (int k = this.debutSvt[id]; k < this.finSvt(id); k++)
+		{
+			int debutImpose = this.datePlusTard[this.svt[k]] - this.ecartSvt(id, k);
+
+			if (debutImpose < min) min = debutImpose;
+		}
+		if (this.datePlusTard[id] != min) this.marquer(id);
+
+		this.datePlusTard[id] = min;
+		this.marges           = null;
+	}
+
+	/**
+	 * Calcule la date au plus tard d'une tâche à partir de ses suivants et de la fin du projet
+	 * Aucune tâche ne finit après le projet : c'est la seule borne d'une tâche sans suivant,
+	 * et celle d'une tâche dont les suivants n'attendent que le début (liens SS ou SF).
+	 *
+	 * @param id Identifiant de la tâche
+	 * @param finProjet La fin du projet
+	 */
+	void calculerDatePlusTard(int id, int finProjet)
+	{
+		int min = finProjet - this.finTard - this.duree[id];
+		for (int k = this.debutSvt[id]; k < this.finSvt(id); k++)
+		{
+			int debutImpose = this.datePlusTard[this.svt[k]] - this.ecartSvt(id, k);
+
+			if (debutImpose < min) min = debutImpose;
+		}
+		if (this.datePlusTard[id] != min) this.marquer(id);
+
+		this.datePlusTard[id] = min;
+		this.marges           = null;
+	}
+
+	/**
+	 * Calcule la date au plus tard d'une tâche et sa marge libre en un seul parcours de ses suivants,
+	 * puis reporte chez ses suivants le début que la tâche leur impose quand elle est au plus tard,
+	 * pour leur marge indépendante (voir Marges). Les suivants doivent être datés ; comme pour
+	 * calculerDatePlusTard(id, finProjet), la tâche ne doit pas finir après le projet.
+	 *
+	 * @param id Identifiant de la tâche
+	 * @param finProjet La fin du projet
+	 * @param marges Les marges en cours de calcul
+	 */
+	void calculerDatePlusTard(int id, int finProjet, Marges marges)
+	{
+		int debutTard = finProjet - this.duree[id];   // Plus grand début qui ne retarde pas le projet
+		int debutTot  = debutTard;                    // Plus grand début qui ne retarde aucun suivant
+		for (int k = this.debutSvt[id]; k < this.finSvt(id); k++)
+		{
+			int s     = this.svt[k];
+			int ecart = this.ecartSvt(id, k);
+
+			if (this.datePlusTard[s] + this.finTard - ecart < debutTard) debutTard = this.datePlusTard[s] + this.finTard - ecart;
+			if (this.datePlusTot [s]                - ecart < debutTot ) debutTot  = this.datePlusTot [s]                - ecart;
+		}
+
+		if (this.datePlusTard[id] != debutTard - this.finTard) this.marquer(id);
+
+		this.datePlusTard[id] = debutTard - this.finTard;
+		marges.noterLibre(id, debutTot - this.datePlusTot[id]);
+
+		for (int k = this.debutSvt[id]; k < this.finSvt(id); k++) marges.noterDebutImpose(this.svt[k], debutTard + this.ecartSvt(id, k));
+	}
+
+	// ========== MÉTHODES UTILITAIRES ==========
+
+	/**
+	 * Indique si une valeur figure dans une tranche
+	 */
+	private static boolean contient(int[] tab, int debut, int nb, int val)
+	{
+		return GrapheCompact.chercher(tab, debut, nb, val) >= 0;
+	}
+
+	/**
+	 * Cherche une valeur dans une tranche
+	 *
+	 * @return La case de la valeur, -1 si elle n'y figure pas
+	 */
+	private static int chercher(int[] tab, int debut, int nb, int val)
+	{
+		for (int k = debut; k < debut + nb; k++)
+		{
+			if (tab[k] == val) return k;
+		}
+		return -1;
+	}
+
+	/**
+	 * Remplace une valeur par une autre dans une tranche
+	 */
+	private static void remplacer(int[] tab, int debut, int nb, int ancien, int nouveau)
+	{
+		for (int k = debut; k < debut + nb; k++)
+		{
+			if (tab[k] == ancien)
+			{
+				tab[k] = nouveau;
+				return;
+			}
+		}
+	}
+}
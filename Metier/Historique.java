@@ -0,0 +1,281 @@
+package Metier;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Classe Historique - Versions successives d'un projet MPM, pour annuler, rétablir et brancher
+ * Chaque version est une table persistante nom -> fiche (durée et précédents de la tâche) :
+ * une modification ne crée que les fiches des tâches touchées et O(log n) nœuds de table,
+ * tout le reste est partagé avec la version précédente. La mémoire croît donc avec le nombre
+ * de modifications, pas avec la taille du projet.
+ *
+ * Les versions forment un arbre : revenir à une version puis modifier le projet crée une
+ * nouvelle branche, sans perdre les versions de l'ancienne.
+ */
+public class Historique
+{
+	// ========== ATTRIBUTS ==========
+
+	private final ArrayList<Version>  versions;     // Toutes les versions, dans l'ordre de création
+	private final ArrayDeque<Version> aRetablir;    // Versions quittées par annuler(), la plus récente en tête
+	private final Version             racine;       // Première version : on n'annule pas au-delà
+	private Version                   courante;     // Version du projet en cours
+	private int                       rangSuivant;  // Rang de création donné à la prochaine nouvelle tâche
+
+	// ========== CONSTRUCTEURS ==========
+
+	/**
+	 * Crée l'historique d'un projet à partir de son état courant
+	 *
+	 * @param g Le graphe du projet
+	 * @param dateDebut La date de début du projet
+	 */
+	Historique(GrapheCompact g, String dateDebut)
+	{
+		TablePersistante<Fiche> taches = TablePersistante.vide();
+		for (int id = 0; id < g.getNbNoeuds(); id++)
+		{
+			Fiche f = Historique.ficheDe(g, id, id);
+			taches  = taches.avec(f.nom, f);
+		}
+
+		this.versions    = new ArrayList<>();
+		this.aRetablir   = new ArrayDeque<>();
+		this.rangSuivant = g.getNbNoeuds();
+		this.racine      = this.ajouterVersion(new Version(0, null, "Ouverture", taches, dateDebut));
+		this.courante    = this.racine;
+	}
+
+	/**
+	 * Crée l'historique d'une branche partant d'une version d'un autre historique
+	 * Les fiches de cette version sont partagées, pas recopiées.
+	 *
+	 * @param depart La version de départ
+	 */
+	Historique(Version depart)
+	{
+		int[] rangMax = { -1 };
+		depart.taches.parcourir((nom, f) -> rangMax[0] = Math.max(rangMax[0], f.rang));
+
+		this.versions    = new ArrayList<>();
+		this.aRetablir   = new ArrayDeque<>();
+		this.rangSuivant = rangMax[0] + 1;
+		this.racine      = this.ajouterVersion(new Version(0, depart, "Branche de la version " + depart.numero,
+		                                                  depart.taches, depart.dateDebut));
+		this.courante    = this.racine;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public Version            getCourante()       { return this.courante;                      }
+	public ArrayList<Version> getVersions()       { return new ArrayList<>(this.versions);     }
+	public boolean            peutAnnuler()       { return this.courante != this.racine;       }
+	public boolean            peutRetablir()      { return !this.aRetablir.isEmpty();          }
+
+	/**
+	 * @param numero Le numéro d'une version de cet historique
+	 * @return La version, null si le numéro n'existe pas
+	 */
+	public Version getVersion(int numero)
+	{
+		return numero < 0 || numero >= this.versions.size() ? null : this.versions.get(numero);
+	}
+
+	// ========== NOUVELLES VERSIONS ==========
+
+	/**
+	 * Enregistre la version qui suit une modification du projet
+	 * Seules les fiches des tâches touchées sont recalculées ; une fiche inchangée est gardée.
+	 *
+	 * @param libelle Description de la modification
+	 * @param g Le graphe, déjà modifié
+	 * @param touches Identifiants des tâches dont la durée ou les précédents ont pu changer
+	 * @param nbTouches Nombre d'identifiants utiles dans touches
+	 * @param retires Noms des tâches supprimées
+	 * @param dateDebut La date de début du projet
+	 * @return La nouvelle version, devenue la version courante
+	 */
+	Version noter(String libelle, GrapheCompact g, int[] touches, int nbTouches, String[] retires, String dateDebut)
+	{
+		TablePersistante<Fiche> taches = this.courante.taches;
+
+		for (String nom : retires) taches = taches.sans(nom);
+
+		for (int k = 0; k < nbTouches; k++)
+		{
+			int   id    = touches[k];
+			Fiche avant = taches.get(g.getVue(id).getNom());
+			Fiche apres = Historique.ficheDe(g, id, avant == null ? this.rangSuivant++ : avant.rang);
+
+			if (!apres.equivaut(avant)) taches = taches.avec(apres.nom, apres);
+		}
+
+		this.aRetablir.clear();
+		this.courante = this.ajouterVersion(new Version(this.versions.size(), this.courante, libelle, taches, dateDebut));
+		return this.courante;
+	}
+
+	/**
+	 * Enregistre toutes les tâches du graphe : pour les modifications qui en touchent beaucoup (lots)
+	 */
+	Version noterTout(String libelle, GrapheCompact g, String[] retires, String dateDebut)
+	{
+		int[] touches = new int[g.getNbNoeuds()];
+		for (int id = 0; id < touches.length; id++) touches[id] = id;
+
+		return this.noter(libelle, g, touches, touches.length, retires, dateDebut);
+	}
+
+	private Version ajouterVersion(Version v)
+	{
+		this.versions.add(v);
+		return v;
+	}
+
+	// ========== DÉPLACEMENTS ==========
+
+	/**
+	 * @return La version précédente, devenue courante ; null s'il n'y a rien à annuler
+	 */
+	Version annuler()
+	{
+		if (!this.peutAnnuler()) return null;
+
+		this.aRetablir.push(this.courante);
+		this.courante = this.courante.parent;
+		return this.courante;
+	}
+
+	/**
+	 * @return La dernière version annulée, redevenue courante ; null s'il n'y en a pas
+	 */
+	Version retablir()
+	{
+		if (!this.peutRetablir()) return null;
+
+		this.courante = this.aRetablir.pop();
+		return this.courante;
+	}
+
+	/**
+	 * Revient à une version quelconque ; la prochaine modification ouvrira une branche
+	 *
+	 * @param numero Le numéro de la version
+	 * @return La version, null si le numéro n'existe pas
+	 */
+	Version allerA(int numero)
+	{
+		Version v = this.getVersion(numero);
+		if (v == null) return null;
+
+		this.aRetablir.clear();
+		this.courante = v;
+		return v;
+	}
+
+	// ========== FICHES ==========
+
+	private static Fiche ficheDe(GrapheCompact g, int id, int rang)
+	{
+		String[] precedents = new String[g.getNbPrecedents(id)];
+		for (int k = 0; k < precedents.length; k++)
+		{
+			int j = g.debutPrc(id) + k;
+			precedents[k] = Lien.noter(g.getVue(g.prc(j)).getNom(), g.typePrc(j), g.delaiPrc(j));
+		}
+
+		return new Fiche(g.getVue(id).getNom(), g.getDuree(id), precedents, rang);
+	}
+
+	/**
+	 * Fiche immuable d'une tâche dans une version : les suivants se déduisent des précédents
+	 */
+	static final class Fiche
+	{
+		final String   nom;          // Nom de la tâche
+		final int      duree;        // Durée de la tâche
+		final String[] precedents;   // Noms des précédents avec leur lien (voir Lien.noter), dans l'ordre du graphe
+		final int      rang;         // Rang de création : ordre des tâches quand le projet est reconstruit
+
+		Fiche(String nom, int duree, String[] precedents, int rang)
+		{
+			this.nom        = nom;
+			this.duree      = duree;
+			this.precedents = precedents;
+			this.rang       = rang;
+		}
+
+		boolean equivaut(Fiche f)
+		{
+			return f != null && f.duree == this.duree && f.rang == this.rang && Arrays.equals(f.precedents, this.precedents);
+		}
+	}
+
+	/**
+	 * Version figée du projet
+	 */
+	public static final class Version
+	{
+		private final int                     numero;     // Numéro dans l'historique
+		private final Version                 parent;     // Version modifiée pour obtenir celle-ci (null : racine)
+		private final String                  libelle;    // Description de la modification
+		private final TablePersistante<Fiche> taches;     // Fiche de chaque tâche, par nom
+		private final String                  dateDebut;  // Date de début du projet
+
+		private Version(int numero, Version parent, String libelle, TablePersistante<Fiche> taches, String dateDebut)
+		{
+			this.numero    = numero;
+			this.parent    = parent;
+			this.libelle   = libelle;
+			this.taches    = taches;
+			this.dateDebut = dateDebut;
+		}
+
+		public int     getNumero()    { return this.numero;         }
+		public Version getParent()    { return this.parent;         }
+		public String  getLibelle()   { return this.libelle;        }
+		public int     getNbTaches()  { return this.taches.taille(); }
+		public String  getDateDebut() { return this.dateDebut;      }
+
+		/**
+		 * @param nom Le nom d'une tâche
+		 * @return Sa durée dans cette version, -1 si elle n'y existe pas
+		 */
+		public int getDuree(String nom)
+		{
+			Fiche f = this.taches.get(nom);
+			return f == null ? -1 : f.duree;
+		}
+
+		/**
+		 * Liste les tâches ajoutées, supprimées ou modifiées entre deux versions
+		 * Seules les parties non partagées des deux versions sont parcourues.
+		 *
+		 * @param autre L'autre version
+		 * @return Les noms des tâches qui diffèrent
+		 */
+		public ArrayList<String> differences(Version autre)
+		{
+			ArrayList<String> noms = new ArrayList<>();
+			this.taches.differences(autre.taches, noms::add);
+			return noms;
+		}
+
+		/**
+		 * @return Les fiches de la version, triées par rang de création
+		 */
+		Fiche[] fiches()
+		{
+			Fiche[] tab = new Fiche[this.taches.taille()];
+			int[]   nb  = { 0 };
+
+			this.taches.parcourir((nom, f) -> tab[nb[0]++] = f);
+			Arrays.sort(tab, (a, b) -> Integer.compare(a.rang, b.rang));
+			return tab;
+		}
+
+		public String toString() { return this.numero + " - " + this.libelle; }
+	}
+}
@@ -0,0 +1,483 @@
+package Metier;
+
+import java.awt.Point;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Classe Instantane - Image binaire d'un projet MPM, relue sans refaire le planning
+ * L'instantané contient les noms, les adjacences (CSR), les durées, les dates calculées,
+ * le rang et l'ordre topologique, les niveaux et les positions des nœuds. Il est relu
+ * par projection en mémoire : les tableaux sont recopiés d'un bloc, sans tri ni calcul de dates.
+ *
+ * Format (entiers de 4 octets, octets de poids fort en premier) :
+ *   en-tête    : "MPMB", version, drapeaux, nombre de tâches n, nombre d'arcs m, fin du projet
+ *   date       : longueur, octets UTF-8
+ *   noms       : n + 1 débuts, octets UTF-8 bout à bout
+ *   tâches     : durées, dates au plus tôt, dates au plus tard, rangs (n chacun)
+ *   ordre      : ordre topologique, niveaux (n chacun)
+ *   suivants   : n + 1 débuts, m suivants
+ *   précédents : n + 1 débuts, m précédents
+ *   liens      : (version 2 seulement) types des arcs vers les suivants (m octets), leurs délais,
+ *                puis types et délais des arcs depuis les précédents, dans l'ordre des adjacences
+ *   positions  : nombre p, identifiants, abscisses, ordonnées (p chacun)
+ *   contrôle   : CRC-32C de tout ce qui précède
+ * Les suites d'octets sont complétées par des zéros jusqu'à un multiple de 4.
+ * Un projet dont tous les liens sont FS sans délai est écrit en version 1, lisible partout.
+ */
+public class Instantane
+{
+	// ========== CONSTANTES ==========
+
+	public  static final String EXTENSION     = ".mpmb";       // Extension des fichiers d'instantané
+
+	private static final int    MAGIQUE       = 0x4D504D42;    // "MPMB"
+	private static final int    VERSION       = 1;             // Version du format sans liens typés
+	private static final int    VERSION_LIENS = 2;             // Version du format avec le bloc des liens
+	private static final int    TAILLE_ENTETE = 24;            // Octets de l'en-tête
+	private static final int    AVEC_POSITION = 1;             // Drapeau : le projet gère les positions
+
+	// ========== ATTRIBUTS ==========
+
+	private GrapheCompact          graphe;           // Graphe relu, dates comprises
+	private HashMap<String, Tache> index;            // Index nom -> tâche
+	private OrdreTopologique       ordre;            // Ordre topologique et niveaux
+	private int                    finProjet;        // Date de fin du projet
+	private boolean                estPosition;      // Vrai si le projet gère les positions
+	private String                 dateDebut;        // Date de début enregistrée
+	private ArrayList<String>      nomsPositions;    // Noms des tâches avec positions
+	private ArrayList<Point>       coordsPositions;  // Positions des tâches
+
+	// ========== CONSTRUCTEUR ==========
+
+	private Instantane()
+	{
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public GrapheCompact          getGraphe()           { return this.graphe;          }
+	public HashMap<String, Tache> getIndex()            { return this.index;           }
+	public OrdreTopologique       getOrdreTopologique() { return this.ordre;           }
+	public int                    getFinProjet()        { return this.finProjet;       }
+	public boolean                estPosition()         { return this.estPosition;     }
+	public String                 getDateDebut()        { return this.dateDebut;       }
+	public ArrayList<String>      getNomsPositions()    { return this.nomsPositions;   }
+	public ArrayList<Point>       getCoordsPositions()  { return this.coordsPositions; }
+
+	// ========== RECONNAISSANCE ==========
+
+	/**
+	 * Reconnaît un instantané d'après son en-tête
+	 *
+	 * @param chemin Chemin du fichier
+	 * @return "pos" ou "base" selon que l'instantané porte des positions, null si ce n'est pas un instantané
+	 */
+	public static String determinerFormat(String chemin)
+	{
+		try (FileChannel canal = FileChannel.open(Paths.get(chemin), StandardOpenOption.READ))
+		{
+			ByteBuffer entete = ByteBuffer.allocate(12);
+
+			while (entete.hasRemaining() && canal.read(entete) > 0);
+			if (entete.hasRemaining() || entete.getInt(0) != MAGIQUE) return null;
+
+			return (entete.getInt(8) & AVEC_POSITION) != 0 ? "pos" : "base";
+		}
+		catch (IOException e)
+		{
+			return null;
+		}
+	}
+
+	/**
+	 * @param chemin Chemin du fichier
+	 * @return true si le fichier commence par l'en-tête d'un instantané
+	 */
+	public static boolean estInstantane(String chemin)
+	{
+		return Instantane.determinerFormat(chemin) != null;
+	}
+
+	// ========== ÉCRITURE ==========
+
+	/**
+	 * Écrit l'instantané d'un projet
+	 * Le fichier est d'abord écrit à côté de sa destination, puis renommé :
+	 * un instantané existant n'est jamais laissé à moitié écrit.
+	 *
+	 * @param chemin Chemin du fichier à écrire
+	 * @param g Le graphe du projet, dates calculées
+	 * @param ordre L'ordre topologique du graphe
+	 * @param finProjet La date de fin du projet
+	 * @param estPosition Indique si le projet gère les positions
+	 * @param dateDebut La date de début du projet (peut être null)
+	 * @param posId Identifiants des tâches positionnées
+	 * @param posX Abscisse de chaque tâche positionnée
+	 * @param posY Ordonnée de chaque tâche positionnée
+	 * @param nbPos Nombre de tâches positionnées
+	 * @throws IOException si le fichier ne peut pas être écrit
+	 */
+	public static void ecrire(String chemin, GrapheCompact g, OrdreTopologique ordre, int finProjet, boolean estPosition,
+	                          String dateDebut, int[] posId, int[] posX, int[] posY, int nbPos) throws IOException
+	{
+		int n = g.getNbNoeuds();
+		int m = 0;
+
+		for (int i = 0; i < n; i++) m += g.getNbSuivants(i);
+
+		Path   cible = Paths.get(chemin).toAbsolutePath();
+		Path   temp  = cible.resolveSibling(cible.getFileName() + ".tmp");
+		CRC32C crc   = new CRC32C();
+
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+		                                new CheckedOutputStream(new FileOutputStream(temp.toFile()), crc), 1 << 16)))
+		{
+			// ========== EN-TÊTE ==========
+			out.writeInt(MAGIQUE);
+			out.writeInt(g.aDesLiensTypes() ? VERSION_LIENS : VERSION);
+			out.writeInt(estPosition ? AVEC_POSITION : 0);
+			out.writeInt(n);
+			out.writeInt(m);
+			out.writeInt(finProjet);
+
+			Instantane.ecrireOctets(out, (dateDebut == null ? "" : dateDebut).getBytes(StandardCharsets.UTF_8));
+
+			// ========== NOMS ==========
+			byte[][] noms  = new byte[n][];
+			int      debut = 0;
+
+			for (int i = 0; i < n; i++) noms[i] = g.getVue(i).getNom().getBytes(StandardCharsets.UTF_8);
+
+			for (int i = 0; i < n; i++)
+			{
+				out.writeInt(debut);
+				debut += noms[i].length;
+			}
+			out.writeInt(debut);
+
+			for (int i = 0; i < n; i++) out.write(noms[i]);
+			Instantane.completer(out);
+
+			// ========== TÂCHES ET ORDRE ==========
+			for (int i = 0; i < n; i++) out.writeInt(g.getDuree(i));
+			for (int i = 0; i < n; i++) out.writeInt(g.getDatePlusTot(i));
+			for (int i = 0; i < n; i++) out.writeInt(g.getDatePlusTard(i));
+			for (int i = 0; i < n; i++) out.writeInt(g.getRang(i));
+
+			for (int i = 0; i < n; i++) out.writeInt(ordre.getOrdre()[i]);
+			for (int i = 0; i < n; i++) out.writeInt(ordre.getNiveau(i));
+
+			// ========== ADJACENCES ==========
+			debut = 0;
+			for (int i = 0; i < n; i++)
+			{
+				out.writeInt(debut);
+				debut += g.getNbSuivants(i);
+			}
+			out.writeInt(debut);
+			for (int i = 0; i < n; i++)
+			{
+				for (int k = g.debutSvt(i); k < g.finSvt(i); k++) out.writeInt(g.svt(k));
+			}
+
+			debut = 0;
+			for (int i = 0; i < n; i++)
+			{
+				out.writeInt(debut);
+				debut += g.getNbPrecedents(i);
+			}
+			out.writeInt(debut);
+			for (int i = 0; i < n; i++)
+			{
+				for (int k = g.debutPrc(i); k < g.finPrc(i); k++) out.writeInt(g.prc(k));
+			}
+
+			// ========== LIENS ==========
+			if (g.aDesLiensTypes())
+			{
+				for (int i = 0; i < n; i++)
+				{
+					for (int k = g.debutSvt(i); k < g.finSvt(i); k++) out.writeByte(g.typeSvt(k));
+				}
+				Instantane.completer(out);
+				for (int i = 0; i < n; i++)
+				{
+					for (int k = g.debutSvt(i); k < g.finSvt(i); k++) out.writeInt(g.delaiSvt(k));
+				}
+
+				for (int i = 0; i < n; i++)
+				{
+					for (int k = g.debutPrc(i); k < g.finPrc(i); k++) out.writeByte(g.typePrc(k));
+				}
+				Instantane.completer(out);
+				for (int i = 0; i < n; i++)
+				{
+					for (int k = g.debutPrc(i); k < g.finPrc(i); k++) out.writeInt(g.delaiPrc(k));
+				}
+			}
+
+			// ========== POSITIONS ==========
+			out.writeInt(nbPos);
+			for (int k = 0; k < nbPos; k++) out.writeInt(posId[k]);
+			for (int k = 0; k < nbPos; k++) out.writeInt(posX [k]);
+			for (int k = 0; k < nbPos; k++) out.writeInt(posY [k]);
+
+			// ========== CONTRÔLE ==========
+			out.flush();
+			out.writeInt((int) crc.getValue());
+		}
+
+		try
+		{
+			Files.move(temp, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(temp, cible, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Écrit une suite d'octets précédée de sa longueur, complétée jusqu'à un multiple de 4
+	 */
+	private static void ecrireOctets(DataOutputStream out, byte[] octets) throws IOException
+	{
+		out.writeInt(octets.length);
+		out.write(octets);
+		Instantane.completer(out);
+	}
+
+	/**
+	 * Complète le flux par des zéros jusqu'à un multiple de 4 octets
+	 */
+	private static void completer(DataOutputStream out) throws IOException
+	{
+		while (out.size() % 4 != 0) out.writeByte(0);
+	}
+
+	// ========== LECTURE ==========
+
+	/**
+	 * Relit un instantané
+	 * La somme de contrôle et la cohérence des identifiants sont vérifiées avant
+	 * toute construction ; aucune date n'est recalculée.
+	 *
+	 * @param chemin Chemin du fichier
+	 * @return L'instantané relu
+	 * @throws IOException si le fichier ne peut pas être lu ou n'est pas un instantané valide
+	 */
+	public static Instantane lire(String chemin) throws IOException
+	{
+		try (FileChannel canal = FileChannel.open(Paths.get(chemin), StandardOpenOption.READ))
+		{
+			long taille = canal.size();
+			if (taille < TAILLE_ENTETE + 4 || taille > Integer.MAX_VALUE || taille % 4 != 0)
+				throw Instantane.invalide("taille de fichier incorrecte");
+
+			MappedByteBuffer b = canal.map(FileChannel.MapMode.READ_ONLY, 0, taille);
+
+			// ========== EN-TÊTE ET CONTRÔLE ==========
+			if (b.getInt(0) != MAGIQUE) throw Instantane.invalide("en-tête inconnu");
+			int version = b.getInt(4);
+			if (version != VERSION && version != VERSION_LIENS) throw Instantane.invalide("version " + version + " non prise en charge");
+
+			CRC32C     crc   = new CRC32C();
+			ByteBuffer corps = b.duplicate();
+
+			corps.limit((int) taille - 4);
+			crc.update(corps);
+			if ((int) crc.getValue() != b.getInt((int) taille - 4)) throw Instantane.invalide("somme de contrôle incorrecte");
+
+			b.position(8);
+			b.limit((int) taille - 4);
+			return Instantane.decoder(b, version == VERSION_LIENS);
+		}
+		catch (BufferUnderflowException | IllegalArgumentException | NegativeArraySizeException e)
+		{
+			throw Instantane.invalide("fichier tronqué");
+		}
+	}
+
+	/**
+	 * Reconstruit le projet à partir du contenu de l'instantané, placé après la version
+	 *
+	 * @param avecLiens true si l'instantané contient le bloc des liens (version 2)
+	 */
+	private static Instantane decoder(ByteBuffer b, boolean avecLiens) throws IOException
+	{
+		Instantane res      = new Instantane();
+		int        drapeaux = b.getInt();
+		int        n        = b.getInt();
+		int        m        = b.getInt();
+
+		if (n < 0 || m < 0 || (long) n * 4 > b.remaining() || (long) m * 4 > b.remaining())
+			throw Instantane.invalide("nombre de tâches ou d'arcs incorrect");
+
+		res.finProjet   = b.getInt();
+		res.estPosition = (drapeaux & AVEC_POSITION) != 0;
+
+		byte[] date = new byte[b.getInt()];
+		b.get(date);
+		Instantane.aligner(b);
+		res.dateDebut = date.length == 0 ? null : new String(date, StandardCharsets.UTF_8);
+
+		// ========== NOMS ==========
+		int[]  debutNoms = Instantane.lireEntiers(b, n + 1);
+		Instantane.verifierDebuts(debutNoms, n, b.remaining());
+
+		byte[] octetsNoms = new byte[debutNoms[n]];
+		b.get(octetsNoms);
+		Instantane.aligner(b);
+
+		// ========== TÂCHES, ORDRE, ADJACENCES ==========
+		int[] duree    = Instantane.lireEntiers(b, n);
+		int[] tot      = Instantane.lireEntiers(b, n);
+		int[] tard     = Instantane.lireEntiers(b, n);
+		int[] rang     = Instantane.lireEntiers(b, n);
+		int[] ordre    = Instantane.lireEntiers(b, n);
+		int[] niveaux  = Instantane.lireEntiers(b, n);
+
+		int[] debutSvt = Instantane.lireEntiers(b, n + 1);
+		Instantane.verifierDebuts(debutSvt, n, m);
+		int[] svt      = Instantane.lireEntiers(b, m);
+		int[] debutPrc = Instantane.lireEntiers(b, n + 1);
+		Instantane.verifierDebuts(debutPrc, n, m);
+		int[] prc      = Instantane.lireEntiers(b, m);
+
+		Instantane.verifierIdentifiants(svt,   n);
+		Instantane.verifierIdentifiants(prc,   n);
+		Instantane.verifierIdentifiants(ordre, n);
+
+		byte[] typeSvt  = null;
+		int[]  delaiSvt = null;
+		byte[] typePrc  = null;
+		int[]  delaiPrc = null;
+
+		if (avecLiens)
+		{
+			typeSvt  = Instantane.lireTypes(b, m);
+			delaiSvt = Instantane.lireEntiers(b, m);
+			typePrc  = Instantane.lireTypes(b, m);
+			delaiPrc = Instantane.lireEntiers(b, m);
+		}
+
+		int   nbPos = b.getInt();
+		int[] posId = Instantane.lireEntiers(b, nbPos);
+		int[] posX  = Instantane.lireEntiers(b, nbPos);
+		int[] posY  = Instantane.lireEntiers(b, nbPos);
+
+		Instantane.verifierIdentifiants(posId, n);
+
+		// ========== CONSTRUCTION DU PROJET ==========
+		res.graphe = GrapheCompact.depuisTableaux(n, duree, tot, tard, rang, debutSvt, svt, debutPrc, prc,
+		                                          typeSvt, delaiSvt, typePrc, delaiPrc);
+		res.index  = new HashMap<>(n * 4 / 3 + 1);
+
+		for (int i = 0; i < n; i++)
+		{
+			String nom = new String(octetsNoms, debutNoms[i], debutNoms[i + 1] - debutNoms[i], StandardCharsets.UTF_8);
+			res.index.put(nom, new Tache(res.graphe, i, nom));
+		}
+
+		res.ordre           = new OrdreTopologique(ordre, niveaux);
+		res.nomsPositions   = new ArrayList<>(nbPos);
+		res.coordsPositions = new ArrayList<>(nbPos);
+
+		for (int k = 0; k < nbPos; k++)
+		{
+			res.nomsPositions  .add(res.graphe.getVue(posId[k]).getNom());
+			res.coordsPositions.add(new Point(posX[k], posY[k]));
+		}
+
+		return res;
+	}
+
+	// ========== MÉTHODES UTILITAIRES ==========
+
+	/**
+	 * Lit nb entiers d'un bloc et avance dans le tampon
+	 */
+	private static int[] lireEntiers(ByteBuffer b, int nb)
+	{
+		if (nb < 0 || (long) nb * 4 > b.remaining()) throw new BufferUnderflowException();
+
+		int[] t = new int[nb];
+		b.asIntBuffer().get(t);
+		b.position(b.position() + nb * 4);
+
+		return t;
+	}
+
+	/**
+	 * Lit les types de nb liens, un octet chacun, et avance jusqu'au multiple de 4 suivant
+	 *
+	 * @throws IOException si un type est inconnu
+	 */
+	private static byte[] lireTypes(ByteBuffer b, int nb) throws IOException
+	{
+		byte[] t = new byte[nb];
+		b.get(t);
+		Instantane.aligner(b);
+
+		for (byte type : t)
+		{
+			if (type < Lien.FS || type > Lien.SF) throw Instantane.invalide("type de lien inconnu");
+		}
+		return t;
+	}
+
+	/**
+	 * Avance jusqu'au prochain multiple de 4 octets
+	 */
+	private static void aligner(ByteBuffer b)
+	{
+		b.position((b.position() + 3) & ~3);
+	}
+
+	/**
+	 * Vérifie qu'un tableau de débuts est croissant, part de 0 et ne dépasse pas max
+	 */
+	private static void verifierDebuts(int[] debut, int n, long max) throws IOException
+	{
+		if (debut[0] != 0 || debut[n] > max) throw Instantane.invalide("adjacences incohérentes");
+
+		for (int i = 0; i < n; i++)
+		{
+			if (debut[i + 1] < debut[i]) throw Instantane.invalide("adjacences incohérentes");
+		}
+	}
+
+	/**
+	 * Vérifie que des identifiants désignent bien des tâches
+	 */
+	private static void verifierIdentifiants(int[] ids, int n) throws IOException
+	{
+		for (int id : ids)
+		{
+			if (id < 0 || id >= n) throw Instantane.invalide("identifiant de tâche hors limites");
+		}
+	}
+
+	private static IOException invalide(String raison)
+	{
+		return new IOException(Erreur.INSTANTANE_INVALIDE.formater(raison));
+	}
+}
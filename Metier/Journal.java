@@ -0,0 +1,538 @@
+package Metier;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Classe Journal - Modifications d'un projet MPM depuis son dernier enregistrement complet
+ * Le journal est un fichier texte placé à côté du fichier du projet, une modification par ligne.
+ * Les lignes sont écrites par paquets puis forcées sur disque ; à l'ouverture du projet,
+ * elles sont rejouées sur le fichier du projet. Une ligne incomplète (arrêt pendant l'écriture)
+ * est ignorée.
+ *
+ * Au-delà de SEUIL_COMPACTAGE octets, le journal est mis de côté (suffixe ANCIEN), un nouveau
+ * journal reçoit les modifications suivantes et le projet complet est réécrit en arrière-plan.
+ * L'en-tête d'un journal désigne le fichier de projet auquel il s'applique (taille et date de
+ * modification) : un compactage interrompu est repris à l'ouverture suivante.
+ *
+ * Lignes :
+ *   en-tête     : MPMJ|version|taille|date de modification (largeur fixe)
+ *   ajout       : A|nom|precedents|suivants|duree
+ *   suppression : S|nom
+ *   durée       : D|nom|duree
+ *   position    : P|nom|x|y
+ *   date        : T|date de début
+ */
+public class Journal
+{
+	// ========== CONSTANTES ==========
+
+	public  static final String EXTENSION         = ".journal";  // Ajoutée au nom du fichier du projet
+	private static final String ANCIEN            = ".old";      // Journal mis de côté pendant un compactage
+	private static final String MAGIQUE           = "MPMJ";
+	private static final int    VERSION           = 1;
+
+	static final char AJOUT       = 'A';   // Ajout d'une tâche
+	static final char SUPPRESSION = 'S';   // Suppression d'une tâche
+	static final char DUREE       = 'D';   // Changement de durée d'une tâche
+	static final char POSITION    = 'P';   // Déplacement d'une tâche
+	static final char DATE        = 'T';   // Changement de la date de début
+
+	private static final int    NB_LIGNES_SYNCHRO = 64;        // Lignes en attente déclenchant l'écriture
+	private static final long   DELAI_SYNCHRO_MS  = 200;       // Attente maximale d'une ligne avant écriture
+	private static final long   SEUIL_COMPACTAGE  = 1L << 20;  // Taille du journal déclenchant un compactage
+
+	// ========== ATTRIBUTS ==========
+
+	private Path                     projet;          // Fichier du projet
+	private Path                     chemin;          // Fichier du journal
+	private Path                     ancien;          // Journal mis de côté pendant un compactage
+	private FileChannel              canal;           // Journal ouvert en ajout (null une fois fermé)
+	private ByteArrayOutputStream    enAttente;       // Lignes pas encore écrites
+	private int                      nbEnAttente;     // Nombre de lignes pas encore écrites
+	private long                     taille;          // Taille du journal, lignes en attente comprises
+	private ArrayList<String>        entrees;         // Lignes relues à l'ouverture, à rejouer
+	private String                   derniereDate;    // Dernière date de début journalisée (null si aucune)
+	private long[]                   identite;        // Taille et date du projet désigné par l'en-tête
+
+	private ScheduledExecutorService synchro;         // Écriture différée des lignes en attente
+	private ScheduledFuture<?>       synchroPrevue;   // Écriture programmée (null si aucune)
+	private ExecutorService          compacteur;      // Réécriture du projet en arrière-plan
+	private Future<?>                compactage;      // Compactage en cours (null si aucun)
+	private Thread                   arret;           // Écrit les lignes en attente à l'arrêt du programme
+
+	/**
+	 * Réécriture complète du projet, exécutée pendant un compactage
+	 */
+	public interface Ecriture
+	{
+		void ecrire() throws IOException;
+	}
+
+	// ========== CONSTRUCTEUR ==========
+
+	private Journal(String cheminProjet)
+	{
+		this.projet    = Paths.get(cheminProjet).toAbsolutePath().normalize();
+		this.chemin    = this.projet.resolveSibling(this.projet.getFileName() + EXTENSION);
+		this.ancien    = this.projet.resolveSibling(this.projet.getFileName() + EXTENSION + ANCIEN);
+		this.enAttente = new ByteArrayOutputStream();
+		this.entrees   = new ArrayList<>();
+
+		this.synchro    = Executors.newSingleThreadScheduledExecutor(Journal::creerFil);
+		this.compacteur = Executors.newSingleThreadExecutor         (Journal::creerFil);
+	}
+
+	private static Thread creerFil(Runnable r)
+	{
+		Thread t = new Thread(r, "journal-mpm");
+		t.setDaemon(true);
+		return t;
+	}
+
+	// ========== OUVERTURE ==========
+
+	/**
+	 * Ouvre le journal d'un projet, le crée s'il n'existe pas
+	 * Les lignes qui s'appliquent au fichier du projet tel qu'il est sur disque sont relues
+	 * (voir getEntrees). Un compactage interrompu, un journal d'une autre version du projet
+	 * ou une ligne incomplète sont réglés ici : le journal est alors réécrit.
+	 *
+	 * @param cheminProjet Chemin du fichier du projet
+	 * @return Le journal, prêt à recevoir des lignes
+	 * @throws IOException si le journal ne peut pas être lu ou écrit
+	 */
+	public static Journal ouvrir(String cheminProjet) throws IOException
+	{
+		Journal  j    = new Journal(cheminProjet);
+		long[]   base = Journal.identifier(j.projet);
+		Lecture  lAnc = Journal.lire(j.ancien);
+		Lecture  lJnl = Journal.lire(j.chemin);
+		boolean  sain = lAnc == null && lJnl != null && lJnl.complet && lJnl.designe(base);
+
+		// Le journal mis de côté ne vaut que si la réécriture du projet n'a pas abouti
+		if (lAnc != null && lAnc.designe(base)) j.entrees.addAll(lAnc.lignes);
+
+		// Le journal courant prolonge le projet, ou le journal mis de côté
+		if (lJnl != null && (lJnl.designe(base) || (lAnc != null && lJnl.designe(lAnc.identite))))
+			j.entrees.addAll(lJnl.lignes);
+
+		for (String ligne : j.entrees)
+		{
+			if (ligne.charAt(0) == DATE) j.derniereDate = ligne.substring(2);
+		}
+
+		if (sain)
+		{
+			j.identite = lJnl.identite;
+			j.ouvrirEnAjout();
+		}
+		else
+		{
+			j.reecrire(j.entrees, base, true);
+		}
+
+		j.arret = new Thread(j::synchroniser);
+		Runtime.getRuntime().addShutdownHook(j.arret);
+
+		return j;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	/**
+	 * @return Les lignes relues à l'ouverture, dans l'ordre, à rejouer sur le projet
+	 */
+	public ArrayList<String> getEntrees()     { return this.entrees;      }
+
+	/**
+	 * @return La dernière date de début journalisée (null si aucune)
+	 */
+	public String getDerniereDate()           { return this.derniereDate; }
+
+	/**
+	 * @return Le fichier du projet
+	 */
+	public Path getProjet()                   { return this.projet;       }
+
+	/**
+	 * @return true si le journal a dépassé SEUIL_COMPACTAGE et qu'aucun compactage n'est en cours
+	 */
+	public synchronized boolean doitCompacter()
+	{
+		return this.taille > SEUIL_COMPACTAGE && (this.compactage == null || this.compactage.isDone());
+	}
+
+	// ========== CRÉATION DES LIGNES ==========
+
+	public static String ajout(String nom, String prc, String svt, int duree)
+	{
+		return AJOUT + "|" + nom + "|" + (prc == null ? "" : prc) + "|" + (svt == null ? "" : svt) + "|" + duree;
+	}
+
+	public static String suppression(String nom)       { return SUPPRESSION + "|" + nom;                  }
+	public static String duree(String nom, int duree)  { return DUREE       + "|" + nom + "|" + duree;    }
+	public static String position(String nom, int x, int y)
+	                                                   { return POSITION    + "|" + nom + "|" + x + "|" + y; }
+	public static String date(String dateDebut)        { return DATE        + "|" + dateDebut;            }
+
+	// ========== AJOUT ET ÉCRITURE ==========
+
+	/**
+	 * Ajoute une ligne au journal
+	 * La ligne est écrite et forcée sur disque avec les suivantes, au plus tard après
+	 * DELAI_SYNCHRO_MS, ou dès que NB_LIGNES_SYNCHRO lignes attendent.
+	 *
+	 * @param ligne La ligne, sans retour à la ligne
+	 */
+	public synchronized void ajouter(String ligne)
+	{
+		if (this.canal == null) return;
+
+		byte[] octets = (ligne + "\n").getBytes(StandardCharsets.UTF_8);
+
+		this.enAttente.write(octets, 0, octets.length);
+		this.taille += octets.length;
+		this.nbEnAttente++;
+
+		if (ligne.charAt(0) == DATE) this.derniereDate = ligne.substring(2);
+
+		if (this.nbEnAttente >= NB_LIGNES_SYNCHRO)
+		{
+			if (this.synchroPrevue != null) this.synchroPrevue.cancel(false);
+			this.synchroPrevue = this.synchro.schedule(this::synchroniser, 0, TimeUnit.MILLISECONDS);
+		}
+		else if (this.synchroPrevue == null || this.synchroPrevue.isDone())
+		{
+			this.synchroPrevue = this.synchro.schedule(this::synchroniser, DELAI_SYNCHRO_MS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/**
+	 * Écrit les lignes en attente et les force sur disque
+	 */
+	public synchronized void synchroniser()
+	{
+		try
+		{
+			this.ecrireEnAttente();
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	private void ecrireEnAttente() throws IOException
+	{
+		if (this.canal == null || this.nbEnAttente == 0) return;
+
+		ByteBuffer tampon = ByteBuffer.wrap(this.enAttente.toByteArray());
+		while (tampon.hasRemaining()) this.canal.write(tampon);
+		this.canal.force(false);
+
+		this.enAttente.reset();
+		this.nbEnAttente = 0;
+	}
+
+	// ========== COMPACTAGE ==========
+
+	/**
+	 * Met le journal de côté et réécrit le projet complet en arrière-plan
+	 * Les lignes de reprise ouvrent le nouveau journal : elles portent ce que le fichier
+	 * du projet ne sait pas contenir (positions partielles, date d'un fichier texte).
+	 * Tant que la réécriture n'a pas abouti, le journal mis de côté reste valable.
+	 *
+	 * @param ecriture La réécriture du projet, d'après une copie prise par l'appelant
+	 * @param reprise Lignes à placer en tête du nouveau journal
+	 * @throws IOException si le journal ne peut pas être mis de côté
+	 */
+	public synchronized void compacter(Ecriture ecriture, ArrayList<String> reprise) throws IOException
+	{
+		if (this.canal == null) return;
+
+		this.ecrireEnAttente();
+		this.canal.close();
+		this.canal = null;
+
+		Journal.deplacer(this.chemin, this.ancien);
+
+		// Le nouveau journal s'applique au même projet que l'ancien, jusqu'à la fin de la réécriture
+		this.reecrire(new ArrayList<>(), this.identite, false);
+		for (String ligne : reprise) this.ajouter(ligne);
+
+		this.compactage = this.compacteur.submit(() -> this.terminerCompactage(ecriture));
+	}
+
+	/**
+	 * Réécrit le projet, puis fait désigner le nouveau fichier par le journal courant
+	 * En cas d'échec, les deux journaux sont réunis pour qu'un compactage suivant reparte de zéro.
+	 */
+	private void terminerCompactage(Ecriture ecriture)
+	{
+		try
+		{
+			ecriture.ecrire();
+
+			synchronized (this)
+			{
+				if (this.canal == null) return;
+
+				this.identite = Journal.identifier(this.projet);
+				this.canal.write(ByteBuffer.wrap(Journal.entete(this.identite)), 0);
+				this.canal.force(false);
+				Files.deleteIfExists(this.ancien);
+			}
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+			this.reunir();
+		}
+	}
+
+	private synchronized void reunir()
+	{
+		try
+		{
+			if (this.canal == null) return;
+
+			this.ecrireEnAttente();
+
+			Lecture lAnc = Journal.lire(this.ancien);
+			Lecture lJnl = Journal.lire(this.chemin);
+			if (lAnc == null || lJnl == null) return;
+
+			ArrayList<String> lignes = new ArrayList<>(lAnc.lignes);
+			lignes.addAll(lJnl.lignes);
+
+			this.canal.close();
+			this.reecrire(lignes, lAnc.identite, true);
+		}
+		catch (IOException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	/**
+	 * Attend la fin du compactage en cours, s'il y en a un
+	 */
+	public void attendreCompactage()
+	{
+		Future<?> f;
+		synchronized (this) { f = this.compactage; }
+
+		if (f == null) return;
+		try
+		{
+			f.get();
+		}
+		catch (InterruptedException e)
+		{
+			Thread.currentThread().interrupt();
+		}
+		catch (ExecutionException e)
+		{
+			e.printStackTrace();
+		}
+	}
+
+	// ========== RÉINITIALISATION ET FERMETURE ==========
+
+	/**
+	 * Vide le journal après un enregistrement complet du projet
+	 * À appeler après attendreCompactage() et l'écriture du fichier du projet.
+	 *
+	 * @throws IOException si le journal ne peut pas être réécrit
+	 */
+	public synchronized void reinitialiser() throws IOException
+	{
+		if (this.canal == null) return;
+
+		this.canal.close();
+		this.enAttente.reset();
+		this.nbEnAttente  = 0;
+		this.derniereDate = null;
+
+		this.reecrire(new ArrayList<>(), Journal.identifier(this.projet), true);
+	}
+
+	/**
+	 * Écrit les lignes en attente, attend le compactage en cours et ferme le journal
+	 */
+	public void fermer()
+	{
+		this.attendreCompactage();
+
+		synchronized (this)
+		{
+			if (this.canal == null) return;
+
+			this.synchroniser();
+			this.synchro   .shutdownNow();
+			this.compacteur.shutdown();
+
+			try
+			{
+				this.canal.close();
+				Runtime.getRuntime().removeShutdownHook(this.arret);
+			}
+			catch (IOException | IllegalStateException e)
+			{
+				e.printStackTrace();
+			}
+			this.canal = null;
+		}
+	}
+
+	// ========== FICHIERS ==========
+
+	/**
+	 * Remplace le journal par un en-tête désignant le projet donné, suivi des lignes données,
+	 * puis l'ouvre en ajout
+	 *
+	 * @param lignes Les lignes du nouveau journal
+	 * @param identite Taille et date du projet auquel le journal s'applique
+	 * @param oublierAncien Supprime le journal mis de côté une fois le nouveau en place
+	 */
+	private void reecrire(ArrayList<String> lignes, long[] identite, boolean oublierAncien) throws IOException
+	{
+		Path temp = this.chemin.resolveSibling(this.chemin.getFileName() + ".tmp");
+
+		try (FileChannel c = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+		                                            StandardOpenOption.TRUNCATE_EXISTING))
+		{
+			ByteArrayOutputStream octets = new ByteArrayOutputStream();
+			byte[]                entete = Journal.entete(identite);
+
+			octets.write(entete, 0, entete.length);
+			for (String ligne : lignes)
+			{
+				byte[] b = (ligne + "\n").getBytes(StandardCharsets.UTF_8);
+				octets.write(b, 0, b.length);
+			}
+
+			ByteBuffer tampon = ByteBuffer.wrap(octets.toByteArray());
+			while (tampon.hasRemaining()) c.write(tampon);
+			c.force(false);
+		}
+
+		Journal.deplacer(temp, this.chemin);
+		if (oublierAncien) Files.deleteIfExists(this.ancien);
+
+		this.identite = identite;
+		this.ouvrirEnAjout();
+	}
+
+	/**
+	 * Ouvre le journal en écriture à sa fin
+	 * Pas d'ouverture en mode APPEND : l'en-tête doit pouvoir être réécrit sur place.
+	 */
+	private void ouvrirEnAjout() throws IOException
+	{
+		this.canal  = FileChannel.open(this.chemin, StandardOpenOption.WRITE);
+		this.taille = this.canal.size();
+		this.canal.position(this.taille);
+	}
+
+	private static void deplacer(Path source, Path cible) throws IOException
+	{
+		try
+		{
+			Files.move(source, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(source, cible, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * @return La taille et la date de modification du fichier ({ -1, -1 } s'il n'existe pas)
+	 */
+	private static long[] identifier(Path fichier) throws IOException
+	{
+		if (!Files.exists(fichier)) return new long[] { -1, -1 };
+
+		return new long[] { Files.size(fichier), Files.getLastModifiedTime(fichier).toMillis() };
+	}
+
+	/**
+	 * En-tête de largeur fixe : il peut être réécrit sur place à la fin d'un compactage
+	 */
+	private static byte[] entete(long[] identite)
+	{
+		return String.format("%s|%d|%020d|%020d\n", MAGIQUE, VERSION, identite[0], identite[1])
+		             .getBytes(StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Relit un journal
+	 *
+	 * @return Le contenu du journal, null s'il n'existe pas ou si son en-tête est illisible
+	 */
+	private static Lecture lire(Path fichier) throws IOException
+	{
+		if (!Files.exists(fichier)) return null;
+
+		String  texte = new String(Files.readAllBytes(fichier), StandardCharsets.UTF_8);
+		int     fin   = texte.indexOf('\n');
+		if (fin < 0) return null;
+
+		String[] entete = texte.substring(0, fin).split("\\|");
+		if (entete.length != 4 || !entete[0].equals(MAGIQUE) || !entete[1].equals(String.valueOf(VERSION))) return null;
+
+		Lecture l = new Lecture();
+		try
+		{
+			l.identite = new long[] { Long.parseLong(entete[2]), Long.parseLong(entete[3]) };
+		}
+		catch (NumberFormatException e)
+		{
+			return null;
+		}
+
+		// Une ligne sans retour à la ligne a été interrompue : elle est ignorée
+		int debut = fin + 1;
+		while ((fin = texte.indexOf('\n', debut)) >= 0)
+		{
+			if (fin > debut + 1) l.lignes.add(texte.substring(debut, fin));
+			debut = fin + 1;
+		}
+		l.complet = debut == texte.length();
+
+		return l;
+	}
+
+	// ========== CLASSE INTERNE ==========
+
+	/**
+	 * Contenu relu d'un journal
+	 */
+	private static class Lecture
+	{
+		long[]            identite;                  // Taille et date du projet désigné par l'en-tête
+		ArrayList<String> lignes  = new ArrayList<>();
+		boolean           complet;                   // Faux si la dernière ligne a été interrompue
+
+		boolean designe(long[] autre) { return this.identite[0] == autre[0] && this.identite[1] == autre[1]; }
+	}
+}
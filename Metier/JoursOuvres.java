@@ -0,0 +1,205 @@
+package Metier;
+
+import java.util.Arrays;
+
+/**
+ * Classe JoursOuvres - Calendrier de travail : jours ouvrés de la semaine et jours fériés
+ * Les dates d'un projet planifié en jours ouvrés sont des rangs de jours ouvrés.
+ * Deux tables, construites une fois sur une fenêtre de jours puis gardées, en donnent
+ * la conversion sans parcourir les jours un à un :
+ *   rangs  : nombre de jours ouvrés avant chaque jour de la fenêtre (sommes préfixes)
+ *   ouvres : jour de la fenêtre de chaque rang de jour ouvré (sélection)
+ * La fenêtre est doublée quand une conversion en sort. Les tables sont remplacées d'un bloc :
+ * la lecture est sans verrou et le calendrier peut être partagé entre plusieurs fils.
+ */
+public class JoursOuvres
+{
+	// ========== CONSTANTES ==========
+
+	private static final int FENETRE_MIN = 4 * 366;    // Jours couverts par la première fenêtre
+
+	// ========== ATTRIBUTS ==========
+
+	private boolean[]        semaine;    // Jour ouvré, du lundi (0) au dimanche (6)
+	private int              nbSemaine;  // Nombre de jours ouvrés par semaine
+	private int[]            feries;     // Jours fériés triés, en jours depuis le 01/01/1970
+	private int              nbFeries;   // Nombre de jours fériés
+	private volatile Tables  tables;     // Tables de conversion (null si à construire)
+
+	// ========== CONSTRUCTEURS ==========
+
+	/**
+	 * Constructeur d'un calendrier de travail sans jour férié
+	 *
+	 * @param semaine Jour ouvré ou non, du lundi (0) au dimanche (6)
+	 * @throws IllegalArgumentException si aucun jour de la semaine n'est ouvré
+	 */
+	public JoursOuvres(boolean[] semaine)
+	{
+		this.semaine = Arrays.copyOf(semaine, 7);
+		this.feries  = new int[8];
+
+		for (boolean ouvre : this.semaine) if (ouvre) this.nbSemaine++;
+		if (this.nbSemaine == 0) throw new IllegalArgumentException("Aucun jour ouvré dans la semaine");
+	}
+
+	/**
+	 * @return Un calendrier du lundi au vendredi, sans jour férié
+	 */
+	public static JoursOuvres lundiAVendredi()
+	{
+		return new JoursOuvres(new boolean[] { true, true, true, true, true, false, false });
+	}
+
+	/**
+	 * Ajoute un jour férié ; les tables seront reconstruites à la conversion suivante
+	 *
+	 * @param date La date au format dd/MM/yyyy
+	 * @return Le calendrier, pour enchaîner les appels
+	 * @throws IllegalArgumentException si la date n'est pas valide
+	 */
+	public synchronized JoursOuvres ajouterFerie(String date)
+	{
+		int jour = Calendrier.lireDate(date);
+		if (jour == Calendrier.INCONNU || date.length() != 10)
+			throw new IllegalArgumentException(Erreur.DATE_INVALIDE.formater(date));
+
+		int pos = Arrays.binarySearch(this.feries, 0, this.nbFeries, jour);
+		if (pos >= 0) return this;
+
+		pos = -pos - 1;
+		if (this.nbFeries == this.feries.length) this.feries = Arrays.copyOf(this.feries, this.nbFeries * 2);
+
+		System.arraycopy(this.feries, pos, this.feries, pos + 1, this.nbFeries - pos);
+		this.feries[pos] = jour;
+		this.nbFeries++;
+
+		this.tables = null;
+		return this;
+	}
+
+	// ========== CONSULTATION ==========
+
+	/**
+	 * @param jour Un jour, en jours depuis le 01/01/1970
+	 * @return true si le jour est ouvré
+	 */
+	public boolean estOuvre(int jour)
+	{
+		return this.semaine[Math.floorMod(jour + 3, 7)] && Arrays.binarySearch(this.feries, 0, this.nbFeries, jour) < 0;
+	}
+
+	/**
+	 * Avance ou recule d'un nombre de jours ouvrés
+	 * Le décompte part du premier jour ouvré à partir de jour : ajouter(j, 0) est ce jour ouvré,
+	 * ajouter(j, n) le n-ième jour ouvré suivant, ajouter(j, -n) le n-ième jour ouvré précédent.
+	 *
+	 * @param jour Le jour de départ, en jours depuis le 01/01/1970
+	 * @param nbOuvres Le nombre de jours ouvrés (peut être négatif)
+	 * @return Le jour d'arrivée, en jours depuis le 01/01/1970
+	 */
+	public int ajouter(int jour, int nbOuvres)
+	{
+		Tables t = this.tables;
+
+		while (t == null || !t.couvre(jour, nbOuvres)) t = this.etendre(jour, nbOuvres);
+
+		return t.origine + t.ouvres[t.rangs[jour - t.origine] + nbOuvres];
+	}
+
+	/**
+	 * Compte les jours ouvrés entre deux jours
+	 *
+	 * @param debut Premier jour compté
+	 * @param fin Jour suivant le dernier jour compté
+	 * @return Le nombre de jours ouvrés dans [debut, fin), négatif si fin précède debut
+	 */
+	public int compter(int debut, int fin)
+	{
+		Tables t = this.tables;
+
+		while (t == null || !t.couvre(debut, 0) || !t.couvre(fin, 0)) t = this.etendre(Math.min(debut, fin), Math.abs(fin - debut));
+
+		return t.rangs[fin - t.origine] - t.rangs[debut - t.origine];
+	}
+
+	// ========== CONSTRUCTION DES TABLES ==========
+
+	/**
+	 * Construit des tables couvrant au moins la conversion demandée et la fenêtre courante
+	 * Un seul passage sur les jours de la nouvelle fenêtre, les fériés étant triés.
+	 */
+	private synchronized Tables etendre(int jour, int nbOuvres)
+	{
+		Tables actuelles = this.tables;
+		if (actuelles != null && actuelles.couvre(jour, nbOuvres)) return actuelles;
+
+		// Marge en jours calendaires : n jours ouvrés tiennent en n * 7 / nbSemaine jours, plus les fériés
+		int marge   = (int) Math.min(Integer.MAX_VALUE / 4, (long) Math.abs(nbOuvres) * 7 / this.nbSemaine + this.nbFeries + 7);
+		int debut   = jour - marge - FENETRE_MIN / 4;
+		int fin     = jour + marge + FENETRE_MIN;
+
+		if (actuelles != null)
+		{
+			int etendue = actuelles.rangs.length - 1;
+			debut = Math.min(debut, actuelles.origine - etendue / 2);
+			fin   = Math.max(fin,   actuelles.origine + etendue + etendue / 2);
+		}
+
+		Tables t   = new Tables();
+		int    n   = fin - debut;
+		int    f   = 0;
+
+		t.origine = debut;
+		t.rangs   = new int[n + 1];
+		t.ouvres  = new int[n * this.nbSemaine / 7 + 8];
+
+		while (f < this.nbFeries && this.feries[f] < debut) f++;
+
+		int nb = 0;
+		for (int i = 0; i < n; i++)
+		{
+			int     j     = debut + i;
+			boolean ferie = f < this.nbFeries && this.feries[f] == j;
+
+			if (ferie) f++;
+
+			t.rangs[i] = nb;
+			if (this.semaine[Math.floorMod(j + 3, 7)] && !ferie)
+			{
+				if (nb == t.ouvres.length) t.ouvres = Arrays.copyOf(t.ouvres, nb * 2);
+				t.ouvres[nb++] = i;
+			}
+		}
+		t.rangs[n] = nb;
+		t.nbOuvres = nb;
+
+		this.tables = t;
+		return t;
+	}
+
+	// ========== CLASSE INTERNE ==========
+
+	/**
+	 * Tables de conversion sur une fenêtre de jours, jamais modifiées une fois publiées
+	 */
+	private static class Tables
+	{
+		int   origine;     // Premier jour de la fenêtre
+		int[] rangs;       // rangs[i] : jours ouvrés dans [origine, origine + i)
+		int[] ouvres;      // ouvres[r] : indice dans la fenêtre du jour ouvré de rang r
+		int   nbOuvres;    // Nombre de jours ouvrés de la fenêtre
+
+		/**
+		 * @return true si le jour et le rang d'arrivée sont dans la fenêtre
+		 */
+		boolean couvre(int jour, int nbOuvres)
+		{
+			int i = jour - this.origine;
+			if (i < 0 || i >= this.rangs.length - 1) return false;
+
+			long r = (long) this.rangs[i] + nbOuvres;
+			return r >= 0 && r < this.nbOuvres;
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package Metier;
+
+/**
+ * Classe Lien - Type et délai d'une dépendance entre un précédent A et un suivant B
+ * - FS (fin-début)   : B commence après la fin de A ;
+ * - SS (début-début) : B commence après le début de A ;
+ * - FF (fin-fin)     : B finit après la fin de A ;
+ * - SF (début-fin)   : B finit après le début de A.
+ * Le délai, en jours, s'ajoute à la date de A (négatif : avance). Sans précision, un lien est FS sans délai.
+ *
+ * Chaque type se ramène à une contrainte début(B) >= début(A) + écart, où l'écart ne dépend que
+ * du type, du délai et des deux durées (voir ecart) : les dates restent des plus longs chemins,
+ * calculés en un passage sur les arcs.
+ *
+ * Dans une liste de précédents (fichier, saisie, journal), le lien suit le nom après ':' :
+ * "A:SS+2", "A:FF", "A:-1" (FS avec un jour d'avance). Les codes français FD, DD et DF sont acceptés.
+ */
+public final class Lien
+{
+	// ========== CONSTANTES ==========
+
+	public static final byte FS = 0;   // Fin-début
+	public static final byte SS = 1;   // Début-début
+	public static final byte FF = 2;   // Fin-fin
+	public static final byte SF = 3;   // Début-fin
+
+	public static final char SEPARATEUR = ':';   // Sépare le nom du précédent de son lien
+
+	private static final String[] CODES = { "FS", "SS", "FF", "SF" };
+
+	/**
+	 * Lien fin-début sans délai : la dépendance classique
+	 */
+	public static final Lien FIN_DEBUT = new Lien(FS, 0);
+
+	// ========== ATTRIBUTS ==========
+
+	private final byte type;    // FS, SS, FF ou SF
+	private final int  delai;   // Délai en jours (négatif : avance)
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Constructeur d'un lien
+	 *
+	 * @param type Le type : FS, SS, FF ou SF
+	 * @param delai Le délai en jours (négatif : avance)
+	 * @throws IllegalArgumentException si le type est inconnu
+	 */
+	public Lien(byte type, int delai)
+	{
+		if (type < FS || type > SF) throw new IllegalArgumentException(Erreur.LIEN_INVALIDE.formater(Byte.toString(type)));
+
+		this.type  = type;
+		this.delai = delai;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public byte getType()  { return this.type;  }
+	public int  getDelai() { return this.delai; }
+
+	/**
+	 * @return Le lien écrit comme dans un fichier : "SS+2", "FS-1", "FF"
+	 */
+	public String toString()
+	{
+		return Lien.texte(this.type, this.delai);
+	}
+
+	// ========== CALCUL ==========
+
+	/**
+	 * Écart minimal entre le début du précédent et celui du suivant
+	 *
+	 * @param type Le type du lien
+	 * @param delai Le délai du lien
+	 * @param dureeAvant La durée du précédent
+	 * @param dureeApres La durée du suivant
+	 * @return début(suivant) - début(précédent) au plus juste
+	 */
+	static int ecart(byte type, int delai, int dureeAvant, int dureeApres)
+	{
+		switch (type)
+		{
+			case SS: return delai;
+			case FF: return dureeAvant + delai - dureeApres;
+			case SF: return delai - dureeApres;
+			default: return dureeAvant + delai;
+		}
+	}
+
+	/**
+	 * Indique si le lien contraint la fin du précédent (FS ou FF)
+	 */
+	static boolean attendFin(byte type)   { return type == FS || type == FF; }
+
+	/**
+	 * Indique si le lien contraint le début du suivant (FS ou SS)
+	 */
+	static boolean fixeDebut(byte type)   { return type == FS || type == SS; }
+
+	// ========== LECTURE ET ÉCRITURE ==========
+
+	/**
+	 * Reconnaît un code de type de deux lettres, en majuscules ou minuscules
+	 *
+	 * @return Le type, -1 si le code est inconnu
+	 */
+	static int type(int c1, int c2)
+	{
+		c1 &= ~0x20;
+		c2 &= ~0x20;
+
+		if (c1 == 'F' && (c2 == 'S' || c2 == 'D')) return FS;
+		if ((c1 == 'S' || c1 == 'D') && (c2 == 'S' || c2 == 'D')) return SS;
+		if (c1 == 'F' && c2 == 'F') return FF;
+		if ((c1 == 'S' || c1 == 'D') && c2 == 'F') return SF;
+		return -1;
+	}
+
+	/**
+	 * Retourne l'annotation à écrire après un nom de précédent
+	 *
+	 * @param type Le type du lien
+	 * @param delai Le délai du lien
+	 * @return ":SS+2", ":FS-1"... ; chaîne vide pour un lien FS sans délai
+	 */
+	static String annotation(byte type, int delai)
+	{
+		return type == FS && delai == 0 ? "" : SEPARATEUR + Lien.texte(type, delai);
+	}
+
+	private static String texte(byte type, int delai)
+	{
+		return delai == 0 ? CODES[type] : CODES[type] + (delai > 0 ? "+" : "") + delai;
+	}
+
+	/**
+	 * Retourne le nom d'un précédent suivi de son lien, tel qu'on l'écrit dans une liste
+	 *
+	 * @return Le nom lui-même pour un lien FS sans délai
+	 */
+	static String noter(String nom, byte type, int delai)
+	{
+		return type == FS && delai == 0 ? nom : nom + Lien.annotation(type, delai);
+	}
+
+	/**
+	 * @param element Un élément d'une liste de voisins : "nom" ou "nom:lien"
+	 * @return Le nom, sans espaces autour
+	 */
+	public static String nom(String element)
+	{
+		int sep = element.indexOf(SEPARATEUR);
+		return sep < 0 ? element.trim() : element.substring(0, sep).trim();
+	}
+
+	/**
+	 * Lit le lien d'un élément d'une liste de voisins, sans expression régulière
+	 *
+	 * @param element Un élément d'une liste de voisins : "nom" ou "nom:lien"
+	 * @return Le lien, FIN_DEBUT si l'élément n'en précise pas
+	 * @throws IllegalArgumentException si le lien est illisible
+	 */
+	public static Lien de(String element)
+	{
+		int sep = element.indexOf(SEPARATEUR);
+		if (sep < 0) return FIN_DEBUT;
+
+		String texte = element.substring(sep + 1).trim();
+		if (texte.isEmpty()) return FIN_DEBUT;
+
+		int type  = FS;
+		int debut = 0;
+
+		if (texte.length() >= 2 && Character.isLetter(texte.charAt(0)))
+		{
+			type  = Lien.type(texte.charAt(0), texte.charAt(1));
+			debut = 2;
+			if (type < 0) throw new IllegalArgumentException(Erreur.LIEN_INVALIDE.formater(texte));
+		}
+
+		String delai = texte.substring(debut).trim();
+		if (delai.isEmpty()) return type == FS ? FIN_DEBUT : new Lien((byte) type, 0);
+
+		try
+		{
+			return new Lien((byte) type, Integer.parseInt(delai));
+		}
+		catch (NumberFormatException e)
+		{
+			throw new IllegalArgumentException(Erreur.LIEN_INVALIDE.formater(texte));
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package Metier;
+
+import java.util.ArrayList;
+
+/**
+ * Classe Lot - Suite de modifications d'un projet MPM appliquées en une seule fois
+ * Les opérations sont seulement enregistrées ; le projet les valide toutes,
+ * puis les applique et recalcule le planning une seule fois (voir Mpm.validerLot).
+ */
+public class Lot
+{
+	// ========== CONSTANTES ==========
+
+	static final char AJOUT       = 'A';   // Ajout d'une tâche
+	static final char SUPPRESSION = 'S';   // Suppression d'une tâche
+	static final char DUREE       = 'D';   // Changement de durée d'une tâche
+
+	// ========== ATTRIBUTS ==========
+
+	private ArrayList<Operation> operations;   // Opérations dans l'ordre où elles ont été demandées
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Constructeur d'un lot vide
+	 */
+	public Lot()
+	{
+		this.operations = new ArrayList<>();
+	}
+
+	// ========== MÉTHODES D'ENREGISTREMENT ==========
+
+	/**
+	 * Enregistre l'ajout d'une tâche
+	 * Comme pour Mpm.ajouterTache, une tâche sans précédent est reliée à "Debut"
+	 * et une tâche sans suivant à "Fin".
+	 *
+	 * @param nom Le nom de la tâche
+	 * @param prc Liste des prédécesseurs (séparés par des virgules)
+	 * @param svt Liste des suivants (séparés par des virgules)
+	 * @param duree Durée de la tâche en jours
+	 * @return Le lot, pour enchaîner les appels
+	 */
+	public Lot ajouterTache(String nom, String prc, String svt, int duree)
+	{
+		this.operations.add(new Operation(AJOUT, nom, prc, svt, duree));
+		return this;
+	}
+
+	/**
+	 * Enregistre la suppression d'une tâche
+	 *
+	 * @param nom Le nom de la tâche à supprimer
+	 * @return Le lot, pour enchaîner les appels
+	 */
+	public Lot supprimerTache(String nom)
+	{
+		this.operations.add(new Operation(SUPPRESSION, nom, null, null, 0));
+		return this;
+	}
+
+	/**
+	 * Enregistre le changement de durée d'une tâche
+	 *
+	 * @param nom Le nom de la tâche
+	 * @param duree La nouvelle durée en jours
+	 * @return Le lot, pour enchaîner les appels
+	 */
+	public Lot setDuree(String nom, int duree)
+	{
+		this.operations.add(new Operation(DUREE, nom, null, null, duree));
+		return this;
+	}
+
+	/**
+	 * Enregistre une opération déjà construite (voir Mpm.rejouer)
+	 *
+	 * @param op L'opération
+	 * @return Le lot, pour enchaîner les appels
+	 */
+	Lot ajouter(Operation op)
+	{
+		this.operations.add(op);
+		return this;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	/**
+	 * @return Le nombre d'opérations enregistrées
+	 */
+	public int getNbOperations()                { return this.operations.size(); }
+
+	/**
+	 * @return Les opérations dans l'ordre où elles ont été demandées
+	 */
+	ArrayList<Operation> getOperations()        { return this.operations;        }
+
+	// ========== CLASSE INTERNE ==========
+
+	/**
+	 * Une opération enregistrée dans le lot
+	 */
+	static class Operation
+	{
+		final char   type;     // AJOUT, SUPPRESSION ou DUREE
+		final String nom;      // Nom de la tâche concernée
+		final String prc;      // Prédécesseurs (ajout uniquement)
+		final String svt;      // Suivants (ajout uniquement)
+		final int    duree;    // Durée (ajout et changement de durée)
+
+		Operation(char type, String nom, String prc, String svt, int duree)
+		{
+			this.type  = type;
+			this.nom   = nom == null ? null : nom.trim();
+			this.prc   = prc;
+			this.svt   = svt;
+			this.duree = duree;
+		}
+	}
+}
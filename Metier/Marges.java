@@ -0,0 +1,249 @@
+package Metier;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Classe Marges - Marges totale, libre et indépendante des tâches d'un projet MPM
+ * - marge totale : retard possible sans retarder la fin du projet (plus tard - plus tôt) ;
+ * - marge libre : retard possible sans retarder aucun suivant ni la fin du projet (plus grand
+ *   début que permettent les suivants au plus tôt - début au plus tôt) ;
+ * - marge indépendante : retard possible même si les précédents sont au plus tard et que les
+ *   suivants doivent commencer au plus tôt (plus grand début que permettent les suivants au plus
+ *   tôt - plus grand début qu'imposent les précédents au plus tard, ramenée à 0 si négative).
+ * Avec des liens FS seulement, un suivant permet de commencer jusqu'à son début moins la durée,
+ * et un précédent impose de commencer après sa fin ; les autres liens suivent Lien.ecart.
+ *
+ * Mpm.calculerDates remplit les marges pendant le calcul des dates au plus tard, dans le même
+ * parcours des suivants (voir GrapheCompact.calculerDatePlusTard). Après une mise à jour locale
+ * des dates, elles sont recalculées à la demande en un seul passage sur le graphe (voir calculer),
+ * ou sur la version figée du planning qui les demande la première.
+ * Une fois calculées, elles ne changent plus : une version figée du planning les partage.
+ *
+ * Les tâches y sont désignées par leur identifiant au moment du calcul.
+ */
+public final class Marges
+{
+	// ========== CONSTANTES ==========
+
+	/**
+	 * Marge selon laquelle trier les tâches
+	 */
+	public enum Type
+	{
+		TOTALE,
+		LIBRE,
+		INDEPENDANTE
+	}
+
+	// ========== ATTRIBUTS ==========
+
+	private final int                         nbTaches;        // Nombre de tâches
+	private final int[]                       totales;         // Marge totale de chaque tâche
+	private final int[]                       libres;          // Marge libre de chaque tâche
+	private final int[]                       independantes;   // Marge indépendante (pendant le calcul : plus grand début imposé par les précédents)
+	private final AtomicReferenceArray<int[]> ordres;          // Tâches triées par marge croissante, par type (construit à la première demande)
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Prépare des marges à remplir pendant le calcul des dates au plus tard
+	 *
+	 * @param n Nombre de tâches
+	 */
+	Marges(int n)
+	{
+		this.nbTaches      = n;
+		this.totales       = new int[n];
+		this.libres        = new int[n];
+		this.independantes = new int[n];
+		this.ordres        = new AtomicReferenceArray<>(Type.values().length);
+	}
+
+	/**
+	 * Calcule les marges d'un graphe dont les dates sont à jour, en un seul passage
+	 * Chaque tâche lit le début au plus tôt de ses suivants et leur reporte le début qu'elle leur
+	 * impose quand elle est au plus tard.
+	 *
+	 * @param g Le graphe
+	 * @return Les marges
+	 */
+	static Marges calculer(GrapheCompact g)
+	{
+		int    n         = g.getNbNoeuds();
+		int    finProjet = 0;
+		Marges marges    = new Marges(n);
+
+		for (int i = 0; i < n; i++) finProjet = Math.max(finProjet, g.getDatePlusTot(i) + g.getDuree(i));
+
+		for (int i = 0; i < n; i++)
+		{
+			int debutTot = finProjet - g.getDuree(i);
+
+			for (int k = g.debutSvt(i); k < g.finSvt(i); k++)
+			{
+				int s     = g.svt(k);
+				int ecart = g.ecartSvt(i, k);
+
+				if (g.getDatePlusTot(s) - ecart < debutTot) debutTot = g.getDatePlusTot(s) - ecart;
+				marges.noterDebutImpose(s, g.getDatePlusTard(i) + ecart);
+			}
+
+			marges.noterLibre(i, debutTot - g.getDatePlusTot(i));
+		}
+
+		return marges.terminer(g);
+	}
+
+	/**
+	 * Calcule les marges d'une version figée du planning, en un seul passage (même calcul que sur le graphe)
+	 *
+	 * @param p Le planning
+	 * @return Les marges, par indice de tâche
+	 */
+	static Marges calculer(Planning p)
+	{
+		int    n         = p.getNbTaches();
+		int    finProjet = 0;
+		Marges marges    = new Marges(n);
+
+		for (int i = 0; i < n; i++) finProjet = Math.max(finProjet, p.getDatePlusTot(i) + p.getDuree(i));
+
+		for (int i = 0; i < n; i++)
+		{
+			int debutTot = finProjet - p.getDuree(i);
+
+			for (int k = 0; k < p.getNbSuivants(i); k++)
+			{
+				int s     = p.getSuivant(i, k);
+				int ecart = Lien.ecart(p.getTypeSuivant(i, k), p.getDelaiSuivant(i, k), p.getDuree(i), p.getDuree(s));
+
+				if (p.getDatePlusTot(s) - ecart < debutTot) debutTot = p.getDatePlusTot(s) - ecart;
+				marges.noterDebutImpose(s, p.getDatePlusTard(i) + ecart);
+			}
+
+			marges.noterLibre(i, debutTot - p.getDatePlusTot(i));
+		}
+
+		for (int i = 0; i < n; i++) marges.terminer(i, p.getDatePlusTot(i), p.getDatePlusTard(i));
+		return marges;
+	}
+
+	/**
+	 * @param id Identifiant d'une tâche
+	 * @param marge Sa marge libre
+	 */
+	void noterLibre(int id, int marge)
+	{
+		this.libres[id] = marge;
+	}
+
+	/**
+	 * Retient le début qu'impose à la tâche un de ses précédents au plus tard, pour sa marge indépendante
+	 *
+	 * @param id Identifiant de la tâche
+	 * @param debut Début imposé (avec un lien FS : fin au plus tard du précédent)
+	 */
+	void noterDebutImpose(int id, int debut)
+	{
+		if (debut > this.independantes[id]) this.independantes[id] = debut;
+	}
+
+	/**
+	 * Termine le calcul une fois toutes les marges libres et débuts imposés notés
+	 * La marge indépendante se déduit de la marge libre : plus grand début permis = libre + plus tôt.
+	 *
+	 * @param g Le graphe, dates à jour
+	 * @return Ces marges
+	 */
+	Marges terminer(GrapheCompact g)
+	{
+		for (int i = 0; i < this.nbTaches; i++) this.terminer(i, g.getDatePlusTot(i), g.getDatePlusTard(i));
+		return this;
+	}
+
+	private void terminer(int id, int tot, int tard)
+	{
+		this.totales      [id] = tard - tot;
+		this.independantes[id] = Math.max(0, this.libres[id] + tot - this.independantes[id]);
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public int getNbTaches()                  { return this.nbTaches;             }
+	public int getTotale(int id)              { return this.totales[id];          }
+	public int getLibre(int id)               { return this.libres[id];           }
+	public int getIndependante(int id)        { return this.independantes[id];    }
+
+	/**
+	 * @param type Le type de marge
+	 * @param id Identifiant d'une tâche
+	 * @return La marge de ce type de la tâche
+	 */
+	public int getMarge(Type type, int id)    { return this.valeurs(type)[id];    }
+
+	private int[] valeurs(Type type)
+	{
+		switch (type)
+		{
+			case LIBRE:        return this.libres;
+			case INDEPENDANTE: return this.independantes;
+			default:           return this.totales;
+		}
+	}
+
+	// ========== TRI DES TÂCHES ==========
+
+	/**
+	 * Retourne les tâches triées par marge croissante, à égalité par identifiant
+	 * L'ordre est calculé une fois par type (tri par comptage sur l'étendue des marges), puis
+	 * partagé : le tableau rendu ne doit pas être modifié. Deux fils peuvent au pire le calculer chacun.
+	 *
+	 * @param type Le type de marge
+	 * @return Les identifiants des tâches dans l'ordre
+	 */
+	public int[] getOrdre(Type type)
+	{
+		int[] ordre = this.ordres.get(type.ordinal());
+		if (ordre == null)
+		{
+			ordre = Marges.trier(this.valeurs(type));
+			this.ordres.set(type.ordinal(), ordre);
+		}
+		return ordre;
+	}
+
+	private static int[] trier(int[] marges)
+	{
+		int   n     = marges.length;
+		int[] ordre = new int[n];
+		int   min   = Integer.MAX_VALUE;
+		int   max   = Integer.MIN_VALUE;
+
+		for (int m : marges)
+		{
+			min = Math.min(min, m);
+			max = Math.max(max, m);
+		}
+		if (n == 0) return ordre;
+
+		// ========== MARGES TRÈS DISPERSÉES : TRI DE COUPLES (MARGE, IDENTIFIANT) ==========
+		if ((long) max - min > 4L * n + 1024)
+		{
+			long[] couples = new long[n];
+			for (int i = 0; i < n; i++) couples[i] = ((long) marges[i] - min) << 32 | i;
+
+			Arrays.sort(couples);
+			for (int k = 0; k < n; k++) ordre[k] = (int) couples[k];
+			return ordre;
+		}
+
+		// ========== TRI PAR COMPTAGE, STABLE ==========
+		int[] debut = new int[max - min + 2];
+		for (int m : marges) debut[m - min + 1]++;
+		for (int v = 0; v <= max - min; v++) debut[v + 1] += debut[v];
+
+		for (int i = 0; i < n; i++) ordre[debut[marges[i] - min]++] = i;
+		return ordre;
+	}
+}
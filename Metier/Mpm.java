@@ -2,17 +2,24 @@ package Metier;
 
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileNotFoundException;
 import java.awt.Point;
 import java.io.FileOutputStream;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.io.PrintWriter;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Objects;
 
 /**
  * Classe Mpm - Gestion des projets selon la méthode MPM (Méthode des Potentiels Métra)
@@ -21,18 +28,47 @@ import java.util.Scanner;
  */
 public class Mpm
 {
+	// ========== CONSTANTES ==========
+
+	private static final String[] AUCUN_NOM = new String[0];   // Aucune tâche supprimée
+
 	// ========== ATTRIBUTS ==========
 	
-	private ArrayList<CheminCritique> cheminsCritiques;    // Liste des chemins critiques du projet
-	private ArrayList<Tache>          taches;              // Liste de toutes les tâches du projet
+	private ArrayList<CheminCritique> cheminsCritiques;    // Liste des chemins critiques (null si à construire)
+	private ReseauCritique            reseauCritique;      // Tâches et arcs critiques, nombre de chemins (null si à construire)
+	private TachesCritiques           tachesCritiques;     // Tâches sur un chemin critique, tenues à jour localement (null si à calculer)
+	private ArrayList<Tache>          taches;              // Tâches du projet par niveau (null si à reconstruire)
+	private HashMap<String, Tache>    indexTaches;         // Index nom -> tâche, synchronisé avec la liste
+	private GrapheCompact             graphe;              // Dépendances, durées et dates sous forme compacte
+	private OrdreTopologique          ordreTopologique;    // Ordre et niveaux des tâches (null si à recalculer)
+	private Accessibilite             accessibilite;       // Index « la tâche X mène-t-elle à Y » (null si à créer)
+	private Lot                       lot;                 // Lot de modifications ouvert (null si aucun)
+	private ArrayList<String>         erreursLot;          // Erreurs de la dernière validation de lot
+
+	private int                       finProjet;           // Date de fin du projet (plus grande fin des tâches finales)
+	private int[]                     puits;               // Identifiants des tâches sans suivant
+	private int                       nbPuits;             // Nombre de tâches sans suivant
+	private TasEntiers                tas;                 // File de priorité réutilisée par la propagation des dates
+	private int[]                     marques;             // Marque de passage de chaque tâche pendant une propagation
+	private int                       generation;          // Valeur de marque de la propagation en cours
 	private ArrayList<String>         nomsPositions;       // Noms des tâches avec positions sauvegardées
 	private ArrayList<Point>          coordsPositions;     // Coordonnées des tâches sauvegardées
+	private HashMap<String, Integer>  rangsPositions;      // Index nom -> rang dans les positions (null si à créer)
+	private Journal                   journal;             // Modifications depuis le dernier enregistrement (null si aucun)
+	private Calendrier                calendrier;          // Dates calendaires d'après dateDebut (null si à créer)
+	private JoursOuvres               joursOuvres;         // Calendrier de travail du projet (null : tous les jours comptent)
+	private HashMap<String, SimulationPert.Estimation> estimations; // Estimations en trois points de certaines tâches
+	private Ressources                ressources;          // Ressources du projet et besoins des tâches
+	private volatile Planning         planning;            // Dernière version publiée, lue sans verrou par les autres fils
+	private long                      versionPlanning;     // Numéro de la dernière version publiée
+	private Historique                historique;          // Versions du projet (null : créé à la première modification)
 
 	private String dateDebut;                              // Date de début du projet
 	private String nomFichier;                             // Nom du fichier de données
 	private String msgErreur;                              // Message d'erreur pour la validation
 
 	private boolean estPosition;                           // Indique si les positions sont gérées
+	private int     nbThreadsChargement;                   // Fils de lecture du fichier (1 : lecture séquentielle)
 
 	// ========== CONSTRUCTEURS ==========
 
@@ -42,9 +78,18 @@ public class Mpm
 	 */
 	public Mpm()
 	{
-		this.cheminsCritiques = new ArrayList<>();
-		this.taches           = new ArrayList<>();
+		this.cheminsCritiques = null;
+		this.taches           = null;
+		this.indexTaches      = new HashMap<>();
+		this.graphe           = new GrapheCompact(0);
 		this.estPosition      = false;
+
+		this.nomsPositions    = new ArrayList<>();
+		this.coordsPositions  = new ArrayList<>();
+		this.estimations      = new HashMap<>();
+		this.ressources       = new Ressources();
+
+		this.publier();
 	}
 
 	/**
@@ -56,115 +101,250 @@ public class Mpm
 	 * @param estPosition Indique si les positions des nœuds sont gérées
 	 */
 	public Mpm(String nomFichier, String dateDebut, boolean estPosition)
+	{
+		this(nomFichier, dateDebut, estPosition, 1);
+	}
+
+	/**
+	 * Constructeur avec lecture parallèle du fichier
+	 * Les gros fichiers sont découpés en morceaux lus par plusieurs fils (voir ChargeurProjet).
+	 * 
+	 * @param nomFichier Chemin vers le fichier de données du projet
+	 * @param dateDebut Date de début du projet au format dd/MM/yyyy
+	 * @param estPosition Indique si les positions des nœuds sont gérées
+	 * @param nbThreadsChargement Nombre de fils de lecture (1 : lecture séquentielle)
+	 */
+	public Mpm(String nomFichier, String dateDebut, boolean estPosition, int nbThreadsChargement)
 	{
 		this.dateDebut        = dateDebut;
 		this.nomFichier       = nomFichier;
-		this.cheminsCritiques = new ArrayList<>();
-		this.taches           = new ArrayList<>();
+		this.cheminsCritiques = null;
+		this.taches           = null;
+		this.indexTaches      = new HashMap<>();
+		this.graphe           = new GrapheCompact(0);
 
 		this.nomsPositions    = new ArrayList<>();
 		this.coordsPositions  = new ArrayList<>();
+		this.estimations      = new HashMap<>();
+		this.ressources       = new Ressources();
 
-		this.estPosition      = estPosition;
+		this.estPosition         = estPosition;
+		this.nbThreadsChargement = nbThreadsChargement;
 
 		this.chargerFichier();
 	}
-	// ========== CLASSE INTERNE ==========
+	// ========== MÉTHODES D'ACCÈS ==========
 
 	/**
-	 * Classe interne pour l'exploration des chemins critiques
-	 * Représente un état lors du parcours en profondeur du graphe
+	 * Retourne la liste de tous les chemins critiques du projet
+	 * Les chemins sont construits au premier appel. Leur nombre peut croître
+	 * exponentiellement : préférer getReseauCritique() pour compter les chemins,
+	 * les parcourir avec une limite ou savoir si une tâche est critique.
+	 * 
+	 * @return Liste des chemins critiques
 	 */
-	private static class EtatExploration
+	public ArrayList<CheminCritique> getCheminsCritiques()
 	{
-		Tache            tacheActuelle;         // Tâche actuellement explorée
-		ArrayList<Tache> cheminJusquaIci;       // Chemin parcouru jusqu'à cette tâche
-
-		/**
-		 * Constructeur de l'état d'exploration
-		 * 
-		 * @param tacheActuelle La tâche actuellement explorée
-		 * @param cheminJusquaIci Le chemin parcouru jusqu'à cette tâche
-		 */
-		EtatExploration(Tache tacheActuelle, ArrayList<Tache> cheminJusquaIci)
+		if (this.cheminsCritiques == null)
 		{
-			this.tacheActuelle   = tacheActuelle;
-			this.cheminJusquaIci = cheminJusquaIci;
+			this.cheminsCritiques = new ArrayList<>();
+			for (CheminCritique c : this.getReseauCritique())
+			{
+				this.cheminsCritiques.add(c);
+			}
 		}
+		return this.cheminsCritiques;
 	}
 
-	// ========== MÉTHODES D'ACCÈS ==========
+	/**
+	 * Retourne le réseau critique du projet : tâches et arcs critiques,
+	 * nombre de chemins critiques et parcours paresseux de ces chemins
+	 * 
+	 * @return Le réseau critique courant
+	 */
+	public ReseauCritique getReseauCritique()
+	{
+		if (this.reseauCritique == null)
+			this.reseauCritique = this.construireReseauCritique();
+
+		return this.reseauCritique;
+	}
 
 	/**
-	 * Retourne la liste des chemins critiques du projet
+	 * Indique si une tâche est située sur un chemin critique
 	 * 
-	 * @return Liste des chemins critiques
+	 * @param t La tâche
+	 * @return true si la tâche appartient à au moins un chemin critique
+	 */
+	public boolean estCritique(Tache t) { return this.getTachesCritiques().estCritique(t.getId()); }
+
+	/**
+	 * Retourne les marges totale, libre et indépendante des tâches
+	 * Après une modification locale, elles sont recalculées à la première demande, en un passage.
+	 * 
+	 * @return Les marges, par identifiant de tâche
+	 */
+	public Marges getMarges() { return this.graphe.getMarges(); }
+
+	/**
+	 * Retourne les tâches par marge croissante, sans nouveau tri tant que le planning ne change pas
+	 * 
+	 * @param type La marge selon laquelle trier
+	 * @return Les tâches, de la moins à la plus libre
+	 */
+	public ArrayList<Tache> getTachesParMarge(Marges.Type type)
+	{
+		int[]            ordre  = this.graphe.getMarges().getOrdre(type);
+		ArrayList<Tache> taches = new ArrayList<>(ordre.length);
+
+		for (int id : ordre) taches.add(this.graphe.getVue(id));
+		return taches;
+	}
+
+	/**
+	 * Retourne la dernière version publiée du planning
+	 * Elle ne change plus : un autre fil peut la lire sans verrou pendant que le projet est modifié.
+	 * Chaque modification réussie publie une nouvelle version.
+	 * 
+	 * @return Le planning publié
+	 */
+	public Planning getPlanning() { return this.planning; }
+
+	/**
+	 * Fige l'état courant du projet et le publie, en reprenant de la version précédente
+	 * les pages de tâches que les modifications n'ont pas touchées (voir Planning)
+	 */
+	private void publier()
+	{
+		this.planning = new Planning(++this.versionPlanning, this.planning, this.graphe, this.ordreTopologique,
+		                             this.getTachesCritiques(), this.finProjet, this.getCalendrier());
+		this.graphe.oublierModifications();
+	}
+
+	/**
+	 * Publie le planning courant avec le calendrier à jour, sans recopier les dates
 	 */
-	public ArrayList<CheminCritique> getCheminsCritiques() { return this.cheminsCritiques;}
+	private void publierCalendrier()
+	{
+		this.planning = this.planning.avecCalendrier(++this.versionPlanning, this.getCalendrier());
+	}
 	
 	// ========== MÉTHODES DE CALCUL DES CHEMINS CRITIQUES ==========
 
 	/**
-	 * Crée et calcule tous les chemins critiques du projet
-	 * Utilise un parcours en profondeur pour identifier toutes les séquences
-	 * de tâches critiques menant de "Debut" à "Fin"
+	 * Construit le réseau critique du projet, après un calcul complet des dates
+	 * Les chemins critiques ne sont plus énumérés ici : le réseau les compte
+	 * et les produit à la demande. La liste des chemins est oubliée, et l'ensemble
+	 * des tâches critiques sera recalculé en entier à la première demande.
 	 */
 	private void creerCheminCritique()
 	{
-		this.cheminsCritiques.clear();
+		this.cheminsCritiques = null;
+		this.tachesCritiques  = null;
+		this.reseauCritique   = this.construireReseauCritique();
+	}
+
+	/**
+	 * Construit le réseau critique d'après les dates courantes, en O(V+E)
+	 */
+	private ReseauCritique construireReseauCritique()
+	{
 		Tache tacheDebut = chercherTacheParNom("Debut");
+		Tache tacheFin   = chercherTacheParNom("Fin");
+
+		return new ReseauCritique(this.graphe,
+		                          tacheDebut == null ? -1 : tacheDebut.getId(),
+		                          tacheFin   == null ? -1 : tacheFin  .getId());
+	}
+
+	/**
+	 * Retourne l'ensemble des tâches critiques, calculé en entier s'il n'existe pas encore
+	 */
+	private TachesCritiques getTachesCritiques()
+	{
+		if (this.tachesCritiques == null)
+		{
+			Tache tacheDebut = chercherTacheParNom("Debut");
+			Tache tacheFin   = chercherTacheParNom("Fin");
+
+			this.tachesCritiques = new TachesCritiques(this.graphe,
+			                                           tacheDebut == null ? -1 : tacheDebut.getId(),
+			                                           tacheFin   == null ? -1 : tacheFin  .getId());
+		}
+		return this.tachesCritiques;
+	}
+
+	/**
+	 * Compare les tâches critiques tenues à jour localement et le planning publié
+	 * à un calcul complet du réseau critique et à une version recopiée en entier du graphe
+	 * (voir Verification, option -controle)
+	 *
+	 * @return Le nom de la première tâche qui diffère, "Debut" si seul le nombre
+	 *         de chemins diffère, null si tout concorde
+	 */
+	String controlerCritiques()
+	{
+		ReseauCritique  complet   = this.construireReseauCritique();
+		TachesCritiques critiques = this.getTachesCritiques();
 
-		if (tacheDebut == null || !tacheDebut.estCritique())
+		for (int id = 0; id < this.graphe.getNbNoeuds(); id++)
 		{
-			return;
+			if (complet.estCritique(id) != critiques.estCritique(id)) return this.graphe.getVue(id).getNom();
 		}
 
-		// Initialisation de l'exploration avec la tâche de début
-		ArrayList<EtatExploration> liste         = new ArrayList<>();
-		ArrayList<Tache>           cheminInitial = new ArrayList<>();
+		// Version de référence : toutes les pages recopiées, ordre et marges calculés sur le graphe
+		this.graphe.getMarges();
+		Planning reference = new Planning(0, null, this.graphe, new OrdreTopologique(this.graphe), critiques,
+		                                  this.finProjet, this.getCalendrier());
 
-		cheminInitial.add(tacheDebut                                    );
-		liste        .add(new EtatExploration(tacheDebut, cheminInitial));
+		int ecart = this.planning.premiereDifference(reference);
+		if (ecart >= 0) return ecart < this.graphe.getNbNoeuds() ? this.graphe.getVue(ecart).getNom() : "Fin";
 
-		// Parcours en profondeur pour trouver tous les chemins critiques
-		while (!liste.isEmpty())
+		// Mêmes identifiants que le graphe, et même ordre topologique
+		for (int id = 0; id < this.graphe.getNbNoeuds(); id++)
 		{
-			EtatExploration  etatCourant   = liste.remove(liste.size() - 1);
-			Tache            tacheActuelle = etatCourant.tacheActuelle;
-			ArrayList<Tache> cheminActuel  = etatCourant.cheminJusquaIci;
+			if (!this.planning.getNom(id).equals(this.graphe.getVue(id).getNom())
+			    || this.planning.getTacheDeRang(id) != reference.getTacheDeRang(id)) return this.graphe.getVue(id).getNom();
+		}
 
-			if (tacheActuelle.getNom().equals("Fin"))
-			{
-				// Fin du chemin : créer un nouveau chemin critique
-				CheminCritique cTemp = new CheminCritique();
-				for (Tache t : cheminActuel)
-				{
-					cTemp.ajouterTache(t);
-				}
+		return complet.getNbChemins().equals(this.planning.getNbChemins()) ? null : "Debut";
+	}
 
-				cTemp.setDureeTotale(tacheActuelle.getDatePlusTot());
-				this.cheminsCritiques.add(cTemp);
-			}
-			else
-			{
-				// Continuer l'exploration avec les successeurs critiques
-				List<Tache> succCritiques = new ArrayList<>();
-				for (Tache successeur : tacheActuelle.getSuivants())
-				{
-					if (successeur.estCritique()) succCritiques.add(successeur);
-				}
+	/**
+	 * Compare le planning publié à celui d'un autre projet, tâche par tâche
+	 * (voir Verification, option -allerretour : un projet enregistré puis relu doit être identique)
+	 *
+	 * @param autre L'autre projet
+	 * @return Le nom de la première tâche qui diffère, "Fin" si seules la durée du projet ou le nombre
+	 *         de chemins critiques diffèrent, null si les deux plannings concordent
+	 */
+	String comparerPlanning(Mpm autre)
+	{
+		int ecart = this.planning.premiereDifference(autre.planning);
+		if (ecart >= 0) return ecart < this.planning.getNbTaches() ? this.planning.getNom(ecart) : "Fin";
 
-				// Ajouter les successeurs critiques à la pile d'exploration
-				for (int i = succCritiques.size() - 1; i >= 0; i--)
-				{
-					Tache            successeur     = succCritiques.get(i);
-					ArrayList<Tache> prochainChemin = new ArrayList<>(cheminActuel);
+		boolean egal = this.planning.getFinProjet() == autre.planning.getFinProjet()
+		               && this.planning.getNbChemins().equals(autre.planning.getNbChemins());
+		return egal ? null : "Fin";
+	}
 
-					prochainChemin.add(successeur);
-					liste.add(new EtatExploration(successeur, prochainChemin));
-				}
-			}
-		}
+	/**
+	 * Met à jour les tâches critiques après une modification locale (voir propagerDates)
+	 * Seules les tâches signalées pendant la propagation et leur voisinage sont réévalués ;
+	 * le réseau critique et la liste des chemins seront reconstruits à la demande.
+	 */
+	private void actualiserCritiques()
+	{
+		this.cheminsCritiques = null;
+		this.reseauCritique   = null;
+
+		if (this.tachesCritiques == null) return;
+
+		Tache tacheDebut = chercherTacheParNom("Debut");
+		Tache tacheFin   = chercherTacheParNom("Fin");
+
+		this.tachesCritiques.mettreAJour(tacheDebut == null ? -1 : tacheDebut.getId(),
+		                                 tacheFin   == null ? -1 : tacheFin  .getId());
 	}
 
 	// ========== MÉTHODES DE RECHERCHE ==========
@@ -177,14 +357,32 @@ public class Mpm
 	 */
 	public Tache chercherTacheParNom(String nom)
 	{
-		for (Tache t : this.taches)
-		{
-			if (t.getNom().equals(nom))
-			{
-				return t;
-			}
-		}
-		return null;
+		return this.indexTaches.get(nom);
+	}
+
+	/**
+	 * Crée une tâche dans le graphe et l'enregistre dans l'index
+	 * 
+	 * @param nom Le nom de la tâche
+	 * @param duree La durée de la tâche
+	 * @return La tâche créée
+	 */
+	private Tache creerTache(String nom, int duree)
+	{
+		Tache t = new Tache(nom, duree, this.graphe);
+		this.indexTaches.put(nom, t);
+		this.invaliderStructure();
+		return t;
+	}
+
+	/**
+	 * Oublie la liste des tâches et l'ordre topologique, reconstruits à la demande
+	 * A appeler après tout changement de tâches ou de dépendances
+	 */
+	private void invaliderStructure()
+	{
+		this.taches           = null;
+		this.ordreTopologique = null;
 	}
 
 	// ========== MÉTHODES DE CALCUL DES DATES ==========
@@ -192,53 +390,230 @@ public class Mpm
 	/**
 	 * Calcule les dates au plus tôt et au plus tard pour chaque tâche du projet
 	 * Cette méthode détermine également quelles tâches sont critiques
+	 * et remplit les marges totale, libre et indépendante de chaque tâche
 	 */
 	public void calculerDates()
 	{
+		GrapheCompact g     = this.graphe;
+		int           n     = g.getNbNoeuds();
+		int[]         ordre = g.getOrdreParRang();
+
 		// ========== CALCUL DES DATES AU PLUS TÔT ==========
-		for (Tache t : this.taches)
+		for (int r = 0; r < n; r++)
 		{
-			t.calculerDatePlusTot();
+			g.calculerDatePlusTot(ordre[r]);
 		}
 
+		// ========== DÉTERMINATION DES TÂCHES FINALES ==========
+		this.determinerPuits();
+
 		// ========== DÉTERMINATION DE LA FIN DU PROJET ==========
-		int finProjet = 0;
-		for (Tache t : this.taches)
+		int finProjet = this.calculerFinProjet();
+
+		// ========== CALCUL DES DATES AU PLUS TARD ET DES MARGES ==========
+		// Le parcours des suivants de chaque tâche donne aussi sa marge libre (voir Marges) ;
+		// une tâche sans suivant finit au plus tard avec le projet. Les dates rangées étant
+		// relatives à la fin, seules les pages dont l'écart à la fin change sont à republier.
+		g.decalerDatesPlusTard(finProjet - g.getFinTard());
+
+		Marges marges = new Marges(n);
+		for (int r = n - 1; r >= 0; r--)
+		{
+			g.calculerDatePlusTard(ordre[r], finProjet, marges);
+		}
+		g.setMarges(marges.terminer(g));
+	}
+	/**
+	 * Relève les tâches sans suivant
+	 */
+	private void determinerPuits()
+	{
+		GrapheCompact g = this.graphe;
+		int           n = g.getNbNoeuds();
+
+		if (this.puits == null || this.puits.length < n)
+			this.puits = new int[Math.max(n, 4)];
+
+		this.nbPuits = 0;
+		for (int i = 0; i < n; i++)
+		{
+			if (g.getNbSuivants(i) == 0)
+				this.puits[this.nbPuits++] = i;
+		}
+	}
+
+	/**
+	 * Calcule la fin du projet à partir des tâches finales et la mémorise
+	 * Avec des liens typés, une tâche peut finir après tous ses suivants (SS, SF, délai négatif) :
+	 * toutes les tâches sont alors examinées.
+	 * 
+	 * @return La plus grande date de fin des tâches sans suivant (de toutes les tâches avec des liens typés)
+	 */
+	private int calculerFinProjet()
+	{
+		boolean tout      = this.graphe.aDesLiensTypes();
+		int     nb        = tout ? this.graphe.getNbNoeuds() : this.nbPuits;
+		int     finProjet = 0;
+		for (int p = 0; p < nb; p++)
+		{
+			int i        = tout ? p : this.puits[p];
+			int finTache = this.graphe.getDatePlusTot(i) + this.graphe.getDuree(i);
+
+			if (finTache > finProjet)
+			{
+				finProjet = finTache;
+			}
+		}
+
+		this.finProjet = finProjet;
+		return finProjet;
+	}
+
+	/**
+	 * Met à jour les dates après une modification locale du graphe
+	 * Les dates au plus tôt sont recalculées pour les tâches de départ, puis repoussées
+	 * vers les suivants dont la valeur change, dans l'ordre des rangs topologiques.
+	 * Si la fin du projet bouge, toutes les dates au plus tard sont décalées d'autant en O(1)
+	 * (voir GrapheCompact.decalerDatesPlusTard), puis seules les tâches de départ et leurs ancêtres
+	 * dont la date change sont recalculés. Le résultat est identique à celui de calculerDates().
+	 * Les tâches de départ et celles dont une date change sont signalées à l'ensemble des tâches
+	 * critiques (voir actualiserCritiques), qui repère de lui-même celles que le décalage touche.
+	 * 
+	 * @param departTot Tâches dont les précédents ou leurs durées ont changé
+	 * @param nbTot Nombre de tâches utilisées dans departTot
+	 * @param departTard Tâches dont les suivants ou la durée ont changé
+	 * @param nbTard Nombre de tâches utilisées dans departTard
+	 */
+	private void propagerDates(int[] departTot, int nbTot, int[] departTard, int nbTard)
+	{
+		GrapheCompact   g         = this.graphe;
+		int             n         = g.getNbNoeuds();
+		TachesCritiques critiques = this.tachesCritiques;
+
+		if (this.tas == null)
+			this.tas = new TasEntiers(64);
+
+		if (this.marques == null || this.marques.length < n)
+			this.marques = new int[Math.max(n, 4)];
+
+		// ========== DATES AU PLUS TÔT : VERS LES DESCENDANTS ==========
+		int marque = ++this.generation;
+
+		this.tas.vider();
+		for (int i = 0; i < nbTot; i++)
+		{
+			int u = departTot[i];
+			if (this.marques[u] != marque)
+			{
+				this.marques[u] = marque;
+				this.tas.ajouter(u, g.getRang(u));
+				if (critiques != null) critiques.signaler(u);
+			}
+		}
+
+		while (!this.tas.estVide())
 		{
-			if (t.getSuivants().isEmpty())
+			int u      = this.tas.extraire();
+			int ancien = g.getDatePlusTot(u);
+
+			g.calculerDatePlusTot(u);
+
+			if (g.getDatePlusTot(u) != ancien)
 			{
-				int finTache = t.getDatePlusTot() + t.getDuree();
-				if (finTache > finProjet)
+				if (critiques != null) critiques.signaler(u);
+				for (int k = g.debutSvt(u); k < g.finSvt(u); k++)
 				{
-					finProjet = finTache;
+					int s = g.svt(k);
+					if (this.marques[s] != marque)
+					{
+						this.marques[s] = marque;
+						this.tas.ajouter(s, g.getRang(s));
+					}
 				}
 			}
 		}
 
-		// ========== INITIALISATION DES TÂCHES FINALES ==========
-		for (Tache t : this.taches)
+		// ========== FIN DU PROJET ==========
+		int ancienneFin = this.finProjet;
+		int finProjet   = this.calculerFinProjet();
+
+		g.decalerDatesPlusTard(finProjet - ancienneFin);
+
+		// ========== DATES AU PLUS TARD : VERS LES ANCÊTRES ==========
+		marque = ++this.generation;
+
+		for (int i = 0; i < nbTard; i++)
+		{
+			int u = departTard[i];
+			if (this.marques[u] != marque)
+			{
+				this.marques[u] = marque;
+				this.tas.ajouter(u, -g.getRang(u));
+				if (critiques != null) critiques.signaler(u);
+			}
+		}
+
+		while (!this.tas.estVide())
 		{
-			if (t.getSuivants().isEmpty())
+			int u      = this.tas.extraire();
+			int ancien = g.getDatePlusTard(u);
+
+			g.calculerDatePlusTard(u, finProjet);
+
+			if (g.getDatePlusTard(u) != ancien)
 			{
-				t.setDatePlusTard(finProjet - t.getDuree());
+				if (critiques != null) critiques.signaler(u);
+				for (int k = g.debutPrc(u); k < g.finPrc(u); k++)
+				{
+					int p = g.prc(k);
+					if (this.marques[p] != marque)
+					{
+						this.marques[p] = marque;
+						this.tas.ajouter(p, -g.getRang(p));
+					}
+				}
 			}
 		}
+	}
 
-		// ========== CALCUL DES DATES AU PLUS TARD ==========
-		for (int i = this.taches.size() - 1; i >= 0; i--)
+	/**
+	 * Retire une tâche de la liste des tâches finales si elle y figure
+	 * 
+	 * @param id Identifiant de la tâche
+	 */
+	private void retirerPuits(int id)
+	{
+		for (int p = 0; p < this.nbPuits; p++)
 		{
-			Tache t = this.taches.get(i);
-			if (!t.getSuivants().isEmpty())
+			if (this.puits[p] == id)
 			{
-				t.calculerDatePlusTard();
+				this.puits[p] = this.puits[--this.nbPuits];
+				return;
 			}
 		}
 	}
+
+	/**
+	 * Ajoute une tâche à la liste des tâches finales
+	 * 
+	 * @param id Identifiant de la tâche
+	 */
+	private void ajouterPuits(int id)
+	{
+		if (this.nbPuits == this.puits.length)
+			this.puits = Arrays.copyOf(this.puits, this.nbPuits * 2);
+
+		this.puits[this.nbPuits++] = id;
+	}
+
 	// ========== MÉTHODES DE GESTION DES TÂCHES ==========
 
 	/**
 	 * Ajoute une nouvelle tâche au projet avec ses dépendances
 	 * 
+	 * Chaque voisin peut préciser son lien après ':' (voir Lien), par exemple "A:SS+2" ;
+	 * les liens sont vérifiés par valeursValides, un lien illisible devient FS sans délai.
+	 * 
 	 * @param nom Le nom de la tâche
 	 * @param prc Liste des prédécesseurs (séparés par des virgules)
 	 * @param svt Liste des suivants (séparés par des virgules)
@@ -246,154 +621,1127 @@ public class Mpm
 	 */
 	public void ajouterTache(String nom, String prc, String svt, int duree)
 	{
-		Tache tNew = new Tache(nom, duree);
+		Historique historique = this.getHistorique();
+		Tache      tNew       = this.creerTache(nom, duree);
 
 		// ========== GESTION DES PRÉDÉCESSEURS ==========
-		if (prc != null && !prc.trim().isEmpty())
+		for (String element : Mpm.decouper(prc))
 		{
-			String[] precedents = prc.split(",");
-			for (String nomPre : precedents)
+			Tache precedent = chercherTacheParNom(Lien.nom(element));
+			if (precedent != null)
 			{
-				nomPre = nomPre.trim();
-				if (!nomPre.isEmpty())
-				{
-					Tache precedent = chercherTacheParNom(nomPre);
-					if (precedent != null)
-					{
-						tNew.ajouterPrecedent(precedent);
-					}
-				}
+				tNew.ajouterPrecedent(precedent, Mpm.lienDe(element));
 			}
 		}
-		else
-		{
-			// Si pas de prédécesseurs spécifiés, connecter à "Debut"
-			Tache Debut = chercherTacheParNom("Debut");
-			tNew.ajouterPrecedent(Debut);
-		}
 
 		// ========== GESTION DES SUIVANTS ==========
-		if (svt != null && !svt.trim().isEmpty())
+		for (String element : Mpm.decouper(svt))
 		{
-			String[] suivants = svt.split(",");
-			for (String nomSvt : suivants)
+			Tache suivant = chercherTacheParNom(Lien.nom(element));
+			if (suivant != null)
 			{
-				nomSvt = nomSvt.trim();
-				if (!nomSvt.isEmpty())
-				{
-					Tache suivant = chercherTacheParNom(nomSvt);
-					if (suivant != null)
-					{
-						tNew.ajouterSuivant(suivant);
-					}
-				}
+				tNew.ajouterSuivant(suivant, Mpm.lienDe(element));
 			}
 		}
-		else
+
+		// ========== ORDRE TOPOLOGIQUE ==========
+		GrapheCompact g = this.graphe;
+		int           v = tNew.getId();
+
+		// Si rien ne fixe son début, connecter à "Debut" ; si rien n'attend sa fin, connecter à "Fin"
+		if (g.aDebutLibre(v)) tNew.ajouterPrecedent(chercherTacheParNom("Debut"));
+		if (g.aFinLibre  (v)) tNew.ajouterSuivant  (chercherTacheParNom("Fin"  ));
+
+		try
+		{
+			g.reordonner(v);
+		}
+		catch (IllegalStateException e)
+		{
+			// Dépendances cycliques : la tâche, la dernière créée, est retirée sans déplacer les autres
+			this.msgErreur = e.getMessage();
+			g.supprimerNoeud(v);
+			this.indexTaches.remove(nom);
+			this.invaliderStructure();
+			return;
+		}
+
+		if (this.accessibilite != null) this.accessibilite.signalerAjout(v);
+
+		// Un précédent sans suivant jusque-là n'est plus une tâche finale
+		for (int k = g.debutPrc(v); k < g.finPrc(v); k++)
 		{
-			// Si pas de suivants spécifiés, connecter à "Fin"
-			Tache fin = chercherTacheParNom("Fin");
-			tNew.ajouterSuivant(fin);
+			if (g.getNbSuivants(g.prc(k)) == 1) this.retirerPuits(g.prc(k));
 		}
 
 		// ========== FINALISATION ==========
-		this.taches.add(tNew);
-		this.tri();
+		// Dates : la nouvelle tâche et ses suivants en avant, la tâche et ses précédents en arrière
+		int[] departTot  = new int[g.getNbSuivants  (v) + 1];
+		int[] departTard = new int[g.getNbPrecedents(v) + 1];
+		int   nbTot      = 0;
+		int   nbTard     = 0;
 
-		// Recalculer les dates et chemins critiques
-		this.calculerDates();
-		this.creerCheminCritique();
+		departTot [nbTot++ ] = v;
+		departTard[nbTard++] = v;
+		for (int k = g.debutSvt(v); k < g.finSvt(v); k++) departTot [nbTot++ ] = g.svt(k);
+		for (int k = g.debutPrc(v); k < g.finPrc(v); k++) departTard[nbTard++] = g.prc(k);
+
+		this.propagerDates(departTot, nbTot, departTard, nbTard);
+		this.actualiserCritiques();
+
+		// Seules la nouvelle tâche et ses suivants changent de précédents
+		historique.noter("Ajout de " + nom, g, departTot, nbTot, AUCUN_NOM, this.dateDebut);
+
+		this.journaliser(Journal.ajout(tNew.getNom(), this.nomsVoisins(v, true), this.nomsVoisins(v, false), duree));
+		this.publier();
 	}
 
-		public void supprimerTache(String nom) 
+	/**
+	 * Supprime une tâche du projet
+	 * Seul le voisinage de la tâche est modifié : ses précédents dont plus rien n'attend la fin
+	 * sont rattachés à "Fin", ses suivants dont plus rien ne fixe le début à "Debut",
+	 * puis les dates ne sont propagées qu'à partir de ces tâches.
+	 * 
+	 * @param nom Le nom de la tâche à supprimer
+	 */
+	public void supprimerTache(String nom) 
+	{
+		Tache t      = chercherTacheParNom(nom);
+		Tache tFin   = chercherTacheParNom("Fin");
+		Tache tDebut = chercherTacheParNom("Debut");
+
+		if (t == null || t == tFin || t == tDebut) return;
+
+		Historique historique = this.getHistorique();
+
+		// ========== VOISINAGE DE LA TÂCHE ==========
+		GrapheCompact g     = this.graphe;
+		int           id    = t.getId();
+		int           nbPrc = g.getNbPrecedents(id);
+		int           nbSvt = g.getNbSuivants  (id);
+
+		// Les précédents partent en arrière, les suivants en avant ; une place de plus pour Debut / Fin
+		int[] precedents = new int[nbPrc + 1];
+		int[] suivants   = new int[nbSvt + 1];
+
+		for (int k = 0; k < nbPrc; k++) precedents[k] = g.prc(g.debutPrc(id) + k);
+		for (int k = 0; k < nbSvt; k++) suivants  [k] = g.svt(g.debutSvt(id) + k);
+
+		// ========== RETRAIT DU GRAPHE ==========
+		// La dernière tâche prend l'identifiant libéré : on corrige les identifiants retenus
+		int deplace = g.supprimerNoeud(id);
+
+		this.retirerPuits(id);
+		if (this.tachesCritiques != null) this.tachesCritiques.signalerSuppression(id, deplace);
+		if (this.accessibilite != null) this.accessibilite.signalerSuppression();
+		if (deplace >= 0)
 		{
-			Tache t = chercherTacheParNom(nom);
+			for (int k = 0; k < nbPrc;        k++) if (precedents[k]  == deplace) precedents[k]  = id;
+			for (int k = 0; k < nbSvt;        k++) if (suivants  [k]  == deplace) suivants  [k]  = id;
+			for (int p = 0; p < this.nbPuits; p++) if (this.puits[p]  == deplace) this.puits[p]  = id;
+		}
 
-			if (t == null) return;
+		this.indexTaches.remove(nom);
+		this.invaliderStructure();
 
-			Tache tFin   = chercherTacheParNom("Fin");
-			Tache tDebut = chercherTacheParNom("Debut");
+		// ========== RATTACHEMENT DES TÂCHES ORPHELINES ==========
+		// Le rang de Fin dépasse celui de toute tâche qui la précédait, celui de Debut est
+		// inférieur à tous : ces arcs respectent l'ordre topologique courant
+		int fin    = tFin  .getId();
+		int debut  = tDebut.getId();
+		int nbTot  = nbSvt;
+		int nbTard = nbPrc;
 
-			// Retirer la tâche des précédents et suivants de toutes les autres tâches
-			for (Tache t1 : this.taches) {
-				// Supprimer des précédents
-				ArrayList<Tache> precedents = t1.getPrecedents();
-				for (int i = precedents.size() - 1; i >= 0; i--) {
-					if (precedents.get(i).getNom().equals(nom)) {
-						precedents.remove(i);
-					}
-				}
-				// Supprimer des suivants
-				ArrayList<Tache> suivants = t1.getSuivants();
-				for (int i = suivants.size() - 1; i >= 0; i--) {
-					if (suivants.get(i).getNom().equals(nom)) {
-						suivants.remove(i);
-					}
-				}
-			}
+		for (int k = 0; k < nbPrc; k++)
+		{
+			int p = precedents[k];
+			if (p == debut || !g.aFinLibre(p)) continue;
 
-			// Pour chaque tâche, si elle n'a plus de suivant et ce n'est pas "Fin" ou "Debut", on lui ajoute "Fin"
-			for (Tache t1 : this.taches) {
-				if (t1.getSuivants().isEmpty() && 
-					!t1.getNom().equals("Fin") && 
-					!t1.getNom().equals("Debut")) {
-					t1.ajouterSuivant(tFin);
-				}
+			if (g.ajouterArc(p, fin) && nbTot == nbSvt)
+			{
+				suivants[nbTot++] = fin;
 			}
+		}
 
-			// Pour chaque tâche, si elle n'a plus de précédent et ce n'est pas "Fin" ou "Debut", on lui ajoute "Debut"
-			for (Tache t1 : this.taches) {
-				if (t1.getPrecedents().isEmpty() && 
-					!t1.getNom().equals("Fin") && 
-					!t1.getNom().equals("Debut")) {
-					t1.ajouterPrecedent(tDebut);
-				}
+		for (int k = 0; k < nbSvt; k++)
+		{
+			int s = suivants[k];
+			if (s == fin || !g.aDebutLibre(s)) continue;
+
+			if (g.ajouterArc(debut, s) && nbTard == nbPrc)
+			{
+				precedents[nbTard++] = debut;
 			}
+		}
+
+		// Comme au chargement, "Debut" sans suivant devient une tâche finale
+		if (g.getNbSuivants(debut) == 0) this.ajouterPuits(debut);
+
+		// Mettre à jour les dates autour de la tâche retirée, puis les tâches critiques de ce voisinage
+		this.propagerDates(suivants, nbTot, precedents, nbTard);
+		this.actualiserCritiques();
+
+		// Les suivants ont perdu un précédent (ou gagné Debut), Fin a pu gagner des précédents
+		int[] touches = Arrays.copyOf(suivants, nbTot + 1);
+		touches[nbTot] = fin;
+		historique.noter("Suppression de " + nom, g, touches, nbTot + 1, new String[] { nom }, this.dateDebut);
+
+		this.journaliser(Journal.suppression(nom));
+		this.publier();
+	}
+
+	// ========== MÉTHODES DE MODIFICATION PAR LOT ==========
+
+	/**
+	 * Ouvre un lot de modifications ; un lot déjà ouvert est abandonné
+	 * Les opérations enregistrées dans le lot ne sont appliquées qu'à validerLot().
+	 * 
+	 * @return Le lot à remplir
+	 */
+	public Lot commencerLot()
+	{
+		this.lot        = new Lot();
+		this.erreursLot = new ArrayList<>();
+		return this.lot;
+	}
+
+	/**
+	 * Abandonne le lot ouvert sans rien modifier
+	 */
+	public void annulerLot()
+	{
+		this.lot = null;
+	}
+
+	/**
+	 * Retourne les erreurs de la dernière validation de lot
+	 * Chaque message indique la tâche concernée.
+	 * 
+	 * @return La liste des erreurs, vide si le lot a été appliqué
+	 */
+	public ArrayList<String> getErreursLot() { return this.erreursLot; }
+
+	/**
+	 * Valide puis applique le lot ouvert
+	 * Toutes les opérations sont d'abord vérifiées en une passe, dans l'ordre, en tenant
+	 * compte des ajouts et suppressions qui les précèdent ; toutes les erreurs sont relevées.
+	 * Si le lot est valide, il est appliqué puis le planning est recalculé une seule fois.
+	 * Si les dépendances forment un cycle, le projet revient à son état d'avant le lot.
+	 * 
+	 * @return true si le lot a été appliqué, false si le projet est inchangé
+	 */
+	public boolean validerLot()
+	{
+		Lot lot  = this.lot;
+		this.lot = null;
+
+		this.erreursLot = new ArrayList<>();
+		if (lot == null) return false;
+
+		// ========== VÉRIFICATION DE TOUTES LES OPÉRATIONS ==========
+		HashSet<String> ajoutes = new HashSet<>();
+		HashSet<String> retires = new HashSet<>();
+
+		for (Lot.Operation op : lot.getOperations())
+		{
+			this.verifierOperation(op, ajoutes, retires);
+		}
+
+		if (!this.erreursLot.isEmpty())
+		{
+			this.msgErreur = this.erreursLot.get(0);
+			return false;
+		}
+
+		// ========== APPLICATION, AVEC RETOUR ARRIÈRE EN CAS DE CYCLE ==========
+		Historique             historique = this.getHistorique();
+		GrapheCompact          sauvegarde = this.graphe.copier();
+		HashMap<String, Tache> index      = new HashMap<>(this.indexTaches);
+
+		try
+		{
+			for (Lot.Operation op : lot.getOperations())
+			{
+				this.appliquerOperation(op);
+			}
+
+			this.rattacherOrphelines();
+			this.accessibilite = null;
+			this.tri();
+		}
+		catch (IllegalStateException e)
+		{
+			this.graphe.restaurer(sauvegarde);
+			this.indexTaches     = index;
+			this.accessibilite   = null;
+			this.tachesCritiques = null;
+			this.invaliderStructure();
+
+			this.erreursLot.add(e.getMessage());
+			this.msgErreur = e.getMessage();
+			return false;
+		}
+
+		// ========== UN SEUL RECALCUL DU PLANNING ==========
+		this.calculerDates();
+		this.creerCheminCritique();
+
+		// Le rattachement des orphelines peut toucher n'importe quelle tâche : toutes sont comparées
+		ArrayList<String> retiresLot = new ArrayList<>();
+		for (Lot.Operation op : lot.getOperations())
+		{
+			if (op.type == Lot.SUPPRESSION && !this.indexTaches.containsKey(op.nom)) retiresLot.add(op.nom);
+		}
+		historique.noterTout("Lot de " + lot.getNbOperations() + " modifications", this.graphe,
+		                     retiresLot.toArray(AUCUN_NOM), this.dateDebut);
+
+		for (Lot.Operation op : lot.getOperations())
+		{
+			if      (op.type == Lot.AJOUT      ) this.journaliser(Journal.ajout(op.nom, op.prc, op.svt, op.duree));
+			else if (op.type == Lot.SUPPRESSION) this.journaliser(Journal.suppression(op.nom));
+			else                                 this.journaliser(Journal.duree(op.nom, op.duree));
+		}
+
+		this.publier();
+		return true;
+	}
+
+	/**
+	 * Vérifie une opération d'un lot et ajoute ses erreurs à erreursLot
+	 * 
+	 * @param op L'opération à vérifier
+	 * @param ajoutes Noms des tâches ajoutées par les opérations précédentes du lot
+	 * @param retires Noms des tâches existantes retirées par les opérations précédentes du lot
+	 */
+	private void verifierOperation(Lot.Operation op, HashSet<String> ajoutes, HashSet<String> retires)
+	{
+		String nom = op.nom;
+
+		if (nom == null || nom.isEmpty())
+		{
+			this.ajouterErreurLot(nom, Erreur.NON_SAISIE.getMessage());
+			return;
+		}
+
+		boolean existe  = ajoutes.contains(nom) || (this.indexTaches.containsKey(nom) && !retires.contains(nom));
+		boolean reserve = nom.equals("Debut") || nom.equals("Fin");
+
+		// ========== SUPPRESSION ET CHANGEMENT DE DURÉE ==========
+		if (op.type != Lot.AJOUT)
+		{
+			if (reserve)
+				this.ajouterErreurLot(nom, Erreur.NOM_RESERVE.formater(nom));
+			else if (!existe)
+				this.ajouterErreurLot(nom, Erreur.TACHE_INEXISTANTE.formater(nom));
+			else if (op.type == Lot.SUPPRESSION && !ajoutes.remove(nom))
+				retires.add(nom);
+
+			if (op.type == Lot.DUREE && op.duree <= 0)
+				this.ajouterErreurLot(nom, Erreur.DUREE_NEGATIF.getMessage());
+
+			return;
+		}
+
+		// ========== AJOUT : NOM ET DURÉE ==========
+		boolean nomValide = true;
+
+		if (Mpm.contientSeparateur(nom))
+		{
+			this.ajouterErreurLot(nom, Erreur.CHAR_NOM_INVALIDE.getMessage());
+			nomValide = false;
+		}
+		if (existe)
+		{
+			this.ajouterErreurLot(nom, Erreur.DEJA_EXISTANT.getMessage());
+			nomValide = false;
+		}
+		if (nom.length() > 50)
+		{
+			this.ajouterErreurLot(nom, Erreur.NOM_TROP_LONG.getMessage());
+			nomValide = false;
+		}
+		if (reserve)
+		{
+			this.ajouterErreurLot(nom, Erreur.NOM_RESERVE.formater(nom));
+			nomValide = false;
+		}
+		if (op.duree <= 0)
+		{
+			this.ajouterErreurLot(nom, Erreur.DUREE_NEGATIF.getMessage());
+		}
+
+		// ========== AJOUT : DÉPENDANCES ==========
+		HashSet<String> nomsPrecedents = new HashSet<>();
+
+		for (String element : Mpm.decouper(op.prc))
+		{
+			String unAntecedent = Lien.nom(element);
+			nomsPrecedents.add(unAntecedent);
+			this.verifierLien(nom, element);
+
+			if      (unAntecedent.equals("Fin"  )) this.ajouterErreurLot(nom, Erreur.PRECEDENT_FIN.getMessage());
+			else if (unAntecedent.equals("Debut")) this.ajouterErreurLot(nom, Erreur.PRECEDENT_DEBUT.getMessage());
+			else if (unAntecedent.equals(nom    )) this.ajouterErreurLot(nom, Erreur.TACHE_DEPENDANCE_REFLEXIVE.formater(nom));
+			else if (!ajoutes.contains(unAntecedent) && (!this.indexTaches.containsKey(unAntecedent) || retires.contains(unAntecedent)))
+				this.ajouterErreurLot(nom, Erreur.PRECEDENT_NON_EXISTANT.formater(unAntecedent));
+		}
+
+		for (String element : Mpm.decouper(op.svt))
+		{
+			String unSuivant = Lien.nom(element);
+			this.verifierLien(nom, element);
+
+			if      (unSuivant.equals("Debut"        )) this.ajouterErreurLot(nom, Erreur.SUIVANT_DEBUT.getMessage());
+			else if (unSuivant.equals("Fin"          )) this.ajouterErreurLot(nom, Erreur.SUIVANT_FIN.getMessage());
+			else if (unSuivant.equals(nom            )) this.ajouterErreurLot(nom, Erreur.TACHE_DEPENDANCE_REFLEXIVE.formater(nom));
+			else if (nomsPrecedents.contains(unSuivant)) this.ajouterErreurLot(nom, Erreur.SUIVANT_ET_PRECEDENT.formater(unSuivant));
+			else if (!ajoutes.contains(unSuivant) && (!this.indexTaches.containsKey(unSuivant) || retires.contains(unSuivant)))
+				this.ajouterErreurLot(nom, Erreur.SUIVANT_INEXISTANT.formater(unSuivant));
+		}
+
+		// Les opérations suivantes peuvent s'appuyer sur cette tâche
+		if (nomValide) ajoutes.add(nom);
+	}
+
+	/**
+	 * Applique une opération déjà vérifiée, sans recalculer les dates
+	 * 
+	 * @param op L'opération à appliquer
+	 */
+	private void appliquerOperation(Lot.Operation op)
+	{
+		if (op.type == Lot.DUREE)
+		{
+			this.indexTaches.get(op.nom).setDuree(op.duree);
+		}
+		else if (op.type == Lot.SUPPRESSION)
+		{
+			Tache t = this.indexTaches.remove(op.nom);
+			this.graphe.supprimerNoeud(t.getId());
+			this.invaliderStructure();
+		}
+		else
+		{
+			Tache t = this.creerTache(op.nom, op.duree);
+
+			// Les tâches sans lien qui fixe leur début ou attend leur fin sont reliées par rattacherOrphelines
+			for (String element : Mpm.decouper(op.prc)) t.ajouterPrecedent(chercherTacheParNom(Lien.nom(element)), Lien.de(element));
+			for (String element : Mpm.decouper(op.svt)) t.ajouterSuivant  (chercherTacheParNom(Lien.nom(element)), Lien.de(element));
+		}
+	}
+
+	/**
+	 * Ajoute une erreur de lot en précisant la tâche concernée
+	 */
+	private void ajouterErreurLot(String nom, String message)
+	{
+		this.erreursLot.add(Erreur.ERREUR_TACHE.formater(nom, message));
+	}
+
+	/**
+	 * Vérifie le lien d'un voisin d'une tâche ajoutée par un lot et relève son erreur
+	 */
+	private void verifierLien(String nom, String element)
+	{
+		try
+		{
+			Lien.de(element);
+		}
+		catch (IllegalArgumentException e)
+		{
+			this.ajouterErreurLot(nom, e.getMessage());
+		}
+	}
+
+	/**
+	 * Lit le lien d'un voisin saisi, FS sans délai s'il est illisible
+	 */
+	private static Lien lienDe(String element)
+	{
+		try
+		{
+			return Lien.de(element);
+		}
+		catch (IllegalArgumentException e)
+		{
+			return Lien.FIN_DEBUT;
+		}
+	}
+
+	/**
+	 * Indique si un nom contient un caractère réservé aux listes de voisins : '|', ',' ou ':'
+	 */
+	private static boolean contientSeparateur(String nom)
+	{
+		return nom.indexOf('|') >= 0 || nom.indexOf(',') >= 0 || nom.indexOf(Lien.SEPARATEUR) >= 0;
+	}
+
+	/**
+	 * Découpe une liste de noms séparés par des virgules, sans les noms vides
+	 * Chaque nom garde son lien éventuel (voir Lien.nom et Lien.de).
+	 * 
+	 * @param liste La liste (peut être null)
+	 * @return Les noms, sans espaces autour
+	 */
+	private static String[] decouper(String liste)
+	{
+		if (liste == null || liste.trim().isEmpty()) return new String[0];
+
+		ArrayList<String> noms = new ArrayList<>();
+		for (String nom : liste.split(","))
+		{
+			if (!nom.trim().isEmpty()) noms.add(nom.trim());
+		}
+		return noms.toArray(new String[0]);
+	}
+
+	// ========== MÉTHODES D'HISTORIQUE ==========
+
+	/**
+	 * Retourne l'historique des versions du projet
+	 * Il est créé à la première demande, depuis l'état courant du projet : un projet
+	 * chargé puis seulement lu (traitement par lot, export) n'en paie pas le coût.
+	 * 
+	 * @return L'historique du projet
+	 */
+	public Historique getHistorique()
+	{
+		if (this.historique == null) this.historique = new Historique(this.graphe, this.dateDebut);
+
+		return this.historique;
+	}
+
+	/**
+	 * Revient à la version précédente du projet
+	 * 
+	 * @return false s'il n'y a rien à annuler
+	 */
+	public boolean annuler()
+	{
+		Historique.Version v = this.getHistorique().annuler();
+		if (v == null) return false;
+
+		this.adopterVersion(v);
+		return true;
+	}
+
+	/**
+	 * Revient à la dernière version annulée
+	 * 
+	 * @return false s'il n'y a rien à rétablir
+	 */
+	public boolean retablir()
+	{
+		Historique.Version v = this.getHistorique().retablir();
+		if (v == null) return false;
+
+		this.adopterVersion(v);
+		return true;
+	}
+
+	/**
+	 * Revient à une version quelconque de l'historique
+	 * Les versions suivantes sont conservées : la prochaine modification ouvre une nouvelle branche.
+	 * 
+	 * @param numero Le numéro de la version (voir Historique.getVersions)
+	 * @return false si la version n'existe pas
+	 */
+	public boolean allerAVersion(int numero)
+	{
+		Historique.Version v = this.getHistorique().allerA(numero);
+		if (v == null) return false;
+
+		this.adopterVersion(v);
+		return true;
+	}
+
+	/**
+	 * Crée un projet indépendant à partir d'une version, pour étudier un scénario
+	 * Le nouveau projet n'a pas de fichier ; son historique part de cette version
+	 * et partage ses fiches avec celui-ci.
+	 * 
+	 * @param numero Le numéro de la version
+	 * @return Le nouveau projet, null si la version n'existe pas
+	 */
+	public Mpm brancher(int numero)
+	{
+		Historique.Version v = this.getHistorique().getVersion(numero);
+		if (v == null) return null;
+
+		Mpm branche = new Mpm();
+
+		branche.estPosition     = this.estPosition;
+		branche.nomsPositions   = new ArrayList<>(this.nomsPositions);
+		branche.coordsPositions = new ArrayList<>(this.coordsPositions);
+		branche.joursOuvres     = this.joursOuvres;
+		branche.estimations.putAll(this.estimations);
+		branche.ressources      = new Ressources(this.ressources);
+		branche.historique      = new Historique(v);
+
+		branche.adopterVersion(v);
+		return branche;
+	}
+
+	/**
+	 * Reconstruit le projet d'après une version : graphe, dates et réseau critique
+	 * Les tâches sont recréées dans l'ordre de leur création ; avec un cache (voir CachePlanning),
+	 * une version déjà planifiée reprend ses dates sans calcul.
+	 * Un journal ouvert est compacté : le fichier du projet reflète la version adoptée.
+	 */
+	private void adopterVersion(Historique.Version v)
+	{
+		Historique.Fiche[] fiches = v.fiches();
+
+		this.graphe        = new GrapheCompact(fiches.length);
+		this.indexTaches   = new HashMap<>(fiches.length * 2);
+		this.accessibilite = null;
+
+		for (Historique.Fiche f : fiches) this.creerTache(f.nom, f.duree);
+
+		for (Historique.Fiche f : fiches)
+		{
+			Tache t = this.indexTaches.get(f.nom);
+			for (String element : f.precedents) t.ajouterPrecedent(this.indexTaches.get(Lien.nom(element)), Lien.de(element));
+		}
+
+		this.dateDebut = v.getDateDebut();
+		this.trierEtDater();
+
+		if (this.journal != null)
+		{
+			try
+			{
+				this.compacterJournal();
+			}
+			catch (IOException e)
+			{
+				this.msgErreur = Erreur.ECRITURE_FICHIER_ERREUR.formater(e.getMessage());
+				e.printStackTrace();
+			}
+		}
+
+		this.publier();
+	}
+
+	public void setDure(int val, Tache tache)
+	{
+		// Même règle que valeursValides : une durée nulle ou négative est refusée
+		if (val <= 0)
+		{
+			this.msgErreur = Erreur.DUREE_NEGATIF.getMessage();
+			return;
+		}
+		if (val == tache.getDuree()) return;
+
+		Historique historique = this.getHistorique();
+		tache.setDuree(val);
+		
+		// Mettre à jour les dates au plus tôt et au plus tard autour de la tâche
+		GrapheCompact g         = this.graphe;
+		int           id        = tache.getId();
+		int[]         departTot = new int[Math.max(g.getNbSuivants(id), 1)];
+
+		for (int k = 0; k < g.getNbSuivants(id); k++) departTot[k] = g.svt(g.debutSvt(id) + k);
+
+		if (!g.aDesLiensTypes())
+		{
+			this.propagerDates(departTot, g.getNbSuivants(id), new int[] { id }, 1);
+		}
+		else
+		{
+			// Les liens FF et SF font dépendre la date au plus tôt de la tâche de sa propre durée,
+			// et les liens vers ses précédents de la durée de leur suivant
+			int[] avecTache = new int[g.getNbSuivants  (id) + 1];
+			int[] departTard = new int[g.getNbPrecedents(id) + 1];
+
+			System.arraycopy(departTot, 0, avecTache, 0, g.getNbSuivants(id));
+			avecTache [g.getNbSuivants  (id)] = id;
+			departTard[g.getNbPrecedents(id)] = id;
+			for (int k = 0; k < g.getNbPrecedents(id); k++) departTard[k] = g.prc(g.debutPrc(id) + k);
+
+			this.propagerDates(avecTache, avecTache.length, departTard, departTard.length);
+		}
+
+		// Seules les tâches dont une date a changé, et leur voisinage, peuvent changer d'appartenance
+		this.actualiserCritiques();
+
+		historique.noter("Durée de " + tache.getNom() + " : " + val, g, new int[] { id }, 1, AUCUN_NOM, this.dateDebut);
+
+		this.journaliser(Journal.duree(tache.getNom(), val));
+		this.publier();
+	}
+	
+	/**
+	 * Enregistre le projet au format texte, une tâche par ligne : nom|duree|precedents|x,y
+	 * Enregistrer sur le fichier du projet vide son journal.
+	 * 
+	 * @param cheminAbsolu Chemin du fichier de sauvegarde
+	 * @param positions Position de chaque tâche affichée, par nom (peut être vide)
+	 * @return true si l'enregistrement a réussi
+	 */
+	public boolean enregistrer(String cheminAbsolu, HashMap<String, Point> positions)
+	{
+		boolean estProjet = this.estFichierProjet(cheminAbsolu);
+
+		try
+		{
+			if (estProjet) this.journal.attendreCompactage();
+
+			Mpm.ecrireTexte(this.graphe, positions, cheminAbsolu);
+
+			if (estProjet) this.journal.reinitialiser();
+			return true;
+		}
+		catch (IOException e)
+		{
+			this.msgErreur = Erreur.ECRITURE_FICHIER_ERREUR.formater(e.getMessage());
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * Enregistre le projet dans un instantané binaire, relu sans refaire le planning
+	 * Enregistrer sur le fichier du projet vide son journal.
+	 * 
+	 * @param cheminAbsolu Chemin du fichier d'instantané
+	 * @param positions Position de chaque tâche affichée, par nom (peut être vide)
+	 * @return true si l'enregistrement a réussi
+	 */
+	public boolean enregistrerInstantane(String cheminAbsolu, HashMap<String, Point> positions)
+	{
+		boolean estProjet = this.estFichierProjet(cheminAbsolu);
+
+		try
+		{
+			if (estProjet) this.journal.attendreCompactage();
+
+			Mpm.ecrireInstantane(cheminAbsolu, this.graphe, this.getOrdreTopologique(), this.finProjet,
+			                     this.estPosition, this.dateDebut, positions);
+
+			if (estProjet) this.journal.reinitialiser();
+			return true;
+		}
+		catch (IOException e)
+		{
+			this.msgErreur = Erreur.ECRITURE_FICHIER_ERREUR.formater(e.getMessage());
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * Écrit un projet au format texte
+	 * Les lignes sont écrites au fil de l'eau dans un fichier temporaire, renommé une fois
+	 * complet : un enregistrement interrompu ne tronque jamais le fichier existant.
+	 * Sans position, seules les tâches du projet sont écrites (format .data).
+	 * 
+	 * @param g Le graphe du projet
+	 * @param positions Position de chaque tâche, par nom (peut être vide)
+	 * @param cheminAbsolu Chemin du fichier à écrire
+	 * @throws IOException si le fichier ne peut pas être écrit
+	 */
+	private static void ecrireTexte(GrapheCompact g, HashMap<String, Point> positions, String cheminAbsolu) throws IOException
+	{
+		boolean avecPosition = !positions.isEmpty();
+		Path    cible        = Paths.get(cheminAbsolu).toAbsolutePath();
+		Path    temp         = cible.resolveSibling(cible.getFileName() + ".tmp");
+
+		try (BufferedWriter out = new BufferedWriter(new OutputStreamWriter(
+		                              new FileOutputStream(temp.toFile()), StandardCharsets.UTF_8), 1 << 16))
+		{
+			// Une seule passe sur les tranches de précédents, dans l'ordre des identifiants
+			for (int id = 0; id < g.getNbNoeuds(); id++)
+			{
+				Tache   t       = g.getVue(id);
+				boolean systeme = t.getNom().equals("Debut") || t.getNom().equals("Fin");
+
+				if (systeme && !avecPosition) continue;
+
+				out.write(t.getNom());
+
+				// La durée n'est écrite que pour une tâche ayant des suivants (pas pour "Fin")
+				if (g.getNbSuivants(id) > 0)
+				{
+					out.write('|');
+					out.write(Integer.toString(g.getDuree(id)));
+				}
+
+				// "Debut" n'a pas de champ de précédents : Debut|0|x,y
+				if (!systeme || g.getNbPrecedents(id) > 0)
+				{
+					out.write('|');
+
+					boolean premier = true;
+					for (int k = g.debutPrc(id); k < g.finPrc(id); k++)
+					{
+						String nomPrc = g.getVue(g.prc(k)).getNom();
+						if (!avecPosition && nomPrc.equals("Debut")) continue;
+
+						if (!premier) out.write(',');
+						out.write(nomPrc);
+						out.write(Lien.annotation(g.typePrc(k), g.delaiPrc(k)));
+						premier = false;
+					}
+				}
+
+				Point p = positions.get(t.getNom());
+				if (p != null)
+				{
+					out.write('|');
+					out.write(Integer.toString(p.x));
+					out.write(',');
+					out.write(Integer.toString(p.y));
+				}
+				out.write('\n');
+			}
+		}
+
+		try
+		{
+			Files.move(temp, cible, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		}
+		catch (AtomicMoveNotSupportedException e)
+		{
+			Files.move(temp, cible, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	/**
+	 * Écrit un projet dans un instantané binaire (voir Instantane.ecrire)
+	 * 
+	 * @param cheminAbsolu Chemin du fichier d'instantané
+	 * @param g Le graphe du projet, dates calculées
+	 * @param ordre L'ordre topologique du graphe
+	 * @param finProjet La date de fin du projet
+	 * @param estPosition Indique si le projet gère les positions
+	 * @param dateDebut La date de début du projet (peut être null)
+	 * @param positions Position de chaque tâche, par nom (peut être vide)
+	 * @throws IOException si le fichier ne peut pas être écrit
+	 */
+	private static void ecrireInstantane(String cheminAbsolu, GrapheCompact g, OrdreTopologique ordre, int finProjet,
+	                                     boolean estPosition, String dateDebut, HashMap<String, Point> positions) throws IOException
+	{
+		int   n     = g.getNbNoeuds();
+		int[] posId = new int[n];
+		int[] posX  = new int[n];
+		int[] posY  = new int[n];
+		int   nbPos = 0;
+
+		for (int i = 0; i < n; i++)
+		{
+			Point p = positions.get(g.getVue(i).getNom());
+			if (p == null) continue;
+
+			posId[nbPos] = i;
+			posX [nbPos] = p.x;
+			posY [nbPos] = p.y;
+			nbPos++;
+		}
+
+		Instantane.ecrire(cheminAbsolu, g, ordre, finProjet, estPosition || nbPos > 0, dateDebut, posId, posX, posY, nbPos);
+	}
+
+	// ========== MÉTHODES DU JOURNAL ==========
+
+	/**
+	 * Ouvre le journal du fichier du projet et rejoue ses modifications
+	 * Les modifications suivantes y sont ajoutées au fur et à mesure (voir Journal) :
+	 * un enregistrement complet n'est plus nécessaire pour ne rien perdre.
+	 * 
+	 * @return true si le journal est ouvert
+	 */
+	public boolean ouvrirJournal()
+	{
+		if (this.journal != null) return true;
+
+		// Pas de journal pour un projet sans fichier ou dont la lecture a échoué
+		if (this.nomFichier == null || this.chercherTacheParNom("Debut") == null) return false;
+
+		try
+		{
+			Journal j = Journal.ouvrir(this.nomFichier);
+
+			this.rejouer(j.getEntrees());
+			this.journal = j;
+			return true;
+		}
+		catch (IOException e)
+		{
+			this.msgErreur = Erreur.LECTURE_FICHIER_ERREUR.formater(e.getMessage());
+			e.printStackTrace();
+			return false;
+		}
+	}
+
+	/**
+	 * Écrit les modifications en attente et ferme le journal
+	 */
+	public void fermerJournal()
+	{
+		if (this.journal == null) return;
+
+		this.journal.fermer();
+		this.journal = null;
+	}
+
+	/**
+	 * Déplace une tâche : sa position est gardée avec celles relues du fichier et journalisée
+	 * 
+	 * @param nom Le nom de la tâche
+	 * @param x La nouvelle abscisse
+	 * @param y La nouvelle ordonnée
+	 */
+	public void deplacerTache(String nom, int x, int y)
+	{
+		if (this.chercherTacheParNom(nom) == null) return;
+
+		this.placerTache(nom, new Point(x, y));
+		this.journaliser(Journal.position(nom, x, y));
+	}
+
+	/**
+	 * Remplace ou ajoute la position d'une tâche
+	 */
+	private void placerTache(String nom, Point p)
+	{
+		if (this.rangsPositions == null)
+		{
+			this.rangsPositions = new HashMap<>();
+			for (int i = 0; i < this.nomsPositions.size(); i++) this.rangsPositions.put(this.nomsPositions.get(i), i);
+		}
+
+		Integer rang = this.rangsPositions.get(nom);
+		if (rang == null)
+		{
+			this.rangsPositions.put(nom, this.nomsPositions.size());
+			this.nomsPositions  .add(nom);
+			this.coordsPositions.add(p);
+		}
+		else
+		{
+			this.coordsPositions.set(rang, p);
+		}
+		this.estPosition = true;
+	}
+
+	/**
+	 * Rejoue les lignes d'un journal sur le projet chargé
+	 * Ajouts, suppressions et durées passent par un lot : le planning n'est recalculé qu'une fois.
+	 * Chaque ligne est vérifiée dans l'ordre avant d'entrer dans le lot : une ligne illisible ou
+	 * invalide est écartée seule et signalée (voir getErreursLot), les autres sont rejouées.
+	 * 
+	 * @param entrees Les lignes du journal, dans l'ordre
+	 */
+	private void rejouer(ArrayList<String> entrees)
+	{
+		if (entrees.isEmpty()) return;
+
+		Lot                    lot       = new Lot();
+		ArrayList<String>      lignes    = new ArrayList<>();   // Ligne de journal de chaque opération du lot
+		ArrayList<String>      ignorees  = new ArrayList<>();   // Message de chaque ligne écartée
+		HashSet<String>        ajoutes   = new HashSet<>();
+		HashSet<String>        retires   = new HashSet<>();
+		HashMap<String, Point> positions = new HashMap<>();
+		ArrayList<String>      ordre     = new ArrayList<>();
+		String                 date      = null;
+
+		this.erreursLot = new ArrayList<>();
+
+		// ========== LECTURE ET VÉRIFICATION LIGNE À LIGNE ==========
+		for (String entree : entrees)
+		{
+			String[]      champs = entree.split("\\|", -1);
+			Lot.Operation op     = null;
+			try
+			{
+				char type = champs[0].charAt(0);
+
+				if      (type == Journal.AJOUT      ) op = new Lot.Operation(Lot.AJOUT, champs[1], champs[2], champs[3], Integer.parseInt(champs[4]));
+				else if (type == Journal.SUPPRESSION) op = new Lot.Operation(Lot.SUPPRESSION, champs[1], null, null, 0);
+				else if (type == Journal.DUREE      ) op = new Lot.Operation(Lot.DUREE, champs[1], null, null, Integer.parseInt(champs[2]));
+				else if (type == Journal.DATE       ) date = champs[1];
+				else if (type == Journal.POSITION   )
+				{
+					if (positions.put(champs[1], new Point(Integer.parseInt(champs[2]), Integer.parseInt(champs[3]))) == null)
+						ordre.add(champs[1]);
+				}
+				else throw new IllegalArgumentException(entree);
+			}
+			catch (IllegalArgumentException | IndexOutOfBoundsException e)
+			{
+				ignorees.add(Erreur.LIGNE_JOURNAL_IGNOREE.formater(entree, Erreur.FORMAT_INVALIDE.getMessage()));
+				continue;
+			}
+
+			if (op == null) continue;
+
+			// L'opération est vérifiée sur l'état laissé par les lignes précédentes retenues
+			int     nbErreurs   = this.erreursLot.size();
+			boolean dejaAjoutee = ajoutes.contains(op.nom);
+
+			this.verifierOperation(op, ajoutes, retires);
+			if (this.erreursLot.size() > nbErreurs)
+			{
+				if (op.type == Lot.AJOUT && !dejaAjoutee) ajoutes.remove(op.nom);
+				ignorees.add(Erreur.LIGNE_JOURNAL_IGNOREE.formater(entree, this.erreursLot.get(nbErreurs)));
+				continue;
+			}
+
+			lot.ajouter(op);
+			lignes.add(entree);
+		}
+
+		// ========== APPLICATION ==========
+		// Un lot refusé malgré la vérification (cycle) est rejoué opération par opération
+		this.lot = lot;
+		if (lot.getNbOperations() > 0 && !this.validerLot())
+		{
+			ArrayList<Lot.Operation> operations = lot.getOperations();
+			for (int i = 0; i < operations.size(); i++)
+			{
+				this.lot = new Lot().ajouter(operations.get(i));
+				if (!this.validerLot())
+					ignorees.add(Erreur.LIGNE_JOURNAL_IGNOREE.formater(lignes.get(i), this.msgErreur));
+			}
+		}
+		this.lot = null;
+
+		this.erreursLot = ignorees;
+		if (!ignorees.isEmpty()) this.msgErreur = ignorees.get(0);
+
+		for (String nom : ordre)
+		{
+			if (this.indexTaches.containsKey(nom)) this.placerTache(nom, positions.get(nom));
+		}
+
+		if (date != null && !date.equals(this.dateDebut))
+		{
+			Historique historique = this.getHistorique();
+
+			this.dateDebut = date;
+			historique.noter("Date de début : " + date, this.graphe, new int[0], 0, AUCUN_NOM, date);
+			this.publierCalendrier();
+		}
+	}
+
+	/**
+	 * Ajoute une ligne au journal ouvert, puis le compacte s'il est devenu trop long
+	 */
+	private void journaliser(String entree)
+	{
+		if (this.journal == null) return;
+
+		this.journal.ajouter(entree);
+		if (!this.journal.doitCompacter()) return;
+
+		try
+		{
+			this.compacterJournal();
+		}
+		catch (IOException e)
+		{
+			this.msgErreur = Erreur.ECRITURE_FICHIER_ERREUR.formater(e.getMessage());
+			e.printStackTrace();
+		}
+	}
 
-			// Supprimer la tâche elle-même de la liste principale
-			this.taches.remove(t);
+	/**
+	 * Réécrit le fichier du projet en arrière-plan, d'après une copie du projet prise ici
+	 * Un fichier texte ne reçoit les positions que si toutes les tâches en ont une ; sinon
+	 * elles restent dans le journal, comme la date de début qu'il ne sait pas contenir.
+	 */
+	private void compacterJournal() throws IOException
+	{
+		GrapheCompact          copie     = this.graphe.copier();
+		String                 chemin    = this.nomFichier;
+		HashMap<String, Point> positions = new HashMap<>();
+		ArrayList<String>      reprise   = new ArrayList<>();
 
+		for (int i = 0; i < this.nomsPositions.size(); i++)
+		{
+			if (this.indexTaches.containsKey(this.nomsPositions.get(i)))
+				positions.put(this.nomsPositions.get(i), this.coordsPositions.get(i));
+		}
 
-			// Calculer les dates au plus tôt et au plus tard
-			this.calculerDates();
+		if (Instantane.estInstantane(chemin))
+		{
+			OrdreTopologique ordre       = this.getOrdreTopologique();
+			int              finProjet   = this.finProjet;
+			boolean          estPosition = this.estPosition;
+			String           dateDebut   = this.dateDebut;
 
-			//Creer le(s) chemin(s) critique(s)
-			this.creerCheminCritique();
+			this.journal.compacter(() -> Mpm.ecrireInstantane(chemin, copie, ordre, finProjet, estPosition, dateDebut, positions),
+			                       reprise);
+			return;
 		}
 
-	public void setDure(int val, Tache tache)
-	{
-		this.taches.get(this.taches.indexOf(tache)).setDuree(val);
-		
-		// Calculer les dates au plus tôt et au plus tard
-		this.calculerDates();
+		if (positions.size() < copie.getNbNoeuds())
+		{
+			for (String nom : positions.keySet())
+			{
+				Point p = positions.get(nom);
+				reprise.add(Journal.position(nom, p.x, p.y));
+			}
+			positions.clear();
+		}
+		if (this.journal.getDerniereDate() != null) reprise.add(Journal.date(this.journal.getDerniereDate()));
 
-		//Creer le(s) chemin(s) critique(s)
-		this.creerCheminCritique();
+		this.journal.compacter(() -> Mpm.ecrireTexte(copie, positions, chemin), reprise);
 	}
-	
-public boolean enregistrer(String infosNoeuds, String cheminAbsolu) 
+
+	/**
+	 * @return true si le chemin désigne le fichier du projet, journal ouvert
+	 */
+	private boolean estFichierProjet(String chemin)
 	{
-		boolean bRet;
-		try
-		{
-			PrintWriter pw = new PrintWriter( new FileOutputStream(cheminAbsolu ) );
+		return this.journal != null && this.journal.getProjet().equals(Paths.get(chemin).toAbsolutePath().normalize());
+	}
 
-			pw.println ( infosNoeuds );
+	/**
+	 * Noms des précédents (sans "Debut") ou des suivants (sans "Fin") d'une tâche, séparés par des virgules
+	 * Chaque nom est suivi de son lien s'il n'est pas FS sans délai.
+	 */
+	private String nomsVoisins(int id, boolean precedents)
+	{
+		GrapheCompact g      = this.graphe;
+		StringBuilder noms   = new StringBuilder();
+		int           debut  = precedents ? g.debutPrc(id) : g.debutSvt(id);
+		int           fin    = precedents ? g.finPrc  (id) : g.finSvt  (id);
 
-			bRet = true;
+		for (int k = debut; k < fin; k++)
+		{
+			String nom = g.getVue(precedents ? g.prc(k) : g.svt(k)).getNom();
+			if (nom.equals("Debut") || nom.equals("Fin")) continue;
 
-			pw.close();
-		}
-		catch (Exception e)
-		{ 
-			bRet = false;
-			e.printStackTrace(); 
+			if (noms.length() > 0) noms.append(',');
+			noms.append(nom);
+			noms.append(precedents ? Lien.annotation(g.typePrc(k), g.delaiPrc(k))
+			                       : Lien.annotation(g.typeSvt(k), g.delaiSvt(k)));
 		}
-		return bRet;
+		return noms.toString();
 	}
 
-	public ArrayList<Tache> getTaches() {return this.taches;}
+	/**
+	 * Retourne les tâches du projet par niveau, puis par identifiant à niveau égal
+	 * La liste est reconstruite à la demande après une modification du graphe.
+	 * 
+	 * @return Liste des tâches du projet
+	 */
+	public ArrayList<Tache> getTaches()
+	{
+		if (this.taches == null)
+		{
+			int[] ordre = this.getOrdreTopologique().getOrdre();
+
+			this.taches = new ArrayList<>(ordre.length);
+			for (int id : ordre)
+			{
+				this.taches.add(this.graphe.getVue(id));
+			}
+		}
+		return this.taches;
+	}
 
 	public boolean valeursValides(String nom, String duree, String ant, String Svt)
 	{
@@ -409,18 +1757,15 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 			return false;
 		}
 		String nomTrim = nom.trim();
-		if (nomTrim.contains("|") || nomTrim.contains(",")) 
+		if (Mpm.contientSeparateur(nomTrim)) 
 		{
 			this.msgErreur = Erreur.CHAR_NOM_INVALIDE.getMessage();
 			return false;
 		}
-		for (Tache t : this.taches)
+		if (this.indexTaches.containsKey(nomTrim)) 
 		{
-			if (t.getNom().equals(nomTrim)) 
-			{
-				this.msgErreur = Erreur.DEJA_EXISTANT.getMessage();
-				return false;
-			}
+			this.msgErreur = Erreur.DEJA_EXISTANT.getMessage();
+			return false;
 		}
 		
 		if (nom.length() > 50) 
@@ -462,7 +1807,8 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 		{
 			for (String unAntecedent : tabAntecedents)
 			{
-				unAntecedent = unAntecedent.trim();
+				if (!this.lienValide(unAntecedent)) return false;
+				unAntecedent = Lien.nom(unAntecedent);
 
 				if (unAntecedent.isEmpty()) continue;
 
@@ -483,14 +1829,7 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 					return false;
 				}
 
-				boolean trouve = false;
-				for (Tache t : this.taches)
-					if (t.getNom().equals(unAntecedent)) 
-					{
-						trouve = true;
-						break;
-					}
-				if (!trouve) 
+				if (!this.indexTaches.containsKey(unAntecedent)) 
 				{
 					this.msgErreur = Erreur.PRECEDENT_NON_EXISTANT.formater(unAntecedent);
 					return false;
@@ -501,9 +1840,13 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 		// Vérification des suivants
 		if (Svt != null && !Svt.trim().isEmpty()) 
 		{
+			HashSet<String> nomsAntecedents = new HashSet<>();
+			for (String unAntecedent : tabAntecedents) nomsAntecedents.add(Lien.nom(unAntecedent));
+
 			for (String unSuivant : tabSuivants) 
 			{
-				unSuivant = unSuivant.trim();
+				if (!this.lienValide(unSuivant)) return false;
+				unSuivant = Lien.nom(unSuivant);
 				if (unSuivant.isEmpty()) continue;
 				if (unSuivant.equals("Debut")) 
 				{
@@ -521,25 +1864,12 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 					return false;
 				}
 				// Vérifier que le suivant n'est pas aussi un antécédent
-				if (ant != null && !ant.trim().isEmpty()) 
+				if (nomsAntecedents.contains(unSuivant)) 
 				{
-					for (String unAntecedent : tabAntecedents) 
-					{
-						if (unSuivant.equals(unAntecedent.trim())) 
-						{
-							this.msgErreur = Erreur.SUIVANT_ET_PRECEDENT.formater(unSuivant);
-							return false;
-						}
-					}
+					this.msgErreur = Erreur.SUIVANT_ET_PRECEDENT.formater(unSuivant);
+					return false;
 				}
-				boolean trouve = false;
-				for (Tache t : this.taches)
-					if (t.getNom().equals(unSuivant)) 
-					{
-						trouve = true;
-						break;
-					}
-				if (!trouve) 
+				if (!this.indexTaches.containsKey(unSuivant)) 
 				{
 					this.msgErreur = Erreur.SUIVANT_INEXISTANT.formater(unSuivant);
 					return false;
@@ -549,18 +1879,29 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 
 		if (!ant.trim().isEmpty() && !Svt.trim().isEmpty()) 
 		{
-			
-			// Verifier si on peut aller d'un suivant vers un antécédent
-			for (String unAntecedent : tabAntecedents) 
+			// Verifier si on peut aller d'un suivant vers un antécédent (une seule recherche pour tous les couples)
+			int[] departs    = new int[tabSuivants   .length];
+			int[] arrivees   = new int[tabAntecedents.length];
+			int   nbDeparts  = 0;
+			int   nbArrivees = 0;
+
+			for (String unSuivant : tabSuivants)
 			{
-				for (String unSuivant : tabSuivants) 
-				{
-					if (cyclique(unSuivant.trim(), unAntecedent.trim())) 
-					{
-						this.msgErreur = Erreur.CYCLIQUE.formater( unSuivant.trim()) + unAntecedent.trim();
-						return false;
-					}
-				}
+				if (!unSuivant.trim().isEmpty()) departs[nbDeparts++] = this.indexTaches.get(Lien.nom(unSuivant)).getId();
+			}
+			for (String unAntecedent : tabAntecedents)
+			{
+				if (!unAntecedent.trim().isEmpty()) arrivees[nbArrivees++] = this.indexTaches.get(Lien.nom(unAntecedent)).getId();
+			}
+
+			long couple = this.getAccessibilite().chercherCouple(departs, nbDeparts, arrivees, nbArrivees);
+			if (couple >= 0)
+			{
+				String depuis = this.graphe.getVue(departs [(int) (couple >>> 32)]).getNom();
+				String vers   = this.graphe.getVue(arrivees[(int)  couple       ]).getNom();
+
+				this.msgErreur = Erreur.CYCLIQUE.formater(depuis) + vers;
+				return false;
 			}
 		}
 
@@ -568,270 +1909,373 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 	}
 
 	/**
-	 * Vérifie s'il existe un chemin entre les deux taches
+	 * Vérifie le lien d'un voisin saisi et note l'erreur s'il est illisible
+	 *
+	 * @param element Le voisin : "nom" ou "nom:lien"
+	 * @return true si le lien est lisible
 	 */
-	private boolean cyclique(String depuis, String vers) 
+	private boolean lienValide(String element)
 	{
-		
-		Tache tacheDepuis = chercherTacheParNom(depuis);
-		if (tacheDepuis == null) return false;
-		
-		ArrayList<String> aVisiter       = new ArrayList<String>();
-		ArrayList<String> dejaParcourues = new ArrayList<String>();
-		
-		aVisiter.add(depuis);
-		
-		while (!aVisiter.isEmpty()) 
+		try
 		{
-			String tacheActuelle = aVisiter.remove(0);
-						
-			if (tacheActuelle.equals(vers)) return true;
-			
-			Tache t = chercherTacheParNom(tacheActuelle);
-			if (t != null) 
-			{
-				for (Tache suivant : t.getSuivants()) 
-				{
-					if (!dejaParcourues.contains(suivant.getNom())) 
-					{
-						aVisiter.add(suivant.getNom());
-					}
-				}
-			}
+			Lien.de(element);
+			return true;
 		}
-		
-		return false;
+		catch (IllegalArgumentException e)
+		{
+			this.msgErreur = e.getMessage();
+			return false;
+		}
+	}
+
+	/**
+	 * Retourne l'index d'accessibilité des tâches du projet
+	 * Il est construit à la demande et complété à chaque ajout de tâche.
+	 * 
+	 * @return L'index d'accessibilité courant
+	 */
+	public Accessibilite getAccessibilite()
+	{
+		if (this.accessibilite == null)
+			this.accessibilite = new Accessibilite(this.graphe);
+
+		return this.accessibilite;
 	}
 
 	public String            getErreur()          { return this.msgErreur;      }
 
 	public String            getDateDebut()       { return this.dateDebut;      }
 
+	/**
+	 * Retourne le calendrier de la date de début, recréé seulement quand elle
+	 * ou le calendrier de travail du projet change
+	 * 
+	 * @return Le calendrier du projet
+	 */
+	public Calendrier getCalendrier()
+	{
+		if (this.calendrier == null || !Objects.equals(this.calendrier.getDateDebut(), this.dateDebut)
+		                            || this.calendrier.getJoursOuvres() != this.joursOuvres)
+			this.calendrier = new Calendrier(this.dateDebut, this.joursOuvres);
+
+		return this.calendrier;
+	}
+
+	public JoursOuvres       getJoursOuvres()     { return this.joursOuvres;    }
+
+	/**
+	 * Définit le calendrier de travail du projet : les dates des tâches deviennent des jours ouvrés
+	 * 
+	 * @param joursOuvres Le calendrier de travail (null : tous les jours comptent)
+	 */
+	public void setJoursOuvres(JoursOuvres joursOuvres)
+	{
+		this.joursOuvres = joursOuvres;
+		this.publierCalendrier();
+	}
+
+	// ========== MÉTHODES DE SIMULATION ==========
+
+	/**
+	 * Donne à une tâche une estimation en trois points, utilisée par simulerPert
+	 * La durée de la tâche dans le planning n'est pas modifiée.
+	 * 
+	 * @param nom Le nom de la tâche
+	 * @param estimation L'estimation (null : la tâche garde sa durée dans la simulation)
+	 */
+	public void setEstimation(String nom, SimulationPert.Estimation estimation)
+	{
+		if (estimation == null) this.estimations.remove(nom);
+		else                    this.estimations.put(nom, estimation);
+	}
+
+	public SimulationPert.Estimation getEstimation(String nom) { return this.estimations.get(nom); }
+
+	/**
+	 * Simule les durées du projet d'après les estimations en trois points (voir SimulationPert)
+	 * La simulation porte sur la version publiée du planning et ne modifie pas le projet.
+	 * 
+	 * @param nbIterations Le nombre de tirages
+	 * @param graine La graine du générateur : même graine, même résultat
+	 * @param loi La loi des durées tirées
+	 * @param nbFils Le nombre de fils de calcul
+	 * @return La distribution de la durée du projet et la criticité des tâches
+	 */
+	public SimulationPert.Resultat simulerPert(int nbIterations, long graine, SimulationPert.Loi loi, int nbFils)
+	{
+		return new SimulationPert(this.planning, this.estimations, loi).simuler(nbIterations, graine, nbFils);
+	}
+
+	/**
+	 * Évalue des scénarios « et si » sur la version publiée du planning (voir EvaluateurScenarios)
+	 * Le projet n'est pas modifié.
+	 * 
+	 * @param scenarios Les scénarios
+	 * @param nbFils Le nombre de fils de calcul
+	 * @return Le résultat de chaque scénario, dans l'ordre des scénarios
+	 */
+	public ArrayList<EvaluateurScenarios.Resultat> evaluerScenarios(List<Scenario> scenarios, int nbFils)
+	{
+		return new EvaluateurScenarios(this.planning).evaluer(scenarios, nbFils);
+	}
+
+	/**
+	 * Retourne les ressources du projet, à compléter par Ressources.definir et Ressources.setBesoin
+	 * Les besoins sont rangés par nom de tâche et ne modifient pas le planning.
+	 *
+	 * @return Les ressources, partagées avec le projet
+	 */
+	public Ressources getRessources() { return this.ressources; }
+
+	/**
+	 * Ordonnance la version publiée du planning sans dépasser la capacité des ressources (voir Nivellement)
+	 * Les dates MPM du projet ne sont pas modifiées : le résultat donne les débuts nivelés à côté.
+	 * 
+	 * @param nbFils Le nombre de fils de calcul
+	 * @return Le meilleur ordonnancement parmi les schémas et règles de priorité essayés
+	 * @throws IllegalArgumentException si le besoin d'une tâche dépasse la capacité d'une ressource
+	 */
+	public Nivellement.Resultat niveler(int nbFils)
+	{
+		return new Nivellement(this.planning, this.ressources).niveler(nbFils);
+	}
+
 	public ArrayList<String> getNomsPositions()   { return this.nomsPositions;  }
 
 	public ArrayList<Point>  getCoordsPositions() { return this.coordsPositions;}
 
 	public boolean           estPosition()        { return this.estPosition;    }
 
+	/**
+	 * Charge le fichier du projet, en parallèle si nbThreadsChargement > 1 (voir ChargeurProjet)
+	 * En cas d'erreur, le projet est laissé vide et msgErreur est renseigné.
+	 */
 	public void chargerFichier()
 	{
-		List<String[]> lignesPourDependances = new ArrayList<>();
-
-		this.taches.clear();
-		this.cheminsCritiques.clear();
+		this.indexTaches.clear();
+		this.graphe        = new GrapheCompact(64);
+		this.accessibilite = null;
+		this.invaliderStructure();
+		this.cheminsCritiques = null;
+		this.reseauCritique   = null;
+		this.tachesCritiques  = null;
 		this.nomsPositions.clear();
 		this.coordsPositions.clear();
+		this.rangsPositions = null;
+		this.historique     = null;
 
-		try (Scanner sc = new Scanner(new File(this.nomFichier)))
+		try
 		{
-			while (sc.hasNextLine())
+			if (Instantane.estInstantane(this.nomFichier))
 			{
-				String ligneEnCours = sc.nextLine().trim();
-				
-				if (!ligneEnCours.isEmpty()) 
-				{
-					String[] parts = ligneEnCours.split("\\|");
-
-					if (parts.length >= 2)
-					{
-						String nomTache = parts[0].trim();
-						
-						if (this.estPosition && (nomTache.equals("Debut") || nomTache.equals("Fin"))) 
-						{
-							if (parts.length >= 3 && parts[2].matches("\\d+,\\d+")) 
-							{
-								String[] coords = parts[2].split(",");
-								this.nomsPositions.add(nomTache);
-								this.coordsPositions.add(new Point(Integer.parseInt(coords[0].trim()), 
-																Integer.parseInt(coords[1].trim())));
-							}
-						}
-						else 
-						{
-							// Traitement standard des tâches
-							int duree = Integer.parseInt(parts[1].trim());
-							Tache t = new Tache(nomTache, duree);
-							this.taches.add(t);
-							lignesPourDependances.add(parts);
-
-							// Stockage des positions pour tâches normales (mode position)
-							if (this.estPosition && parts.length == 4 && parts[3].matches("\\d+,\\d+")) 
-							{
-								String[] coords = parts[3].split(",");
-								this.nomsPositions.add(nomTache);
-								this.coordsPositions.add(new Point(Integer.parseInt(coords[0].trim()), 
-																Integer.parseInt(coords[1].trim())));
-							}
-						}
-					}
-				}
+				this.adopterInstantane(Instantane.lire(this.nomFichier));
 			}
+			else
+			{
+				ChargeurProjet chargeur = new ChargeurProjet(this.estPosition, this.nbThreadsChargement);
+				chargeur.charger(this.nomFichier);
 
-			// Ajout des tâches système
-			this.taches.add(0, new Tache("Debut", 0));
-			this.taches.add(new Tache("Fin", 0));
+				this.graphe          = chargeur.getGraphe();
+				this.indexTaches     = chargeur.getIndex();
+				this.nomsPositions   = chargeur.getNomsPositions();
+				this.coordsPositions = chargeur.getCoordsPositions();
 
-			// Établissement des dépendances
-			for (String[] lig : lignesPourDependances)
-			{
-				if (lig.length > 2 && !lig[2].trim().isEmpty()) 
-				{
-					Tache courant = chercherTacheParNom(lig[0].trim());
-					if (courant != null) 
-					{
-						for (String nomPre : lig[2].trim().split(",")) 
-						{
-							Tache precedent = chercherTacheParNom(nomPre.trim());
-							if (precedent != null) {
-								courant.ajouterPrecedent(precedent);
-							}
-						}
-					}
-				}
-			}
+				// Connexion automatique des tâches orphelines
+				this.rattacherOrphelines();
 
-			// Connexion automatique des tâches orphelines
-			for (Tache t : this.taches)
-			{
-				if (t.getPrecedents().isEmpty() && !t.getNom().equals("Fin") && !t.getNom().equals("Debut")) {
-					t.ajouterPrecedent(chercherTacheParNom("Debut"));
-				}
-				if (t.getSuivants().isEmpty() && !t.getNom().equals("Fin") && !t.getNom().equals("Debut")) {
-					t.ajouterSuivant(chercherTacheParNom("Fin"));
-				}
+				this.trierEtDater();
 			}
-			
-			this.tri();
-			this.calculerDates();
-			this.creerCheminCritique();
 		}
 		catch (Exception e) 
 		{
 			this.msgErreur = Erreur.LECTURE_FICHIER_ERREUR.formater(e.getMessage());
 			e.printStackTrace();
+
+			// Ne pas garder un projet partiellement chargé
+			this.indexTaches.clear();
+			this.graphe        = new GrapheCompact(0);
+			this.accessibilite = null;
+			this.creerCheminCritique();
+			this.invaliderStructure();
 		}
-		
+
+		this.publier();
 	}
 
-	public static String determineFichier(String cheminFichier) 
+	/**
+	 * Reprend le projet d'un instantané : dates, ordre et positions sont repris tels quels
+	 * Le réseau critique est reconstruit à la première demande.
+	 *
+	 * @param image L'instantané relu
+	 */
+	private void adopterInstantane(Instantane image)
 	{
+		this.graphe           = image.getGraphe();
+		this.indexTaches      = image.getIndex();
+		this.ordreTopologique = image.getOrdreTopologique();
+		this.finProjet        = image.getFinProjet();
+		this.nomsPositions    = image.getNomsPositions();
+		this.coordsPositions  = image.getCoordsPositions();
 
-		File fichier = new File(cheminFichier);
-		
-		if (!fichier.canRead()) 
-		{
-			System.err.println("Fichier illisible: " + cheminFichier);
-			return null;
-		}
+		if (this.dateDebut == null) this.dateDebut = image.getDateDebut();
 
-		int maxChamps = 0;
+		this.determinerPuits();
+	}
 
+	/**
+	 * Trie les tâches, calcule les dates et le réseau critique d'un projet qui vient d'être lu
+	 * Avec un cache (voir CachePlanning), un graphe déjà planifié reprend ses dates et son réseau
+	 * sans calcul, et un graphe dont seules les durées ont changé reprend son ordre sans tri.
+	 *
+	 * @throws IllegalStateException si les dépendances forment un cycle
+	 */
+	private void trierEtDater()
+	{
+		CachePlanning cache = CachePlanning.getCommun();
+		if (cache == null)
+		{
+			this.tri();
+			this.calculerDates();
+			this.creerCheminCritique();
+			return;
+		}
 
-		try (Scanner sc = new Scanner(fichier)) {
+		Tache tDebut = chercherTacheParNom("Debut");
+		Tache tFin   = chercherTacheParNom("Fin");
 
-			// 4. On parcourt TOUT le fichier pour trouver le nombre maximum de champs
-			while (sc.hasNextLine()) 
-			{
-				String ligne = sc.nextLine().trim();
-				if (ligne.isEmpty()) 
-				{
-					continue;
-				}
+		CachePlanning.Cle       cle       = cache.cle(this.graphe, tDebut == null ? -1 : tDebut.getId(),
+		                                                           tFin   == null ? -1 : tFin  .getId());
+		CachePlanning.Calcul    calcul    = cache.chercher(cle);
+		CachePlanning.Structure structure = calcul != null ? calcul.structure : cache.chercherStructure(cle);
 
-				
-				String[] parts = ligne.split("\\|");
-				int champsActuels = parts.length;
+		if (structure == null) structure = new CachePlanning.Structure(this.getOrdreTopologique());
 
-				
-				if (champsActuels > maxChamps) 
-				{
-					maxChamps = champsActuels;
-				}
-			}
+		this.permuterSelon(structure.avant);
+		this.ordreTopologique = structure.apres;
 
-		} 
-		catch (FileNotFoundException e) 
+		if (calcul != null)
 		{
-			e.printStackTrace();
-			return null;
+			this.graphe.adopterDates(calcul.datePlusTot, calcul.datePlusTard);
+			this.determinerPuits();
+			this.finProjet        = calcul.finProjet;
+			this.cheminsCritiques = null;
+			this.tachesCritiques  = null;
+			this.reseauCritique   = calcul.reseau.attacher(this.graphe);
+			return;
 		}
 
-		if (maxChamps == 4){return "pos";} 
-		else if (maxChamps == 2 || maxChamps == 3) {return "base";} 
-		else {return null;}
+		this.calculerDates();
+		this.creerCheminCritique();
+		cache.ranger(cle, structure, this.graphe, this.finProjet, this.reseauCritique);
 	}
 
-	public void tri()
+	/**
+	 * Relie à "Debut" les tâches sans précédent et à "Fin" les tâches sans suivant
+	 * Avec des liens typés : à "Debut" les tâches dont aucun lien ne fixe le début,
+	 * à "Fin" celles dont aucun lien n'attend la fin.
+	 */
+	private void rattacherOrphelines()
 	{
-		HashMap<Tache, Integer> dicTaches = new HashMap<>();
-		
-		// Première étape : calculer les niveaux (indices) de chaque tâche
-		while(dicTaches.size() != taches.size())
+		Tache tDebut = chercherTacheParNom("Debut");
+		Tache tFin   = chercherTacheParNom("Fin");
+
+		for (int id = 0; id < this.graphe.getNbNoeuds(); id++)
 		{
-			for (Tache t : taches)
-			{
-				// Si la tâche n'est pas encore dans le dictionnaire
-				if (!dicTaches.containsKey(t))
-				{
-					int colPlusGrd = -1;
-					
-					if (t.getPrecedents().isEmpty())
-					{
-						dicTaches.put(t, 0);
-					}
-					else
-					{
-						// Vérifier si tous les précédents ont déjà un niveau assigné
-						boolean tousPrecsTraites = true;
-						for (Tache pred : t.getPrecedents())
-						{
-							if (!dicTaches.containsKey(pred))
-							{
-								tousPrecsTraites = false;
-								break;
-							}
-							
-							int niveauPred = dicTaches.get(pred);
-							if (niveauPred + 1 > colPlusGrd)
-								colPlusGrd = niveauPred + 1;
-						}
-						
-						// Ne l'ajouter que si tous ses précédents sont traités
-						if (tousPrecsTraites && colPlusGrd != -1)
-						{
-							dicTaches.put(t, colPlusGrd);
-						}
-					}
-				}
+			Tache t = this.graphe.getVue(id);
+			if (this.graphe.aDebutLibre(id) && t != tFin && t != tDebut) {
+				t.ajouterPrecedent(tDebut);
+			}
+			if (this.graphe.aFinLibre(id) && t != tFin && t != tDebut) {
+				t.ajouterSuivant(tFin);
 			}
 		}
+	}
+
+	/**
+	 * Reconnaît le format d'un fichier de projet d'après ses premières lignes
+	 *
+	 * @param cheminFichier Chemin du fichier
+	 * @return "pos" si les lignes portent des positions, "base" sinon, null si le format est inconnu
+	 */
+	public static String determineFichier(String cheminFichier) 
+	{
+		File fichier = new File(cheminFichier);
 		
-		// Deuxième étape : trier les tâches par leur niveau
-		ArrayList<Tache> tachesTriees = new ArrayList<>();
-		
-		// Trouver le niveau maximum
-		int niveauMax = 0;
-		for (int niveau : dicTaches.values())
+		if (!fichier.canRead()) 
 		{
-			if (niveau > niveauMax)
-				niveauMax = niveau;
+			System.err.println("Fichier illisible: " + cheminFichier);
+			return null;
 		}
-		
-		// Ajouter les tâches niveau par niveau (0, puis 1, puis 2, etc.)
-		for (int niveau = 0; niveau <= niveauMax; niveau++)
+
+		String format = Instantane.determinerFormat(cheminFichier);
+		if (format != null) return format;
+
+		try
 		{
-			for (Tache t : taches)
-			{
-				if (dicTaches.get(t) == niveau)
-				{
-					tachesTriees.add(t);
-				}
-			}
+			return ChargeurProjet.determinerFormat(cheminFichier);
+		} 
+		catch (IOException e) 
+		{
+			e.printStackTrace();
+			return null;
 		}
-		
-		this.taches = tachesTriees;
 	}
 
+	/**
+	 * Trie les tâches par niveau (ordre topologique de Kahn, stable à niveau égal)
+	 * Les identifiants des tâches suivent ensuite cet ordre.
+	 *
+	 * @throws IllegalStateException si les dépendances forment un cycle
+	 */
+	public void tri()
+	{
+		this.permuterSelon(this.getOrdreTopologique());
+	}
+
+	/**
+	 * Renumérote les tâches dans un ordre topologique déjà calculé pour le graphe courant
+	 *
+	 * @param ordreTopologique L'ordre, selon les identifiants actuels
+	 */
+	private void permuterSelon(OrdreTopologique ordreTopologique)
+	{
+		int[] ordre    = ordreTopologique.getOrdre();
+		int[] nouvelId = new int[ordre.length];
+
+		for (int r = 0; r < ordre.length; r++)
+		{
+			nouvelId[ordre[r]] = r;
+		}
+
+		this.graphe.permuter(nouvelId);
+		this.accessibilite   = null;
+		this.tachesCritiques = null;
+		this.invaliderStructure();
+	}
+
+	/**
+	 * Retourne l'ordre topologique et les niveaux des tâches du projet
+	 * Le calcul est fait à la demande puis conservé jusqu'à la prochaine modification du graphe.
+	 *
+	 * @return L'ordre topologique courant
+	 * @throws IllegalStateException si les dépendances forment un cycle
+	 */
+	public OrdreTopologique getOrdreTopologique()
+	{
+		if (this.ordreTopologique == null)
+			this.ordreTopologique = new OrdreTopologique(this.graphe);
+
+		return this.ordreTopologique;
+	}
+
+	/**
+	 * Retourne le niveau (colonne) d'une tâche dans le diagramme
+	 *
+	 * @param t La tâche
+	 * @return Le niveau de la tâche, 0 pour les tâches sans précédent
+	 */
+	public int getNiveau(Tache t) { return this.getOrdreTopologique().getNiveau(t.getId()); }
+
 		public boolean dateValide(String date) 
 	{
 		if (date == null || date.trim().isEmpty()) 
@@ -895,6 +2339,8 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 
 	public void setDateDebut(String dateDebut, String dateFin)
 	{
+		String     avant      = this.dateDebut;
+		Historique historique = this.getHistorique();
 
 		if (dateDebut != null && dateDebut.matches("\\d{2}/\\d{2}/\\d{4}")) 
 		{
@@ -906,10 +2352,18 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 			Tache tFin = chercherTacheParNom("Fin");
 			if (tFin != null) 
 			{	
-				this.dateDebut = Tache.ajouterJours(dateFin, - tFin.getDatePlusTard());
+				// Recul du même nombre de jours ouvrés que la durée du projet
+				Calendrier fin = this.joursOuvres == null ? Calendrier.pour(dateFin) : new Calendrier(dateFin, this.joursOuvres);
+				this.dateDebut = fin.dateComplete(- tFin.getDatePlusTard());
 			}
 		}
 
+		if (this.dateDebut != null && !this.dateDebut.equals(avant))
+		{
+			historique.noter("Date de début : " + this.dateDebut, this.graphe, new int[0], 0, AUCUN_NOM, this.dateDebut);
+			this.journaliser(Journal.date(this.dateDebut));
+			this.publierCalendrier();
+		}
 	}
 		// ========== MÉTHODES D'AFFICHAGE ==========
 
@@ -921,11 +2375,12 @@ public boolean enregistrer(String infosNoeuds, String cheminAbsolu)
 	 */
 	public String toString()
 	{
-		String texte = "=== ANALYSE MPM ===\n\n";
+		String     texte      = "=== ANALYSE MPM ===\n\n";
+		Calendrier calendrier = this.getCalendrier();
 		
-		for (Tache t : this.taches) 
+		for (Tache t : this.getTaches()) 
 		{
-			texte += t.toString(dateDebut) + "\n";
+			texte += t.toString(calendrier.libelle(t.getDatePlusTot()), calendrier.libelle(t.getDatePlusTard())) + "\n";
 		}
 		return texte;
 	}
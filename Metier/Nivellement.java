@@ -0,0 +1,682 @@
+package Metier;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Classe Nivellement - Ordonnancement d'une version figée du planning sous contraintes de ressources
+ * Les dates MPM supposent des ressources illimitées. Ici chaque tâche occupe, pendant sa durée,
+ * les unités de ressources demandées (voir Ressources) et aucune capacité ne doit être dépassée :
+ * les tâches sont décalées au plus juste par un schéma de génération d'ordonnancement.
+ * - sériel : les tâches sont prises une à une, par priorité parmi celles dont tous les précédents
+ *   sont placés, et chacune au plus tôt où ses précédents et les ressources le permettent ;
+ * - parallèle : le temps avance d'événement en événement (fin d'une tâche, tâche prête) ; à chaque
+ *   date, les tâches prêtes sont placées par priorité tant que les ressources restantes suffisent.
+ * Les tâches prêtes sont rangées dans un tas (voir TasEntiers), par priorité puis rang topologique.
+ *
+ * Plusieurs règles de priorité, tirées des dates déjà calculées par Mpm, sont essayées avec chaque
+ * schéma (voir Regle). Les essais sont indépendants et répartis sur un ForkJoinPool ; le meilleur,
+ * c'est-à-dire la fin de projet la plus proche, est retenu (à égalité, le premier dans l'ordre
+ * des schémas puis des règles). Les liens typés sont respectés : début(suivant) >= début(précédent)
+ * + écart (voir Lien.ecart), et aucune tâche ne commence avant le jour 0.
+ */
+public class Nivellement
+{
+	// ========== CONSTANTES ==========
+
+	/**
+	 * Schéma de génération de l'ordonnancement
+	 */
+	public enum Schema
+	{
+		SERIEL,
+		PARALLELE
+	}
+
+	/**
+	 * Règle de priorité entre tâches prêtes
+	 */
+	public enum Regle
+	{
+		LFT,    // Plus petite fin au plus tard (latest finish time)
+		MTS,    // Plus grand nombre de successeurs, directs ou non (most total successors)
+		GRPW    // Plus grand poids : durée + durées des suivants directs (greatest rank positional weight)
+	}
+
+	private static final int  MOTS_MTS    = 1 << 21;   // Mots de 64 bits alloués au plus pour compter les successeurs (16 Mo)
+	private static final long TRAVAIL_MTS = 1L << 32;  // Au-delà de nbTaches * nbArcs / 64 opérations, le compte est estimé
+
+	// ========== ATTRIBUTS ==========
+
+	private final Planning planning;       // Version du planning ordonnancée
+	private final int      nbTaches;       // Nombre de tâches
+	private final int      nbRessources;   // Nombre de ressources
+
+	private final int[]    durees;         // Durée de chaque tâche, par indice
+	private final int[]    nbPrc;          // Nombre de précédents de chaque tâche
+	private final int[]    debutSvt;       // Début des suivants de chaque tâche (nbTaches + 1 cases)
+	private final int[]    svt;            // Indices des suivants, tâche par tâche
+	private final int[]    ecarts;         // Écart minimal entre le début de la tâche et celui de chaque suivant
+
+	private final int[]    capacites;      // Capacité de chaque ressource
+	private final int[]    debutBesoin;    // Début des besoins de chaque tâche (nbTaches + 1 cases)
+	private final int[]    ressource;      // Numéro de la ressource de chaque besoin
+	private final int[]    quantite;       // Unités occupées de chaque besoin
+
+	private final long[][] cles;           // Clé de chaque tâche dans les tas, par règle (la plus petite passe d'abord)
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Prépare le nivellement d'une version du planning
+	 * Seules les tâches de durée non nulle occupent des ressources.
+	 *
+	 * @param planning La version à ordonnancer
+	 * @param ressources Les ressources et les besoins des tâches, par nom
+	 * @throws IllegalArgumentException si le besoin d'une tâche dépasse la capacité d'une ressource
+	 */
+	public Nivellement(Planning planning, Ressources ressources)
+	{
+		int n = planning.getNbTaches();
+
+		this.planning     = planning;
+		this.nbTaches     = n;
+		this.nbRessources = ressources.getNbRessources();
+		this.durees       = new int[n];
+		this.nbPrc        = new int[n];
+		this.debutSvt     = new int[n + 1];
+		this.capacites    = new int[this.nbRessources];
+		this.debutBesoin  = new int[n + 1];
+
+		for (int k = 0; k < this.nbRessources; k++) this.capacites[k] = ressources.getCapacite(k);
+
+		// ========== DÉPENDANCES ==========
+		for (int i = 0; i < n; i++)
+		{
+			this.durees  [i]     = planning.getDuree(i);
+			this.nbPrc   [i]     = planning.getNbPrecedents(i);
+			this.debutSvt[i + 1] = this.debutSvt[i] + planning.getNbSuivants(i);
+		}
+
+		boolean liens = planning.aDesLiensTypes();
+
+		this.svt    = new int[this.debutSvt[n]];
+		this.ecarts = new int[this.debutSvt[n]];
+		for (int i = 0; i < n; i++)
+		{
+			for (int k = 0; k < planning.getNbSuivants(i); k++)
+			{
+				int s = planning.getSuivant(i, k);
+
+				this.svt   [this.debutSvt[i] + k] = s;
+				this.ecarts[this.debutSvt[i] + k] = liens ? Lien.ecart(planning.getTypeSuivant(i, k), planning.getDelaiSuivant(i, k), this.durees[i], this.durees[s])
+				                                          : this.durees[i];
+			}
+		}
+
+		// ========== BESOINS ==========
+		int[][] besoins = new int[n][];
+		for (int i = 0; i < n; i++)
+		{
+			int nb = 0;
+			if (this.durees[i] > 0) besoins[i] = ressources.besoinsDe(planning.getNom(i));
+			if (besoins[i] != null)
+			{
+				for (int k = 0; k < besoins[i].length; k++)
+				{
+					if (besoins[i][k] == 0) continue;
+					if (besoins[i][k] > this.capacites[k])
+						throw new IllegalArgumentException(Erreur.BESOIN_INVALIDE.formater(planning.getNom(i), ressources.getNom(k), this.capacites[k]));
+					nb++;
+				}
+			}
+			this.debutBesoin[i + 1] = this.debutBesoin[i] + nb;
+		}
+
+		this.ressource = new int[this.debutBesoin[n]];
+		this.quantite  = new int[this.debutBesoin[n]];
+		for (int i = 0; i < n; i++)
+		{
+			if (besoins[i] == null) continue;
+
+			int b = this.debutBesoin[i];
+			for (int k = 0; k < besoins[i].length; k++)
+			{
+				if (besoins[i][k] == 0) continue;
+				this.ressource[b] = k;
+				this.quantite [b] = besoins[i][k];
+				b++;
+			}
+		}
+
+		// ========== PRIORITÉS ==========
+		this.cles = new long[Regle.values().length][];
+		for (Regle regle : Regle.values()) this.cles[regle.ordinal()] = this.calculerCles(regle);
+	}
+
+	/**
+	 * Calcule la clé de chaque tâche pour une règle : priorité sur les 32 bits de poids fort,
+	 * rang topologique sur les 32 bits de poids faible pour départager
+	 */
+	private long[] calculerCles(Regle regle)
+	{
+		int   n        = this.nbTaches;
+		int[] priorite = new int[n];
+
+		switch (regle)
+		{
+			case LFT:
+				for (int i = 0; i < n; i++) priorite[i] = this.planning.getDatePlusTard(i) + this.durees[i];
+				break;
+
+			case MTS:
+				int[] nbSuccesseurs = this.compterSuccesseurs();
+				for (int i = 0; i < n; i++) priorite[i] = -nbSuccesseurs[i];
+				break;
+
+			default:
+				for (int i = 0; i < n; i++)
+				{
+					int poids = this.durees[i];
+					for (int k = this.debutSvt[i]; k < this.debutSvt[i + 1]; k++) poids += this.durees[this.svt[k]];
+					priorite[i] = -poids;
+				}
+		}
+
+		long[] cles = new long[n];
+		for (int r = 0; r < n; r++)
+		{
+			int i = this.planning.getTacheDeRang(r);
+			cles[i] = (long) priorite[i] << 32 | r;
+		}
+		return cles;
+	}
+
+	/**
+	 * Compte les successeurs, directs ou non, de chaque tâche
+	 * Les descendants sont suivis par paquets de tâches, un bit par tâche : à chaque passe, un
+	 * parcours des rangs à rebours réunit les ensembles de bits des suivants. Le paquet est aussi
+	 * large que MOTS_MTS le permet. Sur un très grand projet, le compte exact coûterait trop :
+	 * il est remplacé par la somme des comptes des suivants, bornée par nbTaches - 1 (une tâche
+	 * atteinte par plusieurs chemins y compte plusieurs fois).
+	 */
+	private int[] compterSuccesseurs()
+	{
+		int    n       = this.nbTaches;
+		int[]  nombres = new int[n];
+
+		if ((long) n * this.svt.length / 64 > TRAVAIL_MTS)
+		{
+			for (int r = n - 1; r >= 0; r--)
+			{
+				int  i     = this.planning.getTacheDeRang(r);
+				long somme = 0;
+				for (int k = this.debutSvt[i]; k < this.debutSvt[i + 1]; k++) somme += 1 + nombres[this.svt[k]];
+				nombres[i] = (int) Math.min(somme, n - 1);
+			}
+			return nombres;
+		}
+
+		int    nbMots  = Math.max(1, Math.min(64, MOTS_MTS / Math.max(n, 1)));
+		int    largeur = nbMots * 64;
+		long[] bits    = new long[n * nbMots];
+
+		for (int premier = 0; premier < n; premier += largeur)
+		{
+			Arrays.fill(bits, 0L);
+
+			for (int r = n - 1; r >= 0; r--)
+			{
+				int i = this.planning.getTacheDeRang(r);
+				int a = i * nbMots;
+
+				for (int k = this.debutSvt[i]; k < this.debutSvt[i + 1]; k++)
+				{
+					int s = this.svt[k];
+					int b = s * nbMots;
+
+					for (int m = 0; m < nbMots; m++) bits[a + m] |= bits[b + m];
+					if (s >= premier && s < premier + largeur) bits[a + (s - premier) / 64] |= 1L << (s - premier);
+				}
+
+				for (int m = 0; m < nbMots; m++) nombres[i] += Long.bitCount(bits[a + m]);
+			}
+		}
+
+		return nombres;
+	}
+
+	// ========== NIVELLEMENT ==========
+
+	/**
+	 * Essaie chaque schéma avec chaque règle et retient le meilleur ordonnancement
+	 * Appelée depuis un fil d'un ForkJoinPool, elle se répartit sur ce pool ; sinon elle
+	 * crée un pool de nbFils fils le temps du calcul.
+	 *
+	 * @param nbFils Le nombre de fils de calcul hors d'un ForkJoinPool
+	 * @return L'ordonnancement retenu
+	 */
+	public Resultat niveler(int nbFils)
+	{
+		Schema[]          schemas = Schema.values();
+		Regle[]           regles  = Regle.values();
+		int[][]           debuts  = new int[schemas.length * regles.length][];
+		ForkJoinTask<?>[] essais  = new ForkJoinTask<?>[debuts.length];
+
+		for (int e = 0; e < essais.length; e++)
+		{
+			int    numero = e;
+			Schema schema = schemas[e / regles.length];
+			long[] cles   = this.cles[e % regles.length];
+
+			essais[e] = ForkJoinTask.adapt(() ->
+			{
+				debuts[numero] = schema == Schema.SERIEL ? this.ordonnancerSeriel(cles) : this.ordonnancerParallele(cles);
+			});
+		}
+
+		if (ForkJoinTask.inForkJoinPool())
+		{
+			ForkJoinTask.invokeAll(essais);
+		}
+		else if (nbFils <= 1)
+		{
+			for (ForkJoinTask<?> essai : essais) essai.invoke();
+		}
+		else
+		{
+			ForkJoinPool pool = new ForkJoinPool(nbFils);
+			try
+			{
+				pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(essais)));
+			}
+			finally
+			{
+				pool.shutdown();
+			}
+		}
+
+		// ========== MEILLEUR ESSAI ==========
+		int[] fins     = new int[essais.length];
+		int   meilleur = 0;
+		for (int e = 0; e < essais.length; e++)
+		{
+			fins[e] = this.finProjet(debuts[e]);
+			if (fins[e] < fins[meilleur]) meilleur = e;
+		}
+
+		return new Resultat(this.planning, schemas[meilleur / regles.length], regles[meilleur % regles.length],
+		                    debuts[meilleur], fins[meilleur], fins);
+	}
+
+	private int finProjet(int[] debuts)
+	{
+		int fin = 0;
+		for (int i = 0; i < this.nbTaches; i++) fin = Math.max(fin, debuts[i] + this.durees[i]);
+		return fin;
+	}
+
+	// ========== SCHÉMA SÉRIEL ==========
+
+	/**
+	 * Place les tâches une à une, par priorité, chacune au plus tôt
+	 *
+	 * @param cles Les clés de la règle de priorité
+	 * @return Le début de chaque tâche, par indice
+	 */
+	private int[] ordonnancerSeriel(long[] cles)
+	{
+		int        n         = this.nbTaches;
+		int[]      debuts    = new int[n];
+		int[]      permis    = new int[n];
+		int[]      restants  = this.nbPrc.clone();
+		TasEntiers prets     = new TasEntiers(n);
+		Profil     profil    = new Profil(this.capacites, this.planning.getFinProjet() + 1);
+
+		for (int i = 0; i < n; i++) if (restants[i] == 0) prets.ajouter(i, cles[i]);
+
+		while (!prets.estVide())
+		{
+			int j     = prets.extraire();
+			int debut = permis[j];
+
+			if (this.debutBesoin[j] < this.debutBesoin[j + 1])
+			{
+				debut = this.premierDebut(profil, j, debut);
+				this.reserver(profil, j, debut);
+			}
+			debuts[j] = debut;
+
+			for (int k = this.debutSvt[j]; k < this.debutSvt[j + 1]; k++)
+			{
+				int s = this.svt[k];
+				if (debut + this.ecarts[k] > permis[s]) permis[s] = debut + this.ecarts[k];
+				if (--restants[s] == 0) prets.ajouter(s, cles[s]);
+			}
+		}
+
+		return debuts;
+	}
+
+	/**
+	 * Cherche le premier début, à partir de debut, où les ressources suffisent pendant toute la tâche
+	 * Chaque fenêtre est lue à rebours : le conflit trouvé est le dernier, la recherche reprend juste après.
+	 */
+	private int premierDebut(Profil profil, int j, int debut)
+	{
+		int duree = this.durees[j];
+
+		boolean conflit = true;
+		while (conflit)
+		{
+			conflit = false;
+			profil.etendre(debut + duree + 1);
+
+			for (int b = this.debutBesoin[j]; b < this.debutBesoin[j + 1] && !conflit; b++)
+			{
+				int[] libre = profil.libres[this.ressource[b]];
+				int   q     = this.quantite[b];
+
+				for (int u = debut + duree - 1; u >= debut; u--)
+				{
+					if (libre[u] >= q) continue;
+
+					debut   = libre[u] == 0 ? profil.prochainLibre(this.ressource[b], u) : u + 1;
+					conflit = true;
+					break;
+				}
+			}
+		}
+
+		return debut;
+	}
+
+	private void reserver(Profil profil, int j, int debut)
+	{
+		for (int b = this.debutBesoin[j]; b < this.debutBesoin[j + 1]; b++)
+		{
+			int   r     = this.ressource[b];
+			int[] libre = profil.libres[r];
+
+			for (int u = debut; u < debut + this.durees[j]; u++)
+			{
+				libre[u] -= this.quantite[b];
+				if (libre[u] == 0) profil.suivants[r][u] = u + 1;
+			}
+		}
+	}
+
+	// ========== SCHÉMA PARALLÈLE ==========
+
+	/**
+	 * Avance d'événement en événement et place à chaque date les tâches prêtes que les ressources permettent
+	 * À une date donnée, toutes les tâches déjà placées ont commencé : les ressources libres à cette
+	 * date le restent pendant toute tâche qu'on y place, il suffit donc de les compter.
+	 * Une tâche refusée attend dans le tas de la ressource qui lui manque, par quantité demandée :
+	 * elle n'est réexaminée que lorsque assez d'unités de cette ressource ont été rendues.
+	 *
+	 * @param cles Les clés de la règle de priorité
+	 * @return Le début de chaque tâche, par indice
+	 */
+	private int[] ordonnancerParallele(long[] cles)
+	{
+		int          n         = this.nbTaches;
+		int[]        debuts    = new int[n];
+		int[]        permis    = new int[n];
+		int[]        restants  = this.nbPrc.clone();
+		int[]        libres    = this.capacites.clone();
+		TasEntiers   attente   = new TasEntiers(n);   // Tâches dont les précédents sont placés, par début permis
+		TasEntiers   prets     = new TasEntiers(n);   // Tâches prêtes qui ont des besoins, par priorité
+		TasEntiers   enCours   = new TasEntiers(n);   // Tâches commencées qui ont des besoins, par fin
+		TasEntiers[] bloquees  = new TasEntiers[this.nbRessources];   // Tâches refusées, par ressource manquante et quantité
+		int          nbPlacees = 0;
+		int          nbPleines = 0;                   // Ressources sans unité libre
+		int          date      = 0;
+
+		for (int r = 0; r < this.nbRessources; r++) bloquees[r] = new TasEntiers(16);
+		for (int i = 0; i < n; i++) if (restants[i] == 0) attente.ajouter(i, 0);
+
+		while (nbPlacees < n)
+		{
+			// ========== PLACEMENTS À LA DATE COURANTE ==========
+			do
+			{
+				while (!attente.estVide() && attente.getCleMin() <= date)
+				{
+					int j = attente.extraire();
+
+					if (this.debutBesoin[j] < this.debutBesoin[j + 1])
+					{
+						prets.ajouter(j, cles[j]);
+						continue;
+					}
+
+					debuts[j] = date;
+					nbPlacees++;
+					this.libererSuivants(j, date, permis, restants, attente);
+				}
+
+				// Toutes les ressources épuisées : aucune tâche prête ne peut plus commencer à cette date
+				while (!prets.estVide() && nbPleines < this.nbRessources)
+				{
+					int j         = prets.extraire();
+					int manquante = this.besoinManquant(j, libres);
+
+					if (manquante >= 0)
+					{
+						bloquees[this.ressource[manquante]].ajouter(j, (long) this.quantite[manquante] << 32 | j);
+						continue;
+					}
+
+					for (int b = this.debutBesoin[j]; b < this.debutBesoin[j + 1]; b++)
+					{
+						libres[this.ressource[b]] -= this.quantite[b];
+						if (libres[this.ressource[b]] == 0) nbPleines++;
+					}
+
+					debuts[j] = date;
+					nbPlacees++;
+					enCours.ajouter(j, date + this.durees[j]);
+					this.libererSuivants(j, date, permis, restants, attente);
+				}
+			}
+			while (!attente.estVide() && attente.getCleMin() <= date);
+
+			if (nbPlacees == n) break;
+
+			// ========== ÉVÉNEMENT SUIVANT ==========
+			long prochaine = Long.MAX_VALUE;
+			if (!enCours.estVide()) prochaine = enCours.getCleMin();
+			if (!attente.estVide()) prochaine = Math.min(prochaine, attente.getCleMin());
+			date = (int) prochaine;
+
+			while (!enCours.estVide() && enCours.getCleMin() <= date)
+			{
+				int j = enCours.extraire();
+				for (int b = this.debutBesoin[j]; b < this.debutBesoin[j + 1]; b++)
+				{
+					if (libres[this.ressource[b]] == 0) nbPleines--;
+					libres[this.ressource[b]] += this.quantite[b];
+				}
+			}
+
+			for (int r = 0; r < this.nbRessources; r++)
+			{
+				while (!bloquees[r].estVide() && bloquees[r].getCleMin() >>> 32 <= libres[r])
+				{
+					int k = bloquees[r].extraire();
+					prets.ajouter(k, cles[k]);
+				}
+			}
+		}
+
+		return debuts;
+	}
+
+	/**
+	 * Marque les suivants d'une tâche placée ; ceux dont tous les précédents sont placés attendent leur début permis
+	 */
+	private void libererSuivants(int j, int debut, int[] permis, int[] restants, TasEntiers attente)
+	{
+		for (int k = this.debutSvt[j]; k < this.debutSvt[j + 1]; k++)
+		{
+			int s = this.svt[k];
+			if (debut + this.ecarts[k] > permis[s]) permis[s] = debut + this.ecarts[k];
+			if (--restants[s] == 0) attente.ajouter(s, permis[s]);
+		}
+	}
+
+	/**
+	 * @return Un besoin de la tâche que les unités libres ne couvrent pas, -1 si elle peut commencer
+	 */
+	private int besoinManquant(int j, int[] libres)
+	{
+		for (int b = this.debutBesoin[j]; b < this.debutBesoin[j + 1]; b++)
+		{
+			if (libres[this.ressource[b]] < this.quantite[b]) return b;
+		}
+		return -1;
+	}
+
+	// ========== CLASSES INTERNES ==========
+
+	/**
+	 * Unités libres de chaque ressource, jour par jour, pour le schéma sériel
+	 * Les unités libres ne font que diminuer : les jours épuisés sont sautés grâce à une
+	 * union-find (suivants[r][u] mène au premier jour >= u où il reste une unité de r).
+	 */
+	private static final class Profil
+	{
+		private final int[]   capacites;   // Capacité de chaque ressource
+		private       int[][] libres;      // Unités libres de chaque ressource, par jour
+		private       int[][] suivants;    // Jour suivant à examiner (le jour lui-même s'il reste une unité)
+		private       int     horizon;     // Nombre de jours suivis
+
+		Profil(int[] capacites, int horizon)
+		{
+			this.capacites = capacites;
+			this.libres    = new int[capacites.length][];
+			this.suivants  = new int[capacites.length][];
+			this.horizon   = 0;
+			this.etendre(Math.max(horizon, 16));
+		}
+
+		/**
+		 * Suit au moins jours jours, en doublant l'horizon au besoin
+		 */
+		void etendre(int jours)
+		{
+			if (jours <= this.horizon) return;
+
+			int ancien = this.horizon;
+			this.horizon = Math.max(jours, ancien * 2);
+
+			for (int r = 0; r < this.capacites.length; r++)
+			{
+				this.libres  [r] = ancien == 0 ? new int[this.horizon] : Arrays.copyOf(this.libres  [r], this.horizon);
+				this.suivants[r] = ancien == 0 ? new int[this.horizon] : Arrays.copyOf(this.suivants[r], this.horizon);
+
+				Arrays.fill(this.libres[r], ancien, this.horizon, this.capacites[r]);
+				for (int u = ancien; u < this.horizon; u++) this.suivants[r][u] = u;
+			}
+		}
+
+		/**
+		 * @return Le premier jour >= u où il reste au moins une unité de la ressource r
+		 */
+		int prochainLibre(int r, int u)
+		{
+			int[] suivant = this.suivants[r];
+
+			while (suivant[u] != u)
+			{
+				suivant[u] = suivant[suivant[u]];
+				u = suivant[u];
+			}
+			return u;
+		}
+	}
+
+	/**
+	 * Ordonnancement retenu : début nivelé de chaque tâche, à côté des dates MPM de la version
+	 */
+	public static final class Resultat
+	{
+		private final Planning planning;    // Version ordonnancée
+		private final Schema   schema;      // Schéma de l'essai retenu
+		private final Regle    regle;       // Règle de l'essai retenu
+		private final int[]    debuts;      // Début nivelé de chaque tâche, par indice
+		private final int      finProjet;   // Fin du projet nivelé
+		private final int[]    fins;        // Fin du projet de chaque essai, par schéma puis règle
+
+		private Resultat(Planning planning, Schema schema, Regle regle, int[] debuts, int finProjet, int[] fins)
+		{
+			this.planning  = planning;
+			this.schema    = schema;
+			this.regle     = regle;
+			this.debuts    = debuts;
+			this.finProjet = finProjet;
+			this.fins      = fins;
+		}
+
+		public Planning getPlanning()      { return this.planning;  }
+		public Schema   getSchema()        { return this.schema;    }
+		public Regle    getRegle()         { return this.regle;     }
+		public int      getFinProjet()     { return this.finProjet; }
+
+		/**
+		 * @return Le retard de la fin du projet nivelé sur la fin MPM
+		 */
+		public int getEcartFin()           { return this.finProjet - this.planning.getFinProjet(); }
+
+		/**
+		 * @return Le libellé jj/mm de la fin du projet nivelé
+		 */
+		public String getDateFin()         { return this.planning.getCalendrier().libelle(this.finProjet); }
+
+		/**
+		 * @param schema Un schéma
+		 * @param regle Une règle
+		 * @return La fin du projet obtenue par cet essai
+		 */
+		public int getFinProjet(Schema schema, Regle regle)
+		{
+			return this.fins[schema.ordinal() * Regle.values().length + regle.ordinal()];
+		}
+
+		/**
+		 * @param i Indice d'une tâche dans la version
+		 * @return Son début nivelé
+		 */
+		public int getDebut(int i)         { return this.debuts[i]; }
+
+		/**
+		 * @param i Indice d'une tâche dans la version
+		 * @return Sa fin nivelée
+		 */
+		public int getFin(int i)           { return this.debuts[i] + this.planning.getDuree(i); }
+
+		/**
+		 * @param i Indice d'une tâche dans la version
+		 * @return Le décalage de son début nivelé sur sa date au plus tôt MPM
+		 */
+		public int getDecalage(int i)      { return this.debuts[i] - this.planning.getDatePlusTot(i); }
+
+		/**
+		 * @param i Indice d'une tâche dans la version
+		 * @return Le libellé jj/mm de son début nivelé
+		 */
+		public String getLibelleDebut(int i) { return this.planning.getCalendrier().libelle(this.debuts[i]); }
+
+		/**
+		 * @param nom Le nom d'une tâche
+		 * @return Son début nivelé, -1 si elle n'existe pas
+		 */
+		public int getDebut(String nom)
+		{
+			int i = this.planning.indexDe(nom);
+			return i < 0 ? -1 : this.debuts[i];
+		}
+	}
+}
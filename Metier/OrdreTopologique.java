@@ -0,0 +1,228 @@
+package Metier;
+
+/**
+ * Classe OrdreTopologique - Ordre topologique et niveaux des tâches d'un graphe
+ * Calculé par l'algorithme de Kahn avec des compteurs de degrés entrants, en O(V+E).
+ * Le niveau d'une tâche est la longueur du plus long chemin (en nombre d'arcs)
+ * depuis une tâche sans précédent ; c'est la colonne de la tâche dans le diagramme.
+ */
+public class OrdreTopologique
+{
+	// ========== ATTRIBUTS ==========
+
+	private int[] ordre;        // Identifiants des tâches triés par niveau puis par identifiant
+	private int[] niveaux;      // Niveau de chaque tâche, indexé par identifiant
+	private int   niveauMax;    // Plus grand niveau du graphe
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Calcule l'ordre topologique et les niveaux d'un graphe
+	 *
+	 * @param g Le graphe des tâches
+	 * @throws IllegalStateException si le graphe contient un cycle, avec le cycle dans le message
+	 */
+	public OrdreTopologique(GrapheCompact g)
+	{
+		int   n      = g.getNbNoeuds();
+		int[] degre   = new int[n];
+		int[] file    = new int[n];
+		int   tete    = 0;
+		int   queue   = 0;
+
+		this.niveaux   = new int[n];
+		this.niveauMax = 0;
+
+		// ========== DEGRÉS ENTRANTS ==========
+		for (int i = 0; i < n; i++)
+		{
+			degre[i] = g.finPrc(i) - g.debutPrc(i);
+			if (degre[i] == 0) file[queue++] = i;
+		}
+
+		// ========== ALGORITHME DE KAHN ==========
+		while (tete < queue)
+		{
+			int u = file[tete++];
+
+			for (int k = g.debutSvt(u); k < g.finSvt(u); k++)
+			{
+				int s = g.svt(k);
+
+				if (this.niveaux[u] + 1 > this.niveaux[s]) this.niveaux[s] = this.niveaux[u] + 1;
+				if (--degre[s] == 0) file[queue++] = s;
+			}
+
+			if (this.niveaux[u] > this.niveauMax) this.niveauMax = this.niveaux[u];
+		}
+
+		if (queue != n)
+		{
+			throw new IllegalStateException(Erreur.CYCLE_DETECTE.formater(OrdreTopologique.decrireCycle(g, degre)));
+		}
+
+		this.trierParNiveau();
+	}
+
+	/**
+	 * Calcule l'ordre topologique et les niveaux des tâches d'une version figée du planning,
+	 * à la première demande (voir Planning) ; même parcours que sur le graphe, sans cycle possible
+	 *
+	 * @param p Le planning
+	 */
+	OrdreTopologique(Planning p)
+	{
+		int   n     = p.getNbTaches();
+		int[] degre = new int[n];
+		int[] file  = new int[n];
+		int   tete  = 0;
+		int   queue = 0;
+
+		this.niveaux   = new int[n];
+		this.niveauMax = 0;
+
+		for (int i = 0; i < n; i++)
+		{
+			degre[i] = p.getNbPrecedents(i);
+			if (degre[i] == 0) file[queue++] = i;
+		}
+
+		while (tete < queue)
+		{
+			int u = file[tete++];
+
+			for (int k = 0; k < p.getNbSuivants(u); k++)
+			{
+				int s = p.getSuivant(u, k);
+
+				if (this.niveaux[u] + 1 > this.niveaux[s]) this.niveaux[s] = this.niveaux[u] + 1;
+				if (--degre[s] == 0) file[queue++] = s;
+			}
+
+			if (this.niveaux[u] > this.niveauMax) this.niveauMax = this.niveaux[u];
+		}
+
+		this.trierParNiveau();
+	}
+
+	/**
+	 * Reprend un ordre et des niveaux déjà calculés (relecture d'un instantané)
+	 *
+	 * @param ordre Identifiants des tâches par niveau croissant
+	 * @param niveaux Niveau de chaque tâche, indexé par identifiant
+	 */
+	OrdreTopologique(int[] ordre, int[] niveaux)
+	{
+		this.ordre     = ordre;
+		this.niveaux   = niveaux;
+		this.niveauMax = 0;
+
+		for (int niv : niveaux)
+		{
+			if (niv > this.niveauMax) this.niveauMax = niv;
+		}
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	/**
+	 * @return Les identifiants des tâches par niveau croissant, à niveau égal par identifiant croissant
+	 */
+	public int[] getOrdre()          { return this.ordre;       }
+
+	/**
+	 * @param id Identifiant d'une tâche
+	 * @return Le niveau de la tâche
+	 */
+	public int   getNiveau(int id)   { return this.niveaux[id]; }
+
+	/**
+	 * @return Le plus grand niveau du graphe
+	 */
+	public int   getNiveauMax()      { return this.niveauMax;   }
+
+	/**
+	 * Retourne, pour chaque tâche, sa position dans l'ordre topologique
+	 *
+	 * @return Tableau indexé par identifiant
+	 */
+	public int[] getRangs()
+	{
+		int[] rangs = new int[this.ordre.length];
+		for (int r = 0; r < this.ordre.length; r++) rangs[this.ordre[r]] = r;
+		return rangs;
+	}
+
+	// ========== MÉTHODES UTILITAIRES ==========
+
+	/**
+	 * Range les tâches par niveau croissant, à niveau égal par identifiant (tri par comptage stable)
+	 */
+	private void trierParNiveau()
+	{
+		int   n           = this.niveaux.length;
+		int[] debutNiveau = new int[this.niveauMax + 2];
+
+		for (int i = 0; i < n; i++) debutNiveau[this.niveaux[i] + 1]++;
+		for (int niv = 0; niv <= this.niveauMax; niv++) debutNiveau[niv + 1] += debutNiveau[niv];
+
+		this.ordre = new int[n];
+		for (int i = 0; i < n; i++)
+		{
+			this.ordre[debutNiveau[this.niveaux[i]]++] = i;
+		}
+	}
+
+	/**
+	 * Construit la description d'un cycle parmi les tâches que Kahn n'a pas pu traiter
+	 * Chacune d'elles a un précédent non traité : en remontant les précédents,
+	 * on finit forcément par repasser sur une tâche déjà vue.
+	 *
+	 * @param g Le graphe des tâches
+	 * @param degre Degrés entrants restants (non nuls pour les tâches non traitées)
+	 * @return Les noms des tâches du cycle, par exemple "A -> B -> C -> A"
+	 */
+	private static String decrireCycle(GrapheCompact g, int[] degre)
+	{
+		int   n     = g.getNbNoeuds();
+		int[] vu    = new int[n];
+		int   u     = 0;
+		int   etape = 1;
+
+		while (degre[u] == 0) u++;
+
+		// Remonter les précédents non traités jusqu'à retomber sur une tâche déjà vue
+		while (vu[u] == 0)
+		{
+			vu[u] = etape++;
+
+			int k = g.debutPrc(u);
+			while (degre[g.prc(k)] == 0) k++;
+
+			u = g.prc(k);
+		}
+
+		// u est sur le cycle : on le parcourt dans le sens des arcs en remontant à nouveau
+		int[] cycle = new int[etape];
+		int   lg    = 0;
+		int   v     = u;
+
+		do
+		{
+			cycle[lg++] = v;
+
+			int k = g.debutPrc(v);
+			while (degre[g.prc(k)] == 0) k++;
+
+			v = g.prc(k);
+		}
+		while (v != u);
+
+		String res = g.getVue(u).getNom();
+		for (int i = lg - 1; i >= 0; i--)
+		{
+			res += " -> " + g.getVue(cycle[i]).getNom();
+		}
+		return res;
+	}
+}
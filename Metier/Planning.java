@@ -0,0 +1,484 @@
+package Metier;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Classe Planning - Version figée du planning d'un projet MPM
+ * Mpm en construit une à la fin de chaque modification réussie et la publie par une seule
+ * référence volatile (voir Mpm.getPlanning). Une version n'est plus jamais modifiée : un fil
+ * qui la lit (analyse, export, fenêtre d'information) voit un état cohérent, sans verrou,
+ * pendant que le projet continue d'être modifié et que la version suivante se prépare.
+ *
+ * Les tâches y sont désignées par leur indice, égal à leur identifiant au moment de la publication.
+ *
+ * Les tâches sont rangées par pages de TAILLE_PAGE : une version reprend telles quelles les pages
+ * de la précédente où aucune tâche n'a changé (voir GrapheCompact.estPageModifiee), si bien qu'une
+ * modification locale ne recopie que les pages qu'elle touche. Comme dans le graphe, les dates
+ * au plus tard y sont rangées par rapport à la fin du projet : elle peut bouger sans toucher aux pages. Les marges et l'ordre topologique,
+ * s'ils n'étaient pas à jour au moment de la publication, sont calculés à la première demande.
+ */
+public final class Planning
+{
+	// ========== CONSTANTES ==========
+
+	static final         int DECALAGE    = 10;               // Une page regroupe 2^DECALAGE tâches
+	static final         int TAILLE_PAGE = 1 << DECALAGE;    // Nombre de tâches par page
+	private static final int MASQUE      = TAILLE_PAGE - 1;  // Position d'une tâche dans sa page
+
+	// ========== ATTRIBUTS ==========
+
+	private final long          version;        // Numéro de la version, croissant
+	private final int           nbTaches;       // Nombre de tâches
+	private final Page[]        pages;          // Tâches par pages, partagées avec les versions voisines
+	private final long[]        critiques;      // Ensemble (bits) des tâches sur un chemin critique
+	private final boolean       liens;          // true si un lien au moins n'est pas FS sans délai
+	private final int           finProjet;      // Fin du projet
+	private final int           finTard;        // Fin à laquelle les dates au plus tard des pages sont rapportées
+	private final String        dateDebut;      // Date de début du projet
+	private final Calendrier    calendrier;     // Calendrier du projet
+
+	private volatile OrdreTopologique         ordreTopologique;   // Ordre et niveaux, calculés à la première demande s'il le faut
+	private volatile Marges                   marges;             // Marges, calculées à la première demande s'il le faut
+	private volatile HashMap<String, Integer> index;              // Index nom -> indice, construit à la première recherche
+	private volatile BigInteger               nbChemins;          // Nombre de chemins critiques, compté à la première demande
+
+	// ========== CONSTRUCTEURS ==========
+
+	/**
+	 * Fige l'état courant d'un projet ; appelé par Mpm après chaque modification
+	 * Seules les pages modifiées depuis la version précédente sont recopiées du graphe.
+	 *
+	 * @param version Numéro de la version
+	 * @param precedente La version précédente, publiée depuis le même graphe (null : aucune)
+	 * @param g Le graphe, dates à jour
+	 * @param ordreTopologique L'ordre topologique courant (null s'il est à recalculer)
+	 * @param critiques Les tâches critiques courantes
+	 * @param finProjet La fin du projet
+	 * @param calendrier Le calendrier du projet
+	 */
+	Planning(long version, Planning precedente, GrapheCompact g, OrdreTopologique ordreTopologique,
+	         TachesCritiques critiques, int finProjet, Calendrier calendrier)
+	{
+		int     n         = g.getNbNoeuds();
+		boolean memesNoms = precedente != null && precedente.nbTaches == n;
+
+		this.version   = version;
+		this.nbTaches  = n;
+		this.pages     = new Page[(n + Planning.MASQUE) >>> Planning.DECALAGE];
+		this.critiques = critiques.copierCritiques(n);
+		this.liens     = g.aDesLiensTypes();
+
+		for (int p = 0; p < this.pages.length; p++)
+		{
+			int  debut  = p << Planning.DECALAGE;
+			int  nb     = Math.min(Planning.TAILLE_PAGE, n - debut);
+			Page avant  = precedente == null || p >= precedente.pages.length ? null : precedente.pages[p];
+
+			if (avant != null && avant.nb == nb && !g.estPageModifiee(p))
+			{
+				this.pages[p] = avant;
+				continue;
+			}
+
+			this.pages[p] = new Page(g, debut, nb);
+			memesNoms    &= avant != null && Arrays.equals(avant.noms, this.pages[p].noms);
+		}
+
+		this.ordreTopologique = ordreTopologique;
+		this.marges           = g.getMargesCalculees();
+		this.index            = memesNoms ? precedente.index : null;
+		this.finProjet        = finProjet;
+		this.finTard          = g.getFinTard();
+		this.dateDebut        = calendrier.getDateDebut();
+		this.calendrier       = calendrier;
+	}
+
+	/**
+	 * Même planning avec un autre calendrier : les pages, jamais modifiées, sont partagées
+	 */
+	private Planning(Planning p, long version, Calendrier calendrier)
+	{
+		this.version          = version;
+		this.nbTaches         = p.nbTaches;
+		this.pages            = p.pages;
+		this.critiques        = p.critiques;
+		this.liens            = p.liens;
+		this.finProjet        = p.finProjet;
+		this.finTard          = p.finTard;
+		this.ordreTopologique = p.ordreTopologique;
+		this.marges           = p.marges;
+		this.nbChemins        = p.nbChemins;
+		this.index            = p.index;
+		this.dateDebut        = calendrier.getDateDebut();
+		this.calendrier       = calendrier;
+	}
+
+	/**
+	 * Retourne ce planning avec un autre calendrier (date de début ou jours ouvrés modifiés)
+	 *
+	 * @param version Numéro de la nouvelle version
+	 * @param calendrier Le nouveau calendrier du projet
+	 * @return La nouvelle version
+	 */
+	Planning avecCalendrier(long version, Calendrier calendrier)
+	{
+		return new Planning(this, version, calendrier);
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public long       getVersion()            { return this.version;                 }
+	public int        getNbTaches()           { return this.nbTaches;                }
+	public int        getFinProjet()          { return this.finProjet;               }
+	public String     getDateDebut()          { return this.dateDebut;               }
+	public Calendrier getCalendrier()         { return this.calendrier;              }
+	public int        getNiveauMax()          { return this.getOrdreTopologique().getNiveauMax(); }
+
+	public String     getNom(int i)           { return this.page(i).noms         [i & Planning.MASQUE]; }
+	public int        getDuree(int i)         { return this.page(i).durees       [i & Planning.MASQUE]; }
+	public int        getDatePlusTot(int i)   { return this.page(i).datesPlusTot [i & Planning.MASQUE]; }
+	public int        getDatePlusTard(int i)  { return this.page(i).datesPlusTard[i & Planning.MASQUE] + this.finTard; }
+	public int        getMarge(int i)         { return this.getDatePlusTard(i) - this.getDatePlusTot(i); }
+	public int        getMargeLibre(int i)    { return this.getMarges().getLibre(i);  }
+	public int        getNiveau(int i)        { return this.getOrdreTopologique().getNiveau(i); }
+
+	/**
+	 * Retourne le nombre de chemins critiques, compté à la première demande sur cette version
+	 * Deux fils peuvent au pire le compter chacun.
+	 *
+	 * @return Le nombre de chemins de "Debut" à "Fin" entre tâches critiques
+	 */
+	public BigInteger getNbChemins()
+	{
+		BigInteger nb = this.nbChemins;
+		if (nb == null)
+		{
+			nb = this.compterChemins();
+			this.nbChemins = nb;
+		}
+		return nb;
+	}
+
+	/**
+	 * @param i Indice d'une tâche
+	 * @return true si la tâche est sur au moins un chemin critique
+	 */
+	public boolean estCritique(int i)         { return (this.critiques[i >>> 6] & (1L << i)) != 0; }
+
+	/**
+	 * @param i Indice d'une tâche
+	 * @return Sa marge indépendante (voir Marges)
+	 */
+	public int getMargeIndependante(int i)    { return this.getMarges().getIndependante(i); }
+
+	/**
+	 * @param rang Rang dans l'ordre topologique (0 .. getNbTaches()-1)
+	 * @return L'indice de la tâche de ce rang
+	 */
+	public int getTacheDeRang(int rang)       { return this.getOrdreTopologique().getOrdre()[rang]; }
+
+	/**
+	 * @param type La marge selon laquelle trier
+	 * @param k Position dans l'ordre des marges croissantes (0 .. getNbTaches()-1)
+	 * @return L'indice de la tâche à cette position (voir Marges.getOrdre)
+	 */
+	public int getTacheParMarge(Marges.Type type, int k) { return this.getMarges().getOrdre(type)[k]; }
+
+	public int getNbSuivants(int i)           { return this.page(i).getNbSuivants  (i & Planning.MASQUE);    }
+	public int getSuivant(int i, int k)       { return this.page(i).getSuivant     (i & Planning.MASQUE, k); }
+	public int getNbPrecedents(int i)         { return this.page(i).getNbPrecedents(i & Planning.MASQUE);    }
+	public int getPrecedent(int i, int k)     { return this.page(i).getPrecedent   (i & Planning.MASQUE, k); }
+
+	/**
+	 * @return true si un lien au moins n'est pas FS sans délai (voir Lien)
+	 */
+	public boolean aDesLiensTypes()           { return this.liens;                   }
+
+	// Type et délai du lien vers le k-ième suivant, ou depuis le k-ième précédent, de la tâche i
+	public byte getTypeSuivant(int i, int k)     { return this.page(i).getTypeSuivant    (i & Planning.MASQUE, k); }
+	public int  getDelaiSuivant(int i, int k)    { return this.page(i).getDelaiSuivant   (i & Planning.MASQUE, k); }
+	public byte getTypePrecedent(int i, int k)   { return this.page(i).getTypePrecedent  (i & Planning.MASQUE, k); }
+	public int  getDelaiPrecedent(int i, int k)  { return this.page(i).getDelaiPrecedent (i & Planning.MASQUE, k); }
+
+	private Page page(int i)                     { return this.pages[i >>> Planning.DECALAGE]; }
+
+	/**
+	 * Retourne l'ordre topologique et les niveaux, calculés à la première demande s'ils
+	 * n'étaient pas à jour à la publication. Deux fils peuvent au pire le calculer chacun.
+	 *
+	 * @return L'ordre topologique de cette version
+	 */
+	OrdreTopologique getOrdreTopologique()
+	{
+		OrdreTopologique ordre = this.ordreTopologique;
+		if (ordre == null)
+		{
+			ordre = new OrdreTopologique(this);
+			this.ordreTopologique = ordre;
+		}
+		return ordre;
+	}
+
+	/**
+	 * Retourne les marges, calculées à la première demande si elles n'étaient pas à jour
+	 * à la publication. Deux fils peuvent au pire les calculer chacun.
+	 *
+	 * @return Les marges de cette version
+	 */
+	Marges getMarges()
+	{
+		Marges m = this.marges;
+		if (m == null)
+		{
+			m = Marges.calculer(this);
+			this.marges = m;
+		}
+		return m;
+	}
+
+	/**
+	 * Cherche une tâche par son nom
+	 * L'index est construit à la première recherche, ou repris de la version précédente si les
+	 * tâches n'ont pas changé ; deux fils peuvent au pire le construire chacun.
+	 *
+	 * @param nom Le nom de la tâche
+	 * @return L'indice de la tâche, -1 si elle n'existe pas dans cette version
+	 */
+	public int indexDe(String nom)
+	{
+		HashMap<String, Integer> idx = this.index;
+		if (idx == null)
+		{
+			idx = new HashMap<>(this.nbTaches * 2);
+			for (int i = 0; i < this.nbTaches; i++) idx.put(this.getNom(i), i);
+			this.index = idx;
+		}
+
+		Integer i = idx.get(nom);
+		return i == null ? -1 : i;
+	}
+
+	/**
+	 * Cherche la première tâche qui diffère d'une autre version (voir Mpm.comparerPlanning)
+	 * Les tâches sont appariées par nom : un projet relu peut les numéroter autrement, et l'ordre
+	 * des voisins d'une tâche dépend de l'ordre d'ajout des arcs. Durées, dates, marges, niveaux,
+	 * appartenance au réseau critique et liens sont comparés.
+	 *
+	 * @param autre L'autre version
+	 * @return L'indice de la première tâche qui diffère, -1 si les deux versions concordent
+	 */
+	int premiereDifference(Planning autre)
+	{
+		for (int i = 0; i < this.nbTaches; i++)
+		{
+			int j = autre.indexDe(this.getNom(i));
+
+			boolean egal = j >= 0
+			               && this.getDuree(i)              == autre.getDuree(j)
+			               && this.getDatePlusTot(i)        == autre.getDatePlusTot(j)
+			               && this.getDatePlusTard(i)       == autre.getDatePlusTard(j)
+			               && this.getMargeLibre(i)         == autre.getMargeLibre(j)
+			               && this.getMargeIndependante(i)  == autre.getMargeIndependante(j)
+			               && this.getNiveau(i)             == autre.getNiveau(j)
+			               && this.estCritique(i)           == autre.estCritique(j)
+			               && Arrays.equals(this.decrireArcs(i, true,  this), autre.decrireArcs(j, true,  this))
+			               && Arrays.equals(this.decrireArcs(i, false, this), autre.decrireArcs(j, false, this));
+
+			if (!egal) return i;
+		}
+		return autre.nbTaches == this.nbTaches ? -1 : this.nbTaches;
+	}
+
+	/**
+	 * Décrit les arcs d'une tâche par voisin croissant : voisin (son indice dans la version de
+	 * référence, d'après son nom), type et délai de chaque lien
+	 */
+	private long[] decrireArcs(int i, boolean suivants, Planning reference)
+	{
+		int    nb    = suivants ? this.getNbSuivants(i) : this.getNbPrecedents(i);
+		long[] ordre = new long[nb];
+		long[] arcs  = new long[nb * 2];
+
+		for (int k = 0; k < nb; k++)
+		{
+			int voisin = suivants ? this.getSuivant(i, k) : this.getPrecedent(i, k);
+			ordre[k]   = (long) reference.indexDe(this.getNom(voisin)) << 32 | k;
+		}
+		Arrays.sort(ordre);
+
+		for (int m = 0; m < nb; m++)
+		{
+			int k = (int) ordre[m];
+
+			arcs[2 * m]     = ordre[m] >> 32;
+			arcs[2 * m + 1] = suivants ? (long) this.getTypeSuivant  (i, k) << 32 | (this.getDelaiSuivant  (i, k) & 0xFFFFFFFFL)
+			                           : (long) this.getTypePrecedent(i, k) << 32 | (this.getDelaiPrecedent(i, k) & 0xFFFFFFFFL);
+		}
+		return arcs;
+	}
+
+	/**
+	 * Compte les chemins critiques dans l'ordre topologique inverse (même règle que ReseauCritique) :
+	 * un arc est critique entre deux tâches critiques quand le suivant commence dès que le lien le permet
+	 * Le décompte est fait en long, et refait en BigInteger seulement s'il déborde.
+	 */
+	private BigInteger compterChemins()
+	{
+		int debut = this.indexDe("Debut");
+		int fin   = this.indexDe("Fin");
+
+		if (debut < 0 || fin < 0 || !this.estCritique(debut)) return BigInteger.ZERO;
+
+		int[]  ordre = this.getOrdreTopologique().getOrdre();
+		long[] nb    = new long[this.nbTaches];
+		for (int r = this.nbTaches - 1; r >= 0; r--)
+		{
+			int u = ordre[r];
+			if (!this.estCritique(u)) continue;
+
+			nb[u] = u == fin ? 1 : 0;
+			for (int k = 0; k < this.getNbSuivants(u); k++)
+			{
+				if (!this.estArcCritique(u, k)) continue;
+
+				nb[u] += nb[this.getSuivant(u, k)];
+				if (nb[u] < 0) return this.compterCheminsGrand(debut, fin);
+			}
+		}
+		return BigInteger.valueOf(nb[debut]);
+	}
+
+	/**
+	 * Même décompte que compterChemins, en BigInteger
+	 */
+	private BigInteger compterCheminsGrand(int debut, int fin)
+	{
+		int[]        ordre = this.getOrdreTopologique().getOrdre();
+		BigInteger[] nb    = new BigInteger[this.nbTaches];
+		for (int r = this.nbTaches - 1; r >= 0; r--)
+		{
+			int u = ordre[r];
+			if (!this.estCritique(u)) continue;
+
+			nb[u] = u == fin ? BigInteger.ONE : BigInteger.ZERO;
+			for (int k = 0; k < this.getNbSuivants(u); k++)
+			{
+				if (this.estArcCritique(u, k)) nb[u] = nb[u].add(nb[this.getSuivant(u, k)]);
+			}
+		}
+		return nb[debut];
+	}
+
+	/**
+	 * Un arc d'une tâche critique est critique quand son suivant est critique et commence
+	 * dès que le lien le permet (voir Lien.ecart)
+	 *
+	 * @param u Indice de la tâche précédente
+	 * @param k Rang du suivant parmi ceux de u
+	 */
+	private boolean estArcCritique(int u, int k)
+	{
+		int v     = this.getSuivant(u, k);
+		int ecart = Lien.ecart(this.getTypeSuivant(u, k), this.getDelaiSuivant(u, k), this.getDuree(u), this.getDuree(v));
+
+		return this.estCritique(v) && this.getDatePlusTot(u) + ecart == this.getDatePlusTot(v);
+	}
+
+	// ========== PAGE DE TÂCHES ==========
+
+	/**
+	 * Tâches debut .. debut+nb-1 d'une version : noms, durées, dates et adjacences
+	 * Les tâches y sont désignées par leur position dans la page, leurs voisins par leur indice.
+	 * Une page n'est plus modifiée une fois recopiée du graphe.
+	 */
+	private static final class Page
+	{
+		private final int      nb;             // Nombre de tâches de la page
+		private final String[] noms;           // Nom de chaque tâche
+		private final int[]    durees;         // Durée de chaque tâche
+		private final int[]    datesPlusTot;   // Date au plus tôt de chaque tâche
+		private final int[]    datesPlusTard;  // Date au plus tard de chaque tâche, moins finTard (voir Planning)
+		private final int[]    debutSvt;       // Début des suivants de chaque tâche (nb + 1 cases)
+		private final int[]    svt;            // Suivants, tâche par tâche
+		private final int[]    debutPrc;       // Début des précédents de chaque tâche (nb + 1 cases)
+		private final int[]    prc;            // Précédents, tâche par tâche
+		private final byte[]   typeSvt;        // Type du lien vers chaque suivant (null : tous FS sans délai)
+		private final int[]    delaiSvt;       // Délai du lien vers chaque suivant (null avec typeSvt)
+		private final byte[]   typePrc;        // Type du lien depuis chaque précédent (null avec typeSvt)
+		private final int[]    delaiPrc;       // Délai du lien depuis chaque précédent (null avec typeSvt)
+
+		/**
+		 * Recopie une page du graphe ; les adjacences sont mises bout à bout, sans les cases libres
+		 *
+		 * @param g Le graphe
+		 * @param debut Identifiant de la première tâche de la page
+		 * @param nb Nombre de tâches de la page
+		 */
+		Page(GrapheCompact g, int debut, int nb)
+		{
+			boolean liens = g.aDesLiensTypes();
+
+			this.nb            = nb;
+			this.noms          = new String[nb];
+			this.durees        = new int[nb];
+			this.datesPlusTot  = new int[nb];
+			this.datesPlusTard = new int[nb];
+			this.debutSvt      = new int[nb + 1];
+			this.debutPrc      = new int[nb + 1];
+
+			for (int j = 0; j < nb; j++)
+			{
+				int i = debut + j;
+
+				this.noms         [j] = g.getVue(i).getNom();
+				this.durees       [j] = g.getDuree(i);
+				this.datesPlusTot [j] = g.getDatePlusTot(i);
+				this.datesPlusTard[j] = g.getTardRelatif(i);
+				this.debutSvt [j + 1] = this.debutSvt[j] + g.getNbSuivants(i);
+				this.debutPrc [j + 1] = this.debutPrc[j] + g.getNbPrecedents(i);
+			}
+
+			this.svt      = new int[this.debutSvt[nb]];
+			this.prc      = new int[this.debutPrc[nb]];
+			this.typeSvt  = liens ? new byte[this.svt.length] : null;
+			this.delaiSvt = liens ? new int [this.svt.length] : null;
+			this.typePrc  = liens ? new byte[this.prc.length] : null;
+			this.delaiPrc = liens ? new int [this.prc.length] : null;
+			for (int j = 0, s = 0, p = 0; j < nb; j++)
+			{
+				int i = debut + j;
+
+				for (int k = g.debutSvt(i); k < g.finSvt(i); k++)
+				{
+					if (liens)
+					{
+						this.typeSvt [s] = g.typeSvt (k);
+						this.delaiSvt[s] = g.delaiSvt(k);
+					}
+					this.svt[s++] = g.svt(k);
+				}
+				for (int k = g.debutPrc(i); k < g.finPrc(i); k++)
+				{
+					if (liens)
+					{
+						this.typePrc [p] = g.typePrc (k);
+						this.delaiPrc[p] = g.delaiPrc(k);
+					}
+					this.prc[p++] = g.prc(k);
+				}
+			}
+		}
+
+		int  getNbSuivants(int j)                { return this.debutSvt[j + 1] - this.debutSvt[j]; }
+		int  getSuivant(int j, int k)            { return this.svt[this.debutSvt[j] + k];          }
+		int  getNbPrecedents(int j)              { return this.debutPrc[j + 1] - this.debutPrc[j]; }
+		int  getPrecedent(int j, int k)          { return this.prc[this.debutPrc[j] + k];          }
+
+		byte getTypeSuivant(int j, int k)        { return this.typeSvt  == null ? Lien.FS : this.typeSvt [this.debutSvt[j] + k]; }
+		int  getDelaiSuivant(int j, int k)       { return this.delaiSvt == null ? 0       : this.delaiSvt[this.debutSvt[j] + k]; }
+		byte getTypePrecedent(int j, int k)      { return this.typePrc  == null ? Lien.FS : this.typePrc [this.debutPrc[j] + k]; }
+		int  getDelaiPrecedent(int j, int k)     { return this.delaiPrc == null ? 0       : this.delaiPrc[this.debutPrc[j] + k]; }
+	}
+}
@@ -0,0 +1,519 @@
+package Metier;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Classe ReseauCritique - Sous-graphe des tâches et des arcs critiques d'un projet MPM
+ * Un arc u -> v est critique quand u et v sont critiques et que v commence dès la fin de u.
+ * Les chemins critiques sont exactement les chemins de "Debut" à "Fin" dans ce sous-graphe :
+ * leur nombre est obtenu par programmation dynamique et ils ne sont construits qu'à la demande,
+ * un par un, par un itérateur. Le réseau décrit l'état du graphe au moment de sa construction :
+ * il retient la vue, le nom et la durée des tâches critiques et la durée du projet, pas le graphe
+ * lui-même, et reste donc juste (lui et ses itérateurs) après un ajout ou une suppression de tâche.
+ */
+public class ReseauCritique implements Iterable<CheminCritique>
+{
+	// ========== ATTRIBUTS ==========
+
+	private Tache[]       vues;            // Vue de chaque tâche critique au moment de la construction (null ailleurs)
+	private String[]      noms;            // Nom de chaque tâche critique (null ailleurs)
+	private int[]         durees;          // Durée de chaque tâche critique
+	private int           dureeTotale;     // Date au plus tôt de "Fin" au moment de la construction
+	private int           debut;           // Identifiant de "Debut"
+	private int           fin;             // Identifiant de "Fin"
+
+	private long[]        membres;         // Ensemble (bits) des tâches situées sur un chemin critique
+	private int           nbMembres;       // Nombre de tâches situées sur un chemin critique
+	private int[]         debutCrit;       // Début des suivants critiques de chaque tâche (taille n + 1)
+	private int[]         critSvt;         // Suivants critiques, tâche par tâche
+
+	private long[]        nbVersFin;       // Nombre de chemins critiques de chaque tâche vers "Fin"
+	private boolean       depassement;     // Vrai si un nombre de chemins dépasse la capacité d'un long
+	private BigInteger    nbChemins;       // Nombre total de chemins critiques (calculé à la demande)
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Construit le réseau critique à partir des dates déjà calculées du graphe, en O(V+E)
+	 *
+	 * @param graphe Le graphe du projet
+	 * @param debut Identifiant de la tâche "Debut" (ou -1 si absente)
+	 * @param fin Identifiant de la tâche "Fin" (ou -1 si absente)
+	 */
+	public ReseauCritique(GrapheCompact graphe, int debut, int fin)
+	{
+		int n = graphe.getNbNoeuds();
+
+		this.vues      = null;
+		this.debut     = debut;
+		this.fin       = fin;
+		this.membres   = new long[(n + 63) >>> 6];
+		this.nbVersFin = new long[n];
+		this.debutCrit = new int[n + 1];
+		this.critSvt   = new int[0];
+
+		if (debut < 0 || fin < 0 || !ReseauCritique.estTacheCritique(graphe, debut)) return;
+
+		int[] ordre = graphe.getOrdreParRang();
+
+		// ========== CHEMINS VERS "FIN" (ORDRE TOPOLOGIQUE INVERSE) ==========
+		this.nbVersFin[fin] = 1;
+		for (int r = n - 1; r >= 0; r--)
+		{
+			int  u   = ordre[r];
+			long nb  = 0;
+
+			if (u == fin || !ReseauCritique.estTacheCritique(graphe, u)) continue;
+
+			for (int k = graphe.debutSvt(u); k < graphe.finSvt(u); k++)
+			{
+				int s = graphe.svt(k);
+				if (this.nbVersFin[s] > 0 && ReseauCritique.estArcTendu(graphe, u, k))
+				{
+					nb += this.nbVersFin[s];
+					if (nb < 0)
+					{
+						// Au-delà d'un long, seule la présence d'un chemin reste utile ici
+						this.depassement = true;
+						nb = Long.MAX_VALUE;
+					}
+				}
+			}
+			this.nbVersFin[u] = nb;
+		}
+
+		if (this.nbVersFin[debut] == 0) return;
+
+		// ========== TÂCHES ATTEIGNABLES DEPUIS "DEBUT" ==========
+		this.ajouterMembre(debut);
+		for (int r = 0; r < n; r++)
+		{
+			int u = ordre[r];
+			if (!this.estCritique(u)) continue;
+
+			for (int k = graphe.debutSvt(u); k < graphe.finSvt(u); k++)
+			{
+				int s = graphe.svt(k);
+				if (this.nbVersFin[s] > 0 && ReseauCritique.estArcTendu(graphe, u, k))
+				{
+					this.ajouterMembre(s);
+					this.debutCrit[u + 1]++;
+				}
+			}
+		}
+
+		// ========== SUIVANTS CRITIQUES (CSR) ==========
+		for (int i = 0; i < n; i++) this.debutCrit[i + 1] += this.debutCrit[i];
+
+		this.critSvt = new int[this.debutCrit[n]];
+		for (int u = 0; u < n; u++)
+		{
+			if (!this.estCritique(u)) continue;
+
+			int pos = this.debutCrit[u];
+			for (int k = graphe.debutSvt(u); k < graphe.finSvt(u); k++)
+			{
+				int s = graphe.svt(k);
+				if (this.nbVersFin[s] > 0 && ReseauCritique.estArcTendu(graphe, u, k)) this.critSvt[pos++] = s;
+			}
+		}
+
+		this.retenirVues(graphe);
+	}
+
+	/**
+	 * Retient la vue, le nom et la durée des tâches critiques et la durée du projet, lus par les itérateurs
+	 *
+	 * @param graphe Le graphe, dans l'état décrit par le réseau (null : aucune vue)
+	 */
+	private void retenirVues(GrapheCompact graphe)
+	{
+		if (graphe == null)
+		{
+			this.vues        = null;
+			this.noms        = null;
+			this.durees      = null;
+			this.dureeTotale = 0;
+			return;
+		}
+
+		int n = this.nbVersFin.length;
+
+		this.vues        = new Tache[n];
+		this.noms        = new String[n];
+		this.durees      = new int[n];
+		this.dureeTotale = this.fin >= 0 && this.fin < n ? graphe.getDatePlusTot(this.fin) : 0;
+		for (int i = 0; i < n; i++)
+		{
+			if (!this.estCritique(i)) continue;
+
+			this.vues  [i] = graphe.getVue(i);
+			this.noms  [i] = this.vues[i].getNom();
+			this.durees[i] = graphe.getDuree(i);
+		}
+	}
+
+	// ========== MÉTHODES D'ANALYSE ==========
+
+	/**
+	 * Indique si une tâche est située sur au moins un chemin critique
+	 *
+	 * @param id Identifiant de la tâche
+	 * @return true si la tâche appartient au réseau critique
+	 */
+	public boolean estCritique(int id)
+	{
+		return id >= 0 && (this.membres[id >>> 6] & (1L << id)) != 0;
+	}
+
+	/**
+	 * Indique si un arc appartient à au moins un chemin critique
+	 *
+	 * @param de Identifiant de la tâche précédente
+	 * @param vers Identifiant de la tâche suivante
+	 * @return true si l'arc est critique
+	 */
+	public boolean estArcCritique(int de, int vers)
+	{
+		if (!this.estCritique(de)) return false;
+
+		for (int k = this.debutCrit[de]; k < this.debutCrit[de + 1]; k++)
+		{
+			if (this.critSvt[k] == vers) return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return Le nombre de tâches situées sur un chemin critique
+	 */
+	public int getNbTaches() { return this.nbMembres; }
+
+	/**
+	 * Retourne le nombre de chemins critiques, sans les énumérer
+	 *
+	 * @return Le nombre de chemins de "Debut" à "Fin" du réseau critique
+	 */
+	public BigInteger getNbChemins()
+	{
+		if (this.nbChemins == null)
+		{
+			if (this.debut < 0 || !this.estCritique(this.debut))
+				this.nbChemins = BigInteger.ZERO;
+			else if (!this.depassement)
+				this.nbChemins = BigInteger.valueOf(this.nbVersFin[this.debut]);
+			else
+				this.nbChemins = this.compterGrand();
+		}
+		return this.nbChemins;
+	}
+
+	/**
+	 * Refait le décompte des chemins en BigInteger, quand un long ne suffit pas
+	 * Parcours en profondeur du réseau depuis "Debut" : le nombre de chemins d'une tâche est
+	 * fixé quand tous ses suivants critiques l'ont été. Seuls les tableaux du réseau sont lus.
+	 */
+	private BigInteger compterGrand()
+	{
+		int          n       = this.nbVersFin.length;
+		BigInteger[] nb      = new BigInteger[n];
+		int[]        pile    = new int[Math.max(n, 1)];
+		int[]        curseur = new int[Math.max(n, 1)];
+		int          prof    = 0;
+
+		pile   [0] = this.debut;
+		curseur[0] = this.debutCrit[this.debut];
+
+		while (prof >= 0)
+		{
+			int u = pile[prof];
+			int k = curseur[prof];
+
+			if (k < this.debutCrit[u + 1])
+			{
+				curseur[prof] = k + 1;
+
+				int s = this.critSvt[k];
+				if (nb[s] == null)
+				{
+					prof++;
+					pile   [prof] = s;
+					curseur[prof] = this.debutCrit[s];
+				}
+				continue;
+			}
+
+			BigInteger total = u == this.fin ? BigInteger.ONE : BigInteger.ZERO;
+			for (int c = this.debutCrit[u]; c < this.debutCrit[u + 1]; c++) total = total.add(nb[this.critSvt[c]]);
+
+			nb[u] = total;
+			prof--;
+		}
+		return nb[this.debut];
+	}
+
+	// ========== MÉTHODES DE REPRISE ==========
+
+	/**
+	 * Constructeur de copie : les tableaux, jamais modifiés après construction, sont partagés
+	 */
+	private ReseauCritique(ReseauCritique r, GrapheCompact graphe)
+	{
+		this.debut       = r.debut;
+		this.fin         = r.fin;
+		this.membres     = r.membres;
+		this.nbMembres   = r.nbMembres;
+		this.debutCrit   = r.debutCrit;
+		this.critSvt     = r.critSvt;
+		this.nbVersFin   = r.nbVersFin;
+		this.depassement = r.depassement;
+		this.nbChemins   = r.nbChemins;
+
+		this.retenirVues(graphe);
+	}
+
+	/**
+	 * Retourne le même réseau pour un autre graphe de même structure et mêmes dates (voir CachePlanning)
+	 * Les vues des tâches critiques sont reprises de ce graphe. Avec null, le réseau ne retient
+	 * aucune vue : il peut être gardé sans garder le projet, mais pas parcouru.
+	 *
+	 * @param graphe Le graphe à associer (peut être null)
+	 * @return Le réseau associé à ce graphe
+	 */
+	ReseauCritique attacher(GrapheCompact graphe)
+	{
+		return new ReseauCritique(this, graphe);
+	}
+
+	/**
+	 * @return Le nombre de cases occupées par les tableaux du réseau
+	 */
+	long getPoids()
+	{
+		return 2L * this.membres.length + this.debutCrit.length + this.critSvt.length + 2L * this.nbVersFin.length;
+	}
+
+	/**
+	 * Écrit le réseau, sans son graphe
+	 *
+	 * @param out La sortie
+	 * @throws IOException en cas d'erreur d'écriture
+	 */
+	void ecrire(DataOutput out) throws IOException
+	{
+		out.writeInt(this.debut);
+		out.writeInt(this.fin);
+		out.writeInt(this.nbMembres);
+		out.writeBoolean(this.depassement);
+
+		out.writeInt(this.membres.length);
+		for (long m : this.membres)   out.writeLong(m);
+		out.writeInt(this.debutCrit.length);
+		for (int  d : this.debutCrit) out.writeInt(d);
+		out.writeInt(this.critSvt.length);
+		for (int  c : this.critSvt)   out.writeInt(c);
+		out.writeInt(this.nbVersFin.length);
+		for (long v : this.nbVersFin) out.writeLong(v);
+	}
+
+	/**
+	 * Relit un réseau écrit par ecrire(), sans graphe (voir attacher)
+	 *
+	 * @param in L'entrée
+	 * @return Le réseau relu
+	 * @throws IOException en cas d'erreur de lecture
+	 */
+	static ReseauCritique lire(DataInput in) throws IOException
+	{
+		ReseauCritique r = new ReseauCritique(new GrapheCompact(0), -1, -1);
+
+		r.debut       = in.readInt();
+		r.fin         = in.readInt();
+		r.nbMembres   = in.readInt();
+		r.depassement = in.readBoolean();
+
+		r.membres   = new long[in.readInt()];
+		for (int i = 0; i < r.membres.length;   i++) r.membres[i]   = in.readLong();
+		r.debutCrit = new int[in.readInt()];
+		for (int i = 0; i < r.debutCrit.length; i++) r.debutCrit[i] = in.readInt();
+		r.critSvt   = new int[in.readInt()];
+		for (int i = 0; i < r.critSvt.length;   i++) r.critSvt[i]   = in.readInt();
+		r.nbVersFin = new long[in.readInt()];
+		for (int i = 0; i < r.nbVersFin.length; i++) r.nbVersFin[i] = in.readLong();
+
+		return r;
+	}
+
+	// ========== MÉTHODES DE PARCOURS DES CHEMINS ==========
+
+	/**
+	 * @return Un itérateur sur tous les chemins critiques
+	 */
+	public Iterator<CheminCritique> iterator() { return this.iterateur(Long.MAX_VALUE); }
+
+	/**
+	 * Retourne un itérateur qui construit les chemins critiques un par un
+	 * Les chemins sont produits dans l'ordre d'un parcours en profondeur depuis "Debut",
+	 * les suivants étant pris dans l'ordre des dépendances. Chaque chemin coûte
+	 * un temps proportionnel à sa longueur : aucune impasse n'est explorée.
+	 *
+	 * @param limite Nombre maximal de chemins à produire
+	 * @return L'itérateur
+	 */
+	public Iterator<CheminCritique> iterateur(long limite)
+	{
+		return new IterateurChemins(limite);
+	}
+
+	/**
+	 * Retourne les chemins critiques sous forme de flux paresseux
+	 *
+	 * @param limite Nombre maximal de chemins à produire
+	 * @return Le flux des chemins
+	 */
+	public Stream<CheminCritique> flux(long limite)
+	{
+		BigInteger taille = this.getNbChemins().min(BigInteger.valueOf(limite));
+
+		return StreamSupport.stream(Spliterators.spliterator(this.iterateur(limite), taille.longValue(),
+		                                                     Spliterator.ORDERED | Spliterator.NONNULL), false);
+	}
+
+	/**
+	 * Itérateur des chemins critiques : parcours en profondeur sur une pile d'identifiants
+	 */
+	private class IterateurChemins implements Iterator<CheminCritique>
+	{
+		private int[] chemin;       // Identifiants du chemin courant
+		private int[] curseur;      // Prochain suivant critique à explorer à chaque profondeur
+		private int   prof;         // Profondeur courante (-1 quand le parcours est terminé)
+		private long  restant;      // Nombre de chemins encore autorisés
+		private boolean pret;       // Vrai si le chemin courant n'a pas encore été rendu
+
+		IterateurChemins(long limite)
+		{
+			int n = ReseauCritique.this.nbVersFin.length;
+
+			this.chemin  = new int[Math.max(n, 1)];
+			this.curseur = new int[Math.max(n, 1)];
+			this.restant = limite;
+			this.prof    = -1;
+
+			if (ReseauCritique.this.debut >= 0 && ReseauCritique.this.estCritique(ReseauCritique.this.debut))
+			{
+				this.prof       = 0;
+				this.chemin [0] = ReseauCritique.this.debut;
+				this.curseur[0] = ReseauCritique.this.debutCrit[ReseauCritique.this.debut];
+			}
+		}
+
+		public boolean hasNext()
+		{
+			if (this.restant <= 0) return false;
+			if (!this.pret) this.avancer();
+
+			return this.pret;
+		}
+
+		public CheminCritique next()
+		{
+			if (!this.hasNext()) throw new NoSuchElementException();
+
+			ReseauCritique r     = ReseauCritique.this;
+			CheminCritique cTemp = new CheminCritique();
+
+			for (int i = 0; i <= this.prof; i++)
+			{
+				int id = this.chemin[i];
+				cTemp.ajouterTache(r.vues[id], r.noms[id], r.durees[id]);
+			}
+			cTemp.setDureeTotale(ReseauCritique.this.dureeTotale);
+
+			this.pret = false;
+			this.restant--;
+			this.prof--;
+
+			return cTemp;
+		}
+
+		/**
+		 * Descend jusqu'au prochain "Fin" ; chaque suivant critique mène à "Fin"
+		 */
+		private void avancer()
+		{
+			int[] debutCrit = ReseauCritique.this.debutCrit;
+			int[] critSvt   = ReseauCritique.this.critSvt;
+
+			while (this.prof >= 0)
+			{
+				int actuel = this.chemin[this.prof];
+
+				if (actuel == ReseauCritique.this.fin)
+				{
+					this.pret = true;
+					return;
+				}
+
+				int k = this.curseur[this.prof];
+				if (k < debutCrit[actuel + 1])
+				{
+					this.curseur[this.prof] = k + 1;
+
+					this.prof++;
+					this.chemin [this.prof] = critSvt[k];
+					this.curseur[this.prof] = debutCrit[critSvt[k]];
+				}
+				else
+				{
+					this.prof--;
+				}
+			}
+		}
+	}
+
+	// ========== MÉTHODES UTILITAIRES ==========
+
+	/**
+	 * Une tâche est critique quand sa date au plus tôt égale sa date au plus tard
+	 */
+	private static boolean estTacheCritique(GrapheCompact graphe, int id)
+	{
+		return graphe.getDatePlusTot(id) == graphe.getDatePlusTard(id);
+	}
+
+	/**
+	 * Un arc est tendu quand la tâche suivante, critique, commence dès que son lien le permet
+	 * (avec un lien FS sans délai : dès la fin de la précédente)
+	 *
+	 * @param graphe Le graphe
+	 * @param de Identifiant de la tâche précédente
+	 * @param k Case de l'arc dans la tranche des suivants de de
+	 */
+	private static boolean estArcTendu(GrapheCompact graphe, int de, int k)
+	{
+		int vers = graphe.svt(k);
+
+		return ReseauCritique.estTacheCritique(graphe, vers)
+		       && graphe.getDatePlusTot(de) + graphe.ecartSvt(de, k) == graphe.getDatePlusTot(vers);
+	}
+
+	/**
+	 * Ajoute une tâche à l'ensemble des tâches critiques
+	 */
+	private void ajouterMembre(int id)
+	{
+		if (this.estCritique(id)) return;
+
+		this.membres[id >>> 6] |= 1L << id;
+		this.nbMembres++;
+	}
+}
@@ -0,0 +1,166 @@
+package Metier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Classe Ressources - Ressources d'un projet MPM (équipes, engins...) et besoins des tâches
+ * Chaque ressource a une capacité : le nombre d'unités disponibles chaque jour. Une tâche
+ * occupe, pendant toute sa durée, un nombre fixe d'unités de certaines ressources.
+ *
+ * Les besoins sont rangés par nom de tâche, comme les estimations (voir Mpm.setEstimation) :
+ * la durée et les dates du planning ne changent pas, Nivellement s'en sert pour décaler les
+ * tâches jusqu'à ce qu'aucune capacité ne soit dépassée.
+ */
+public class Ressources
+{
+	// ========== ATTRIBUTS ==========
+
+	private ArrayList<String>        noms;        // Nom de chaque ressource, dans l'ordre de définition
+	private ArrayList<Integer>       capacites;   // Capacité de chaque ressource
+	private HashMap<String, Integer> indices;     // Index nom -> numéro de la ressource
+	private HashMap<String, int[]>   besoins;     // Besoin de chaque tâche, par numéro de ressource (tâches sans besoin absentes)
+
+	// ========== CONSTRUCTEURS ==========
+
+	/**
+	 * Constructeur d'un ensemble vide de ressources
+	 */
+	public Ressources()
+	{
+		this.noms      = new ArrayList<>();
+		this.capacites = new ArrayList<>();
+		this.indices   = new HashMap<>();
+		this.besoins   = new HashMap<>();
+	}
+
+	/**
+	 * Constructeur par copie, pour un projet branché (voir Mpm.brancher)
+	 *
+	 * @param autre Les ressources à recopier
+	 */
+	public Ressources(Ressources autre)
+	{
+		this.noms      = new ArrayList<>(autre.noms);
+		this.capacites = new ArrayList<>(autre.capacites);
+		this.indices   = new HashMap<>(autre.indices);
+		this.besoins   = new HashMap<>();
+
+		for (String tache : autre.besoins.keySet()) this.besoins.put(tache, autre.besoins.get(tache).clone());
+	}
+
+	// ========== MÉTHODES DE GESTION ==========
+
+	/**
+	 * Définit une ressource, ou change la capacité d'une ressource existante
+	 *
+	 * @param nom Le nom de la ressource
+	 * @param capacite Le nombre d'unités disponibles chaque jour
+	 * @return Le numéro de la ressource
+	 * @throws IllegalArgumentException si la capacité n'est pas strictement positive ou
+	 *         devient inférieure au besoin d'une tâche
+	 */
+	public int definir(String nom, int capacite)
+	{
+		nom = nom.trim();
+		if (capacite <= 0) throw new IllegalArgumentException(Erreur.CAPACITE_INVALIDE.formater(nom));
+
+		Integer numero = this.indices.get(nom);
+		if (numero == null)
+		{
+			numero = this.noms.size();
+			this.noms     .add(nom);
+			this.capacites.add(capacite);
+			this.indices  .put(nom, numero);
+			return numero;
+		}
+
+		for (String tache : this.besoins.keySet())
+		{
+			if (this.getBesoin(tache, numero) > capacite)
+				throw new IllegalArgumentException(Erreur.BESOIN_INVALIDE.formater(tache, nom, capacite));
+		}
+
+		this.capacites.set(numero, capacite);
+		return numero;
+	}
+
+	/**
+	 * Fixe le besoin d'une tâche en une ressource
+	 *
+	 * @param tache Le nom de la tâche
+	 * @param ressource Le nom de la ressource
+	 * @param quantite Le nombre d'unités occupées pendant la tâche (0 : aucun besoin)
+	 * @throws IllegalArgumentException si la ressource n'existe pas ou si la quantité
+	 *         n'est pas comprise entre 0 et sa capacité
+	 */
+	public void setBesoin(String tache, String ressource, int quantite)
+	{
+		tache = tache.trim();
+
+		int numero = this.indexDe(ressource);
+		if (numero < 0) throw new IllegalArgumentException(Erreur.RESSOURCE_INEXISTANTE.formater(ressource.trim()));
+
+		int capacite = this.capacites.get(numero);
+		if (quantite < 0 || quantite > capacite)
+			throw new IllegalArgumentException(Erreur.BESOIN_INVALIDE.formater(tache, this.noms.get(numero), capacite));
+
+		int[] besoin = this.besoins.get(tache);
+		if (besoin == null)
+		{
+			if (quantite == 0) return;
+			besoin = new int[this.noms.size()];
+		}
+		else if (besoin.length <= numero)
+		{
+			besoin = Arrays.copyOf(besoin, this.noms.size());
+		}
+
+		besoin[numero] = quantite;
+
+		boolean vide = true;
+		for (int q : besoin) vide &= q == 0;
+
+		if (vide) this.besoins.remove(tache);
+		else      this.besoins.put(tache, besoin);
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public boolean estVide()                    { return this.noms.isEmpty();       }
+	public int     getNbRessources()            { return this.noms.size();          }
+	public String  getNom(int numero)           { return this.noms.get(numero);     }
+	public int     getCapacite(int numero)      { return this.capacites.get(numero); }
+
+	/**
+	 * @param nom Le nom d'une ressource
+	 * @return Son numéro, -1 si elle n'existe pas
+	 */
+	public int indexDe(String nom)
+	{
+		Integer numero = this.indices.get(nom.trim());
+		return numero == null ? -1 : numero;
+	}
+
+	/**
+	 * @param tache Le nom d'une tâche
+	 * @param numero Le numéro d'une ressource
+	 * @return Le nombre d'unités de la ressource occupées par la tâche
+	 */
+	public int getBesoin(String tache, int numero)
+	{
+		int[] besoin = this.besoins.get(tache);
+		return besoin == null || besoin.length <= numero ? 0 : besoin[numero];
+	}
+
+	/**
+	 * @param tache Le nom d'une tâche
+	 * @return Son besoin par numéro de ressource (tableau partagé, éventuellement plus court
+	 *         que le nombre de ressources), null si elle n'a aucun besoin
+	 */
+	int[] besoinsDe(String tache)
+	{
+		return this.besoins.get(tache);
+	}
+}
@@ -0,0 +1,142 @@
+package Metier;
+
+import java.util.ArrayList;
+
+/**
+ * Classe Scenario - Suite d'hypothèses sur un projet MPM, évaluée sans modifier le projet
+ * Comme un lot (voir Lot), les hypothèses sont seulement enregistrées : EvaluateurScenarios
+ * les applique à une copie légère du planning et donne la nouvelle fin du projet, les tâches
+ * qui entrent ou sortent du chemin critique et l'écart de marge de chaque tâche.
+ */
+public class Scenario
+{
+	// ========== CONSTANTES ==========
+
+	static final char DECALAGE           = 'R';   // Retard (ou avance, si négatif) d'une tâche
+	static final char DUREE              = 'D';   // Nouvelle durée d'une tâche
+	static final char AJOUT_DEPENDANCE   = '+';   // Nouvelle dépendance entre deux tâches
+	static final char RETRAIT_DEPENDANCE = '-';   // Dépendance retirée
+
+	// ========== ATTRIBUTS ==========
+
+	private String               nom;          // Nom du scénario, repris dans les résultats
+	private ArrayList<Operation> operations;   // Hypothèses dans l'ordre où elles ont été données
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Constructeur d'un scénario sans hypothèse
+	 *
+	 * @param nom Le nom du scénario
+	 */
+	public Scenario(String nom)
+	{
+		this.nom        = nom;
+		this.operations = new ArrayList<>();
+	}
+
+	// ========== MÉTHODES D'ENREGISTREMENT ==========
+
+	/**
+	 * Enregistre le retard d'une tâche : sa durée augmente de quelques jours
+	 * Les retards d'une même tâche s'ajoutent.
+	 *
+	 * @param nom Le nom de la tâche
+	 * @param jours Le nombre de jours de retard (négatif : la tâche est raccourcie)
+	 * @return Le scénario, pour enchaîner les appels
+	 */
+	public Scenario decaler(String nom, int jours)
+	{
+		this.operations.add(new Operation(DECALAGE, nom, null, jours, null));
+		return this;
+	}
+
+	/**
+	 * Enregistre la nouvelle durée d'une tâche
+	 *
+	 * @param nom Le nom de la tâche
+	 * @param duree La durée en jours
+	 * @return Le scénario, pour enchaîner les appels
+	 */
+	public Scenario setDuree(String nom, int duree)
+	{
+		this.operations.add(new Operation(DUREE, nom, null, duree, null));
+		return this;
+	}
+
+	/**
+	 * Enregistre une nouvelle dépendance : suivant ne commence qu'après la fin de precedent
+	 *
+	 * @param precedent Le nom de la tâche qui doit finir avant
+	 * @param suivant Le nom de la tâche qui attend
+	 * @return Le scénario, pour enchaîner les appels
+	 */
+	public Scenario ajouterDependance(String precedent, String suivant)
+	{
+		return this.ajouterDependance(precedent, suivant, Lien.FIN_DEBUT);
+	}
+
+	/**
+	 * Enregistre une nouvelle dépendance typée (voir Lien), par exemple début-début avec deux jours de délai
+	 *
+	 * @param precedent Le nom de la tâche précédente
+	 * @param suivant Le nom de la tâche suivante
+	 * @param lien Le type et le délai de la dépendance
+	 * @return Le scénario, pour enchaîner les appels
+	 */
+	public Scenario ajouterDependance(String precedent, String suivant, Lien lien)
+	{
+		this.operations.add(new Operation(AJOUT_DEPENDANCE, precedent, suivant, 0, lien == null ? Lien.FIN_DEBUT : lien));
+		return this;
+	}
+
+	/**
+	 * Enregistre le retrait d'une dépendance existante
+	 * Comme dans le projet, une tâche sans précédent est reliée à "Debut"
+	 * et une tâche sans suivant à "Fin".
+	 *
+	 * @param precedent Le nom de la tâche précédente
+	 * @param suivant Le nom de la tâche suivante
+	 * @return Le scénario, pour enchaîner les appels
+	 */
+	public Scenario retirerDependance(String precedent, String suivant)
+	{
+		this.operations.add(new Operation(RETRAIT_DEPENDANCE, precedent, suivant, 0, null));
+		return this;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public String getNom()                      { return this.nom;               }
+	public int    getNbOperations()             { return this.operations.size(); }
+
+	/**
+	 * @return Les hypothèses dans l'ordre où elles ont été données
+	 */
+	ArrayList<Operation> getOperations()        { return this.operations;        }
+
+	public String toString()                    { return this.nom;               }
+
+	// ========== CLASSE INTERNE ==========
+
+	/**
+	 * Une hypothèse enregistrée dans le scénario
+	 */
+	static class Operation
+	{
+		final char   type;      // DECALAGE, DUREE, AJOUT_DEPENDANCE ou RETRAIT_DEPENDANCE
+		final String nom;       // Tâche concernée (précédent pour une dépendance)
+		final String suivant;   // Suivant (dépendances uniquement)
+		final int    valeur;    // Jours de retard ou nouvelle durée
+		final Lien   lien;      // Lien de la dépendance ajoutée (null pour les autres hypothèses)
+
+		Operation(char type, String nom, String suivant, int valeur, Lien lien)
+		{
+			this.type    = type;
+			this.nom     = nom     == null ? null : nom    .trim();
+			this.suivant = suivant == null ? null : suivant.trim();
+			this.valeur  = valeur;
+			this.lien    = lien;
+		}
+	}
+}
@@ -0,0 +1,468 @@
+package Metier;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Classe SimulationPert - Simulation de Monte-Carlo des durées d'un projet MPM
+ * Les tâches qui ont une estimation en trois points (optimiste, probable, pessimiste) voient
+ * leur durée tirée selon une loi bêta PERT ou triangulaire ; les autres gardent leur durée.
+ * Chaque tirage refait le calcul des dates au plus tôt, donne une durée de projet et marque
+ * les tâches critiques de ce tirage. On en déduit la distribution de la durée du projet
+ * (P50, P80, P95) et l'indice de criticité de chaque tâche : la part des tirages où elle est critique.
+ *
+ * Le calcul part d'une version figée du planning (voir Planning) : les tâches y sont renumérotées
+ * dans l'ordre topologique, si bien qu'un tirage parcourt des tableaux primitifs du début à la
+ * fin, sans aucune allocation. Les tirages sont découpés en blocs dotés chacun de leur propre
+ * SplittableRandom : les blocs tournent en parallèle et, pour une même graine, le résultat
+ * ne dépend pas du nombre de fils.
+ */
+public class SimulationPert
+{
+	// ========== CONSTANTES ==========
+
+	private static final int NB_BLOCS     = 64;     // Blocs de tirages, répartis entre les fils
+	private static final int NB_QUANTILES = 1024;   // Intervalles de la table des quantiles d'une loi bêta
+	private static final int NB_PAS       = 4096;   // Pas d'intégration de la densité d'une loi bêta
+
+	/**
+	 * Loi des durées tirées entre l'estimation optimiste et l'estimation pessimiste
+	 */
+	public enum Loi
+	{
+		BETA,           // Bêta PERT : moyenne (a + 4m + b) / 6
+		TRIANGULAIRE    // Triangulaire : moyenne (a + m + b) / 3
+	}
+
+	// ========== ATTRIBUTS ==========
+
+	private final Planning planning;     // Version du planning simulée
+	private final Loi      loi;          // Loi des durées tirées
+	private final int      nbTaches;     // Nombre de tâches
+
+	private final int[]    ordre;        // Indice de la tâche de chaque rang topologique
+	private final int[]    debutPrc;     // Début des précédents de chaque rang (nbTaches + 1 cases)
+	private final int[]    prc;          // Rangs des précédents, rang par rang
+	private final byte[]   typePrc;      // Type du lien depuis chaque précédent (null : tous FS sans délai)
+	private final int[]    delaiPrc;     // Délai du lien depuis chaque précédent (null avec typePrc)
+
+	private final double[] minimums;     // Durée de chaque rang hors tirage, estimation optimiste s'il est tiré
+	private final double[] etendues;     // Écart pessimiste - optimiste de chaque rang (0 : durée non tirée)
+	private final double[] modes;        // Position du mode dans [0, 1] de chaque rang (loi triangulaire)
+	private final int[]    decalages;    // Début de la table des quantiles de chaque rang (loi bêta)
+	private final double[] quantiles;    // Tables des quantiles sur [0, 1] bout à bout, une par forme (loi bêta)
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Prépare la simulation d'une version du planning
+	 *
+	 * @param planning La version du planning
+	 * @param estimations Les estimations en trois points, par nom de tâche (les noms absents gardent leur durée)
+	 * @param loi La loi des durées tirées
+	 */
+	public SimulationPert(Planning planning, Map<String, Estimation> estimations, Loi loi)
+	{
+		int n = planning.getNbTaches();
+
+		this.planning  = planning;
+		this.loi       = loi;
+		this.nbTaches  = n;
+		this.ordre     = new int[n];
+		this.debutPrc  = new int[n + 1];
+		this.minimums  = new double[n];
+		this.etendues  = new double[n];
+		this.modes     = new double[n];
+		this.decalages = new int[n];
+
+		// ========== RENUMÉROTATION DANS L'ORDRE TOPOLOGIQUE ==========
+		int[] rangDe = new int[n];
+		for (int r = 0; r < n; r++)
+		{
+			this.ordre[r]         = planning.getTacheDeRang(r);
+			rangDe[this.ordre[r]] = r;
+			this.debutPrc[r + 1]  = this.debutPrc[r] + planning.getNbPrecedents(this.ordre[r]);
+		}
+
+		this.prc      = new int[this.debutPrc[n]];
+		this.typePrc  = planning.aDesLiensTypes() ? new byte[this.prc.length] : null;
+		this.delaiPrc = planning.aDesLiensTypes() ? new int [this.prc.length] : null;
+		for (int r = 0; r < n; r++)
+		{
+			int i = this.ordre[r];
+			for (int k = 0; k < planning.getNbPrecedents(i); k++)
+			{
+				int e = this.debutPrc[r] + k;
+
+				this.prc[e] = rangDe[planning.getPrecedent(i, k)];
+				if (this.typePrc != null)
+				{
+					this.typePrc [e] = planning.getTypePrecedent (i, k);
+					this.delaiPrc[e] = planning.getDelaiPrecedent(i, k);
+				}
+			}
+		}
+
+		// ========== PARAMÈTRES DES TIRAGES ==========
+		HashMap<Double, Integer> tables = new HashMap<>();
+		for (int r = 0; r < n; r++)
+		{
+			Estimation e = estimations.get(planning.getNom(this.ordre[r]));
+
+			if (e == null)
+			{
+				this.minimums[r] = planning.getDuree(this.ordre[r]);
+			}
+			else if (e.pessimiste == e.optimiste)
+			{
+				this.minimums[r] = e.probable;
+			}
+			else
+			{
+				this.minimums[r] = e.optimiste;
+				this.etendues[r] = e.pessimiste - e.optimiste;
+				this.modes   [r] = (double) (e.probable - e.optimiste) / (e.pessimiste - e.optimiste);
+
+				if (loi == Loi.BETA)
+					this.decalages[r] = tables.computeIfAbsent(this.modes[r], c -> tables.size() * (NB_QUANTILES + 1));
+			}
+		}
+
+		// Une table par forme distincte, toutes dans un seul tableau
+		this.quantiles = new double[tables.size() * (NB_QUANTILES + 1)];
+		for (Map.Entry<Double, Integer> t : tables.entrySet())
+			SimulationPert.remplirTableBeta(t.getKey(), this.quantiles, t.getValue());
+	}
+
+	// ========== SIMULATION ==========
+
+	/**
+	 * Lance la simulation
+	 * Appelée depuis un fil d'un ForkJoinPool, elle se répartit sur ce pool ; sinon elle
+	 * crée un pool de nbFils fils le temps du calcul.
+	 *
+	 * @param nbIterations Le nombre de tirages (au moins 1)
+	 * @param graine La graine du générateur : même graine, même résultat
+	 * @param nbFils Le nombre de fils de calcul hors d'un ForkJoinPool
+	 * @return Le résultat de la simulation
+	 */
+	public Resultat simuler(int nbIterations, long graine, int nbFils)
+	{
+		if (nbIterations < 1) throw new IllegalArgumentException("Nombre de tirages invalide : " + nbIterations);
+
+		double[]          durees    = new double[nbIterations];
+		int[][]           critiques = new int[NB_BLOCS][];
+		SplittableRandom  racine    = new SplittableRandom(graine);
+		ForkJoinTask<?>[] blocs     = new ForkJoinTask<?>[NB_BLOCS];
+
+		for (int b = 0; b < NB_BLOCS; b++)
+		{
+			int              bloc  = b;
+			int              debut = (int) ((long) nbIterations *  b      / NB_BLOCS);
+			int              fin   = (int) ((long) nbIterations * (b + 1) / NB_BLOCS);
+			SplittableRandom alea  = racine.split();
+
+			blocs[b] = ForkJoinTask.adapt(() -> { critiques[bloc] = this.simulerBloc(alea, durees, debut, fin); });
+		}
+
+		if (ForkJoinTask.inForkJoinPool())
+		{
+			ForkJoinTask.invokeAll(blocs);
+		}
+		else if (nbFils <= 1)
+		{
+			for (ForkJoinTask<?> bloc : blocs) bloc.invoke();
+		}
+		else
+		{
+			ForkJoinPool pool = new ForkJoinPool(nbFils);
+			try
+			{
+				pool.invoke(ForkJoinTask.adapt(() -> ForkJoinTask.invokeAll(blocs)));
+			}
+			finally
+			{
+				pool.shutdown();
+			}
+		}
+
+		// ========== FUSION DES BLOCS ==========
+		double[] criticite = new double[this.nbTaches];
+		for (int[] compte : critiques)
+		{
+			for (int r = 0; r < this.nbTaches; r++) criticite[this.ordre[r]] += compte[r];
+		}
+		for (int i = 0; i < this.nbTaches; i++) criticite[i] /= nbIterations;
+
+		Arrays.sort(durees);
+		return new Resultat(this.planning, this.loi, durees, criticite);
+	}
+
+	/**
+	 * Effectue les tirages [debut, fin[ ; toute la mémoire du bloc est allouée ici, une fois
+	 * La durée d'un rang est tirée au moment où le calcul des dates l'atteint : un seul passage
+	 * sur les tableaux par tirage, et chaque arc ne lit que la fin de son précédent (ou, avec
+	 * des liens typés, le début et la fin du précédent et la durée tirée du rang).
+	 *
+	 * @return Le nombre de tirages où chaque rang est critique
+	 */
+	private int[] simulerBloc(SplittableRandom alea, double[] durees, int debut, int fin)
+	{
+		int      n        = this.nbTaches;
+		double[] tot      = new double[n];
+		double[] finTache = new double[n];
+		double[] duree    = this.typePrc == null ? null : new double[n];
+		int[]    marque   = new int[n];
+		int[]    compte   = new int[n];
+		int[]    dPrc     = this.debutPrc;
+		int[]    prc      = this.prc;
+		byte[]   types    = this.typePrc;
+		int[]    delais   = this.delaiPrc;
+		double[] minimums = this.minimums;
+		double[] etendues = this.etendues;
+
+		for (int s = debut; s < fin; s++)
+		{
+			int tirage = s - debut + 1;
+
+			// ========== DURÉES ET DATES AU PLUS TÔT ==========
+			double finProjet = 0;
+			for (int r = 0; r < n; r++)
+			{
+				double d = minimums[r];
+				if (etendues[r] > 0) d += etendues[r] * this.tirer(r, alea.nextDouble());
+				if (duree    != null) duree[r] = d;
+
+				double t = 0;
+				if (types == null)
+				{
+					for (int e = dPrc[r]; e < dPrc[r + 1]; e++)
+					{
+						double v = finTache[prc[e]];
+						if (v > t) t = v;
+					}
+				}
+				else
+				{
+					for (int e = dPrc[r]; e < dPrc[r + 1]; e++)
+					{
+						int    p = prc[e];
+						double v = SimulationPert.debutPermis(types[e], delais[e], tot[p], finTache[p], d);
+						if (v > t) t = v;
+					}
+				}
+
+				tot[r]      = t;
+				finTache[r] = t + d;
+				if (t + d > finProjet) finProjet = t + d;
+			}
+			durees[s] = finProjet;
+
+			// ========== TÂCHES CRITIQUES ==========
+			// Une tâche est critique si elle finit avec le projet ou précède sans attente une tâche critique
+			for (int r = n - 1; r >= 0; r--)
+			{
+				if (marque[r] != tirage && finTache[r] != finProjet) continue;
+
+				marque[r] = tirage;
+				compte[r]++;
+				for (int e = dPrc[r]; e < dPrc[r + 1]; e++)
+				{
+					int    p      = prc[e];
+					double permis = types == null ? finTache[p]
+					              : SimulationPert.debutPermis(types[e], delais[e], tot[p], finTache[p], duree[r]);
+					if (permis == tot[r]) marque[p] = tirage;
+				}
+			}
+		}
+
+		return compte;
+	}
+
+	/**
+	 * Début que permet à une tâche de durée d un précédent daté, selon le lien qui les relie (voir Lien.ecart)
+	 */
+	private static double debutPermis(byte type, int delai, double totPrc, double finPrc, double d)
+	{
+		switch (type)
+		{
+			case Lien.SS: return totPrc + delai;
+			case Lien.FF: return finPrc + delai - d;
+			case Lien.SF: return totPrc + delai - d;
+			default:      return finPrc + delai;
+		}
+	}
+
+	/**
+	 * @param r Rang d'une tâche tirée
+	 * @param u Valeur uniforme dans [0, 1[
+	 * @return La durée tirée, ramenée à [0, 1]
+	 */
+	private double tirer(int r, double u)
+	{
+		if (this.loi == Loi.BETA)
+		{
+			double pos = u * NB_QUANTILES;
+			int    j   = (int) pos;
+			int    q   = this.decalages[r] + j;
+			return this.quantiles[q] + (pos - j) * (this.quantiles[q + 1] - this.quantiles[q]);
+		}
+
+		double c = this.modes[r];
+		return u < c ? Math.sqrt(u * c) : 1 - Math.sqrt((1 - u) * (1 - c));
+	}
+
+	/**
+	 * Table des quantiles de la loi bêta PERT de mode c sur [0, 1] : alpha = 1 + 4c, beta = 1 + 4(1 - c)
+	 * La densité est intégrée par la méthode des trapèzes, puis la fonction de répartition inversée.
+	 *
+	 * @param c Position du mode dans [0, 1]
+	 * @param q Tableau qui reçoit la table
+	 * @param debut Case de q où commence la table (NB_QUANTILES + 1 cases)
+	 */
+	private static void remplirTableBeta(double c, double[] q, int debut)
+	{
+		double   alpha = 1 + 4 * c;
+		double   beta  = 1 + 4 * (1 - c);
+		double[] cumul = new double[NB_PAS + 1];
+
+		double precedente = Math.pow(0, alpha - 1) * Math.pow(1, beta - 1);
+		for (int i = 1; i <= NB_PAS; i++)
+		{
+			double x       = (double) i / NB_PAS;
+			double densite = Math.pow(x, alpha - 1) * Math.pow(1 - x, beta - 1);
+			cumul[i]       = cumul[i - 1] + (precedente + densite) / 2;
+			precedente     = densite;
+		}
+
+		int i = 0;
+		for (int j = 1; j < NB_QUANTILES; j++)
+		{
+			double cible = cumul[NB_PAS] * j / NB_QUANTILES;
+			while (cumul[i + 1] < cible) i++;
+
+			q[debut + j] = (i + (cible - cumul[i]) / (cumul[i + 1] - cumul[i])) / NB_PAS;
+		}
+		q[debut + NB_QUANTILES] = 1;
+	}
+
+	// ========== CLASSES INTERNES ==========
+
+	/**
+	 * Estimation en trois points de la durée d'une tâche, en jours
+	 */
+	public static final class Estimation
+	{
+		private final int optimiste;    // Durée si tout va bien
+		private final int probable;     // Durée la plus probable
+		private final int pessimiste;   // Durée si tout va mal
+
+		/**
+		 * @throws IllegalArgumentException si l'on n'a pas 0 <= optimiste <= probable <= pessimiste
+		 */
+		public Estimation(int optimiste, int probable, int pessimiste)
+		{
+			if (optimiste < 0 || optimiste > probable || probable > pessimiste)
+				throw new IllegalArgumentException(Erreur.ESTIMATION_INVALIDE.formater(optimiste, probable, pessimiste));
+
+			this.optimiste  = optimiste;
+			this.probable   = probable;
+			this.pessimiste = pessimiste;
+		}
+
+		public int getOptimiste()  { return this.optimiste;  }
+		public int getProbable()   { return this.probable;   }
+		public int getPessimiste() { return this.pessimiste; }
+
+		public String toString()   { return this.optimiste + "/" + this.probable + "/" + this.pessimiste; }
+	}
+
+	/**
+	 * Résultat d'une simulation : durées du projet triées et indice de criticité des tâches
+	 */
+	public static final class Resultat
+	{
+		private final Planning planning;    // Version du planning simulée
+		private final Loi      loi;         // Loi des durées tirées
+		private final double[] durees;      // Durée du projet de chaque tirage, triées
+		private final double[] criticite;   // Part des tirages où chaque tâche est critique, par indice
+
+		private Resultat(Planning planning, Loi loi, double[] durees, double[] criticite)
+		{
+			this.planning  = planning;
+			this.loi       = loi;
+			this.durees    = durees;
+			this.criticite = criticite;
+		}
+
+		public Planning getPlanning()     { return this.planning;        }
+		public Loi      getLoi()          { return this.loi;             }
+		public int      getNbIterations() { return this.durees.length;   }
+		public double   getMinimum()      { return this.durees[0];       }
+		public double   getMaximum()      { return this.durees[this.durees.length - 1]; }
+		public double   getP50()          { return this.getPercentile(0.50); }
+		public double   getP80()          { return this.getPercentile(0.80); }
+		public double   getP95()          { return this.getPercentile(0.95); }
+
+		/**
+		 * @param p Probabilité dans ]0, 1]
+		 * @return La durée du projet qui n'est pas dépassée avec la probabilité p (rang le plus proche)
+		 */
+		public double getPercentile(double p)
+		{
+			int rang = (int) Math.ceil(p * this.durees.length) - 1;
+			return this.durees[Math.max(0, Math.min(rang, this.durees.length - 1))];
+		}
+
+		/**
+		 * @param duree Une durée de projet
+		 * @return La part des tirages où le projet finit en au plus cette durée
+		 */
+		public double getProbabiliteAuPlus(double duree)
+		{
+			int bas = 0, haut = this.durees.length;
+			while (bas < haut)
+			{
+				int milieu = (bas + haut) >>> 1;
+				if (this.durees[milieu] <= duree) bas  = milieu + 1;
+				else                              haut = milieu;
+			}
+			return (double) bas / this.durees.length;
+		}
+
+		public double getMoyenne()
+		{
+			double somme = 0;
+			for (double d : this.durees) somme += d;
+			return somme / this.durees.length;
+		}
+
+		public double getEcartType()
+		{
+			double moyenne = this.getMoyenne();
+			double somme   = 0;
+			for (double d : this.durees) somme += (d - moyenne) * (d - moyenne);
+			return Math.sqrt(somme / this.durees.length);
+		}
+
+		/**
+		 * @param i Indice d'une tâche dans le planning simulé
+		 * @return La part des tirages où la tâche est critique
+		 */
+		public double getCriticite(int i) { return this.criticite[i]; }
+
+		/**
+		 * @param nom Nom d'une tâche
+		 * @return La part des tirages où la tâche est critique, -1 si elle n'existe pas
+		 */
+		public double getCriticite(String nom)
+		{
+			int i = this.planning.indexDe(nom);
+			return i < 0 ? -1 : this.criticite[i];
+		}
+	}
+}
@@ -0,0 +1,392 @@
+package Metier;
+
+import java.util.Arrays;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * Classe TablePersistante - Table nom -> valeur immuable, à partage de structure
+ * La table est un arbre de hachage à 32 branches par niveau (HAMT). Ajouter, remplacer ou
+ * retirer une entrée ne recopie que les nœuds du chemin de cette entrée, soit O(log32 n)
+ * nœuds : la nouvelle table partage tout le reste avec l'ancienne, qui reste valable.
+ * Deux tables issues l'une de l'autre se comparent en ne visitant que les nœuds non partagés.
+ *
+ * @param <V> Le type des valeurs, comparées par référence
+ */
+final class TablePersistante<V>
+{
+	// ========== CONSTANTES ==========
+
+	private static final int BITS   = 5;                 // Bits du hachage consommés par niveau
+	private static final int MASQUE = (1 << BITS) - 1;   // Masque d'une branche
+
+	private static final TablePersistante<?> VIDE = new TablePersistante<>(null, 0);
+
+	// ========== ATTRIBUTS ==========
+
+	private final Noeud racine;   // Racine de l'arbre (null : table vide)
+	private final int   taille;   // Nombre d'entrées
+
+	// ========== CONSTRUCTEURS ==========
+
+	private TablePersistante(Noeud racine, int taille)
+	{
+		this.racine = racine;
+		this.taille = taille;
+	}
+
+	/**
+	 * @return La table vide
+	 */
+	@SuppressWarnings("unchecked")
+	static <V> TablePersistante<V> vide() { return (TablePersistante<V>) VIDE; }
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	int taille() { return this.taille; }
+
+	/**
+	 * @param cle Le nom cherché
+	 * @return La valeur associée, null si le nom est absent
+	 */
+	@SuppressWarnings("unchecked")
+	V get(String cle)
+	{
+		return this.racine == null ? null : (V) this.racine.get(TablePersistante.hacher(cle), 0, cle);
+	}
+
+	/**
+	 * Parcourt toutes les entrées, dans un ordre qui ne dépend que des noms
+	 *
+	 * @param action Action appliquée à chaque couple nom, valeur
+	 */
+	@SuppressWarnings("unchecked")
+	void parcourir(BiConsumer<String, V> action)
+	{
+		if (this.racine != null) this.racine.parcourir((BiConsumer<String, Object>) action);
+	}
+
+	// ========== MÉTHODES DE MODIFICATION ==========
+
+	/**
+	 * @param cle Le nom
+	 * @param valeur La valeur (non null)
+	 * @return Une table où le nom est associé à la valeur ; this si elle l'était déjà
+	 */
+	TablePersistante<V> avec(String cle, V valeur)
+	{
+		int       h     = TablePersistante.hacher(cle);
+		boolean[] ajout = new boolean[1];
+		Noeud     r;
+
+		if (this.racine == null)
+		{
+			r = Branche.VIDE.avec(h, 0, cle, valeur, ajout);
+		}
+		else
+		{
+			r = this.racine.avec(h, 0, cle, valeur, ajout);
+			if (r == this.racine) return this;
+		}
+
+		return new TablePersistante<>(r, this.taille + (ajout[0] ? 1 : 0));
+	}
+
+	/**
+	 * @param cle Le nom
+	 * @return Une table sans ce nom ; this s'il était absent
+	 */
+	TablePersistante<V> sans(String cle)
+	{
+		if (this.racine == null) return this;
+
+		Noeud r = this.racine.sans(TablePersistante.hacher(cle), 0, cle);
+		if (r == this.racine) return this;
+
+		return r == null ? TablePersistante.vide() : new TablePersistante<>(r, this.taille - 1);
+	}
+
+	// ========== COMPARAISON ==========
+
+	/**
+	 * Signale chaque nom ajouté, retiré ou dont la valeur a changé entre deux tables
+	 * Les sous-arbres partagés ne sont pas visités : le coût suit le nombre de différences.
+	 *
+	 * @param autre L'autre table
+	 * @param action Appelée une fois par nom différent
+	 */
+	void differences(TablePersistante<V> autre, Consumer<String> action)
+	{
+		TablePersistante.comparer(this.racine, autre.racine, 0, action);
+	}
+
+	private static void comparer(Noeud a, Noeud b, int decalage, Consumer<String> action)
+	{
+		if (a == b) return;
+
+		if (a == null) { b.parcourir((k, v) -> action.accept(k)); return; }
+		if (b == null) { a.parcourir((k, v) -> action.accept(k)); return; }
+
+		if (a instanceof Branche && b instanceof Branche)
+		{
+			Branche ba = (Branche) a;
+			Branche bb = (Branche) b;
+
+			for (int bits = ba.carte | bb.carte; bits != 0; bits &= bits - 1)
+			{
+				int    bit = bits & -bits;
+				Object ka  = (ba.carte & bit) == 0 ? null : ba.tab[2 * ba.position(bit)];
+				Object va  = (ba.carte & bit) == 0 ? null : ba.tab[2 * ba.position(bit) + 1];
+				Object kb  = (bb.carte & bit) == 0 ? null : bb.tab[2 * bb.position(bit)];
+				Object vb  = (bb.carte & bit) == 0 ? null : bb.tab[2 * bb.position(bit) + 1];
+
+				if (ka == null && kb == null)
+				{
+					TablePersistante.comparer((Noeud) va, (Noeud) vb, decalage + BITS, action);
+				}
+				else if (ka != null && kb != null)
+				{
+					if (!ka.equals(kb))  { action.accept((String) ka); action.accept((String) kb); }
+					else if (va != vb)   { action.accept((String) ka);                             }
+				}
+				else if (ka != null)
+				{
+					TablePersistante.comparerEntree((String) ka, va, (Noeud) vb, decalage + BITS, action);
+				}
+				else
+				{
+					TablePersistante.comparerEntree((String) kb, vb, (Noeud) va, decalage + BITS, action);
+				}
+			}
+			return;
+		}
+
+		// Collisions de hachage : comparaison entrée par entrée
+		a.parcourir((k, v) -> { if (b.get(TablePersistante.hacher(k), decalage, k) != v) action.accept(k); });
+		b.parcourir((k, v) -> { if (a.get(TablePersistante.hacher(k), decalage, k) == null) action.accept(k); });
+	}
+
+	/**
+	 * Compare une entrée seule d'un côté avec un sous-arbre de l'autre
+	 */
+	private static void comparerEntree(String cle, Object valeur, Noeud n, int decalage, Consumer<String> action)
+	{
+		if (n == null) { action.accept(cle); return; }
+
+		if (n.get(TablePersistante.hacher(cle), decalage, cle) != valeur) action.accept(cle);
+		n.parcourir((k, v) -> { if (!k.equals(cle)) action.accept(k); });
+	}
+
+	private static int hacher(String cle)
+	{
+		int h = cle.hashCode();
+		return h ^ (h >>> 16);
+	}
+
+	// ========== NŒUDS ==========
+
+	/**
+	 * Nœud de l'arbre ; un nœud n'est jamais modifié après sa construction
+	 */
+	private abstract static class Noeud
+	{
+		abstract Object get      (int h, int decalage, String cle);
+		abstract Noeud  avec     (int h, int decalage, String cle, Object valeur, boolean[] ajout);
+		abstract Noeud  sans     (int h, int decalage, String cle);
+		abstract void   parcourir(BiConsumer<String, Object> action);
+	}
+
+	/**
+	 * Nœud à 32 branches : la carte indique les branches occupées, tab les range à la suite,
+	 * deux cases par branche : (nom, valeur) pour une entrée, (null, sous-nœud) sinon
+	 */
+	private static final class Branche extends Noeud
+	{
+		static final Branche VIDE = new Branche(0, new Object[0]);
+
+		final int      carte;
+		final Object[] tab;
+
+		Branche(int carte, Object[] tab)
+		{
+			this.carte = carte;
+			this.tab   = tab;
+		}
+
+		int position(int bit) { return Integer.bitCount(this.carte & (bit - 1)); }
+
+		Object get(int h, int decalage, String cle)
+		{
+			int bit = 1 << ((h >>> decalage) & MASQUE);
+			if ((this.carte & bit) == 0) return null;
+
+			int    i = 2 * this.position(bit);
+			Object k = this.tab[i];
+
+			if (k == null) return ((Noeud) this.tab[i + 1]).get(h, decalage + BITS, cle);
+
+			return cle.equals(k) ? this.tab[i + 1] : null;
+		}
+
+		Noeud avec(int h, int decalage, String cle, Object valeur, boolean[] ajout)
+		{
+			int bit = 1 << ((h >>> decalage) & MASQUE);
+			int i   = 2 * this.position(bit);
+
+			if ((this.carte & bit) == 0)
+			{
+				Object[] t = new Object[this.tab.length + 2];
+				System.arraycopy(this.tab, 0, t, 0, i);
+				System.arraycopy(this.tab, i, t, i + 2, this.tab.length - i);
+				t[i]     = cle;
+				t[i + 1] = valeur;
+
+				ajout[0] = true;
+				return new Branche(this.carte | bit, t);
+			}
+
+			Object k = this.tab[i];
+			Object v = this.tab[i + 1];
+
+			if (k == null)
+			{
+				Noeud fils = ((Noeud) v).avec(h, decalage + BITS, cle, valeur, ajout);
+				return fils == v ? this : this.remplacer(i, null, fils);
+			}
+
+			if (cle.equals(k)) return v == valeur ? this : this.remplacer(i, k, valeur);
+
+			// Deux noms sur la même branche : ils descendent dans un sous-nœud
+			ajout[0] = true;
+			return this.remplacer(i, null, Branche.creer(decalage + BITS, (String) k, v, h, cle, valeur));
+		}
+
+		Noeud sans(int h, int decalage, String cle)
+		{
+			int bit = 1 << ((h >>> decalage) & MASQUE);
+			if ((this.carte & bit) == 0) return this;
+
+			int    i = 2 * this.position(bit);
+			Object k = this.tab[i];
+
+			if (k == null)
+			{
+				Noeud fils = ((Noeud) this.tab[i + 1]).sans(h, decalage + BITS, cle);
+				if (fils == this.tab[i + 1]) return this;
+				if (fils != null)            return this.remplacer(i, null, fils);
+			}
+			else if (!cle.equals(k))
+			{
+				return this;
+			}
+
+			if (this.carte == bit) return null;
+
+			Object[] t = new Object[this.tab.length - 2];
+			System.arraycopy(this.tab, 0,     t, 0, i);
+			System.arraycopy(this.tab, i + 2, t, i, this.tab.length - i - 2);
+			return new Branche(this.carte & ~bit, t);
+		}
+
+		void parcourir(BiConsumer<String, Object> action)
+		{
+			for (int i = 0; i < this.tab.length; i += 2)
+			{
+				if (this.tab[i] == null) ((Noeud) this.tab[i + 1]).parcourir(action);
+				else                     action.accept((String) this.tab[i], this.tab[i + 1]);
+			}
+		}
+
+		private Branche remplacer(int i, Object cle, Object valeur)
+		{
+			Object[] t = this.tab.clone();
+			t[i]     = cle;
+			t[i + 1] = valeur;
+			return new Branche(this.carte, t);
+		}
+
+		/**
+		 * Sous-nœud contenant deux entrées arrivées sur la même branche
+		 */
+		static Noeud creer(int decalage, String k1, Object v1, int h2, String k2, Object v2)
+		{
+			int h1 = TablePersistante.hacher(k1);
+			if (h1 == h2) return new Collision(h1, new Object[] { k1, v1, k2, v2 });
+
+			boolean[] ajout = new boolean[1];
+			return Branche.VIDE.avec(h1, decalage, k1, v1, ajout).avec(h2, decalage, k2, v2, ajout);
+		}
+	}
+
+	/**
+	 * Noms de même hachage, rangés à la suite : (nom, valeur), (nom, valeur)...
+	 */
+	private static final class Collision extends Noeud
+	{
+		final int      hachage;
+		final Object[] tab;
+
+		Collision(int hachage, Object[] tab)
+		{
+			this.hachage = hachage;
+			this.tab     = tab;
+		}
+
+		private int chercher(String cle)
+		{
+			for (int i = 0; i < this.tab.length; i += 2) if (cle.equals(this.tab[i])) return i;
+			return -1;
+		}
+
+		Object get(int h, int decalage, String cle)
+		{
+			int i = h == this.hachage ? this.chercher(cle) : -1;
+			return i < 0 ? null : this.tab[i + 1];
+		}
+
+		Noeud avec(int h, int decalage, String cle, Object valeur, boolean[] ajout)
+		{
+			// Hachage différent : la collision descend d'un niveau, sous une branche
+			if (h != this.hachage)
+			{
+				Branche b = new Branche(1 << ((this.hachage >>> decalage) & MASQUE), new Object[] { null, this });
+				return b.avec(h, decalage, cle, valeur, ajout);
+			}
+
+			int      i = this.chercher(cle);
+			Object[] t;
+
+			if (i >= 0)
+			{
+				if (this.tab[i + 1] == valeur) return this;
+				t = this.tab.clone();
+				t[i + 1] = valeur;
+			}
+			else
+			{
+				t = Arrays.copyOf(this.tab, this.tab.length + 2);
+				t[this.tab.length]     = cle;
+				t[this.tab.length + 1] = valeur;
+				ajout[0] = true;
+			}
+			return new Collision(this.hachage, t);
+		}
+
+		Noeud sans(int h, int decalage, String cle)
+		{
+			int i = h == this.hachage ? this.chercher(cle) : -1;
+			if (i < 0)                 return this;
+			if (this.tab.length == 2)  return null;
+
+			Object[] t = new Object[this.tab.length - 2];
+			System.arraycopy(this.tab, 0,     t, 0, i);
+			System.arraycopy(this.tab, i + 2, t, i, this.tab.length - i - 2);
+			return new Collision(this.hachage, t);
+		}
+
+		void parcourir(BiConsumer<String, Object> action)
+		{
+			for (int i = 0; i < this.tab.length; i += 2) action.accept((String) this.tab[i], this.tab[i + 1]);
+		}
+	}
+}
@@ -1,40 +1,53 @@
 package Metier;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Calendar;
 
 /**
  * Classe Tache - Représente une tâche dans un projet MPM
  * Une tâche possède un nom, une durée, des dates de planification
  * et des relations de dépendance avec d'autres tâches.
+ * Les données sont stockées dans le graphe compact du projet :
+ * la tâche n'en est qu'une vue, repérée par son identifiant.
  */
 public class Tache
 {
 	// ========== ATTRIBUTS ==========
 	
-	private String           nom;                               // Nom de la tâche
-
-	private int              duree;                             // Durée de la tâche en jours
-	private int              datePlusTot  = 0;                  // Date au plus tôt (en jours depuis le début)
-	private int              datePlusTard = 0;                  // Date au plus tard (en jours depuis le début)
-
-	private ArrayList<Tache> precedents   = new ArrayList<>();  // Liste des tâches prédécesseurs
-	private ArrayList<Tache> suivants     = new ArrayList<>();  // Liste des tâches suivantes
+	private String        nom;       // Nom de la tâche
+	private int           id;        // Indice de la tâche dans le graphe (-1 si retirée du projet)
+	private GrapheCompact graphe;    // Graphe qui porte la durée, les dates et les dépendances
 
 	// ========== CONSTRUCTEUR ==========
 
 	/**
 	 * Constructeur d'une tâche
+	 * La tâche est ajoutée au graphe, sans dépendance
 	 * 
 	 * @param nom Le nom de la tâche
 	 * @param duree La durée de la tâche en jours
+	 * @param graphe Le graphe du projet auquel la tâche appartient
 	 */
-	public Tache(String nom, int duree)
+	public Tache(String nom, int duree, GrapheCompact graphe)
 	{
-		this.nom   = nom;
-		this.duree = duree;
+		this.nom    = nom;
+		this.graphe = graphe;
+		this.id     = graphe.ajouterNoeud(this, duree);
+	}
+
+	/**
+	 * Constructeur d'une vue sur une tâche déjà présente dans le graphe
+	 * Utilisé à la relecture d'un instantané, où le graphe est rempli d'un bloc
+	 * 
+	 * @param graphe Le graphe du projet
+	 * @param id L'identifiant de la tâche dans le graphe
+	 * @param nom Le nom de la tâche
+	 */
+	Tache(GrapheCompact graphe, int id, String nom)
+	{
+		this.nom    = nom;
+		this.graphe = graphe;
+		this.id     = id;
+		graphe.attacherVue(id, this);
 	}
 	// ========== MÉTHODES D'ACCÈS (GETTERS) ==========
 
@@ -45,40 +58,59 @@ public class Tache
 	 */
 	public String getNom()      { return this.nom;       }
 
+	/**
+	 * Retourne l'identifiant de la tâche
+	 * L'identifiant est un indice dense, égal à la position de la tâche
+	 * dans la liste des tâches du projet
+	 * 
+	 * @return L'identifiant de la tâche, -1 si elle a été retirée du projet
+	 */
+	public int getId()          { return this.id;        }
+
 	/**
 	 * Retourne la durée de la tâche
 	 * 
 	 * @return La durée en jours
 	 */
-	public int getDuree()       { return this.duree;     }
+	public int getDuree()       { return this.graphe.getDuree(this.id);       }
 
 	/**
 	 * Retourne la date au plus tôt de début de la tâche
 	 * 
 	 * @return La date au plus tôt (en jours depuis le début du projet)
 	 */
-	public int getDatePlusTot() { return this.datePlusTot;}
+	public int getDatePlusTot() { return this.graphe.getDatePlusTot(this.id);  }
 
 	/**
 	 * Retourne la date au plus tard de début de la tâche
 	 * 
 	 * @return La date au plus tard (en jours depuis le début du projet)
 	 */
-	public int getDatePlusTard(){ return this.datePlusTard;}
+	public int getDatePlusTard(){ return this.graphe.getDatePlusTard(this.id); }
 
 	/**
 	 * Retourne la liste des tâches prédécesseurs
 	 * 
-	 * @return Liste des tâches qui doivent être terminées avant celle-ci
+	 * @return Nouvelle liste des tâches qui doivent être terminées avant celle-ci
 	 */
-	public ArrayList<Tache> getPrecedents() { return this.precedents; }
+	public ArrayList<Tache> getPrecedents() { return this.graphe.getPrecedents(this.id);   }
 
 	/**
 	 * Retourne la liste des tâches suivantes
 	 * 
-	 * @return Liste des tâches qui dépendent de celle-ci
+	 * @return Nouvelle liste des tâches qui dépendent de celle-ci
+	 */
+	public ArrayList<Tache> getSuivants()   { return this.graphe.getSuivants(this.id);     }
+
+	/**
+	 * @return Le nombre de tâches prédécesseurs, sans construire de liste
 	 */
-	public ArrayList<Tache> getSuivants()   { return this.suivants;   }
+	public int getNbPrecedents()            { return this.graphe.getNbPrecedents(this.id); }
+
+	/**
+	 * @return Le nombre de tâches suivantes, sans construire de liste
+	 */
+	public int getNbSuivants()              { return this.graphe.getNbSuivants(this.id);   }
 
 	// ========== MÉTHODES DE MODIFICATION (SETTERS) ==========
 
@@ -87,7 +119,15 @@ public class Tache
 	 * 
 	 * @param duree La nouvelle durée en jours
 	 */
-	public void setDuree(int duree) { this.duree = duree; }
+	public void setDuree(int duree) { this.graphe.setDuree(this.id, duree); }
+
+	/**
+	 * Modifie l'identifiant de la tâche
+	 * Réservé au projet qui maintient l'index des tâches
+	 * 
+	 * @param id Le nouvel identifiant
+	 */
+	void setId(int id) { this.id = id; }
 	// ========== MÉTHODES DE GESTION DES DÉPENDANCES ==========
 
 	/**
@@ -100,15 +140,18 @@ public class Tache
 	 */
 	public void ajouterPrecedent(Tache t)
 	{
-		if (!this.precedents.contains(t))
-		{
-			this.precedents.add(t);
-		}
+		this.graphe.ajouterArc(t.id, this.id);
+	}
 
-		if (!t.suivants.contains(this))
-		{
-			t.suivants.add(this);
-		}
+	/**
+	 * Ajoute une tâche prédécesseur avec un lien typé (voir Lien)
+	 * 
+	 * @param t La tâche prédécesseur à ajouter
+	 * @param lien Le type et le délai de la dépendance
+	 */
+	public void ajouterPrecedent(Tache t, Lien lien)
+	{
+		this.graphe.ajouterArc(t.id, this.id, lien.getType(), lien.getDelai());
 	}
 
 	/**
@@ -121,15 +164,18 @@ public class Tache
 	 */
 	public void ajouterSuivant(Tache t)
 	{
-		if (!this.suivants.contains(t))
-		{
-			this.suivants.add(t);
-		}
+		this.graphe.ajouterArc(this.id, t.id);
+	}
 
-		if (!t.precedents.contains(this))
-		{
-			t.precedents.add(this);
-		}
+	/**
+	 * Ajoute une tâche suivante avec un lien typé (voir Lien)
+	 * 
+	 * @param t La tâche suivante à ajouter
+	 * @param lien Le type et le délai de la dépendance
+	 */
+	public void ajouterSuivant(Tache t, Lien lien)
+	{
+		this.graphe.ajouterArc(this.id, t.id, lien.getType(), lien.getDelai());
 	}
 
 	// ========== MÉTHODES DE CALCUL DES DATES ==========
@@ -141,16 +187,7 @@ public class Tache
 	 */
 	public void calculerDatePlusTot()
 	{
-		int max = 0;
-		for (Tache t : this.precedents)
-		{
-			int finTache = t.getDatePlusTot() + t.getDuree();
-			if (finTache > max)
-			{
-				max = finTache;
-			}
-		}
-		this.datePlusTot = max;
+		this.graphe.calculerDatePlusTot(this.id);
 	}
 
 	/**
@@ -160,22 +197,8 @@ public class Tache
 	 */
 	public void calculerDatePlusTard()
 	{
-		int min = Integer.MAX_VALUE;
-
-		for (Tache t : this.suivants)
-		{
-			int debutSuivant = t.getDatePlusTard() - this.duree;
-			if (debutSuivant < min)
-			{
-				min = debutSuivant;
-			}
-		}
-
-		// Si pas de suivants, on laisse la date actuelle
-		if (!this.suivants.isEmpty())
-		{
-			this.datePlusTard = min;
-		}
+		// Si pas de suivants, le graphe laisse la date actuelle
+		this.graphe.calculerDatePlusTard(this.id);
 	}
 
 	/**
@@ -184,7 +207,7 @@ public class Tache
 	 * 
 	 * @param date La date au plus tard à fixer
 	 */
-	public void setDatePlusTard(int date) { this.datePlusTard = date; }
+	public void setDatePlusTard(int date) { this.graphe.setDatePlusTard(this.id, date); }
 
 	// ========== MÉTHODES D'ANALYSE ==========
 
@@ -195,84 +218,82 @@ public class Tache
 	 * 
 	 * @return true si la tâche est critique, false sinon
 	 */
-	public boolean estCritique() { return this.datePlusTot == this.datePlusTard; }
+	public boolean estCritique() { return this.getDatePlusTot() == this.getDatePlusTard(); }
+
+	/**
+	 * @return Le retard possible sans retarder la fin du projet
+	 */
+	public int getMargeTotale()       { return this.graphe.getMarges().getTotale(this.id);       }
+
+	/**
+	 * @return Le retard possible sans retarder aucune tâche suivante
+	 */
+	public int getMargeLibre()        { return this.graphe.getMarges().getLibre(this.id);        }
+
+	/**
+	 * @return Le retard possible quand les précédents finissent au plus tard et les suivants commencent au plus tôt
+	 */
+	public int getMargeIndependante() { return this.graphe.getMarges().getIndependante(this.id); }
 	// ========== MÉTHODES UTILITAIRES STATIQUES ==========
 
 	/**
 	 * Ajoute un nombre de jours à une date donnée
-	 * Gère les formats de date dd/MM/yyyy et dd/MM
+	 * Gère les formats de date dd/MM/yyyy et dd/MM (voir Calendrier)
 	 * 
 	 * @param dateDebut La date de début au format dd/MM/yyyy ou dd/MM
 	 * @param nbJours Le nombre de jours à ajouter (peut être négatif)
-	 * @return La date résultante au format dd/MM
+	 * @return La date résultante au format dd/MM, dd/MM/yy si l'année diffère de celle du début
 	 */
 	public static String ajouterJours(String dateDebut, int nbJours)
 	{
-		try
-		{
-			SimpleDateFormat formatEntree;
-
-			// Détecter le format d'entrée et ajuster si nécessaire
-			if (dateDebut.matches("\\d{2}/\\d{2}/\\d{4}"))
-			{
-				// Format complet : dd/MM/yyyy
-				formatEntree = new SimpleDateFormat("dd/MM/yyyy");
-			}
-			else if (dateDebut.matches("\\d{2}/\\d{2}"))
-			{
-				// Format court : dd/MM - ajouter l'année courante
-				Calendar currentYear = Calendar.getInstance();
-				dateDebut = dateDebut + "/" + currentYear.get(Calendar.YEAR);
-				formatEntree = new SimpleDateFormat("dd/MM/yyyy");
-			}
-			else
-			{
-				System.err.println("Format de date non reconnu : " + dateDebut);
-				return "??/??";
-			}
-
-			formatEntree.setLenient(false);
-			Calendar cal = Calendar.getInstance();
-			cal.setTime(formatEntree.parse(dateDebut));
-			cal.add(Calendar.DAY_OF_MONTH, nbJours);
-
-			return new SimpleDateFormat("dd/MM").format(cal.getTime());
-		}
-		catch (ParseException e)
-		{
-			System.err.println("Erreur de parsing pour la date : " + dateDebut);
-			e.printStackTrace();
-			return "??/??";
-		}
+		return Calendrier.pour(dateDebut).libelle(nbJours);
 	}
+
+	private static String jours(int n) { return n + " jour" + (n > 1 ? "s" : ""); }
 	// ========== MÉTHODES D'AFFICHAGE ==========
 
 	/**
 	 * Retourne une représentation textuelle complète de la tâche
-	 * Affiche toutes les informations : nom, durée, dates, marge, dépendances
+	 * Affiche toutes les informations : nom, durée, dates, marges, dépendances
 	 * 
 	 * @param dateDebut La date de début du projet pour calculer les dates calendaires
 	 * @return Chaîne de caractères représentant la tâche
 	 */
 	public String toString(String dateDebut)
 	{
-		// ========== TITRE ET DURÉE ==========
-		String res = this.nom + " : " + this.duree + " jour" + (this.duree > 1 ? "s" : "") + "\n";
+		return this.toString(ajouterJours(dateDebut, this.getDatePlusTot()), ajouterJours(dateDebut, this.getDatePlusTard()));
+	}
 
-		// ========== CALCUL DES DATES AU FORMAT JJ/MM ==========
-		String datePlusTotStr  = ajouterJours(dateDebut, this.datePlusTot );
-		String datePlusTardStr = ajouterJours(dateDebut, this.datePlusTard);
+	/**
+	 * Retourne une représentation textuelle complète de la tâche
+	 * avec des dates déjà converties (par exemple en jours ouvrés, voir Calendrier.libelle)
+	 * 
+	 * @param datePlusTotStr Le libellé de la date au plus tôt
+	 * @param datePlusTardStr Le libellé de la date au plus tard
+	 * @return Chaîne de caractères représentant la tâche
+	 */
+	public String toString(String datePlusTotStr, String datePlusTardStr)
+	{
+		// ========== TITRE ET DURÉE ==========
+		int    duree = this.getDuree();
+		String res   = this.nom + " : " + duree + " jour" + (duree > 1 ? "s" : "") + "\n";
 
+		// ========== DATES ==========
 		res += "date au plus tôt : "  + datePlusTotStr  + "\n";
 		res += "date au plus tard : " + datePlusTardStr + "\n";
 
-		// ========== CALCUL ET AFFICHAGE DE LA MARGE ==========
-		int marge = this.datePlusTard - this.datePlusTot;
+		// ========== MARGES ==========
+		Marges marges = this.graphe.getMarges();
 
-		res += "marge : " + marge + " jour" + (marge > 1 ? "s" : "") + "\n";
+		res += "marge totale : "       + Tache.jours(marges.getTotale      (this.id)) + "\n";
+		res += "marge libre : "        + Tache.jours(marges.getLibre       (this.id)) + "\n";
+		res += "marge indépendante : " + Tache.jours(marges.getIndependante(this.id)) + "\n";
 
 		// ========== LISTE DES PRÉDÉCESSEURS ==========
-		if (this.precedents.isEmpty()) 
+		ArrayList<Tache> precedents = this.getPrecedents();
+		ArrayList<Tache> suivants   = this.getSuivants();
+
+		if (precedents.isEmpty()) 
 		{
 			res += "pas de tâche précédente\n";
 		} 
@@ -280,14 +301,15 @@ public class Tache
 		{
 			res += "liste des tâches précédentes :\n";
 
-			for (Tache t : this.precedents) 
+			for (int i = 0; i < precedents.size(); i++) 
 			{
-				res += t.getNom() + "\n";
+				int k = this.graphe.debutPrc(this.id) + i;
+				res += precedents.get(i).getNom() + Lien.annotation(this.graphe.typePrc(k), this.graphe.delaiPrc(k)) + "\n";
 			}
 		}
 
 		// ========== LISTE DES SUIVANTS ==========
-		if (this.suivants.isEmpty()) 
+		if (suivants.isEmpty()) 
 		{
 			res += "pas de tâche suivante\n";
 		} 
@@ -295,9 +317,10 @@ public class Tache
 		{
 			res += "liste des tâches suivantes :\n";
 
-			for (Tache t : this.suivants) 
+			for (int i = 0; i < suivants.size(); i++) 
 			{
-				res += t.getNom() + "\n";
+				int k = this.graphe.debutSvt(this.id) + i;
+				res += suivants.get(i).getNom() + Lien.annotation(this.graphe.typeSvt(k), this.graphe.delaiSvt(k)) + "\n";
 			}
 		}
 		return res;
@@ -0,0 +1,415 @@
+package Metier;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Classe TachesCritiques - Ensemble des tâches situées sur un chemin critique, tenu à jour localement
+ * Une tâche est critique quand elle est atteinte depuis "Debut" et mène à "Fin" par des arcs tendus
+ * entre tâches sans marge (même définition que ReseauCritique). Les deux moitiés sont gardées en
+ * ensembles de bits : « en avant » (atteinte depuis "Debut") et « en arrière » (mène à "Fin").
+ *
+ * Après une modification locale, seules les tâches signalées (dates, durée ou arcs modifiés) et leurs
+ * voisins sont réévalués, dans l'ordre des rangs topologiques comme la propagation des dates ; une
+ * réévaluation ne se poursuit chez les voisins que si l'appartenance de la tâche a changé.
+ *
+ * Quand la fin du projet bouge, la marge de toutes les autres tâches change d'autant. Seules celles
+ * dont la marge était nulle ou le devient peuvent changer d'appartenance : les tâches sont rangées
+ * selon la fin de projet qui annulerait leur marge (date au plus tôt moins date au plus tard relative,
+ * voir GrapheCompact.getTardRelatif), et seules celles de l'ancienne et de la nouvelle fin sont réévaluées.
+ * Le nombre de chemins et leur parcours restent à ReseauCritique, construit à la demande.
+ */
+public class TachesCritiques
+{
+	// ========== CONSTANTES ==========
+
+	private static final int PART_SIGNALEES = 8;   // Au-delà de n / PART_SIGNALEES tâches signalées, tout est réévalué en un passage
+
+	// ========== ATTRIBUTS ==========
+
+	private GrapheCompact graphe;        // Graphe suivi
+	private long[]        avant;         // Tâches sans marge atteintes depuis "Debut" par des arcs tendus
+	private long[]        arriere;       // Tâches sans marge menant à "Fin" par des arcs tendus
+
+	private int[]         signalees;     // Tâches signalées depuis la dernière mise à jour
+	private int           nbSignalees;   // Nombre de tâches signalées
+	private int[]         marques;       // Marque de passage de chaque tâche
+	private int           generation;    // Valeur de marque en cours
+	private TasEntiers    tas;           // Tâches à réévaluer, par rang
+
+	private HashMap<Integer, Seau> parFin;   // Tâches selon la fin de projet qui annulerait leur marge (null si à reconstruire)
+	private Seau[]        seaux;         // Seau de chaque tâche (null si non rangée)
+	private int[]         places;        // Place de chaque tâche dans son seau
+	private int           finTard;       // Fin de référence des dates au plus tard à la dernière mise à jour
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Calcule l'ensemble des tâches critiques d'un graphe daté, en O(V+E)
+	 *
+	 * @param graphe Le graphe, dates à jour
+	 * @param debut Identifiant de la tâche "Debut" (ou -1 si absente)
+	 * @param fin Identifiant de la tâche "Fin" (ou -1 si absente)
+	 */
+	public TachesCritiques(GrapheCompact graphe, int debut, int fin)
+	{
+		int n = graphe.getNbNoeuds();
+
+		this.graphe    = graphe;
+		this.avant     = new long[(Math.max(n, 64) + 63) >>> 6];
+		this.arriere   = new long[this.avant.length];
+		this.signalees = new int[16];
+		this.marques   = new int[Math.max(n, 16)];
+		this.tas       = new TasEntiers(64);
+		this.seaux     = new Seau[this.marques.length];
+		this.places    = new int[this.marques.length];
+		this.finTard   = graphe.getFinTard();
+
+		this.indexer();
+		if (debut >= 0 && fin >= 0) this.toutEvaluer(debut, fin);
+	}
+
+	// ========== MÉTHODES DE MISE À JOUR ==========
+
+	/**
+	 * Signale une tâche dont les dates, la durée ou les arcs ont changé (nouvelle tâche comprise)
+	 *
+	 * @param id Identifiant de la tâche
+	 */
+	public void signaler(int id)
+	{
+		if (this.nbSignalees == this.signalees.length)
+			this.signalees = Arrays.copyOf(this.signalees, this.nbSignalees * 2);
+
+		this.signalees[this.nbSignalees++] = id;
+	}
+
+	/**
+	 * Signale qu'une tâche a été retirée : la dernière tâche a pris son identifiant
+	 *
+	 * @param id Identifiant de la tâche retirée
+	 * @param deplace Ancien identifiant de la tâche qui le reprend (-1 si aucune)
+	 */
+	public void signalerSuppression(int id, int deplace)
+	{
+		this.agrandir(Math.max(id, deplace) + 1);
+
+		// La tâche déplacée garde sa place dans son seau, sous son nouvel identifiant
+		if (this.parFin != null && this.seaux[id] != null) this.retirer(id);
+		if (this.parFin != null && deplace >= 0 && this.seaux[deplace] != null)
+		{
+			this.seaux[deplace].ids[this.places[deplace]] = id;
+			this.seaux [id]      = this.seaux [deplace];
+			this.places[id]      = this.places[deplace];
+			this.seaux [deplace] = null;
+		}
+
+		boolean avant   = deplace >= 0 && TachesCritiques.lire(this.avant,   deplace);
+		boolean arriere = deplace >= 0 && TachesCritiques.lire(this.arriere, deplace);
+
+		TachesCritiques.ecrire(this.avant,   id, avant);
+		TachesCritiques.ecrire(this.arriere, id, arriere);
+		if (deplace >= 0)
+		{
+			TachesCritiques.ecrire(this.avant,   deplace, false);
+			TachesCritiques.ecrire(this.arriere, deplace, false);
+		}
+
+		for (int i = this.nbSignalees - 1; i >= 0; i--)
+		{
+			if      (this.signalees[i] == id     ) this.signalees[i] = this.signalees[--this.nbSignalees];
+			else if (this.signalees[i] == deplace) this.signalees[i] = id;
+		}
+	}
+
+	/**
+	 * Réévalue les tâches signalées et leurs voisins, puis ceux dont l'appartenance change
+	 * Les arcs tendus ne dépendent que des dates et des durées de leurs deux extrémités :
+	 * en avant, une tâche signalée et ses suivants ; en arrière, elle et ses précédents.
+	 * Si la fin du projet a bougé, les tâches sans marge avant ou après le décalage le sont aussi.
+	 * Quand une grande partie du graphe est signalée, un seul passage dans l'ordre des rangs
+	 * coûte moins cher que le tas : toutes les tâches sont alors réévaluées, et le rangement
+	 * par fin de projet n'est reconstruit qu'à la prochaine mise à jour locale.
+	 *
+	 * @param debut Identifiant de la tâche "Debut" (ou -1 si absente)
+	 * @param fin Identifiant de la tâche "Fin" (ou -1 si absente)
+	 */
+	public void mettreAJour(int debut, int fin)
+	{
+		GrapheCompact g = this.graphe;
+
+		this.agrandir(g.getNbNoeuds());
+
+		if (this.nbSignalees > g.getNbNoeuds() / TachesCritiques.PART_SIGNALEES)
+		{
+			this.toutEvaluer(debut, fin);
+			this.parFin      = null;
+			this.finTard     = g.getFinTard();
+			this.nbSignalees = 0;
+			return;
+		}
+
+		// ========== TÂCHES TOUCHÉES PAR UN DÉCALAGE DE LA FIN ==========
+		if (this.parFin == null) this.indexer();
+		for (int i = 0; i < this.nbSignalees; i++) this.ranger(this.signalees[i]);
+
+		Seau sansMargeAvant = null;
+		Seau sansMargeApres = null;
+		if (g.getFinTard() != this.finTard)
+		{
+			sansMargeAvant = this.parFin.get(this.finTard);
+			sansMargeApres = this.parFin.get(g.getFinTard());
+			this.finTard   = g.getFinTard();
+		}
+
+		// ========== EN ARRIÈRE : VERS LES ANCÊTRES ==========
+		int marque = ++this.generation;
+
+		this.tas.vider();
+		for (int i = 0; i < this.nbSignalees; i++)
+		{
+			int u = this.signalees[i];
+
+			this.planifier(u, -g.getRang(u), marque);
+			for (int k = g.debutPrc(u); k < g.finPrc(u); k++) this.planifier(g.prc(k), -g.getRang(g.prc(k)), marque);
+		}
+		this.planifier(sansMargeAvant, -1, marque);
+		this.planifier(sansMargeApres, -1, marque);
+
+		while (!this.tas.estVide())
+		{
+			int u = this.tas.extraire();
+			if (!this.evaluerArriere(u, fin)) continue;
+
+			for (int k = g.debutPrc(u); k < g.finPrc(u); k++) this.planifier(g.prc(k), -g.getRang(g.prc(k)), marque);
+		}
+
+		// ========== EN AVANT : VERS LES DESCENDANTS ==========
+		marque = ++this.generation;
+
+		for (int i = 0; i < this.nbSignalees; i++)
+		{
+			int u = this.signalees[i];
+
+			this.planifier(u, g.getRang(u), marque);
+			for (int k = g.debutSvt(u); k < g.finSvt(u); k++) this.planifier(g.svt(k), g.getRang(g.svt(k)), marque);
+		}
+		this.planifier(sansMargeAvant, 1, marque);
+		this.planifier(sansMargeApres, 1, marque);
+
+		while (!this.tas.estVide())
+		{
+			int u = this.tas.extraire();
+			if (!this.evaluerAvant(u, debut)) continue;
+
+			for (int k = g.debutSvt(u); k < g.finSvt(u); k++) this.planifier(g.svt(k), g.getRang(g.svt(k)), marque);
+		}
+
+		this.nbSignalees = 0;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	/**
+	 * Indique si une tâche est située sur au moins un chemin critique
+	 * Les tâches signalées depuis la dernière mise à jour ne sont pas encore réévaluées.
+	 *
+	 * @param id Identifiant de la tâche
+	 * @return true si la tâche est critique
+	 */
+	public boolean estCritique(int id)
+	{
+		return id >= 0 && TachesCritiques.lire(this.avant, id) && TachesCritiques.lire(this.arriere, id);
+	}
+
+	/**
+	 * Recopie l'ensemble des tâches critiques, pour une version figée du planning
+	 *
+	 * @param n Nombre de tâches
+	 * @return Les tâches critiques, en ensemble de bits indexé par identifiant
+	 */
+	long[] copierCritiques(int n)
+	{
+		long[] bits = new long[(n + 63) >>> 6];
+
+		for (int m = 0; m < bits.length; m++) bits[m] = this.avant[m] & this.arriere[m];
+		if ((n & 63) != 0) bits[bits.length - 1] &= (1L << n) - 1;
+
+		return bits;
+	}
+
+	// ========== MÉTHODES UTILITAIRES ==========
+
+	/**
+	 * Réévalue toutes les tâches dans l'ordre des rangs, en O(V+E) : chacune l'est après ses voisins utiles
+	 */
+	private void toutEvaluer(int debut, int fin)
+	{
+		int   n     = this.graphe.getNbNoeuds();
+		int[] ordre = this.graphe.getOrdreParRang();
+
+		for (int r = n - 1; r >= 0; r--) this.evaluerArriere(ordre[r], fin);
+		for (int r = 0;     r < n;  r++) this.evaluerAvant  (ordre[r], debut);
+	}
+
+	/**
+	 * Recalcule « mène à Fin » d'une tâche d'après ses suivants
+	 *
+	 * @return true si la valeur a changé
+	 */
+	private boolean evaluerArriere(int u, int fin)
+	{
+		GrapheCompact g      = this.graphe;
+		boolean       valeur = false;
+
+		if (fin >= 0 && g.getDatePlusTot(u) == g.getDatePlusTard(u))
+		{
+			valeur = u == fin;
+			for (int k = g.debutSvt(u); k < g.finSvt(u) && !valeur; k++)
+			{
+				int s = g.svt(k);
+				valeur = TachesCritiques.lire(this.arriere, s) && g.getDatePlusTot(u) + g.ecartSvt(u, k) == g.getDatePlusTot(s);
+			}
+		}
+
+		if (valeur == TachesCritiques.lire(this.arriere, u)) return false;
+
+		TachesCritiques.ecrire(this.arriere, u, valeur);
+		return true;
+	}
+
+	/**
+	 * Recalcule « atteinte depuis Debut » d'une tâche d'après ses précédents
+	 *
+	 * @return true si la valeur a changé
+	 */
+	private boolean evaluerAvant(int u, int debut)
+	{
+		GrapheCompact g      = this.graphe;
+		boolean       valeur = false;
+
+		if (debut >= 0 && g.getDatePlusTot(u) == g.getDatePlusTard(u))
+		{
+			valeur = u == debut;
+			for (int k = g.debutPrc(u); k < g.finPrc(u) && !valeur; k++)
+			{
+				int p = g.prc(k);
+				valeur = TachesCritiques.lire(this.avant, p) && g.getDatePlusTot(p) + g.ecartPrc(u, k) == g.getDatePlusTot(u);
+			}
+		}
+
+		if (valeur == TachesCritiques.lire(this.avant, u)) return false;
+
+		TachesCritiques.ecrire(this.avant, u, valeur);
+		return true;
+	}
+
+	/**
+	 * Range une tâche dans le tas si elle n'y est pas déjà passée
+	 */
+	private void planifier(int id, long cle, int marque)
+	{
+		if (this.marques[id] == marque) return;
+
+		this.marques[id] = marque;
+		this.tas.ajouter(id, cle);
+	}
+
+	/**
+	 * Range dans le tas les tâches d'un seau qui n'y sont pas déjà passées
+	 *
+	 * @param sens 1 pour l'ordre des rangs, -1 pour l'ordre inverse
+	 */
+	private void planifier(Seau seau, int sens, int marque)
+	{
+		if (seau == null) return;
+
+		for (int i = 0; i < seau.nb; i++) this.planifier(seau.ids[i], sens * (long) this.graphe.getRang(seau.ids[i]), marque);
+	}
+
+	/**
+	 * Range toutes les tâches selon la fin de projet qui annulerait leur marge
+	 */
+	private void indexer()
+	{
+		this.parFin = new HashMap<>();
+		Arrays.fill(this.seaux, null);
+
+		for (int i = 0; i < this.graphe.getNbNoeuds(); i++) this.ranger(i);
+	}
+
+	/**
+	 * Range une tâche dans le seau de la fin de projet qui annulerait sa marge, si elle en change
+	 */
+	private void ranger(int id)
+	{
+		int fin = this.graphe.getDatePlusTot(id) - this.graphe.getTardRelatif(id);
+
+		if (this.seaux[id] != null)
+		{
+			if (this.seaux[id].fin == fin) return;
+			this.retirer(id);
+		}
+
+		Seau seau = this.parFin.get(fin);
+		if (seau == null) this.parFin.put(fin, seau = new Seau(fin));
+
+		if (seau.nb == seau.ids.length) seau.ids = Arrays.copyOf(seau.ids, seau.nb * 2);
+		seau.ids[seau.nb] = id;
+		this.seaux [id]   = seau;
+		this.places[id]   = seau.nb++;
+	}
+
+	/**
+	 * Retire une tâche de son seau : la dernière tâche du seau prend sa place
+	 */
+	private void retirer(int id)
+	{
+		Seau seau    = this.seaux[id];
+		int  dernier = seau.ids[--seau.nb];
+
+		seau.ids   [this.places[id]] = dernier;
+		this.places[dernier]         = this.places[id];
+		this.seaux [id]              = null;
+		if (seau.nb == 0) this.parFin.remove(seau.fin);
+	}
+
+	/**
+	 * Agrandit les tableaux indexés par identifiant pour n tâches
+	 */
+	private void agrandir(int n)
+	{
+		if (this.marques.length >= n) return;
+
+		this.marques = Arrays.copyOf(this.marques, Math.max(n, this.marques.length * 2));
+		this.seaux   = Arrays.copyOf(this.seaux,   this.marques.length);
+		this.places  = Arrays.copyOf(this.places,  this.marques.length);
+		this.avant   = Arrays.copyOf(this.avant,   Math.max((n + 63) >>> 6, this.avant.length * 2));
+		this.arriere = Arrays.copyOf(this.arriere, this.avant.length);
+	}
+
+	private static boolean lire(long[] bits, int id)
+	{
+		return (bits[id >>> 6] & (1L << id)) != 0;
+	}
+
+	private static void ecrire(long[] bits, int id, boolean valeur)
+	{
+		if (valeur) bits[id >>> 6] |=   1L << id;
+		else        bits[id >>> 6] &= ~(1L << id);
+	}
+
+	// ========== CLASSE INTERNE ==========
+
+	/**
+	 * Tâches dont la marge s'annulerait pour une même fin du projet
+	 */
+	private static final class Seau
+	{
+		final int fin;                 // Fin du projet qui annulerait leur marge
+		int[]     ids = new int[4];    // Identifiants des tâches
+		int       nb;                  // Nombre de tâches rangées
+
+		Seau(int fin) { this.fin = fin; }
+	}
+}
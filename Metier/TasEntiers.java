@@ -0,0 +1,111 @@
+package Metier;
+
+import java.util.Arrays;
+
+/**
+ * Classe TasEntiers - File de priorité d'entiers (tas binaire minimum)
+ * Chaque valeur est rangée avec une clé de type long ; extraire() rend la valeur
+ * de plus petite clé. Les tableaux sont réutilisés d'un usage à l'autre.
+ */
+public class TasEntiers
+{
+	// ========== ATTRIBUTS ==========
+
+	private int[]  valeurs;    // Valeurs rangées en tas
+	private long[] cles;       // Clé de chaque valeur
+	private int    taille;     // Nombre de valeurs dans le tas
+
+	// ========== CONSTRUCTEUR ==========
+
+	/**
+	 * Constructeur d'un tas vide
+	 *
+	 * @param capacite Nombre de valeurs prévu (le tas s'agrandit au besoin)
+	 */
+	public TasEntiers(int capacite)
+	{
+		capacite     = Math.max(capacite, 4);
+		this.valeurs = new int[capacite];
+		this.cles    = new long[capacite];
+		this.taille  = 0;
+	}
+
+	// ========== MÉTHODES D'ACCÈS ==========
+
+	public boolean estVide()   { return this.taille == 0; }
+
+	public int     getTaille() { return this.taille;      }
+
+	/**
+	 * @return La plus petite clé du tas, qui doit être non vide
+	 */
+	public long    getCleMin() { return this.cles[0];     }
+
+	/**
+	 * Vide le tas sans libérer ses tableaux
+	 */
+	public void    vider()     { this.taille = 0;         }
+
+	// ========== MÉTHODES DE GESTION ==========
+
+	/**
+	 * Ajoute une valeur dans le tas
+	 *
+	 * @param valeur La valeur à ranger
+	 * @param cle Sa priorité (la plus petite sort en premier)
+	 */
+	public void ajouter(int valeur, long cle)
+	{
+		if (this.taille == this.valeurs.length)
+		{
+			this.valeurs = Arrays.copyOf(this.valeurs, this.taille * 2);
+			this.cles    = Arrays.copyOf(this.cles,    this.taille * 2);
+		}
+
+		// Remontée de la nouvelle valeur
+		int i = this.taille++;
+		while (i > 0)
+		{
+			int parent = (i - 1) / 2;
+			if (this.cles[parent] <= cle) break;
+
+			this.valeurs[i] = this.valeurs[parent];
+			this.cles   [i] = this.cles   [parent];
+			i = parent;
+		}
+
+		this.valeurs[i] = valeur;
+		this.cles   [i] = cle;
+	}
+
+	/**
+	 * Retire et retourne la valeur de plus petite clé
+	 *
+	 * @return La valeur extraite, le tas doit être non vide
+	 */
+	public int extraire()
+	{
+		int  res     = this.valeurs[0];
+		int  dernier = this.valeurs[--this.taille];
+		long cle     = this.cles   [this.taille];
+
+		// Descente de la dernière valeur depuis la racine
+		int i = 0;
+		while (true)
+		{
+			int fils = 2 * i + 1;
+			if (fils >= this.taille) break;
+			if (fils + 1 < this.taille && this.cles[fils + 1] < this.cles[fils]) fils++;
+			if (this.cles[fils] >= cle) break;
+
+			this.valeurs[i] = this.valeurs[fils];
+			this.cles   [i] = this.cles   [fils];
+			i = fils;
+		}
+
+		this.valeurs[i] = dernier;
+		this.cles   [i] = cle;
+
+		return res;
+	}
+}
@@ -0,0 +1,572 @@
+package Metier;
+
+import Ihm.Graphe.MPMGrapheAuto;
+import exFinal.Controleur;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Classe Verification - Contrôles et mesures du moteur de planification, en ligne de commande
+ * Les contrôles confrontent les mises à jour locales à un calcul complet, ou un projet enregistré
+ * à sa relecture ; les mesures chronomètrent le chargement et l'affichage des gros projets. Rien
+ * n'est écrit pour un utilisateur : la planification en ligne de commande reste à exFinal.Batch.
+ * Une seule vérification est faite par lancement.
+ *
+ * Usage : java -cp Class Metier.Verification -controle n|-allerretour|-croissance n|-chargement n
+ *                                             [-date jj/mm/aaaa] [-graine n] fichier|dossier ...
+ */
+public class Verification
+{
+	// ========== CONSTANTES ==========
+
+	public  static final int    SORTIE_OK      = 0;    // Toutes les vérifications ont réussi
+	public  static final int    SORTIE_ERREURS = 1;    // Au moins un écart ou un projet illisible
+	public  static final int    SORTIE_USAGE   = 2;    // Arguments invalides
+
+	private static final String SEPARATEUR     = ";";
+	private static final int    LARGEUR_IMAGE  = 1600; // Image hors écran de la mesure de croissance
+	private static final int    HAUTEUR_IMAGE  = 1000;
+
+	// ========== ATTRIBUTS ==========
+
+	private String            dateDebut;        // Date de début imposée (null : celle du fichier)
+	private ArrayList<String> fichiers;         // Projets à vérifier
+	private long              graine;           // Graine des tirages
+	private int               nbControles;      // Modifications tirées par projet pour le contrôle (0 : pas de contrôle)
+	private boolean           allerRetour;      // Enregistrer chaque projet, le relire et comparer
+	private int               tailleCroissance; // Plus grand projet généré pour mesurer la croissance du chargement (0 : pas de mesure)
+	private int               filsChargement;   // Fils de lecture maximal pour mesurer le chargement parallèle (0 : pas de mesure)
+
+	private int               nbErreurs;        // Projets en écart ou en erreur
+
+	// ========== CONSTRUCTEUR ==========
+
+	public Verification()
+	{
+		this.fichiers = new ArrayList<>();
+	}
+
+	// ========== LECTURE DES ARGUMENTS ==========
+
+	/**
+	 * Lit les arguments de la ligne de commande
+	 * @param args les arguments
+	 * @return null si les arguments sont valides, le message d'erreur sinon
+	 */
+	public String lireArguments(String[] args)
+	{
+		for (int i = 0; i < args.length; i++)
+		{
+			String arg = args[i];
+
+			if (arg.startsWith("-") && !arg.equals("-allerretour") && i + 1 >= args.length)
+				return "Valeur manquante après " + arg;
+
+			switch (arg)
+			{
+				case "-date"        -> this.dateDebut        = args[++i];
+				case "-graine"      -> this.graine           = Verification.lireEntier(args[++i]);
+				case "-controle"    -> this.nbControles      = Verification.lireEntier(args[++i]);
+				case "-allerretour" -> this.allerRetour      = true;
+				case "-croissance"  -> this.tailleCroissance = Verification.lireEntier(args[++i]);
+				case "-chargement"  -> this.filsChargement   = Verification.lireEntier(args[++i]);
+				default ->
+				{
+					if (arg.startsWith("-")) return "Option inconnue : " + arg;
+
+					String erreur = this.ajouterFichiers(arg);
+					if (erreur != null) return erreur;
+				}
+			}
+		}
+
+		int nbModes = (this.nbControles      != 0 ? 1 : 0) + (this.allerRetour         ? 1 : 0)
+		            + (this.tailleCroissance != 0 ? 1 : 0) + (this.filsChargement != 0 ? 1 : 0);
+		if (nbModes != 1) return "Une vérification et une seule : -controle, -allerretour, -croissance ou -chargement";
+
+		if (this.dateDebut != null && (this.dateDebut.length() != 10 || !new Calendrier(this.dateDebut).estValide()))
+			return "Date de début invalide : " + this.dateDebut;
+
+		if (this.graine < 0)      return "Graine invalide";
+		if (this.nbControles < 0) return "Nombre de contrôles invalide";
+		if (this.tailleCroissance < 0 || (this.tailleCroissance > 0 && this.tailleCroissance < 8))
+			return "Taille de projet invalide pour la mesure de croissance (au moins 8 tâches)";
+		if (this.filsChargement < 0) return "Nombre de fils de lecture invalide";
+
+		if (this.fichiers.isEmpty() && this.tailleCroissance == 0) return "Aucun fichier de projet";
+
+		return null;
+	}
+
+	/**
+	 * Ajoute les projets désignés par un argument : un fichier ou les projets d'un dossier
+	 */
+	private String ajouterFichiers(String arg)
+	{
+		if (!Files.isDirectory(Paths.get(arg)))
+		{
+			this.fichiers.add(arg);
+			return null;
+		}
+
+		try (Stream<Path> contenu = Files.list(Paths.get(arg)))
+		{
+			contenu.map(Path::toString)
+			       .filter(p -> p.endsWith(".txt") || p.endsWith(".data") || p.endsWith(".mpmb"))
+			       .sorted()
+			       .forEach(this.fichiers::add);
+		}
+		catch (IOException e)
+		{
+			return "Lecture impossible de " + arg + " : " + e.getMessage();
+		}
+		return null;
+	}
+
+	private static int lireEntier(String s)
+	{
+		try
+		{
+			return Integer.parseInt(s);
+		}
+		catch (NumberFormatException e)
+		{
+			return -1;
+		}
+	}
+
+	/**
+	 * Lance la vérification demandée
+	 * @return le code de sortie
+	 * @throws IOException si un fichier temporaire ne peut pas être écrit
+	 */
+	public int executer() throws IOException
+	{
+		if (this.nbControles      > 0) return this.controler();
+		if (this.allerRetour         ) return this.verifierAllerRetour();
+		if (this.tailleCroissance > 0) return this.mesurerCroissance();
+
+		return this.mesurerChargement();
+	}
+
+	// ========== CONTRÔLE DES MISES À JOUR LOCALES ==========
+
+	/**
+	 * Tire nbControles modifications par projet et, après chacune, compare les tâches critiques
+	 * tenues à jour localement et le planning publié à un calcul complet (voir Mpm.controlerCritiques)
+	 * Un tiers des tirages ajoute une tâche entre 0 à 3 précédents et 0 à 3 suivants tirés, parfois
+	 * par un lien typé : l'ajout passe par valeursValides comme dans l'IHM, et un ajout qui créerait
+	 * un cycle est compté comme refusé. Un tiers supprime une tâche, le reste change une durée.
+	 * Les tirages dépendent de la graine : un écart se reproduit à l'identique.
+	 *
+	 * @return le code de sortie
+	 */
+	public int controler()
+	{
+		System.out.println("fichier;modifications;ajouts;refus;suppressions;durees;ecarts");
+
+		for (String fichier : this.fichiers)
+		{
+			Mpm mpm = Verification.charger(fichier, this.dateDebut);
+			if (mpm == null || mpm.getErreur() != null || mpm.getTaches().size() <= 2)
+			{
+				this.nbErreurs++;
+				System.err.println(fichier + " : " + (mpm == null ? "fichier non reconnu" : mpm.getErreur()));
+				continue;
+			}
+
+			Random rnd       = new Random(this.graine);
+			int[]  nbParType = new int[4];   // Ajouts, refus, suppressions et changements de durée
+			int    ecarts    = 0;
+
+			for (int i = 0; i < this.nbControles; i++)
+			{
+				ArrayList<Tache> taches = mpm.getTaches();
+				int              choix  = rnd.nextInt(3);
+
+				if (choix == 0)
+				{
+					String nom   = "controle" + i;
+					String duree = Integer.toString(1 + rnd.nextInt(20));
+					String prc   = Verification.tirerVoisins(taches, rnd, "Fin");
+					String svt   = Verification.tirerVoisins(taches, rnd, "Debut");
+
+					if (!mpm.valeursValides(nom, duree, prc, svt))
+					{
+						nbParType[1]++;
+						continue;
+					}
+					mpm.ajouterTache(nom, prc, svt, Integer.parseInt(duree));
+					nbParType[0]++;
+				}
+				else
+				{
+					Tache t = taches.get(rnd.nextInt(taches.size()));
+					if (t.getNom().equals("Debut") || t.getNom().equals("Fin")) continue;
+
+					if (choix == 1) mpm.supprimerTache(t.getNom());
+					else            mpm.setDure(1 + rnd.nextInt(2 * t.getDuree() + 1), t);
+
+					nbParType[choix + 1]++;
+				}
+
+				String ecart = mpm.controlerCritiques();
+				if (ecart != null)
+				{
+					ecarts++;
+					System.err.println(fichier + " : écart sur " + ecart + " après la modification " + (i + 1));
+				}
+			}
+
+			if (ecarts > 0) this.nbErreurs++;
+			System.out.println(fichier + SEPARATEUR + this.nbControles + SEPARATEUR + nbParType[0] + SEPARATEUR + nbParType[1]
+			                   + SEPARATEUR + nbParType[2] + SEPARATEUR + nbParType[3] + SEPARATEUR + ecarts);
+		}
+
+		return this.nbErreurs == 0 ? SORTIE_OK : SORTIE_ERREURS;
+	}
+
+	/**
+	 * Tire de 0 à 3 voisins distincts pour une tâche ajoutée, écrits comme dans la saisie :
+	 * noms séparés par des virgules, un sur quatre suivi d'un lien typé (voir Lien)
+	 *
+	 * @param exclue La tâche qui ne peut pas être voisine ("Fin" pour un précédent, "Debut" pour un suivant)
+	 */
+	private static String tirerVoisins(ArrayList<Tache> taches, Random rnd, String exclue)
+	{
+		StringBuilder     voisins = new StringBuilder();
+		ArrayList<String> tires   = new ArrayList<>();
+		int               nb      = rnd.nextInt(4);
+
+		for (int k = 0; k < nb; k++)
+		{
+			String nom = taches.get(rnd.nextInt(taches.size())).getNom();
+			if (nom.equals(exclue) || nom.equals("Debut") || nom.equals("Fin") || tires.contains(nom)) continue;
+
+			tires.add(nom);
+			if (voisins.length() > 0) voisins.append(',');
+			voisins.append(nom);
+			if (rnd.nextInt(4) == 0) voisins.append(Lien.SEPARATEUR).append(new Lien((byte) rnd.nextInt(4), rnd.nextInt(7) - 2));
+		}
+
+		return voisins.toString();
+	}
+
+	// ========== CONTRÔLE DES ENREGISTREMENTS ==========
+
+	/**
+	 * Enregistre chaque projet au format texte et en instantané binaire, relit les deux copies
+	 * et compare leur planning à celui du projet d'origine (voir Mpm.comparerPlanning)
+	 * Le format texte n'écrit pas les liens vers "Debut" et "Fin", recréés à la lecture : un
+	 * instantané modifié depuis son chargement peut en garder d'autres. Pour un projet lu dans un
+	 * instantané, la copie texte est donc comparée à sa propre copie texte relue.
+	 * Les copies sont écrites dans un dossier temporaire, supprimé à la fin.
+	 *
+	 * @return le code de sortie
+	 * @throws IOException si le dossier temporaire ne peut pas être créé
+	 */
+	public int verifierAllerRetour() throws IOException
+	{
+		Path dossier    = Files.createTempDirectory("allerretour");
+		Path texte      = dossier.resolve("projet.data");
+		Path instantane = dossier.resolve("projet.mpmb");
+
+		System.out.println("fichier;texte;instantane");
+
+		try
+		{
+			for (String fichier : this.fichiers)
+			{
+				Mpm mpm = Verification.charger(fichier, this.dateDebut);
+				if (mpm == null || mpm.getErreur() != null)
+				{
+					this.nbErreurs++;
+					System.err.println(fichier + " : " + (mpm == null ? "fichier non reconnu" : mpm.getErreur()));
+					continue;
+				}
+
+				Mpm reference = mpm;
+				if (Instantane.estInstantane(fichier))
+					reference = mpm.enregistrer(texte.toString(), new HashMap<>())
+					            ? Verification.charger(texte.toString(), mpm.getDateDebut()) : null;
+
+				String ecartTexte      = reference == null || reference.getErreur() != null ? "relecture impossible"
+				                         : reference.enregistrer(texte.toString(), new HashMap<>())
+				                         ? Verification.comparerCopie(reference, texte) : "écriture impossible";
+				String ecartInstantane = mpm.enregistrerInstantane(instantane.toString(), new HashMap<>())
+				                         ? Verification.comparerCopie(mpm, instantane)  : "écriture impossible";
+
+				if (ecartTexte != null || ecartInstantane != null) this.nbErreurs++;
+				System.out.println(fichier + SEPARATEUR + (ecartTexte      == null ? "identique" : ecartTexte)
+				                           + SEPARATEUR + (ecartInstantane == null ? "identique" : ecartInstantane));
+			}
+		}
+		finally
+		{
+			Files.deleteIfExists(texte);
+			Files.deleteIfExists(instantane);
+			Files.deleteIfExists(dossier);
+		}
+
+		return this.nbErreurs == 0 ? SORTIE_OK : SORTIE_ERREURS;
+	}
+
+	/**
+	 * Relit la copie enregistrée d'un projet et la compare au projet d'origine
+	 * @return null si les plannings concordent, la description de l'écart sinon
+	 */
+	private static String comparerCopie(Mpm mpm, Path copie)
+	{
+		Mpm relu = Verification.charger(copie.toString(), mpm.getDateDebut());
+		if (relu == null || relu.getErreur() != null) return "relecture impossible";
+
+		String ecart = mpm.comparerPlanning(relu);
+		return ecart == null ? null : "écart sur " + ecart;
+	}
+
+	// ========== MESURE DE LA CROISSANCE DU CHARGEMENT ==========
+
+	/**
+	 * Génère des projets de tailleCroissance/8, /4, /2 et tailleCroissance tâches, sans positions
+	 * enregistrées, puis mesure pour chacun le chargement planifié, la mise en page automatique du
+	 * graphe (MPMGrapheAuto et CreerGraphe, comme à l'ouverture dans l'IHM) et son dessin complet
+	 * dans une image hors écran, en mode date avec toutes les étapes affichées.
+	 * Un temps par tâche à peu près constant d'une taille à l'autre montre une croissance linéaire.
+	 * La meilleure de trois passes est retenue, après une passe de mise en régime.
+	 *
+	 * @return le code de sortie
+	 * @throws IOException si les projets ne peuvent pas être écrits
+	 */
+	public int mesurerCroissance() throws IOException
+	{
+		Path   dossier = Files.createTempDirectory("croissance");
+		Random rnd     = new Random(this.graine);
+		Path[] projets = new Path[4];
+
+		try
+		{
+			for (int k = 0; k < projets.length; k++)
+			{
+				projets[k] = dossier.resolve("projet" + k + ".data");
+				Verification.genererProjet(projets[k], this.tailleCroissance >> (projets.length - 1 - k), rnd);
+			}
+
+			Verification.mesurerProjet(projets[projets.length - 1].toString(), this.dateDebut);
+
+			System.out.println("taches;chargement_ms;mise_en_page_ms;affichage_ms;ns_par_tache;rapport");
+
+			double reference = 0;
+			for (Path projet : projets)
+			{
+				long[] meilleur = null;
+				for (int passe = 0; passe < 3; passe++)
+				{
+					long[] mesure = Verification.mesurerProjet(projet.toString(), this.dateDebut);
+					if (mesure == null)
+					{
+						System.err.println(projet + " : chargement impossible");
+						return SORTIE_ERREURS;
+					}
+					if (meilleur == null || mesure[0] + mesure[1] + mesure[2] < meilleur[0] + meilleur[1] + meilleur[2]) meilleur = mesure;
+				}
+
+				double parTache = (double) (meilleur[0] + meilleur[1] + meilleur[2]) / meilleur[3];
+				if (reference == 0) reference = parTache;
+
+				System.out.println(meilleur[3] + SEPARATEUR + String.format("%.1f", meilleur[0] / 1e6) + SEPARATEUR
+				                   + String.format("%.1f", meilleur[1] / 1e6) + SEPARATEUR
+				                   + String.format("%.1f", meilleur[2] / 1e6) + SEPARATEUR
+				                   + String.format("%.0f", parTache) + SEPARATEUR + String.format("%.2f", parTache / reference));
+			}
+		}
+		finally
+		{
+			for (Path projet : projets) if (projet != null) Files.deleteIfExists(projet);
+			Files.deleteIfExists(dossier);
+		}
+
+		return SORTIE_OK;
+	}
+
+	/**
+	 * Charge et planifie un projet, construit son graphe sans fenêtre puis le dessine hors écran
+	 * Le dessin parcourt tous les nœuds et arcs ; seule la partie visible de l'image est remplie.
+	 * @return durées du chargement, de la mise en page et du dessin en ns et nombre de tâches,
+	 *         null si le chargement échoue
+	 */
+	private static long[] mesurerProjet(String fichier, String dateDebut)
+	{
+		long debut  = System.nanoTime();
+		Mpm  mpm    = Verification.charger(fichier, dateDebut);
+		long charge = System.nanoTime();
+
+		if (mpm == null || mpm.getErreur() != null) return null;
+
+		MPMGrapheAuto graphe = new MPMGrapheAuto(new Controleur(mpm));
+		long          place  = System.nanoTime();
+
+		// Toutes les dates affichées, en libellés calendaires, chemin critique en surbrillance
+		graphe.setEnDate();
+		while (graphe.AugmenterEtapePlusTotMax());
+		while (graphe.AugmenterEtapePlusTarMax());
+		graphe.activerChemin();
+		graphe.setSize(LARGEUR_IMAGE, HAUTEUR_IMAGE);
+
+		BufferedImage image  = new BufferedImage(LARGEUR_IMAGE, HAUTEUR_IMAGE, BufferedImage.TYPE_INT_RGB);
+		Graphics2D    g      = image.createGraphics();
+		long          dessin = System.nanoTime();
+
+		graphe.paint(g);
+		long fin = System.nanoTime();
+		g.dispose();
+
+		return new long[] { charge - debut, place - charge, fin - dessin, mpm.getPlanning().getNbTaches() };
+	}
+
+	/**
+	 * Écrit un projet aléatoire au format texte : chaque tâche dépend de 0 à 3 tâches distinctes
+	 * parmi les 300 qui la précèdent, comme un projet découpé en lots successifs
+	 */
+	private static void genererProjet(Path fichier, int nbTaches, Random rnd) throws IOException
+	{
+		try (BufferedWriter out = Files.newBufferedWriter(fichier, StandardCharsets.UTF_8))
+		{
+			for (int i = 0; i < nbTaches; i++)
+			{
+				out.write("T" + i + "|" + (1 + rnd.nextInt(20)) + "|");
+
+				int precedent = i;
+				int nb        = rnd.nextInt(4);
+				for (int k = 0; k < nb && precedent > 0; k++)
+				{
+					precedent -= 1 + rnd.nextInt(Math.min(precedent, 300));
+					out.write((k == 0 ? "" : ",") + "T" + precedent);
+				}
+				out.write('\n');
+			}
+		}
+	}
+
+	// ========== MESURE DU CHARGEMENT PARALLÈLE ==========
+
+	/**
+	 * Lit chaque projet avec 1, 2, 4... fils jusqu'à filsChargement (voir ChargeurProjet), sans le
+	 * planifier, et affiche le débit de lecture et l'accélération par rapport à un seul fil.
+	 * La meilleure de trois lectures est retenue, après une lecture de mise en régime. Un fichier
+	 * plus petit que le seuil du mode parallèle est lu d'un seul fil quel que soit leur nombre.
+	 *
+	 * @return le code de sortie
+	 */
+	public int mesurerChargement()
+	{
+		System.out.println("fichier;fils;lecture_ms;mo_par_s;acceleration");
+
+		for (String fichier : this.fichiers)
+		{
+			String type = Mpm.determineFichier(fichier);
+			if (type == null || Instantane.estInstantane(fichier))
+			{
+				this.nbErreurs++;
+				System.err.println(fichier + " : fichier texte de projet attendu");
+				continue;
+			}
+
+			double reference = 0;
+			try
+			{
+				double mo = Files.size(Paths.get(fichier)) / 1e6;
+
+				Verification.lire(fichier, type.equals("pos"), this.filsChargement);
+
+				for (int fils = 1; ; fils = Math.min(fils * 2, this.filsChargement))
+				{
+					long meilleur = Long.MAX_VALUE;
+					for (int passe = 0; passe < 3; passe++) meilleur = Math.min(meilleur, Verification.lire(fichier, type.equals("pos"), fils));
+
+					double secondes = meilleur / 1e9;
+					if (fils == 1) reference = secondes;
+
+					System.out.println(fichier + SEPARATEUR + fils + SEPARATEUR + String.format("%.1f", secondes * 1000)
+					                   + SEPARATEUR + String.format("%.1f", mo / secondes)
+					                   + SEPARATEUR + String.format("%.2f", reference / secondes));
+
+					if (fils == this.filsChargement) break;
+				}
+			}
+			catch (IOException e)
+			{
+				this.nbErreurs++;
+				System.err.println(fichier + " : " + e.getMessage());
+			}
+		}
+
+		return this.nbErreurs == 0 ? SORTIE_OK : SORTIE_ERREURS;
+	}
+
+	/**
+	 * Lit un projet avec un nombre de fils donné
+	 * @return la durée de la lecture en ns
+	 */
+	private static long lire(String fichier, boolean estPosition, int fils) throws IOException
+	{
+		long debut = System.nanoTime();
+		new ChargeurProjet(estPosition, fils).charger(fichier);
+		return System.nanoTime() - debut;
+	}
+
+	// ========== MÉTHODES UTILITAIRES ==========
+
+	/**
+	 * Charge et planifie un projet : lecture, tri topologique, dates et réseau critique
+	 * @return le projet planifié (vide avec un message d'erreur si la lecture échoue), null si le format est inconnu
+	 */
+	private static Mpm charger(String fichier, String dateDebut)
+	{
+		String type = Mpm.determineFichier(fichier);
+		if (type == null) return null;
+
+		Mpm mpm = new Mpm(fichier, dateDebut, type.equals("pos"));
+		mpm.getReseauCritique();
+		return mpm;
+	}
+
+	// ========== MAIN ==========
+
+	public static void main(String[] args) throws IOException
+	{
+		// Le graphe de la mesure de croissance est dessiné sans écran
+		System.setProperty("java.awt.headless", "true");
+
+		// Résultats et messages en UTF-8, quelle que soit la locale
+		System.setOut(new PrintStream(new FileOutputStream(FileDescriptor.out), true, StandardCharsets.UTF_8));
+		System.setErr(new PrintStream(new FileOutputStream(FileDescriptor.err), true, StandardCharsets.UTF_8));
+
+		Verification verification = new Verification();
+		String       erreur       = verification.lireArguments(args);
+
+		if (erreur != null)
+		{
+			System.err.println(erreur);
+			System.err.println("Usage : Metier.Verification -controle modifications [-graine n] [-date jj/mm/aaaa] fichier|dossier ...");
+			System.err.println("        Metier.Verification -allerretour [-date jj/mm/aaaa] fichier|dossier ...");
+			System.err.println("        Metier.Verification -croissance taches [-graine n]");
+			System.err.println("        Metier.Verification -chargement fils fichier ...");
+			System.exit(SORTIE_USAGE);
+		}
+
+		System.exit(verification.executer());
+	}
+}
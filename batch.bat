@@ -0,0 +1,17 @@
+@echo off
+
+setlocal EnableDelayedExpansion
+REM Planification sans interface graphique : batch.bat [options] fichier|dossier|@liste|- ...
+
+REM Compilation seulement si le projet n'a pas encore été compilé
+if not exist Class\exFinal\Batch.class (
+    echo Compilation du projet exFinal... 1>&2
+    javac "@Compile.list" -d ./Class
+    if !ERRORLEVEL! NEQ 0 (
+        echo Erreur de compilation! 1>&2
+        exit /b 2
+    )
+)
+
+java -Djava.awt.headless=true -cp ./Class exFinal.Batch %*
+exit /b !ERRORLEVEL!
@@ -0,0 +1,10 @@
+# Planification sans interface graphique : ./batch.sh [options] fichier|dossier|@liste|- ...
+# Les messages vont sur la sortie d'erreur, les résultats sur la sortie standard.
+
+# Compilation seulement si le projet n'a pas encore été compilé
+if [ ! -f ./Class/exFinal/Batch.class ]; then
+    echo "Compilation du projet exFinal..." >&2
+    javac "@Compile.list" -d ./Class || { echo "Erreur de compilation!" >&2; exit 2; }
+fi
+
+exec java -Djava.awt.headless=true -cp ./Class exFinal.Batch "$@"